@@ -1,7 +1,15 @@
 package it.polimi.ingsw;
 
+import it.polimi.ingsw.network.server.GameReaper;
+import it.polimi.ingsw.network.server.NioSocketServer;
 import it.polimi.ingsw.network.server.Server;
 import it.polimi.ingsw.network.server.SocketServer;
+import it.polimi.ingsw.utils.Constants;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * This class contains a {@code main} method that launches the Eriantys' server, so that clients can connect to it and
@@ -12,13 +20,75 @@ public class ServerMain {
 
     /**
      * Launches the Eriantys' server. Its socket will listen on the device's IP at the default port "12345".
+     * The connection mode can be chosen with the first argument: "blocking" (default) starts a thread for every
+     * client, "virtual" does the same with virtual threads, while "nio" serves all the clients with a few
+     * non-blocking reactor threads.
+     * The limits of the clients' outbound queues can be changed through the {@code eriantys.outbound.high},
+     * {@code eriantys.outbound.low} and {@code eriantys.outbound.timeout} system properties, while the heartbeat
+     * can be tuned through {@code eriantys.heartbeat.interval} and {@code eriantys.heartbeat.timeout}.
+     * The games are journaled in the directory given by {@code eriantys.journal.dir} ("journal" by default), and
+     * rebuilt from there when the server is restarted; {@code eriantys.journal.force} sets how often, in
+     * milliseconds, the journals are forced to the disk, and {@code eriantys.snapshot.rounds} how many rounds pass
+     * between two snapshots of a game. The games nothing happens to for {@code eriantys.hibernate.idle}
+     * milliseconds are moved out of the heap until their next message, and closed after
+     * {@code eriantys.ttl.empty} (lobbies with nobody left), {@code eriantys.ttl.lobby}, {@code eriantys.ttl.game}
+     * or {@code eriantys.ttl.recovered} (games rebuilt after a restart, waiting for their players) milliseconds.
+     * The metrics of the server are published through JMX and written to the file given by
+     * {@code eriantys.metrics.file} ("metrics.txt" by default) every {@code eriantys.metrics.interval} milliseconds,
+     * and once more when the server shuts down.
      *
-     * @param args default argument.
+     * @param args the optional connection mode.
      */
 
     public static void main(String[] args) {
-        Server server = new Server();
-        SocketServer socketServer = new SocketServer(server, 12345);
-        socketServer.run();
+        Server server = new Server(
+                Integer.getInteger("eriantys.outbound.max", Constants.OUTBOUND_HARD_LIMIT),
+                Integer.getInteger("eriantys.outbound.high", Constants.OUTBOUND_HIGH_WATERMARK),
+                Integer.getInteger("eriantys.outbound.low", Constants.OUTBOUND_LOW_WATERMARK),
+                Long.getLong("eriantys.outbound.timeout", Constants.SLOW_CONSUMER_TIMEOUT));
+        server.startHeartbeat(Long.getLong("eriantys.heartbeat.interval", Constants.HEARTBEAT_INTERVAL),
+                Long.getLong("eriantys.heartbeat.timeout", Constants.CONNECTION_TIMEOUT_SERVER));
+        server.startHibernation(Long.getLong("eriantys.hibernate.idle", Constants.HIBERNATION_IDLE_TIME));
+        server.startReaper(new GameReaper(Constants.REAPER_TICK,
+                Long.getLong("eriantys.ttl.empty", Constants.EMPTY_LOBBY_LIFETIME),
+                Long.getLong("eriantys.ttl.lobby", Constants.LOBBY_LIFETIME),
+                Long.getLong("eriantys.ttl.game", Constants.GAME_LIFETIME),
+                Long.getLong("eriantys.ttl.recovered", Constants.RECOVERED_GAME_LIFETIME)));
+        server.startMetrics(Path.of(System.getProperty("eriantys.metrics.file", "metrics.txt")),
+                Long.getLong("eriantys.metrics.interval", Constants.METRICS_DUMP_INTERVAL));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stopMetrics, "metrics_shutdown"));
+        try {
+            server.enableJournal(Path.of(System.getProperty("eriantys.journal.dir", "journal")),
+                    Long.getLong("eriantys.journal.force", Constants.JOURNAL_FORCE_INTERVAL),
+                    Integer.getInteger("eriantys.snapshot.rounds", Constants.SNAPSHOT_ROUNDS));
+        } catch (IOException e) {
+            Server.LOGGER.severe("Cannot read the journals, the games will not be recovered.\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        String mode = args.length > 0 ? args[0].toLowerCase() : "blocking";
+        switch (mode) {
+            case "nio" -> {
+                NioSocketServer nioSocketServer =
+                        new NioSocketServer(server, 12345, Runtime.getRuntime().availableProcessors());
+                nioSocketServer.run();
+            }
+            case "virtual" -> {
+                ExecutorService executor = SocketServer.newVirtualThreadExecutor();
+                SocketServer socketServer = new SocketServer(server, 12345, executor);
+                // virtual threads do not keep the JVM alive, so the main thread waits for the accept loop
+                try {
+                    executor.submit(socketServer).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Server.LOGGER.severe("Server stopped.\n" + e.getCause().getClass().getSimpleName() + ": " +
+                            e.getCause().getMessage());
+                }
+            }
+            default -> {
+                SocketServer socketServer = new SocketServer(server, 12345);
+                socketServer.run();
+            }
+        }
     }
 }
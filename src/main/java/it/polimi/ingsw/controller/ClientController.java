@@ -1,5 +1,7 @@
 package it.polimi.ingsw.controller;
 
+import it.polimi.ingsw.exceptions.IslandNotFoundException;
+import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.network.client.Client;
 import it.polimi.ingsw.network.client.SocketClient;
 import it.polimi.ingsw.network.message.*;
@@ -27,7 +29,10 @@ public class ClientController implements ViewObserver, Observer {
     private Client client;
     private String nickname;
     private ExecutorService taskQueue;
-    private final ScheduledExecutorService pinger;
+    private final ScheduledExecutorService heartbeatChecker;
+    private Game localGame;
+    private long localVersion;
+    private boolean resyncRequested;
 
     /**
      * Client controller constructor.
@@ -38,7 +43,7 @@ public class ClientController implements ViewObserver, Observer {
     public ClientController(View view) {
         this.view = view;
         this.taskQueue = Executors.newSingleThreadExecutor();
-        this.pinger = Executors.newSingleThreadScheduledExecutor();
+        this.heartbeatChecker = Executors.newSingleThreadScheduledExecutor();
     }
 
     /**
@@ -53,7 +58,7 @@ public class ClientController implements ViewObserver, Observer {
     public void onUpdateServerData(String address, int port) {
         try {
             client = new SocketClient(address, port);
-            pinger.scheduleAtFixedRate(this::isReachable, 0, 1000, TimeUnit.MILLISECONDS);
+            heartbeatChecker.scheduleAtFixedRate(this::isReachable, 1000, 1000, TimeUnit.MILLISECONDS);
             ((SocketClient) client).setReadExecutionQueue(Executors.newSingleThreadExecutor());
             client.addObserver(this);
             client.readMessage();
@@ -67,7 +72,7 @@ public class ClientController implements ViewObserver, Observer {
     }
 
     /**
-     * Sends to the server a login request with the chosen nickname.
+     * Sends to the server a login request with the chosen nickname, asking to switch to the binary protocol.
      *
      * @param nickname the nickname the client wants to (try to) login with.
      */
@@ -75,7 +80,7 @@ public class ClientController implements ViewObserver, Observer {
     @Override
     public void onUpdateNickname(String nickname) {
         this.nickname = nickname;
-        client.sendMessage(new LoginRequest(this.nickname));
+        client.sendMessage(new LoginRequest(this.nickname, true));
         taskQueue.execute(() -> view.setNickname(nickname));
     }
 
@@ -300,7 +305,15 @@ public class ClientController implements ViewObserver, Observer {
                 taskQueue.execute(() -> view.showGameStatusFirstActionPhase(((GameStatusFirstActionPhaseMessage) message).getGame()));
                 break;
             case GAME_STATUS:
-                taskQueue.execute(() -> view.showGameStatus(((GameStatusMessage) message).getGame()));
+                taskQueue.execute(() -> {
+                    localGame = ((GameStatusMessage) message).getGame();
+                    localVersion = ((GameStatusMessage) message).getVersion();
+                    resyncRequested = false;
+                    view.showGameStatus(localGame);
+                });
+                break;
+            case GAME_DELTA:
+                taskQueue.execute(() -> applyGameDelta((GameDeltaMessage) message));
                 break;
             case SHOW_DECK_MESSAGE:
                 taskQueue.execute(() -> view.showDeck(((ShowDeckMessage) message).getGame()));
@@ -330,6 +343,49 @@ public class ClientController implements ViewObserver, Observer {
         }
     }
 
+    /**
+     * Applies the changes sent by the server to the local copy of the game, then shows the requested view of it.
+     * If the local copy is missing or is not the version the changes are based on, the whole game is asked again.
+     * Runs on the task queue, like the views it feeds.
+     *
+     * @param message the message containing the changes.
+     */
+
+    private void applyGameDelta(GameDeltaMessage message){
+        if(localGame == null || message.getBaseVersion() != localVersion){
+            requestResync();
+            return;
+        }
+        try {
+            message.getDelta().applyTo(localGame);
+        } catch (IslandNotFoundException | RuntimeException e) {
+            requestResync();
+            return;
+        }
+        localVersion = message.getVersion();
+        if(message.getDisplay() != null) {
+            switch (message.getDisplay()) {
+                case GAME_STATUS -> view.showGameStatus(localGame);
+                case GAME_STATUS_FIRST_ACTION_PHASE -> view.showGameStatusFirstActionPhase(localGame);
+                case SHOW_DECK_MESSAGE -> view.showDeck(localGame);
+                default -> {//should never be reached
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the local copy of the game and asks the server for the whole game, unless it has already been asked.
+     */
+
+    private void requestResync(){
+        localGame = null;
+        if(!resyncRequested) {
+            resyncRequested = true;
+            client.sendMessage(new ResyncRequest(nickname));
+        }
+    }
+
     /**
      * Checks if the given string is a valid IPv4 address by using a regex.
      *
@@ -360,24 +416,19 @@ public class ClientController implements ViewObserver, Observer {
     }
 
     /**
-     * Checks if the server is reachable. If it isn't, displays a message and closes the app.
+     * Checks if the server is reachable, i.e. if it has sent anything (at least its periodic pings) recently.
+     * If it hasn't, displays a message and closes the app.
      */
 
     public void isReachable(){
-        try{
-            boolean reachable;
-            reachable = ((SocketClient) client).getSocket().getInetAddress().isReachable(Constants.CONNECTION_TIMEOUT_CLIENT);
-            if(!reachable){
-                view.showGenericMessage("The server is no more reachable. Please restart the app and try again.");
-                client.disconnect();
-                pinger.shutdownNow();
-                taskQueue.shutdownNow();
-                Thread.currentThread().interrupt();
-                System.exit(0);
-            }
-        }
-        catch(IOException e){
-            throw new RuntimeException(e);
+        boolean reachable = System.currentTimeMillis() - client.getLastSeen() <= Constants.CONNECTION_TIMEOUT_CLIENT;
+        if(!reachable){
+            view.showGenericMessage("The server is no more reachable. Please restart the app and try again.");
+            client.disconnect();
+            heartbeatChecker.shutdownNow();
+            taskQueue.shutdownNow();
+            Thread.currentThread().interrupt();
+            System.exit(0);
         }
     }
 
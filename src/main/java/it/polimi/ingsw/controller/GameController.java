@@ -2,13 +2,25 @@ package it.polimi.ingsw.controller;
 
 import it.polimi.ingsw.exceptions.*;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.rules.MatchState;
+import it.polimi.ingsw.model.rules.Rules;
 import it.polimi.ingsw.network.server.Server;
+import it.polimi.ingsw.network.server.ServerMetrics;
 import it.polimi.ingsw.network.message.*;
 import it.polimi.ingsw.utils.Constants;
 import it.polimi.ingsw.view.VirtualView;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static it.polimi.ingsw.network.server.Server.LOGGER;
 
@@ -30,7 +42,11 @@ public class GameController implements Serializable {
     protected static final String INVALID_STATE = "Invalid game state.";
     protected static final String END_STATE = "The game has ended, the winner is: ";
     private final List<String> gameQueue;
-    private final transient Map<String, VirtualView> virtualViewMap;
+    private transient Map<String, VirtualView> virtualViewMap;
+    private transient GameImage sentImage;
+    private transient ByteBuffer hibernatedGame; // the game, encoded off-heap, while the controller is hibernated
+    private transient ServerMetrics metrics; // the metrics of the server running the game, null if there is none
+    private long stateVersion;
 
     /**
      * Game controller constructor.
@@ -45,6 +61,132 @@ public class GameController implements Serializable {
         this.gameQueue = new ArrayList<>();
         this.gameState = GameState.SETUP;
         this.virtualViewMap = Collections.synchronizedMap(new HashMap<>());
+        this.sentImage = null;
+        this.stateVersion = 0;
+    }
+
+    /**
+     * Copy constructor: copies the game (see {@link Game#copy()}) and the state of the turn, but not the views, which
+     * belong to the connections of the players.
+     *
+     * @param other the {@link GameController} to copy.
+     */
+
+    protected GameController(GameController other){
+        this.game = other.game == null ? null : other.game.copy();
+        this.gameControllerID = other.gameControllerID;
+        this.playerPlanningPhaseDone = other.playerPlanningPhaseDone;
+        this.planningPhaseDone = other.planningPhaseDone;
+        this.playerActionPhaseDone = other.playerActionPhaseDone;
+        this.currentPlayerIndex = other.currentPlayerIndex;
+        this.movesLeft = other.movesLeft;
+        this.motherNatureMoved = other.motherNatureMoved;
+        this.gameState = other.gameState;
+        this.gameQueue = new ArrayList<>(other.gameQueue);
+        this.virtualViewMap = Collections.synchronizedMap(new HashMap<>());
+        this.sentImage = null;
+        this.stateVersion = other.stateVersion;
+    }
+
+    /**
+     * Returns a copy of the controller, with no views, which can be saved while the game goes on.
+     *
+     * @return the copy of the controller.
+     */
+
+    public GameController copy(){
+        return new GameController(this);
+    }
+
+    /**
+     * Restores the views map of a deserialized controller, since the views are not serialized.
+     *
+     * @param in the stream the controller is read from.
+     * @throws IOException if the controller cannot be read.
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found.
+     */
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.virtualViewMap = Collections.synchronizedMap(new HashMap<>());
+    }
+
+    /**
+     * Moves the game out of the heap while nobody is playing it: the game is serialized and compressed into a direct
+     * buffer, along with the state of its random generator, and the controller lets go of it. The views, the queue and
+     * the state of the turn stay where they are, since they are small. The image of the game the players have been
+     * sent last is dropped too, so they get the whole game again at the next update.
+     *
+     * @throws IOException if the game cannot be encoded; in this case, the controller keeps it.
+     */
+
+    public void hibernate() throws IOException {
+        if(hibernatedGame != null)
+            return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2048);
+        try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeLong(game.getRandomState());
+            out.writeObject(game);
+        }
+        hibernatedGame = ByteBuffer.allocateDirect(bytes.size()).put(bytes.toByteArray()).flip();
+        game = null;
+        sentImage = null;
+    }
+
+    /**
+     * Brings back the game of a hibernated controller, exactly as it was when it has been hibernated.
+     *
+     * @throws IllegalStateException if the game cannot be decoded.
+     */
+
+    public void wakeUp() {
+        if(hibernatedGame == null)
+            return;
+        ByteBuffer buffer = hibernatedGame.duplicate();
+        InputStream bytes = new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if(!buffer.hasRemaining())
+                    return -1;
+                len = Math.min(len, buffer.remaining());
+                buffer.get(b, off, len);
+                return len;
+            }
+        };
+        try (ObjectInputStream in = new ObjectInputStream(new InflaterInputStream(bytes))) {
+            long randomState = in.readLong();
+            game = (Game) in.readObject();
+            game.restoreRandom(randomState);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot wake up game " + gameControllerID + ".", e);
+        }
+        hibernatedGame = null;
+    }
+
+    /**
+     * Checks if the game of the controller has been moved out of the heap.
+     *
+     * @return {@code true} if the controller is hibernated, {@code false} otherwise.
+     */
+
+    public boolean isHibernated() {
+        return hibernatedGame != null;
+    }
+
+    /**
+     * Returns the number of off-heap bytes the game of a hibernated controller takes.
+     *
+     * @return the size of the encoded game, or {@code 0} if the controller is not hibernated.
+     */
+
+    public int getHibernatedSize() {
+        return hibernatedGame == null ? 0 : hibernatedGame.capacity();
     }
 
     /**
@@ -67,6 +209,16 @@ public class GameController implements Serializable {
         this.gameControllerID = gameControllerID;
     }
 
+    /**
+     * Sets the metrics the controller reports its broadcasts to.
+     *
+     * @param metrics the {@link ServerMetrics} of the server running the game.
+     */
+
+    public void setMetrics(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Sets the game's state.
      *
@@ -216,6 +368,18 @@ public class GameController implements Serializable {
         this.currentPlayerIndex = currentPlayerIndex;
     }
 
+    /**
+     * Returns the match as seen by the {@link Rules}, so that the legal actions of the current player can be listed.
+     * The returned state shares the game with the controller: it is meant to be read, or copied before being played.
+     *
+     * @return the {@link MatchState} of the game, in the phase the controller is in.
+     */
+
+    public MatchState getMatchState() {
+        return new MatchState(game, planningPhaseDone ? MatchState.Phase.ACTION : MatchState.Phase.PLANNING,
+                currentPlayerIndex, movesLeft, motherNatureMoved);
+    }
+
     /**
      * Returns the map that contains the {@link VirtualView} associated to each player/client.
      *
@@ -249,6 +413,10 @@ public class GameController implements Serializable {
      */
 
     public void getMessage(Message receivedMessage) throws TryAgainException {
+        if (receivedMessage.getMessageType() == MessageType.RESYNC_REQUEST) {
+            resync(receivedMessage.getNickname());
+            return;
+        }
         switch (gameState) {
             case SETUP:
                 if (receivedMessage.getMessageType() != MessageType.WIZARD_ID) {
@@ -319,10 +487,23 @@ public class GameController implements Serializable {
      */
 
     public void prepareGame(int playerNum) {
+        prepareGame(playerNum, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates the game instance according to the number of players and to the specific (sub)class of the controller,
+     * with the given seed: the same seed and the same messages always lead to the same game, which is how a game is
+     * rebuilt from its journal.
+     *
+     * @param playerNum the given number of players.
+     * @param seed the seed of the game.
+     */
+
+    public void prepareGame(int playerNum, long seed) {
         if (this instanceof GameControllerExpertMode)
-            this.game = new GameExpertMode(playerNum, new Constants(playerNum));
+            this.game = new GameExpertMode(playerNum, new Constants(playerNum), seed);
         else
-            this.game = new Game(playerNum, new Constants(playerNum));
+            this.game = new Game(playerNum, new Constants(playerNum), seed);
         goToSetupPhase();
     }
 
@@ -349,6 +530,80 @@ public class GameController implements Serializable {
         }
     }
 
+    /**
+     * Gives back the game to a player who has logged in again after the game has been rebuilt. Until every player of
+     * the queue is back, the game waits; then everybody gets the whole game and the current player is asked for their
+     * next move again.
+     *
+     * @param nickname the nickname of the player.
+     * @param virtualView the {@link VirtualView} of the new connection of the player.
+     */
+
+    public void resumePlayer(String nickname, VirtualView virtualView){
+        if(!gameQueue.contains(nickname))
+            return;
+        virtualViewMap.put(nickname, virtualView);
+        LOGGER.info(nickname + " is back in game number " + gameControllerID + ".");
+        if(isWaitingForPlayers()) {
+            virtualView.showGenericMessage("Welcome back! Please wait for the other players to reconnect.");
+            return;
+        }
+        if(gameState == GameState.SETUP) {
+            for(String player : gameQueue) {
+                if(game.getPlayerFromNickname(player) == null)
+                    virtualViewMap.get(player).askWizardID();
+                else
+                    virtualViewMap.get(player).showGenericMessage("Please wait for the other players to choose their WizardIDs.");
+            }
+            return;
+        }
+        sentImage = null; // the players have no copy of the game anymore
+        broadcastGameBoard();
+        broadcastPhaseUpdate(planningPhaseDone);
+        askCurrentPlayer();
+    }
+
+    /**
+     * Checks if some players of the queue have not reconnected yet to the game, after it has been rebuilt.
+     *
+     * @return {@code true} if the game is waiting for some players to log in again, {@code false} otherwise.
+     */
+
+    public boolean isWaitingForPlayers(){
+        return virtualViewMap.size() < gameQueue.size();
+    }
+
+    /**
+     * Asks the current player for the move they are expected to make, according to the phase of the round.
+     */
+
+    public void askCurrentPlayer(){
+        VirtualView virtualView = virtualViewMap.get(game.getCurrentPlayer().getNickname());
+        if(virtualView == null)
+            return;
+        if(!planningPhaseDone) {
+            showDeck(virtualView);
+            virtualView.askAssistantCard();
+        }
+        else if(movesLeft > 0)
+            askStudentMovement(virtualView);
+        else if(!motherNatureMoved)
+            virtualView.askMotherNatureSteps();
+        else
+            virtualView.askCloud();
+        broadcastWaitingMessage();
+    }
+
+    /**
+     * Asks the current player to move one of their students.
+     *
+     * @param virtualView the {@link VirtualView} of the current player.
+     */
+
+    protected void askStudentMovement(VirtualView virtualView){
+        virtualView.askMoveStudent();
+    }
+
     /**
      * Removes a player from the queue (given the nickname).
      *
@@ -641,42 +896,8 @@ public class GameController implements Serializable {
 
     public boolean isAssistantCardPlayable(String cardName){
 
-        // Checks if the chosen card is present in the current player's deck.
-        boolean found = false;
-        for(AssistantCard card : game.getCurrentPlayer().getDeck()){
-            if(card.getName().equals(cardName))
-                found = true;
-        }
-        if(!found) // If it is not, the card is not playable.
-            return false;
-
-        // If the current player is the first player of the current round's Planning Phase, the card is surely playable
-        if(game.getCurrentPlayer().equals(game.getPlayers().get(0)))
-            return true;
-
-        // Checks if the card has not been played by other players before the current.
-        // In the case it was, checks if the current players has no other possible choices.
-        List<Player> players = game.getPlayers();
-        List<AssistantCard> cardsPlayed = new ArrayList<>(players.size());
-        for(Player player : players){
-            if(player.getLatestAssistantCardPlayed() != null)
-                cardsPlayed.add(player.getLatestAssistantCardPlayed());
-        }
-        for(AssistantCard card : cardsPlayed){
-            if(card.getName().equals(cardName)){
-                List<AssistantCard> playerCards = new ArrayList<>(game.getCurrentPlayer().getDeck());
-                playerCards.remove(card);
-                for(AssistantCard playerCard : playerCards) {
-                    for (AssistantCard cardToCheck : cardsPlayed) {
-                        if (!playerCard.getName().equals(cardToCheck.getName()))
-                            return false;
-                    }
-                }
-            }
-        }
-
-        //If every previous check doesn't return false
-        return true;
+        AssistantType assistantType = AssistantType.fromName(cardName);
+        return assistantType != null && Rules.isAssistantCardPlayable(game, assistantType);
     }
 
     /**
@@ -685,14 +906,7 @@ public class GameController implements Serializable {
 
     public void setOrder(){
         List<Player> players = game.getPlayers();
-        for(int i = 0; i < game.getPlayersNumber(); i++){
-            for (int j = i+1; j < game.getPlayersNumber(); j++){
-                if(players.get(i).getLatestAssistantCardPlayed().getWeight() >
-                        players.get(j).getLatestAssistantCardPlayed().getWeight()) {
-                    Collections.swap(players, i, j);
-                }
-            }
-        }
+        Rules.sortByAssistantCards(players);
         game.setPlayers(players);
     }
 
@@ -712,14 +926,14 @@ public class GameController implements Serializable {
     public void handleStudentMovement(Message receivedMessage)
             throws FullTableException, StudentNotFoundException, NonExistentColorException, IslandNotFoundException {
         if (receivedMessage.getMessageType() == MessageType.MOVE_TO_TABLE_REPLY) {
-            String color = ((MoveToTableMessage) receivedMessage).getColor();
+            Color color = studentColor(((MoveToTableMessage) receivedMessage).getColor());
             game.playerMovesStudent(color);
             if (!virtualViewMap.isEmpty())
                 broadcastUpdateMessage(game.getCurrentPlayer().getNickname() + " has moved a " + color + " student to its table!");
 
         }
         if (receivedMessage.getMessageType() == MessageType.MOVE_TO_ISLAND_REPLY) {
-            String color = ((MoveToIslandMessage) receivedMessage).getColor();
+            Color color = studentColor(((MoveToIslandMessage) receivedMessage).getColor());
             int islandID = ((MoveToIslandMessage) receivedMessage).getIslandID();
             game.playerMovesStudent(color, islandID);
             if (!virtualViewMap.isEmpty())
@@ -727,6 +941,22 @@ public class GameController implements Serializable {
         }
     }
 
+    /**
+     * Converts the color chosen by the player into a {@link Color}, so that the model is only given enum constants.
+     *
+     * @param color the {@link String} representation of the chosen student's color.
+     * @return the corresponding {@link Color}.
+     * @throws StudentNotFoundException if the provided color does not exist (so the player can't have such a student
+     * in their hall).
+     */
+
+    private Color studentColor(String color) throws StudentNotFoundException {
+        Color studentColor = Color.fromString(color);
+        if (studentColor == null)
+            throw new StudentNotFoundException("There's no " + color + " student in the hall!");
+        return studentColor;
+    }
+
     /**
      * Handles Mother Nature's movement, as desired by the current player. If no exception is thrown, every player
      * (except the current one) will be notified.
@@ -825,39 +1055,7 @@ public class GameController implements Serializable {
      */
 
     public void declareWinningPlayer() throws TieException{
-        List<Player> players = game.getPlayers();
-        Player winningPlayer = players.get(0);
-        int minTowers = players.get(0).getSchool().getTowerRoom().getTowersLeft();
-        for(int i=1; i<players.size(); i++){
-            if(players.get(i).getSchool().getTowerRoom().getTowersLeft() < minTowers) {
-                winningPlayer = players.get(i);
-                minTowers = winningPlayer.getSchool().getTowerRoom().getTowersLeft();
-            }
-            else {
-                // If two players have the same amount of towers left, the winning player is the one with
-                // the biggest number of professors
-                if (players.get(i).getSchool().getTowerRoom().getTowersLeft() == minTowers) {
-                    Color[] colors = Color.values();
-                    int profCurrentlyWinningPlayer = 0;
-                    int profChallengingPlayer = 0;
-                    try {
-                        for (Color color : colors) {
-                            if (winningPlayer.getSchool().getTable(color.toString()).getHasProfessor())
-                                profCurrentlyWinningPlayer++;
-                            if (players.get(i).getSchool().getTable(color.toString()).getHasProfessor())
-                                profChallengingPlayer++;
-                        }
-                    }
-                    // it is impossible to iterate over tables of non-existing colors
-                    catch (NonExistentColorException ignored) {
-                    }
-                    if (profCurrentlyWinningPlayer < profChallengingPlayer)
-                        winningPlayer = players.get(i);
-                    if (profCurrentlyWinningPlayer == profChallengingPlayer)
-                        throw new TieException("There's no winning player!");
-                }
-            }
-        }
+        Player winningPlayer = Rules.winner(game.getPlayers());
         broadcastGenericMessage(winningPlayer.getNickname() + " has won the game! Congratulations!");
     }
 
@@ -868,9 +1066,7 @@ public class GameController implements Serializable {
      */
 
     public void broadcastGenericMessage(String message) {
-        for (VirtualView vv : virtualViewMap.values()) {
-            vv.showGenericMessage(message);
-        }
+        broadcast(new GenericMessage(message));
     }
 
     /**
@@ -882,9 +1078,7 @@ public class GameController implements Serializable {
      */
 
     public void broadcastDisconnectionMessage(String message){
-        for (VirtualView vv : virtualViewMap.values()) {
-            vv.showDisconnectionMessage(message);
-        }
+        broadcast(new DisconnectionMessage(message));
     }
 
     /**
@@ -892,10 +1086,7 @@ public class GameController implements Serializable {
      */
 
     public void broadcastWaitingMessage(){
-        for (VirtualView vv : virtualViewMap.values()) {
-            if(!vv.equals(virtualViewMap.get(game.getCurrentPlayer().getNickname())))
-                vv.showUpdateMessage("It's " + game.getCurrentPlayer().getNickname() + "'s turn. Please wait.");
-        }
+        broadcastToOthers(new UpdateMessage("It's " + game.getCurrentPlayer().getNickname() + "'s turn. Please wait."));
     }
 
     /**
@@ -905,10 +1096,7 @@ public class GameController implements Serializable {
      */
 
     public void broadcastUpdateMessage(String message){
-        for (VirtualView vv : virtualViewMap.values()) {
-            if(!vv.equals(virtualViewMap.get(game.getCurrentPlayer().getNickname())))
-                vv.showUpdateMessage("UPDATE: " + message);
-        }
+        broadcastToOthers(new UpdateMessage("UPDATE: " + message));
     }
 
     /**
@@ -918,9 +1106,41 @@ public class GameController implements Serializable {
      */
 
     public void broadcastPhaseUpdate(boolean isActionPhase){
+        broadcast(new GamePhaseMessage(isActionPhase));
+    }
+
+    /**
+     * Sends a message to all the players connected to the game. The message is encoded once, and the same bytes are
+     * written to every connection; the time the whole fan-out takes goes to the server's metrics, if any.
+     *
+     * @param message the message to broadcast.
+     */
+
+    private void broadcast(Message message) {
+        long start = System.nanoTime();
+        EncodedMessage encoded = new EncodedMessage(message);
+        for (VirtualView vv : virtualViewMap.values())
+            vv.sendEncoded(encoded);
+        if (metrics != null)
+            metrics.recordBroadcast(System.nanoTime() - start);
+    }
+
+    /**
+     * Sends a message, encoded once, to all the players connected to the game except for the current player.
+     *
+     * @param message the message to broadcast.
+     */
+
+    private void broadcastToOthers(Message message) {
+        long start = System.nanoTime();
+        EncodedMessage encoded = new EncodedMessage(message);
+        VirtualView current = virtualViewMap.get(game.getCurrentPlayer().getNickname());
         for (VirtualView vv : virtualViewMap.values()) {
-            vv.showPhaseUpdate(isActionPhase);
+            if(!vv.equals(current))
+                vv.sendEncoded(encoded);
         }
+        if (metrics != null)
+            metrics.recordBroadcast(System.nanoTime() - start);
     }
 
     /**
@@ -929,9 +1149,7 @@ public class GameController implements Serializable {
      */
 
     public void broadcastGameStatusFirstActionPhase(){
-        for (VirtualView vv : virtualViewMap.values()) {
-            vv.showGameStatusFirstActionPhase(this.game);
-        }
+        broadcastGameState(MessageType.GAME_STATUS_FIRST_ACTION_PHASE);
     }
 
     /**
@@ -939,9 +1157,7 @@ public class GameController implements Serializable {
      */
 
     public void broadcastGameBoard(){
-        for(VirtualView vv : virtualViewMap.values()){
-            vv.showGameStatus(this.game);
-        }
+        broadcastGameState(MessageType.GAME_STATUS);
     }
 
     /**
@@ -951,7 +1167,76 @@ public class GameController implements Serializable {
      */
 
     public void showDeck(VirtualView virtualView){
-        virtualView.showDeck(this.game);
+        broadcastGameState(null);
+        virtualView.showGameDelta(stateVersion, stateVersion, new GameDelta(List.of()), MessageType.SHOW_DECK_MESSAGE);
+    }
+
+    /**
+     * Brings all the players' copies of the game up to date. The first time, everybody gets the whole game; from then
+     * on, only the changes since the previous broadcast are sent, tagged with the version of the game state they lead
+     * to.
+     *
+     * @param display the type of message whose view the clients have to show, or {@code null} to update their copy
+     *                of the game silently.
+     */
+
+    public void broadcastGameState(MessageType display){
+        if(virtualViewMap.isEmpty())
+            return;
+        GameImage image = new GameImage(game);
+        if(sentImage == null){
+            stateVersion++;
+            // the snapshot is encoded right away, before the game changes again
+            broadcast(new GameStatusMessage(this.game, stateVersion));
+            if(display != null && display != MessageType.GAME_STATUS)
+                broadcast(new GameDeltaMessage(stateVersion, stateVersion, new GameDelta(List.of()), display));
+        }
+        else {
+            GameDelta delta = new GameDelta(image.changesSince(sentImage));
+            if(delta.isEmpty() && display == null)
+                return;
+            long baseVersion = stateVersion;
+            if(!delta.isEmpty())
+                stateVersion++;
+            broadcast(new GameDeltaMessage(baseVersion, stateVersion, delta, display));
+        }
+        sentImage = image;
+    }
+
+    /**
+     * Sends the whole game again to a player whose copy of it could not be updated.
+     *
+     * @param nickname the nickname of the player asking for the game.
+     */
+
+    public void resync(String nickname){
+        VirtualView virtualView = virtualViewMap.get(nickname);
+        if(virtualView == null || gameState != GameState.IN_GAME)
+            return;
+        broadcastGameState(null); // so that the snapshot and the following deltas agree on the version
+        LOGGER.info(nickname + " asked for the whole game number " + gameControllerID + ".");
+        virtualView.showGameStatus(this.game, stateVersion);
+    }
+
+    /**
+     * Returns the lobby's summary of the game.
+     *
+     * @return the {@link GameSummary} of the game.
+     */
+
+    public GameSummary getSummary() {
+        return new GameSummary(gameControllerID, game instanceof GameExpertMode, gameQueue.size(),
+                game.getPlayersNumber(), gameState);
+    }
+
+    /**
+     * Returns the version of the game state the players have been sent last.
+     *
+     * @return the version of the game state.
+     */
+
+    public long getStateVersion() {
+        return stateVersion;
     }
 
     /**
@@ -960,8 +1245,8 @@ public class GameController implements Serializable {
 
     public void quit(){
         LOGGER.info("The game number " + gameControllerID + " has ended.");
+        broadcastGameBoard();
         for(VirtualView vv : virtualViewMap.values()){
-            vv.showGameStatus(this.game);
             gameQueue.remove(gameQueue.get(0)); // useful to trigger the game controller removal in the Server
             vv.quit();
         }
@@ -1,11 +1,13 @@
 package it.polimi.ingsw.controller;
 
 import it.polimi.ingsw.exceptions.*;
+import it.polimi.ingsw.model.CharacterCard;
 import it.polimi.ingsw.model.GameExpertMode;
 import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.model.charactercards.*;
 import it.polimi.ingsw.network.message.*;
 import it.polimi.ingsw.network.server.Server;
+import it.polimi.ingsw.view.VirtualView;
 
 import java.util.NoSuchElementException;
 
@@ -26,6 +28,27 @@ public class GameControllerExpertMode extends GameController{
         super();
     }
 
+    /**
+     * Copy constructor (see {@link GameController#copy()}).
+     *
+     * @param other the {@link GameControllerExpertMode} to copy.
+     */
+
+    protected GameControllerExpertMode(GameControllerExpertMode other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of the controller, with no views, which can be saved while the game goes on.
+     *
+     * @return the copy of the controller.
+     */
+
+    @Override
+    public GameControllerExpertMode copy() {
+        return new GameControllerExpertMode(this);
+    }
+
     /**
      * Establishes the right flow of the current player's Action Phase by using the controller's variables.
      * This overridden version has two more cases: case {@code ACTION_CHOICE} refers to those messages related to the
@@ -196,27 +219,23 @@ public class GameControllerExpertMode extends GameController{
 
         int chosenCardID = ((CharacterCardMessage) receivedMessage).getCardID();
 
-        if(getGame() instanceof GameExpertMode) {
+        if(getGame() instanceof GameExpertMode game) {
 
-            if(receivedMessage instanceof CharacterCardMessageInt) {
-                ((IntCard) ((GameExpertMode) getGame()).getCharacterCardByID(chosenCardID)).doOnClick(((CharacterCardMessageInt) receivedMessage).getPar());
-            }
-            if(receivedMessage instanceof CharacterCardMessageString) {
-                ((StringCard) ((GameExpertMode) getGame()).getCharacterCardByID(chosenCardID)).doOnClick(((CharacterCardMessageString) receivedMessage).getPar());
-            }
-            if(receivedMessage instanceof CharacterCardMessageStringInt) {
-                ((StringIntCard) ((GameExpertMode) getGame()).getCharacterCardByID(chosenCardID))
-                        .doOnClick(((CharacterCardMessageStringInt) receivedMessage).getPar1(), ((CharacterCardMessageStringInt) receivedMessage).getPar2());
-            }
-            if(receivedMessage instanceof CharacterCardMessageArrayListString){
-                ((ArrayListStringCard) ((GameExpertMode) getGame()).getCharacterCardByID(chosenCardID)).doOnClick(((CharacterCardMessageArrayListString) receivedMessage).getPar());
-            }
+            CharacterCard card = game.getCharacterCardByID(chosenCardID);
+            if(receivedMessage instanceof CharacterCardMessageInt message)
+                ((IntCard) card).doOnClick(message.getPar());
+            else if(receivedMessage instanceof CharacterCardMessageString message)
+                ((StringCard) card).doOnClick(message.getPar());
+            else if(receivedMessage instanceof CharacterCardMessageStringInt message)
+                ((StringIntCard) card).doOnClick(message.getPar1(), message.getPar2());
+            else if(receivedMessage instanceof CharacterCardMessageArrayListString message)
+                ((ArrayListStringCard) card).doOnClick(message.getPar());
 
-            ((GameExpertMode) getGame()).playerPlaysCharacterCard(chosenCardID);
-            getGame().profCheck();
+            game.playerPlaysCharacterCard(chosenCardID);
+            game.profCheck();
             if(!getVirtualViewMap().isEmpty())
-                broadcastUpdateMessage(getGame().getCurrentPlayer().getNickname() + " has played the " +
-                        ((GameExpertMode) getGame()).getCharacterCardByID(chosenCardID).getClass().getSimpleName() + " Character Card!");
+                broadcastUpdateMessage(game.getCurrentPlayer().getNickname() + " has played the " +
+                        card.getClass().getSimpleName() + " Character Card!");
 
         }
     }
@@ -243,6 +262,21 @@ public class GameControllerExpertMode extends GameController{
         }
     }
 
+    /**
+     * Asks the current player to choose between moving a student and playing a Character Card, unless they have
+     * already played one during this round.
+     *
+     * @param virtualView the {@link VirtualView} of the current player.
+     */
+
+    @Override
+    protected void askStudentMovement(VirtualView virtualView){
+        if(!getGame().getCurrentPlayer().getCharacterCardAlreadyPlayed())
+            virtualView.askAction();
+        else
+            virtualView.askMoveStudent();
+    }
+
     /**
      * Resets the controller's variables in order to let the next player play his Action Phase properly. This
      * overridden version handles one more variable, specific to the Expert mode.
@@ -0,0 +1,29 @@
+package it.polimi.ingsw.controller;
+
+import java.io.Serializable;
+
+/**
+ * The lobby's view of a game: just what a client needs to know in order to choose which game to join. The
+ * {@link it.polimi.ingsw.network.server.Server} keeps one summary for each game, and replaces it whenever the game
+ * is joined, left or started.
+ *
+ * @param gameID the ID of the game.
+ * @param expertMode {@code true} if the game is played in Expert mode, {@code false} otherwise.
+ * @param seatsTaken the number of players who have joined the game.
+ * @param capacity the number of players the game is meant for.
+ * @param gameState the state of the game.
+ */
+
+public record GameSummary(int gameID, boolean expertMode, int seatsTaken, int capacity, GameState gameState)
+        implements Serializable {
+
+    /**
+     * Returns a flag that indicates if no more players can join the game.
+     *
+     * @return {@code true} if the game is full, {@code false} otherwise.
+     */
+
+    public boolean isFull() {
+        return seatsTaken >= capacity;
+    }
+}
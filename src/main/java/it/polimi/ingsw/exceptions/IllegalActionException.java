@@ -0,0 +1,20 @@
+package it.polimi.ingsw.exceptions;
+
+/**
+ * This exception is thrown if an action is applied to a match which is not in the phase the action belongs to, or
+ * which the game rules do not allow the current player to undertake.
+ */
+
+public class IllegalActionException extends TryAgainException{
+
+    /**
+     * Exception constructor.
+     *
+     * @param message the exception message.
+     */
+
+    public IllegalActionException(String message) {
+        super(message);
+    }
+
+}
@@ -10,6 +10,13 @@ import java.io.Serializable;
 
 public class AssistantCard implements Serializable {
 
+    private static final AssistantCard[] CARDS = new AssistantCard[AssistantType.values().length];
+
+    static {
+        for (AssistantType assistantType : AssistantType.values())
+            CARDS[assistantType.ordinal()] = new AssistantCard(assistantType);
+    }
+
     private final AssistantType assistantType;
 
     /**
@@ -22,6 +29,28 @@ public class AssistantCard implements Serializable {
         this.assistantType = assistantType;
     }
 
+    /**
+     * Returns the Assistant Card of the given type. Since the cards of the same type are indistinguishable and
+     * immutable, the same instance is returned every time, so that listing the cards of a deck allocates nothing.
+     *
+     * @param assistantType the (enumerated) type of Assistant Card.
+     * @return the {@link AssistantCard} of the given type.
+     */
+
+    public static AssistantCard of(AssistantType assistantType) {
+        return CARDS[assistantType.ordinal()];
+    }
+
+    /**
+     * Returns the type of the Assistant Card.
+     *
+     * @return the (enumerated) {@link AssistantType} of the Assistant Card.
+     */
+
+    public AssistantType getType() {
+        return assistantType;
+    }
+
     /**
      * Returns the weight of the Assistant Card.
      *
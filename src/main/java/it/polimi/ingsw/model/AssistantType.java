@@ -37,6 +37,31 @@ public enum AssistantType {
         this.motherNatureSteps = motherNatureSteps;
     }
 
+    /**
+     * Returns the Assistant Card type with the given name.
+     *
+     * @param name the name of the Assistant Card.
+     * @return the {@link AssistantType} with the given name, or {@code null} if there is no such type.
+     */
+
+    public static AssistantType fromName(String name) {
+        for (AssistantType assistantType : values())
+            if (assistantType.name.equals(name))
+                return assistantType;
+        return null;
+    }
+
+    /**
+     * Returns the bit representing the Assistant Card type in a deck mask, such as the one returned by
+     * {@link Player#getDeckMask()}.
+     *
+     * @return an {@code int} with only the bit of the type's ordinal set.
+     */
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
     /**
      * Returns the weight of the Assistant Card.
      *
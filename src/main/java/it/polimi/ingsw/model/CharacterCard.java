@@ -16,22 +16,49 @@ import java.io.Serializable;
 public abstract class CharacterCard implements Serializable {
 
     private final int id;
+    private final CharacterCardHook hook;
     private int cost;
     private boolean isActive;
 
     /**
-     * Character Card constructor.
+     * Character Card constructor, for a card with an immediate effect.
      *
      * @param id the card id.
      * @param initialCost the initial cost of the card.
      */
 
     public CharacterCard(int id, int initialCost) {
+        this(id, initialCost, CharacterCardHook.IMMEDIATE);
+    }
+
+    /**
+     * Character Card constructor.
+     *
+     * @param id the card id.
+     * @param initialCost the initial cost of the card.
+     * @param hook the rule of the game the card modifies.
+     */
+
+    public CharacterCard(int id, int initialCost, CharacterCardHook hook) {
         this.id = id;
+        this.hook = hook;
         this.cost = initialCost;
         this.isActive = false;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the card to copy.
+     */
+
+    protected CharacterCard(CharacterCard other) {
+        this.id = other.id;
+        this.hook = other.hook;
+        this.cost = other.cost;
+        this.isActive = other.isActive;
+    }
+
     /**
      * Returns the ID of the Character Card.
      *
@@ -42,6 +69,16 @@ public abstract class CharacterCard implements Serializable {
         return id;
     }
 
+    /**
+     * Returns the rule of the game the Character Card modifies, that is when its effect takes place.
+     *
+     * @return the {@link CharacterCardHook} of the card.
+     */
+
+    public CharacterCardHook getHook() {
+        return hook;
+    }
+
     /**
      * Returns the current cost of the Character Card.
      *
@@ -92,6 +129,17 @@ public abstract class CharacterCard implements Serializable {
 
     public abstract void doEffect(GameExpertMode game) throws TryAgainException;
 
+    /**
+     * Returns a copy of the Character Card, which can be changed without affecting this one. Every card copies itself
+     * through its copy constructor, which chains to {@link #CharacterCard(CharacterCard)}. The parameters set by the
+     * players are shared, since they are replaced (and never changed) when the card is clicked again, while the
+     * students held by a card are copied.
+     *
+     * @return the copy of the card.
+     */
+
+    public abstract CharacterCard copy();
+
     /**
      * Updates the card's cost and its status once its effect has ended.
      */
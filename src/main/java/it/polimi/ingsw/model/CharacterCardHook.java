@@ -0,0 +1,11 @@
+package it.polimi.ingsw.model;
+
+/**
+ * This enumeration specifies the points of the game rules a {@link CharacterCard} can hook into. Cards with an
+ * immediate effect do their effect as soon as they are played; the other cards stay active until the game reaches the
+ * rule they modify, and do their effect in place of (or on top of) the standard one.
+ */
+
+public enum CharacterCardHook {
+    IMMEDIATE, MOTHER_NATURE_STEPS, PROFESSOR_CHECK, ISLAND_CONQUER
+}
@@ -3,7 +3,6 @@ package it.polimi.ingsw.model;
 import it.polimi.ingsw.exceptions.EmptyCloudException;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,7 +15,7 @@ import java.util.List;
 public class Cloud implements Serializable {
 
     private final int capacity;
-    private final ArrayList<Student> students;
+    private final StudentGroup students;
 
     /**
      * Cloud constructor.
@@ -26,7 +25,18 @@ public class Cloud implements Serializable {
 
     public Cloud(int capacity) {
         this.capacity = capacity;
-        this.students = new ArrayList<>();
+        this.students = new StudentGroup();
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Cloud} to copy.
+     */
+
+    Cloud(Cloud other) {
+        this.capacity = other.capacity;
+        this.students = new StudentGroup(other.students);
     }
 
     /**
@@ -57,19 +67,30 @@ public class Cloud implements Serializable {
      */
 
     public List<Student> removeStudents() throws EmptyCloudException {
-        List<Student> chosenStudents = new ArrayList<>(students);
+        List<Student> chosenStudents = new StudentGroup(students);
         if(students.isEmpty()) throw new EmptyCloudException("The chosen cloud has already been emptied, please choose another one.");
         students.clear();
         return chosenStudents;
     }
 
     /**
-     * Returns an {@link ArrayList} containing the cloud's students without removing them.
+     * Returns the number of students of a specific color on the cloud.
      *
-     * @return an {@link ArrayList} containing the cloud's students.
+     * @param color the given {@link Color}.
+     * @return an {@code int} representing the number of students of the given color.
+     */
+
+    public int getNumOfStudentsOfColor(Color color){
+        return students.count(color);
+    }
+
+    /**
+     * Returns a list containing the cloud's students without removing them.
+     *
+     * @return a list containing the cloud's students.
      */
 
-    public ArrayList<Student> getStudents() {
+    public List<Student> getStudents() {
         return students;
     }
 }
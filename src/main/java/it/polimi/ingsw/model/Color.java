@@ -5,5 +5,20 @@ package it.polimi.ingsw.model;
  */
 
 public enum Color {
-    GREEN, RED, YELLOW, PINK, BLUE
+    GREEN, RED, YELLOW, PINK, BLUE;
+
+    /**
+     * Returns the color with the given name. Meant to be called once, where a color chosen by a player enters the
+     * server, so that the model only deals with {@link Color}s.
+     *
+     * @param color the name of the color, as returned by {@link #toString()}.
+     * @return the {@link Color} with the given name, or {@code null} if there is no such color.
+     */
+
+    public static Color fromString(String color) {
+        for (Color value : values())
+            if (value.toString().equals(color))
+                return value;
+        return null;
+    }
 }
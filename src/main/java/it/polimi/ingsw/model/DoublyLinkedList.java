@@ -4,17 +4,27 @@ import it.polimi.ingsw.exceptions.IslandNotFoundException;
 import it.polimi.ingsw.utils.Constants;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * This is the islands' data structure. It is a particular list in which the last node contains the address of the
  * first node and the first node contains the address of the last node (so, it is "circular" and none of the pointers
  * are set to {@code null}).
+ * Besides the links between the islands, the list keeps the islands in an array, in the same order as the ring: since
+ * the ID of an island is its position in the ring, an island is found by its ID in constant time. The islands the game
+ * starts with keep a slot each for the whole game, and the slots of merged islands are joined in a union-find forest,
+ * so that the island every original island has been merged into is found in (almost) constant time as well.
  */
 
 public class DoublyLinkedList implements Serializable {
 
-    private Island head = null; // first element of the list
+    private Island[] ring; // the islands, in ring order: ring[0] is the head
+    private int[] ringSlots; // the slot of each island in the ring
+    private Island[] slots; // the islands as they were added, each one the representative of its slot
+    private int[] parent; // union-find forest over the slots
     private int size; // to check the number of islands in the list
+    private int slotsNum; // the number of islands ever added to the list
 
     /**
      * Doubly Linked List constructor (since it has been specifically written for the game, the list contains 12 nodes
@@ -22,10 +32,39 @@ public class DoublyLinkedList implements Serializable {
      */
 
     public DoublyLinkedList() {
+        this.ring = new Island[Constants.MAX_NUM_OF_ISLANDS];
+        this.ringSlots = new int[Constants.MAX_NUM_OF_ISLANDS];
+        this.slots = new Island[Constants.MAX_NUM_OF_ISLANDS];
+        this.parent = new int[Constants.MAX_NUM_OF_ISLANDS];
         for(int i = 1; i <= Constants.MAX_NUM_OF_ISLANDS; i++)
             addIsland(new Island(i));
     }
 
+    /**
+     * Copy constructor: each island of the list is copied, and the copies are linked in the same order.
+     *
+     * @param other the {@link DoublyLinkedList} to copy.
+     * @param players the copy of each player of the game the islands belong to.
+     */
+
+    DoublyLinkedList(DoublyLinkedList other, Map<Player, Player> players) {
+        this.ring = new Island[other.ring.length];
+        this.ringSlots = other.ringSlots.clone();
+        this.slots = new Island[other.slots.length]; // only the representatives are ever read
+        this.parent = other.parent.clone();
+        this.size = other.size;
+        this.slotsNum = other.slotsNum;
+        for(int i = 0; i < size; i++){
+            Island island = other.ring[i];
+            ring[i] = new Island(island, island.getOwner() == null ? null : players.get(island.getOwner()));
+            slots[ringSlots[i]] = ring[i];
+        }
+        for(int i = 0; i < size; i++){
+            ring[i].setNext(ring[(i + 1) % size]);
+            ring[i].setPrev(ring[(i + size - 1) % size]);
+        }
+    }
+
     /**
      * Returns the number of nodes (islands) of the list.
      *
@@ -43,7 +82,7 @@ public class DoublyLinkedList implements Serializable {
      */
 
     public Island getHead() {
-        return head;
+        return size == 0 ? null : ring[0];
     }
 
     /**
@@ -54,15 +93,27 @@ public class DoublyLinkedList implements Serializable {
     */
 
     public void addIsland(Island island){
-        if(head == null){
+        if(slotsNum == slots.length){
+            slots = Arrays.copyOf(slots, slotsNum * 2);
+            parent = Arrays.copyOf(parent, slotsNum * 2);
+        }
+        if(size == ring.length){
+            ring = Arrays.copyOf(ring, size * 2);
+            ringSlots = Arrays.copyOf(ringSlots, size * 2);
+        }
+        slots[slotsNum] = island;
+        parent[slotsNum] = slotsNum;
+        ring[size] = island;
+        ringSlots[size] = slotsNum;
+        slotsNum++;
+        if(size == 0){
             island.setNext(island);
             island.setPrev(island);
-            head = island;
             size++;
             return;
         }
-        // find last node in the list if list is not empty
-        Island tail = head.getPrev();
+        Island head = ring[0];
+        Island tail = ring[size - 1];
         // next of island will point to head since list is circular
         island.setNext(head);
         head.setPrev(island);
@@ -81,41 +132,64 @@ public class DoublyLinkedList implements Serializable {
      */
 
     public void mergeIslands(Island island){
-        Island prev = island.getPrev();
-        Island next = island.getNext();
         if(island.getOwner() == null) // safety return (should never happen)
             return;
-        if(prev.getOwner() != null && prev.getOwner().equals(island.getOwner())){
-            island.setNumOfTowers(island.getNumOfTowers() + prev.getNumOfTowers());
-            prev.getStudents().forEach(island::addStudent);
-            removeIsland(prev);
-            GameBoard.reassignIslandIDs(this);
-        }
-        if(next.getOwner() != null && next.getOwner().equals(island.getOwner())){
-            island.setNumOfTowers(island.getNumOfTowers() + next.getNumOfTowers());
-            next.getStudents().forEach(island::addStudent);
-            removeIsland(next);
-            GameBoard.reassignIslandIDs(this);
-        }
+        Island prev = island.getPrev();
+        if(prev != island && prev.getOwner() != null && prev.getOwner().equals(island.getOwner()))
+            merge(island, prev);
+        Island next = island.getNext();
+        if(next != island && next.getOwner() != null && next.getOwner().equals(island.getOwner()))
+            merge(island, next);
+    }
+
+    /**
+     * Merges an island into an adjacent one: its towers and students are moved to the surviving island, its slots
+     * join the surviving island's ones, and the islands following it in the ring move back by one position.
+     *
+     * @param island the surviving island.
+     * @param merged the adjacent island to merge into the surviving one.
+     */
+
+    private void merge(Island island, Island merged){
+        island.setNumOfTowers(island.getNumOfTowers() + merged.getNumOfTowers());
+        island.getStudents().addAll(merged.getStudents());
+        int position = indexOf(merged);
+        parent[ringSlots[position]] = ringSlots[indexOf(island)];
+        removeIsland(merged);
+        // the IDs are the positions in the ring: only the islands after the merged one have to change theirs
+        for(int i = position; i < size; i++)
+            ring[i].setId(i + 1);
     }
 
     /**
      * Removes an island and decreases the size of the data structure. If the removed node is the head node, the next
-     * island is declared the new head.
+     * island is declared the new head. The IDs of the remaining islands are left as they are.
      *
      * @param island the island to remove.
      */
 
     public void removeIsland(Island island) {
         if(island != null) {
-            if(island.equals(head))
-                head = island.getNext();
+            int position = indexOf(island);
+            if(position < 0)
+                return;
             island.getPrev().setNext(island.getNext());
             island.getNext().setPrev(island.getPrev());
-            size--;
+            System.arraycopy(ring, position + 1, ring, position, size - position - 1);
+            System.arraycopy(ringSlots, position + 1, ringSlots, position, size - position - 1);
+            ring[--size] = null;
         }
     }
 
+    /**
+     * Gives each island its position in the ring as ID, starting from 1 for the head.
+     */
+
+    public void reassignIDs() {
+        for(int i = 0; i < size; i++)
+            ring[i].setId(i + 1);
+    }
+
     /**
      * Returns the island with the specified ID, if present.
      *
@@ -125,16 +199,64 @@ public class DoublyLinkedList implements Serializable {
      */
 
     public Island getIslandFromID(int islandID) throws IslandNotFoundException {
-        Island island = head;
-        int islandsToCheck = size;
-        while(islandsToCheck > 0){
-            if(island.getId()==islandID)
-                return island;
-            island = island.getNext();
-            islandsToCheck--;
-        }
+        if(islandID >= 1 && islandID <= size && ring[islandID - 1].getId() == islandID)
+            return ring[islandID - 1];
+        // the IDs have not been reassigned since an island was removed
+        for(int i = 0; i < size; i++)
+            if(ring[i].getId() == islandID)
+                return ring[i];
         throw new IslandNotFoundException("No Island " + islandID + " was found.");
     }
 
+    /**
+     * Returns the island that one of the islands the game started with belongs to now, that is the island it has been
+     * merged into or the island itself if it has never been merged.
+     *
+     * @param baseIslandID the ID the island had at the beginning of the game (from 1 to 12).
+     * @return the island holding the given original island.
+     * @throws IslandNotFoundException if there has never been an island with the given ID.
+     */
+
+    public Island getIslandFromBaseID(int baseIslandID) throws IslandNotFoundException {
+        if(baseIslandID < 1 || baseIslandID > slotsNum)
+            throw new IslandNotFoundException("No Island " + baseIslandID + " was found.");
+        return slots[find(baseIslandID - 1)];
+    }
+
+    /**
+     * Returns the representative slot of the group of the given slot, compressing the path to it.
+     *
+     * @param slot the slot of an island the game started with.
+     * @return the slot of the island the group is represented by.
+     */
+
+    private int find(int slot) {
+        int root = slot;
+        while(parent[root] != root)
+            root = parent[root];
+        while(parent[slot] != root){
+            int next = parent[slot];
+            parent[slot] = root;
+            slot = next;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the position of an island in the ring.
+     *
+     * @param island the island to look for.
+     * @return the position of the island, or -1 if it is not in the ring.
+     */
+
+    private int indexOf(Island island) {
+        int position = island.getId() - 1;
+        if(position >= 0 && position < size && ring[position] == island)
+            return position;
+        for(int i = 0; i < size; i++)
+            if(ring[i] == island)
+                return i;
+        return -1;
+    }
 
-}
\ No newline at end of file
+}
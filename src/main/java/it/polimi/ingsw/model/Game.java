@@ -28,21 +28,134 @@ public class Game implements Serializable {
     private int maxSteps;
     private final Constants constants;
     private final Map<Player, TowerColor> towersColor;
+    private final ProfessorIndex professorIndex;
+    private final long seed;
+    private transient GameRandom random; // stays on the server, so that the clients can't predict the draws
 
     /**
-     * Game constructor.
+     * Game constructor, for a game with a random seed.
      *
      * @param playersNumber the number of players of the match.
      * @param constants the useful constants to set for this game.
      */
 
     public Game(int playersNumber, Constants constants) {
+        this(playersNumber, constants, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Game constructor. Every random choice of the game (the set-up of the board, the students drawn from the bag, the
+     * order of the players) is taken with a generator created from the given seed, so two games with the same seed
+     * and the same moves evolve in the same way.
+     *
+     * @param playersNumber the number of players of the match.
+     * @param constants the useful constants to set for this game.
+     * @param seed the seed of the random generator of the game.
+     */
+
+    public Game(int playersNumber, Constants constants, long seed) {
         this.constants = constants;
         this.playersNumber = playersNumber;
         this.players = new ArrayList<>();
-        this.board = new GameBoard(playersNumber, constants);
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+        this.board = new GameBoard(playersNumber, constants, random);
         this.roundNumber = 1;
         this.towersColor = new HashMap<>();
+        this.professorIndex = new ProfessorIndex();
+    }
+
+    /**
+     * Copy constructor: every element of the game that can change is copied, so that the copy and the original can
+     * go on independently, while the constants are shared.
+     *
+     * @param other the {@link Game} to copy.
+     */
+
+    protected Game(Game other) {
+        Map<Player, Player> copies = new IdentityHashMap<>(other.players.size() * 2);
+        this.players = new ArrayList<>(other.players.size());
+        for (Player player : other.players) {
+            Player copy = new Player(player);
+            copies.put(player, copy);
+            players.add(copy);
+        }
+        this.constants = other.constants;
+        this.playersNumber = other.playersNumber;
+        this.roundNumber = other.roundNumber;
+        this.maxSteps = other.maxSteps;
+        this.currentPlayer = copies.get(other.currentPlayer);
+        this.towersColor = new HashMap<>();
+        other.towersColor.forEach((player, towerColor) -> towersColor.put(copies.get(player), towerColor));
+        this.professorIndex = new ProfessorIndex(other.professorIndex, copies);
+        for (Player player : players)
+            player.getSchool().setProfessorIndex(professorIndex);
+        this.seed = other.seed;
+        this.random = other.random == null ? null : other.random.copy();
+        this.board = new GameBoard(other.board, random, copies);
+    }
+
+    /**
+     * Returns a deep copy of the game, which can be changed without affecting this one (and vice versa). The copy
+     * draws the same students this game would, and shares nothing with it but the constants.
+     *
+     * @return the copy of the game.
+     */
+
+    public Game copy() {
+        return new Game(this);
+    }
+
+    /**
+     * Returns the seed the random generator of the game has been created with.
+     *
+     * @return the seed of the game.
+     */
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the random generator of the game (only available on the server).
+     *
+     * @return the {@link GameRandom} every random choice of the game is taken with.
+     */
+
+    GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns the state of the random generator of the game. The generator is not serialized along with the game, so
+     * that the clients can't predict the draws: the server has to save its state explicitly.
+     *
+     * @return the state of the {@link GameRandom} of the game.
+     */
+
+    public long getRandomState() {
+        return random.getState();
+    }
+
+    /**
+     * Restores the random generator of a game that has been deserialized on the server, so that it draws the same
+     * students the original game would have.
+     *
+     * @param state the state of the generator, as returned by {@link #getRandomState()}.
+     */
+
+    public void restoreRandom(long state) {
+        this.random = new GameRandom(state);
+        board.getStudentsBag().setRandom(random);
+    }
+
+    /**
+     * Shuffles the players' order with the random generator of the game.
+     */
+
+    void shufflePlayers() {
+        for (int i = players.size() - 1; i > 0; i--)
+            Collections.swap(players, i, random.nextInt(i + 1));
     }
 
     /**
@@ -214,16 +327,49 @@ public class Game implements Serializable {
         profCheck();
     }
 
+    /**
+     * Calls the {@link Player} method which takes a student from their hall and moves it onto the specified island.
+     *
+     * @param color the {@link Color} of the student to move.
+     * @param islandID the ID of the island to move the student to.
+     * @throws IslandNotFoundException if the provided ID does not correspond to any of the existing islands.
+     * @throws StudentNotFoundException if the player has no student of the provided color in their hall.
+     */
+
+    public void playerMovesStudent(Color color, int islandID) throws IslandNotFoundException, StudentNotFoundException {
+        currentPlayer.moveStudent(board.getIslands().getIslandFromID(islandID), color);
+    }
+
+    /**
+     * Calls the {@link Player} method which takes a student from their hall and moves it to the correct table.
+     *
+     * @param color the {@link Color} of the student to move.
+     * @throws FullTableException if the table of the provided color is full.
+     * @throws StudentNotFoundException if the player has no student of the provided color in their hall.
+     * @throws NonExistentColorException if a table of a non-existent color is somehow accessed while checking the
+     * professors (it should never happen, so it is safely ignorable).
+     */
+
+    public void playerMovesStudent(Color color) throws FullTableException, StudentNotFoundException,
+            NonExistentColorException {
+        currentPlayer.moveStudent(color);
+        profCheck();
+    }
+
     /**
      * Makes overriding possible in {@link GameExpertMode}. If the game is played in Normal mode, calls the
-     * profCheckAlgorithm method.
+     * profCheckAlgorithm method for the colors whose tables have changed since the last check.
      *
      * @throws NonExistentColorException if the method somehow tries to access to tables of non-existing colors (it
      * should never happen, so it is safely ignorable).
      */
 
     public void profCheck() throws NonExistentColorException{
-        profCheckAlgorithm(getPlayers());
+        int changedColors = professorIndex.takeChangedColors();
+        for (Color color : Color.values()) {
+            if (ProfessorIndex.contains(changedColors, color))
+                professorIndex.setOwner(color, profCheckAlgorithm(getPlayers(), color));
+        }
     }
 
     /**
@@ -235,61 +381,80 @@ public class Game implements Serializable {
      */
 
     public static void profCheckAlgorithm(List<Player> players) throws NonExistentColorException{
+        for (Color color : Color.values())
+            profCheckAlgorithm(players, color);
+    }
 
-        Color[] colors = Color.values();
+    /**
+     * Reassigns the professor of the given color if the necessary conditions are reached.
+     *
+     * @param players the list of the playing players whose tables need to be checked.
+     * @param color the {@link Color} of the professor to check.
+     * @return the player who owns the professor after the check, or {@code null} if nobody does.
+     */
 
-        for (Color color : colors) {
+    public static Player profCheckAlgorithm(List<Player> players, Color color){
 
-            int dimBiggestTable = 0;   // number of students to beat in order to claim a professor
-            int playerWithProf = -1;    // index of the player who currently has this color's professor
-            int playerWhoLostProf = -1; // index of the player whose prof has been claimed
+        int dimBiggestTable = 0;   // number of students to beat in order to claim a professor
+        int playerWithProf = -1;    // index of the player who currently has this color's professor
+        int playerWhoLostProf = -1; // index of the player whose prof has been claimed
 
-            // true if this color's professor was already claimed by a player during one of the previous rounds
-            boolean professorAssigned = false;
+        // true if this color's professor was already claimed by a player during one of the previous rounds
+        boolean professorAssigned = false;
 
-            // for each color, stores how many students each player has
-            int[] numOfStudents = new int[players.size()];
+        // for each color, stores how many students each player has
+        int[] numOfStudents = new int[players.size()];
 
-            for (int i = 0; i < players.size(); i++) {
-                numOfStudents[i] =
-                        players.get(i).getSchool().getTable(color.toString()).getNumOfStudents();
-                if (players.get(i).getSchool().getTable(color.toString()).getHasProfessor()) {
-                    playerWithProf = i;
-                    professorAssigned = true;
-                }
+        for (int i = 0; i < players.size(); i++) {
+            numOfStudents[i] = players.get(i).getSchool().getTable(color).getNumOfStudents();
+            if (players.get(i).getSchool().getTable(color).getHasProfessor()) {
+                playerWithProf = i;
+                professorAssigned = true;
             }
+        }
 
-            // if this color's professor was already assigned, profCheck rules vary
-            if (professorAssigned) {
-                dimBiggestTable = numOfStudents[playerWithProf];
-                if(dimBiggestTable == 0){
-                    players.get(playerWithProf).getSchool().getTable(color.toString()).setHasProfessor(false);
-                    professorAssigned = false;
-                    playerWithProf = -1;
-                }
+        // if this color's professor was already assigned, profCheck rules vary
+        if (professorAssigned) {
+            dimBiggestTable = numOfStudents[playerWithProf];
+            if(dimBiggestTable == 0){
+                players.get(playerWithProf).getSchool().getTable(color).setHasProfessor(false);
+                professorAssigned = false;
+                playerWithProf = -1;
             }
+        }
 
-            for (int i = 0; i < players.size(); i++) {
-                if (numOfStudents[i] > dimBiggestTable) {
-                    // if clause needed to store which player's table will have its "hasProfessor" flag
-                    // set to false, in case a player actually claimed that prof before
-                    if (professorAssigned)
-                        playerWhoLostProf = playerWithProf;
-                    dimBiggestTable = numOfStudents[i];
-                    playerWithProf = i;
-                }
+        for (int i = 0; i < players.size(); i++) {
+            if (numOfStudents[i] > dimBiggestTable) {
+                // if clause needed to store which player's table will have its "hasProfessor" flag
+                // set to false, in case a player actually claimed that prof before
+                if (professorAssigned)
+                    playerWhoLostProf = playerWithProf;
+                dimBiggestTable = numOfStudents[i];
+                playerWithProf = i;
             }
+        }
 
-            // sets the "hasProfessor" flags accordingly
-            if(playerWithProf != -1)
-                players.get(playerWithProf).getSchool().getTable(color.toString()).setHasProfessor(true);
+        // sets the "hasProfessor" flags accordingly
+        if(playerWithProf != -1)
+            players.get(playerWithProf).getSchool().getTable(color).setHasProfessor(true);
 
-            // if the professor was already assigned and its owner did change
-            if (playerWhoLostProf != -1)
-                players.get(playerWhoLostProf).getSchool().getTable(color.toString()).setHasProfessor(false);
+        // if the professor was already assigned and its owner did change
+        if (playerWhoLostProf != -1)
+            players.get(playerWhoLostProf).getSchool().getTable(color).setHasProfessor(false);
 
-        }
+        return playerWithProf == -1 ? null : players.get(playerWithProf);
+
+    }
+
+    /**
+     * Returns the maximum number of steps the current player may move Mother Nature of, according to the latest
+     * Assistant Card they have played.
+     *
+     * @return the maximum number of Mother Nature steps allowed.
+     */
 
+    public int getMotherNatureStepsAllowed() {
+        return currentPlayer.getLatestAssistantCardPlayed().getMotherNatureSteps();
     }
 
     /**
@@ -301,7 +466,7 @@ public class Game implements Serializable {
 
     public void moveMotherNature(int steps) throws InvalidNumberOfStepsException {
 
-        int max_steps = currentPlayer.getLatestAssistantCardPlayed().getMotherNatureSteps();
+        int max_steps = getMotherNatureStepsAllowed();
 
         if(steps > max_steps || steps < Constants.MIN_NUM_OF_STEPS)
             throw new InvalidNumberOfStepsException("You can't move Mother Nature of " + steps + " steps! Maximum allowed: " + max_steps);
@@ -343,12 +508,11 @@ public class Game implements Serializable {
     public void startGame(){
         for(int i = 0; i < constants.MAX_HALL_STUDENTS; i++) {
             for (Player player : players) {
-                player.getSchool().getHall().addStudent(board.getStudentsBag().remove
-                        (board.getStudentsBag().size() - 1));
+                player.getSchool().getHall().addStudent(board.getStudentsBag().draw());
             }
         }
 
-        Collections.shuffle(players);
+        shufflePlayers();
         currentPlayer = players.get(0);
 
         towersColor.put(players.get(0), TowerColor.BLACK);
@@ -365,6 +529,19 @@ public class Game implements Serializable {
 
     public void addPlayer(Player player){
         players.add(player);
+        player.getSchool().setProfessorIndex(professorIndex);
+        // the new school may already have students at its tables
+        professorIndex.allTablesChanged();
+    }
+
+    /**
+     * Returns the index of the professors of the game.
+     *
+     * @return the {@link ProfessorIndex} of the game.
+     */
+
+    public ProfessorIndex getProfessorIndex() {
+        return professorIndex;
     }
 
     /**
@@ -422,15 +599,15 @@ public class Game implements Serializable {
 
             for(int i = 0; i < playersNumber; i++) {
                 yellowStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.YELLOW)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.YELLOW);
                 blueStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.BLUE)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.BLUE);
                 greenStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.GREEN)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.GREEN);
                 redStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.RED)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.RED);
                 pinkStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.PINK)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.PINK);
 
                 System.out.print("CLOUD " + (i + 1) + ": ");
                 System.out.println(
@@ -451,6 +628,20 @@ public class Game implements Serializable {
 
     }
 
+    /**
+     * Returns the Assistant Cards played in the current round, that is the latest card of each player who has already
+     * played one since the last reset.
+     *
+     * @return a bit mask with a bit set for the ordinal of the {@link AssistantType} of each card played.
+     */
+
+    public int getAssistantCardsPlayed() {
+        int played = 0;
+        for (Player player : players)
+            played |= player.getLatestAssistantCardPlayedMask();
+        return played;
+    }
+
     /**
      * Allows the CLI to properly show the current player's Assistant Card deck.
      */
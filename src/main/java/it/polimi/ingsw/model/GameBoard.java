@@ -18,52 +18,51 @@ public class GameBoard implements Serializable {
     private int motherNaturePos; // represent the current position of motherNature in the island data structure
     private final Cloud[] clouds;
     private final DoublyLinkedList islands;
-    private List<Student> studentsBag;
+    private final StudentBag studentsBag;
     private int numOfVetos;
 
     /**
-     * Game board constructor.
+     * Game board constructor, for a board set up at random.
      *
      * @param playersNumber the number of players that will play with this board.
      * @param constants the set of constants for this game.
      */
 
     public GameBoard(int playersNumber, Constants constants){
+        this(playersNumber, constants, new GameRandom(new SplittableRandom().nextLong()));
+    }
+
+    /**
+     * Game board constructor.
+     *
+     * @param playersNumber the number of players that will play with this board.
+     * @param constants the set of constants for this game.
+     * @param random the random generator of the game, used to set up the board and to draw students from the bag.
+     */
+
+    public GameBoard(int playersNumber, Constants constants, GameRandom random){
 
-        Random random = new Random();
         this.motherNaturePos = random.nextInt(12) + 1; // random position between 1 and 12
 
         this.clouds = new Cloud[playersNumber];
-        this.studentsBag = new ArrayList<>();
+        this.studentsBag = new StudentBag(random);
         this.islands = new DoublyLinkedList();
         this.numOfVetos = 4;
 
-        // filling the bag with the right amount of students
+        // preparing the students to put on the islands (2 of each color)
 
-        for(int i = 0; i< Constants.STUDENTS_PER_COLOR; i++){
-            studentsBag.add(new Student(Color.RED));
-        }
-        for(int i=0; i<Constants.STUDENTS_PER_COLOR; i++){
-            studentsBag.add(new Student(Color.YELLOW));
-        }
-        for(int i=0; i<Constants.STUDENTS_PER_COLOR; i++){
-            studentsBag.add(new Student(Color.BLUE));
-        }
-        for(int i=0; i<Constants.STUDENTS_PER_COLOR; i++){
-            studentsBag.add(new Student(Color.GREEN));
-        }
-        for(int i=0; i<Constants.STUDENTS_PER_COLOR; i++){
-            studentsBag.add(new Student(Color.PINK));
+        StudentBag islandStudentsBag = new StudentBag(random);
+        for(Color color : Color.values()){
+            islandStudentsBag.add(color);
+            islandStudentsBag.add(color);
         }
 
-        // preparing the students to put on the islands
+        // filling the bag with the remaining students
 
-        List<Student> islandStudentsList = new ArrayList<>(10);
-        for(int i = 0; i < Constants.NUM_COLORS; i++){
-            islandStudentsList.add(studentsBag.remove((Constants.STUDENTS_PER_COLOR*i)));
-            islandStudentsList.add(studentsBag.remove((Constants.STUDENTS_PER_COLOR*i)+1));
+        for(Color color : Color.values()){
+            for(int i = 2; i < Constants.STUDENTS_PER_COLOR; i++)
+                studentsBag.add(color);
         }
-        Collections.shuffle(islandStudentsList);
 
         // putting the students on the islands (according to rules)
 
@@ -77,25 +76,39 @@ public class GameBoard implements Serializable {
             try {
                 if((i+1) != noStudentPos1 && (i+1) != noStudentPos2) {
                     Island currentIsland = islands.getIslandFromID(i+1);
-                    currentIsland.addStudent(islandStudentsList.remove(islandStudentsList.size() - 1));
+                    currentIsland.addStudent(islandStudentsBag.draw());
                 }
             } catch (IslandNotFoundException e){
                 e.printStackTrace();
             }
         }
 
-        // shuffling the remaining students
-        Collections.shuffle(studentsBag);
-
         // building and filling the clouds with students
 
         for(int i = 0; i<constants.NUM_CLOUDS; i++) {
             clouds[i] = new Cloud(constants.MAX_CLOUD_STUDENTS);
-            for(int j = 0; j<clouds[i].getCapacity(); j++)
-                clouds[i].addStudent(studentsBag.remove(studentsBag.size() - 1));
+            clouds[i].getStudents().addAll(studentsBag.draw(clouds[i].getCapacity()));
         }
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link GameBoard} to copy.
+     * @param random the random generator of the copy of the game.
+     * @param players the copy of each player of the game.
+     */
+
+    GameBoard(GameBoard other, GameRandom random, Map<Player, Player> players){
+        this.motherNaturePos = other.motherNaturePos;
+        this.clouds = new Cloud[other.clouds.length];
+        for(int i = 0; i < clouds.length; i++)
+            clouds[i] = new Cloud(other.clouds[i]);
+        this.islands = new DoublyLinkedList(other.islands, players);
+        this.studentsBag = new StudentBag(other.studentsBag, random);
+        this.numOfVetos = other.numOfVetos;
+    }
+
     /**
      * Returns Mother Nature's current position.
      *
@@ -138,21 +151,22 @@ public class GameBoard implements Serializable {
     /**
      * Returns the bag of students of the game board.
      *
-     * @return a list containing all the students of the bag.
+     * @return the {@link StudentBag} containing all the students of the bag.
      */
 
-    public List<Student> getStudentsBag() {
+    public StudentBag getStudentsBag() {
         return studentsBag;
     }
 
     /**
-     * Sets the bag of students of the game board.
+     * Replaces the students of the bag of the game board.
      *
      * @param bag a list containing the new students of the bag.
      */
 
     public void setStudentsBag(List<Student> bag){
-        this.studentsBag = bag;
+        studentsBag.clear();
+        studentsBag.addAll(bag);
     }
 
     /**
@@ -179,12 +193,10 @@ public class GameBoard implements Serializable {
 
     public void refillClouds() throws EmptyBagException{
         for(Cloud c : clouds){
-            for(int i=0; i< c.getCapacity(); i++) {
-                if(studentsBag.size()==0)
-                    throw new EmptyBagException("The student bag is empty!");
-                Student tempStudent = studentsBag.remove(studentsBag.size()-1);
-                c.addStudent(tempStudent);
-            }
+            int n = Math.min(c.getCapacity(), studentsBag.size());
+            c.getStudents().addAll(studentsBag.draw(n));
+            if(n < c.getCapacity())
+                throw new EmptyBagException("The student bag is empty!");
         }
     }
 
@@ -195,10 +207,8 @@ public class GameBoard implements Serializable {
      */
 
     public void moveMotherNature(int steps){
-        int newMotherNaturePosition = (getMotherNaturePos() + steps)%(islands.getSize());
-        if(newMotherNaturePosition == 0)
-            newMotherNaturePosition = getMotherNaturePos() + steps;
-        setMotherNaturePos(newMotherNaturePosition);
+        // the IDs go from 1 to the number of islands, and the steps may be more than the islands left
+        setMotherNaturePos((getMotherNaturePos() - 1 + steps) % islands.getSize() + 1);
     }
 
     /**
@@ -296,17 +306,7 @@ public class GameBoard implements Serializable {
      */
 
     public static void reassignIslandIDs(DoublyLinkedList islands){
-
-        Island head = islands.getHead();
-        if(head.getId() != 1)
-            head.setId(1);
-        Island currentIsland = head;
-        do{
-            if(!(currentIsland.getId() == currentIsland.getNext().getId() - 1))
-                currentIsland.getNext().setId(currentIsland.getId() + 1);
-            currentIsland = currentIsland.getNext();
-        }while(!currentIsland.getNext().equals(head));
-
+        islands.reassignIDs();
     }
 
 }
@@ -0,0 +1,203 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.IslandNotFoundException;
+import it.polimi.ingsw.model.charactercards.StudentsCard;
+import it.polimi.ingsw.utils.Constants;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The list of changes between two versions of a {@link Game}. Every change carries the whole new value of a single
+ * component (an island, a cloud, a hall...), so that applying it does not depend on how the component got there.
+ * Players are referred to by their position in the players' order, which is why a {@code PLAYERS_ORDER} change, if
+ * present, always comes first.
+ */
+
+public class GameDelta implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3184406587208731947L;
+    private static final Color[] COLORS = Color.values();
+    private static final AssistantType[] ASSISTANT_TYPES = AssistantType.values();
+
+    /**
+     * The kinds of component a {@link Change} may refer to.
+     */
+
+    public enum ChangeType {
+        PLAYERS_ORDER,
+        CURRENT_PLAYER,
+        ROUND,
+        MAX_STEPS,
+        MOTHER_NATURE,
+        VETOS,
+        ISLANDS_NUMBER,
+        ISLAND,
+        CLOUD,
+        HALL,
+        TABLES,
+        PROFESSORS,
+        COINS,
+        TOWERS,
+        ASSISTANT_CARDS,
+        CHARACTER_CARD_PLAYED,
+        CHARACTER_CARD
+    }
+
+    /**
+     * A single change. The meaning of {@code index} and {@code values} depends on the {@link ChangeType}:
+     * <ul>
+     *     <li>{@code PLAYERS_ORDER}: for every new position, the previous position of the player;</li>
+     *     <li>{@code CURRENT_PLAYER}: index is the position of the player;</li>
+     *     <li>{@code ROUND}, {@code MAX_STEPS}, {@code MOTHER_NATURE}, {@code VETOS}, {@code ISLANDS_NUMBER}: the
+     *     new value;</li>
+     *     <li>{@code ISLAND}: index is the island ID, values are the students per color, the owner's position,
+     *     the towers and the veto tile;</li>
+     *     <li>{@code CLOUD}: index is the cloud, values are the students per color;</li>
+     *     <li>{@code HALL}, {@code TABLES}: index is the player, values are the students per color;</li>
+     *     <li>{@code PROFESSORS}: index is the player, the value is a bitmask of the colors;</li>
+     *     <li>{@code COINS}, {@code TOWERS}, {@code CHARACTER_CARD_PLAYED}: index is the player, plus the new
+     *     value;</li>
+     *     <li>{@code ASSISTANT_CARDS}: index is the player, values are the latest card played (-1 if none) and
+     *     the bitmask of the cards left in the deck;</li>
+     *     <li>{@code CHARACTER_CARD}: index is the card, values are its cost, its state and, if it holds any,
+     *     the students per color on it.</li>
+     * </ul>
+     *
+     * @param type the kind of component that changed.
+     * @param index the component that changed.
+     * @param values the new value of the component.
+     */
+
+    public record Change(ChangeType type, int index, int... values) implements Serializable {}
+
+    private final List<Change> changes;
+
+    /**
+     * GameDelta constructor.
+     *
+     * @param changes the changes, in the order they have to be applied.
+     */
+
+    public GameDelta(List<Change> changes) {
+        this.changes = new ArrayList<>(changes);
+    }
+
+    /**
+     * Returns the changes, in the order they have to be applied.
+     *
+     * @return the list of {@link Change}s.
+     */
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns a flag that indicates whether the delta carries no change at all.
+     *
+     * @return {@code true} if there are no changes, {@code false} otherwise.
+     */
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Applies all the changes to the given game, which must be in the state the delta was computed from.
+     *
+     * @param game the {@link Game} to update.
+     * @throws IslandNotFoundException if the delta refers to an island the game does not have.
+     */
+
+    public void applyTo(Game game) throws IslandNotFoundException {
+        GameBoard board = game.getBoard();
+        List<Player> players = game.getPlayers();
+        for (Change change : changes) {
+            int[] values = change.values();
+            switch (change.type()) {
+                case PLAYERS_ORDER -> {
+                    List<Player> previousOrder = new ArrayList<>(players);
+                    for (int i = 0; i < values.length; i++)
+                        players.set(i, previousOrder.get(values[i]));
+                }
+                case CURRENT_PLAYER -> game.setCurrentPlayer(players.get(change.index()));
+                case ROUND -> game.setRoundNumber(values[0]);
+                case MAX_STEPS -> game.setMaxSteps(values[0]);
+                case MOTHER_NATURE -> board.setMotherNaturePos(values[0]);
+                case VETOS -> board.setNumOfVetos(values[0]);
+                case ISLANDS_NUMBER -> {
+                    DoublyLinkedList islands = board.getIslands();
+                    while (islands.getSize() > values[0])
+                        islands.removeIsland(islands.getIslandFromID(islands.getSize()));
+                }
+                case ISLAND -> {
+                    Island island = board.getIslands().getIslandFromID(change.index());
+                    setStudents(island.getStudents(), values);
+                    int owner = values[Constants.NUM_COLORS];
+                    island.setOwner(owner < 0 ? null : players.get(owner));
+                    island.setNumOfTowers(values[Constants.NUM_COLORS + 1]);
+                    island.setHasVetoTile(values[Constants.NUM_COLORS + 2] == 1);
+                }
+                case CLOUD -> setStudents(board.getCloud(change.index()).getStudents(), values);
+                case HALL -> setStudents(players.get(change.index()).getSchool().getHall().getStudents(), values);
+                case TABLES -> {
+                    for (Color color : COLORS) {
+                        List<Student> tableStudents =
+                                GameImage.getTable(players.get(change.index()), color).getStudents();
+                        tableStudents.clear();
+                        for (int i = 0; i < values[color.ordinal()]; i++)
+                            tableStudents.add(Student.of(color));
+                    }
+                }
+                case PROFESSORS -> {
+                    for (Color color : COLORS)
+                        GameImage.getTable(players.get(change.index()), color)
+                                .setHasProfessor((values[0] & 1 << color.ordinal()) != 0);
+                }
+                case COINS -> players.get(change.index()).setCoinsWallet(values[0]);
+                case TOWERS -> players.get(change.index()).getSchool().getTowerRoom().setTowersLeft(values[0]);
+                case ASSISTANT_CARDS -> {
+                    Player player = players.get(change.index());
+                    player.setLatestAssistantCardPlayed(values[0] < 0 ? null :
+                            AssistantCard.of(ASSISTANT_TYPES[values[0]]));
+                    player.setDeckMask(values[1]);
+                }
+                case CHARACTER_CARD_PLAYED -> players.get(change.index()).setCharacterCardAlreadyPlayed(values[0] == 1);
+                case CHARACTER_CARD -> {
+                    CharacterCard card = ((GameExpertMode) game).getCharacters()[change.index()];
+                    card.setCost(values[0]);
+                    card.setIsActive(values[1] == 1);
+                    if (card instanceof StudentsCard studentsCard && values.length > 2) {
+                        List<Student> students = new ArrayList<>();
+                        for (Color color : COLORS)
+                            for (int i = 0; i < values[2 + color.ordinal()]; i++)
+                                students.add(Student.of(color));
+                        studentsCard.setStudentsOnTheCard(students);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of a students' container with the given counts.
+     *
+     * @param students the students' list to overwrite.
+     * @param counts the number of students per color, indexed by {@link Color} ordinal.
+     */
+
+    private static void setStudents(List<Student> students, int[] counts) {
+        if (students instanceof StudentGroup group) {
+            group.setCounts(counts);
+            return;
+        }
+        students.clear();
+        for (Color color : COLORS)
+            for (int i = 0; i < counts[color.ordinal()]; i++)
+                students.add(Student.of(color));
+    }
+}
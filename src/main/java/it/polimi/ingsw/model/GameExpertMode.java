@@ -17,6 +17,7 @@ import java.util.*;
 public class GameExpertMode extends Game implements Serializable {
 
     private final CharacterCard[] characters;
+    private final CharacterCard[][] hookedCards; // the cards of the game, by the ordinal of the hook they modify
 
     /**
      * Game (Expert mode) constructor.
@@ -28,6 +29,48 @@ public class GameExpertMode extends Game implements Serializable {
     public GameExpertMode(int playersNumber, Constants constants) {
         super(playersNumber, constants);
         this.characters = new CharacterCard[Constants.CHARACTERS_NUM];
+        this.hookedCards = new CharacterCard[CharacterCardHook.values().length][0];
+    }
+
+    /**
+     * Game (Expert mode) constructor, for a game whose random choices are taken with a generator created from the
+     * given seed.
+     *
+     * @param playersNumber the number of players of the match.
+     * @param constants the useful constants to set for this game.
+     * @param seed the seed of the random generator of the game.
+     */
+
+    public GameExpertMode(int playersNumber, Constants constants, long seed) {
+        super(playersNumber, constants, seed);
+        this.characters = new CharacterCard[Constants.CHARACTERS_NUM];
+        this.hookedCards = new CharacterCard[CharacterCardHook.values().length][0];
+    }
+
+    /**
+     * Copy constructor: copies the game (see {@link Game#copy()}) along with its Character Cards.
+     *
+     * @param other the {@link GameExpertMode} to copy.
+     */
+
+    protected GameExpertMode(GameExpertMode other) {
+        super(other);
+        this.characters = new CharacterCard[other.characters.length];
+        for (int i = 0; i < characters.length; i++)
+            characters[i] = other.characters[i] == null ? null : other.characters[i].copy();
+        this.hookedCards = new CharacterCard[CharacterCardHook.values().length][0];
+        buildHooks();
+    }
+
+    /**
+     * Returns a deep copy of the game, Character Cards included.
+     *
+     * @return the copy of the game.
+     */
+
+    @Override
+    public GameExpertMode copy() {
+        return new GameExpertMode(this);
     }
 
     /**
@@ -86,8 +129,7 @@ public class GameExpertMode extends Game implements Serializable {
                 card.setIsActive(true);
                 found = true;
                 getCurrentPlayer().setCoinsWallet(getCurrentPlayer().getCoinsWallet() - card.getCost());
-                if(card.getId() == 1 || card.getId() == 3 || card.getId() == 5 || card.getId()== 7 ||
-                        card.getId() == 10 || card.getId() == 11 || card.getId() == 12){
+                if(card.getHook() == CharacterCardHook.IMMEDIATE){
                     card.doEffect(this);
                     card.setUpCard();
                 }
@@ -102,29 +144,45 @@ public class GameExpertMode extends Game implements Serializable {
     }
 
     /**
-     * Checks if the card which modifies Mother Nature's maximum number of steps has been activated by the current
-     * player. In case it has, calls the card's doEffect method; in case it hasn't, this method is identical to the
-     * overridden one.
+     * Returns the maximum number of steps the current player may move Mother Nature of, including the extra steps
+     * granted by the active card which modifies it, if any. The card stays active until Mother Nature is moved.
      *
-     * @param steps an {@code int} representing the number of steps the player wishes Mother Nature to move of.
-     * @throws InvalidNumberOfStepsException if the provided number of steps violates the game's rules.
+     * @return the maximum number of Mother Nature steps allowed.
      */
 
     @Override
-    public void moveMotherNature(int steps) throws InvalidNumberOfStepsException {
-
-        setMaxSteps(getCurrentPlayer().getLatestAssistantCardPlayed().getMotherNatureSteps());
-        for (CharacterCard card : characters) {
-            if (card.getId() == 4 && card.getIsActive()) {
+    public int getMotherNatureStepsAllowed() {
+        setMaxSteps(super.getMotherNatureStepsAllowed());
+        for (CharacterCard card : hookedCards[CharacterCardHook.MOTHER_NATURE_STEPS.ordinal()]) {
+            if (card.getIsActive()) {
                 try {
                     card.doEffect(this);
                 } catch (TryAgainException e) {
                     throw new RuntimeException(e);
                 }
-                card.setUpCard();
             }
         }
-        if (steps > getMaxSteps() || steps < Constants.MIN_NUM_OF_STEPS)
+        return getMaxSteps();
+    }
+
+    /**
+     * Checks if the card which modifies Mother Nature's maximum number of steps has been activated by the current
+     * player. In case it has, the extra steps granted by the card are allowed and the card is set up again; in case it
+     * hasn't, this method is identical to the overridden one.
+     *
+     * @param steps an {@code int} representing the number of steps the player wishes Mother Nature to move of.
+     * @throws InvalidNumberOfStepsException if the provided number of steps violates the game's rules.
+     */
+
+    @Override
+    public void moveMotherNature(int steps) throws InvalidNumberOfStepsException {
+
+        int maxSteps = getMotherNatureStepsAllowed();
+        for (CharacterCard card : hookedCards[CharacterCardHook.MOTHER_NATURE_STEPS.ordinal()]) {
+            if (card.getIsActive())
+                card.setUpCard();
+        }
+        if (steps > maxSteps || steps < Constants.MIN_NUM_OF_STEPS)
             throw new InvalidNumberOfStepsException("The number of steps selected is not valid.");
         getBoard().moveMotherNature(steps);
 
@@ -142,8 +200,8 @@ public class GameExpertMode extends Game implements Serializable {
     public void profCheck() throws NonExistentColorException {
 
         boolean done = false;
-        for (CharacterCard card : characters) {
-            if (card.getId() == 2 && card.getIsActive()) {
+        for (CharacterCard card : hookedCards[CharacterCardHook.PROFESSOR_CHECK.ordinal()]) {
+            if (card.getIsActive()) {
                 try {
                     card.doEffect(this);
                 } catch (TryAgainException e) {
@@ -157,7 +215,7 @@ public class GameExpertMode extends Game implements Serializable {
         }
 
         if(!done)
-            Game.profCheckAlgorithm(getPlayers());
+            super.profCheck();
 
     }
 
@@ -171,9 +229,8 @@ public class GameExpertMode extends Game implements Serializable {
     public void islandConquerCheck(int islandID) throws IslandNotFoundException {
       
         boolean done = false;
-        for (CharacterCard card : characters) {
-            if ((card.getId() == 6 || card.getId() == 8 || card.getId() == 9)
-                    && card.getIsActive()) {
+        for (CharacterCard card : hookedCards[CharacterCardHook.ISLAND_CONQUER.ordinal()]) {
+            if (card.getIsActive()) {
                 try {
                     card.doEffect(this);
                 } catch (TryAgainException e) {
@@ -196,6 +253,20 @@ public class GameExpertMode extends Game implements Serializable {
 
     public void addCharacterCards(CharacterCard[] cards){
         System.arraycopy(cards, 0, this.characters, 0, Constants.CHARACTERS_NUM);
+        buildHooks();
+    }
+
+    /**
+     * Groups the Character Cards of the game by the rule they modify, so that each rule only goes through the cards
+     * which may change it, without checking the IDs of all the cards every time it is applied.
+     */
+
+    private void buildHooks() {
+        CharacterCardHook[] hooks = CharacterCardHook.values();
+        for (CharacterCardHook hook : hooks)
+            hookedCards[hook.ordinal()] = Arrays.stream(characters)
+                    .filter(card -> card != null && card.getHook() == hook)
+                    .toArray(CharacterCard[]::new);
     }
 
     /**
@@ -207,13 +278,12 @@ public class GameExpertMode extends Game implements Serializable {
     public void startGame(){
         for(int i = 0; i < getConstants().MAX_HALL_STUDENTS; i++) {
             for (Player player : getPlayers()) {
-                player.getSchool().getHall().addStudent(getBoard().getStudentsBag().remove
-                        (getBoard().getStudentsBag().size() - 1));
+                player.getSchool().getHall().addStudent(getBoard().getStudentsBag().draw());
             }
         }
 
         CharacterCard[] cards = new CharacterCard[Constants.CHARACTERS_NUM];
-        Random random = new Random();
+        GameRandom random = getRandom();
         List<Integer> cardsAlreadyPicked = new ArrayList<>(3);
         for(int i = 0; i < Constants.CHARACTERS_NUM; i++){
             int num;
@@ -240,7 +310,7 @@ public class GameExpertMode extends Game implements Serializable {
         }
         addCharacterCards(cards);
 
-        Collections.shuffle(getPlayers());
+        shufflePlayers();
         setCurrentPlayer(getPlayers().get(0));
 
         getTowersColor().put(getPlayers().get(0), TowerColor.BLACK);
@@ -312,15 +382,15 @@ public class GameExpertMode extends Game implements Serializable {
 
             for(int i = 0; i < getPlayersNumber(); i++) {
                 yellowStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.YELLOW)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.YELLOW);
                 blueStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.BLUE)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.BLUE);
                 greenStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.GREEN)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.GREEN);
                 redStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.RED)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.RED);
                 pinkStudents =
-                        (int) getBoard().getCloud(i).getStudents().stream().filter(x -> x.color().equals(Color.PINK)).count();
+                        getBoard().getCloud(i).getNumOfStudentsOfColor(Color.PINK);
 
                 System.out.print("CLOUD " + (i + 1) + ": ");
                 System.out.println(
@@ -0,0 +1,257 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.IslandNotFoundException;
+import it.polimi.ingsw.model.charactercards.StudentsCard;
+import it.polimi.ingsw.utils.Constants;
+
+import java.util.*;
+
+/**
+ * A compact, immutable picture of everything the views show about a {@link Game}: students are reduced to counts
+ * per {@link Color}, players and owners to nicknames. The server keeps the image of the latest state sent to the
+ * clients, so that the next update only has to carry the differences (see {@link GameDelta}).
+ */
+
+public class GameImage {
+
+    private static final Color[] COLORS = Color.values();
+
+    private final int roundNumber;
+    private final int maxSteps;
+    private final int motherNaturePos;
+    private final int numOfVetos;
+    private final String currentPlayer;
+    private final String[] players;
+    private final int[][] islandStudents;
+    private final String[] islandOwners;
+    private final int[] islandTowers;
+    private final boolean[] islandVetoTiles;
+    private final int[][] cloudStudents;
+    private final int[][] hallStudents;
+    private final int[][] tableStudents;
+    private final int[] professors;
+    private final int[] coins;
+    private final int[] towersLeft;
+    private final int[] latestAssistantCards;
+    private final int[] decks;
+    private final boolean[] characterCardsPlayed;
+    private final int[] characterCosts;
+    private final boolean[] characterActive;
+    private final int[][] characterStudents;
+
+    /**
+     * Takes the picture of the given game.
+     *
+     * @param game the {@link Game} to picture.
+     */
+
+    public GameImage(Game game) {
+        GameBoard board = game.getBoard();
+        this.roundNumber = game.getRoundNumber();
+        this.maxSteps = game.getMaxSteps();
+        this.motherNaturePos = board.getMotherNaturePos();
+        this.numOfVetos = board.getNumOfVetos();
+        this.currentPlayer = game.getCurrentPlayer() == null ? null : game.getCurrentPlayer().getNickname();
+
+        int islandsNum = board.getIslands().getSize();
+        this.islandStudents = new int[islandsNum][];
+        this.islandOwners = new String[islandsNum];
+        this.islandTowers = new int[islandsNum];
+        this.islandVetoTiles = new boolean[islandsNum];
+        for (int i = 0; i < islandsNum; i++) {
+            Island island;
+            try {
+                island = board.getIslands().getIslandFromID(i + 1);
+            } catch (IslandNotFoundException e) {
+                throw new IllegalStateException(e.getMessage());
+            }
+            islandStudents[i] = countStudents(island.getStudents());
+            islandOwners[i] = island.getOwner() == null ? null : island.getOwner().getNickname();
+            islandTowers[i] = island.getNumOfTowers();
+            islandVetoTiles[i] = island.hasVetoTile();
+        }
+
+        this.cloudStudents = new int[game.getPlayersNumber()][];
+        for (int i = 0; i < cloudStudents.length; i++)
+            cloudStudents[i] = countStudents(board.getCloud(i).getStudents());
+
+        int playersNum = game.getPlayers().size();
+        this.players = new String[playersNum];
+        this.hallStudents = new int[playersNum][];
+        this.tableStudents = new int[playersNum][];
+        this.professors = new int[playersNum];
+        this.coins = new int[playersNum];
+        this.towersLeft = new int[playersNum];
+        this.latestAssistantCards = new int[playersNum];
+        this.decks = new int[playersNum];
+        this.characterCardsPlayed = new boolean[playersNum];
+        for (int i = 0; i < playersNum; i++) {
+            Player player = game.getPlayers().get(i);
+            players[i] = player.getNickname();
+            hallStudents[i] = countStudents(player.getSchool().getHall().getStudents());
+            tableStudents[i] = new int[Constants.NUM_COLORS];
+            for (Color color : COLORS) {
+                Table table = getTable(player, color);
+                tableStudents[i][color.ordinal()] = table.getNumOfStudents();
+                if (table.getHasProfessor())
+                    professors[i] |= 1 << color.ordinal();
+            }
+            coins[i] = player.getCoinsWallet();
+            towersLeft[i] = player.getSchool().getTowerRoom().getTowersLeft();
+            latestAssistantCards[i] = player.getLatestAssistantCardPlayed() == null ? -1 :
+                    player.getLatestAssistantCardPlayed().getType().ordinal();
+            decks[i] = player.getDeckMask();
+            characterCardsPlayed[i] = player.getCharacterCardAlreadyPlayed();
+        }
+
+        CharacterCard[] characters = game instanceof GameExpertMode gameExpertMode ?
+                gameExpertMode.getCharacters() : new CharacterCard[0];
+        this.characterCosts = new int[characters.length];
+        this.characterActive = new boolean[characters.length];
+        this.characterStudents = new int[characters.length][];
+        for (int i = 0; i < characters.length; i++) {
+            if (characters[i] == null)
+                continue;
+            characterCosts[i] = characters[i].getCost();
+            characterActive[i] = characters[i].getIsActive();
+            if (characters[i] instanceof StudentsCard studentsCard)
+                characterStudents[i] = countStudents(studentsCard.getStudentsOnTheCard());
+        }
+    }
+
+    /**
+     * Computes the changes that turn the given (older) image into this one.
+     *
+     * @param previous the image of the state the clients currently know.
+     * @return the list of {@link GameDelta.Change}s, in the order they have to be applied.
+     */
+
+    public List<GameDelta.Change> changesSince(GameImage previous) {
+        List<GameDelta.Change> changes = new ArrayList<>();
+
+        // players' order first: every other change refers to the players by their new position
+        Map<String, Integer> previousPositions = new HashMap<>();
+        for (int i = 0; i < previous.players.length; i++)
+            previousPositions.put(previous.players[i], i);
+        int[] order = new int[players.length];
+        boolean reordered = players.length != previous.players.length;
+        for (int i = 0; i < players.length; i++) {
+            order[i] = previousPositions.getOrDefault(players[i], -1);
+            reordered |= order[i] != i;
+        }
+        if (reordered)
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.PLAYERS_ORDER, 0, order));
+        if (!Objects.equals(currentPlayer, previous.currentPlayer))
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.CURRENT_PLAYER, positionOf(currentPlayer)));
+        if (roundNumber != previous.roundNumber)
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.ROUND, 0, roundNumber));
+        if (maxSteps != previous.maxSteps)
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.MAX_STEPS, 0, maxSteps));
+        if (motherNaturePos != previous.motherNaturePos)
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.MOTHER_NATURE, 0, motherNaturePos));
+        if (numOfVetos != previous.numOfVetos)
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.VETOS, 0, numOfVetos));
+
+        // after a merge, the IDs are reassigned: the shifted islands simply show up as changed ones
+        if (islandTowers.length != previous.islandTowers.length)
+            changes.add(new GameDelta.Change(GameDelta.ChangeType.ISLANDS_NUMBER, 0, islandTowers.length));
+        for (int i = 0; i < islandTowers.length; i++) {
+            boolean changed = i >= previous.islandTowers.length
+                    || !Arrays.equals(islandStudents[i], previous.islandStudents[i])
+                    || !Objects.equals(islandOwners[i], previous.islandOwners[i])
+                    || islandTowers[i] != previous.islandTowers[i]
+                    || islandVetoTiles[i] != previous.islandVetoTiles[i];
+            if (changed) {
+                int[] values = Arrays.copyOf(islandStudents[i], Constants.NUM_COLORS + 3);
+                values[Constants.NUM_COLORS] = positionOf(islandOwners[i]);
+                values[Constants.NUM_COLORS + 1] = islandTowers[i];
+                values[Constants.NUM_COLORS + 2] = islandVetoTiles[i] ? 1 : 0;
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.ISLAND, i + 1, values));
+            }
+        }
+
+        for (int i = 0; i < cloudStudents.length; i++)
+            if (i >= previous.cloudStudents.length || !Arrays.equals(cloudStudents[i], previous.cloudStudents[i]))
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.CLOUD, i, cloudStudents[i]));
+
+        for (int i = 0; i < players.length; i++) {
+            int j = order[i];
+            if (j < 0 || !Arrays.equals(hallStudents[i], previous.hallStudents[j]))
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.HALL, i, hallStudents[i]));
+            if (j < 0 || !Arrays.equals(tableStudents[i], previous.tableStudents[j]))
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.TABLES, i, tableStudents[i]));
+            if (j < 0 || professors[i] != previous.professors[j])
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.PROFESSORS, i, professors[i]));
+            if (j < 0 || coins[i] != previous.coins[j])
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.COINS, i, coins[i]));
+            if (j < 0 || towersLeft[i] != previous.towersLeft[j])
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.TOWERS, i, towersLeft[i]));
+            if (j < 0 || latestAssistantCards[i] != previous.latestAssistantCards[j] || decks[i] != previous.decks[j])
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.ASSISTANT_CARDS, i,
+                        latestAssistantCards[i], decks[i]));
+            if (j < 0 || characterCardsPlayed[i] != previous.characterCardsPlayed[j])
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.CHARACTER_CARD_PLAYED, i,
+                        characterCardsPlayed[i] ? 1 : 0));
+        }
+
+        for (int i = 0; i < characterCosts.length; i++) {
+            boolean changed = i >= previous.characterCosts.length
+                    || characterCosts[i] != previous.characterCosts[i]
+                    || characterActive[i] != previous.characterActive[i]
+                    || !Arrays.equals(characterStudents[i], previous.characterStudents[i]);
+            if (changed) {
+                int[] values = new int[characterStudents[i] == null ? 2 : 2 + Constants.NUM_COLORS];
+                values[0] = characterCosts[i];
+                values[1] = characterActive[i] ? 1 : 0;
+                if (characterStudents[i] != null)
+                    System.arraycopy(characterStudents[i], 0, values, 2, Constants.NUM_COLORS);
+                changes.add(new GameDelta.Change(GameDelta.ChangeType.CHARACTER_CARD, i, values));
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Returns the position of the given player in the players' order of this image.
+     *
+     * @param nickname the nickname of the player.
+     * @return the position of the player, or -1 if the nickname is {@code null} or unknown.
+     */
+
+    private int positionOf(String nickname) {
+        for (int i = 0; i < players.length; i++)
+            if (players[i].equals(nickname))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Counts the given students by color.
+     *
+     * @param students the students to count ({@code null} elements are skipped).
+     * @return an array with the number of students of every color, indexed by {@link Color} ordinal.
+     */
+
+    static int[] countStudents(Collection<Student> students) {
+        if (students instanceof StudentGroup group)
+            return group.getCounts();
+        int[] counts = new int[Constants.NUM_COLORS];
+        for (Student student : students)
+            if (student != null)
+                counts[student.color().ordinal()]++;
+        return counts;
+    }
+
+    /**
+     * Returns the table of the given color of a player's school.
+     *
+     * @param player the owner of the school.
+     * @param color the color of the table.
+     * @return the {@link Table} of the given color.
+     */
+
+    static Table getTable(Player player, Color color) {
+        return player.getSchool().getTable(color);
+    }
+}
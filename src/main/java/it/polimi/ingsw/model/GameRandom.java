@@ -0,0 +1,94 @@
+package it.polimi.ingsw.model;
+
+import java.io.Serializable;
+
+/**
+ * The random generator of a game. It produces the same sequence as a {@link java.util.SplittableRandom} created with
+ * the same seed (it is the same SplitMix64 algorithm), but its whole state is a single {@code long}, so it can be
+ * copied along with the game without advancing the original generator: a copy of a game draws the same students the
+ * original would.
+ */
+
+public class GameRandom implements Serializable {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * GameRandom constructor.
+     *
+     * @param seed the seed of the generator.
+     */
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns a copy of the generator, which will produce the same values as this one from now on.
+     *
+     * @return the copy of the generator.
+     */
+
+    public GameRandom copy() {
+        return new GameRandom(state);
+    }
+
+    /**
+     * Returns the whole state of the generator: a generator created with it as seed produces the same values as this
+     * one from now on.
+     *
+     * @return the state of the generator.
+     */
+
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Returns a pseudo-random {@code long}.
+     *
+     * @return the next value of the sequence.
+     */
+
+    public long nextLong() {
+        long z = state += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a pseudo-random {@code int} between 0 (included) and the given bound (excluded), each value being
+     * equally likely.
+     *
+     * @param bound the upper bound of the value (must be positive).
+     * @return the next value of the sequence, in the given range.
+     * @throws IllegalArgumentException if the bound is not positive.
+     */
+
+    public int nextInt(int bound) throws IllegalArgumentException {
+        if (bound <= 0)
+            throw new IllegalArgumentException("The bound must be positive.");
+        int r = nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0) // power of two
+            return r & m;
+        // rejects the values of the last, incomplete, range of size bound
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1);
+        return r;
+    }
+
+    /**
+     * Returns a pseudo-random {@code int}.
+     *
+     * @return the next value of the sequence.
+     */
+
+    private int nextInt() {
+        long z = state += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
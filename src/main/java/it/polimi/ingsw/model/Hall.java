@@ -3,9 +3,7 @@ package it.polimi.ingsw.model;
 import it.polimi.ingsw.exceptions.StudentNotFoundException;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * The Hall is a third of the {@link School}. It holds the students that may be moved to the School's dining room or
@@ -14,7 +12,7 @@ import java.util.Optional;
 
 public class Hall implements Serializable {
 
-    private final ArrayList<Student> students;
+    private final StudentGroup students;
 
     /**
      * Hall constructor.
@@ -22,7 +20,17 @@ public class Hall implements Serializable {
      */
 
     public Hall() {
-        students = new ArrayList<>();
+        students = new StudentGroup();
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Hall} to copy.
+     */
+
+    Hall(Hall other) {
+        students = new StudentGroup(other.students);
     }
 
     /**
@@ -54,16 +62,34 @@ public class Hall implements Serializable {
      */
 
     public Student removeStudent(String color) throws StudentNotFoundException {
+        Color studentColor = Color.fromString(color);
+        if(studentColor == null)
+            throw new StudentNotFoundException("There's no " + color + " student in the hall!");
+        return removeStudent(studentColor);
+    }
 
-        Optional<Student> studentToRemove =
-                this.students.stream().filter(student -> student.color().toString().equals(color)).findFirst();
+    /**
+     * Returns a student of the given color, removing it from the ones in the {@link Hall}, if such student is present.
+     *
+     * @param color the {@link Color} of the student to remove.
+     * @return the student of the desired color.
+     * @throws StudentNotFoundException if a student of the given color does not currently exist in the {@link Hall}.
+     */
 
-        if(studentToRemove.isPresent()) {
-            this.students.remove(studentToRemove.get());
-            return studentToRemove.get();
-        }
-        else
+    public Student removeStudent(Color color) throws StudentNotFoundException {
+        if(!students.remove(color))
             throw new StudentNotFoundException("There's no " + color + " student in the hall!");
+        return Student.of(color);
+    }
+
+    /**
+     * Returns the number of students of a specific color in the {@link Hall}.
+     *
+     * @param color the given {@link Color}.
+     * @return an {@code int} representing the number of students of the given color.
+     */
 
+    public int getNumOfStudentsOfColor(Color color){
+        return students.count(color);
     }
 }
@@ -6,7 +6,6 @@ import it.polimi.ingsw.model.charactercards.Centaur;
 
 import java.io.Serializable;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * The Island is one of the "physical" elements of the game. Two or more islands form an archipelagos, which has a
@@ -21,7 +20,7 @@ public class Island implements Serializable {
     private Player owner;
     private int id;
     private int numOfTowers;
-    private final List<Student> students;
+    private final StudentGroup students;
     private Island prev; // to iterate the DoublyLinkedList islands
     private Island next; // to iterate the DoublyLinkedList islands
     private boolean hasVetoTile; // when the flag is true, it's not possible to calculate the influences
@@ -35,11 +34,26 @@ public class Island implements Serializable {
     public Island(int id) {
         this.id = id;
         this.hasVetoTile = false;
-        this.students = new ArrayList<>();
+        this.students = new StudentGroup();
         this.owner = null;
         this.numOfTowers = 0;
     }
 
+    /**
+     * Copy constructor. The copy is not linked to any other island.
+     *
+     * @param other the {@link Island} to copy.
+     * @param owner the copy of the owner of the island, or {@code null} if the island has no owner.
+     */
+
+    Island(Island other, Player owner) {
+        this.id = other.id;
+        this.hasVetoTile = other.hasVetoTile;
+        this.students = new StudentGroup(other.students);
+        this.owner = owner;
+        this.numOfTowers = other.numOfTowers;
+    }
+
     /**
      * Returns the ID of the island.
      *
@@ -269,17 +283,7 @@ public class Island implements Serializable {
      */
 
     public int influenceCalcStudents(Player currentPlayer) throws NonExistentColorException {
-
-        int validStudents = 0;
-
-        for(Student student : students){
-            // check if the professor (with the same color of the student) is present in the player's school
-            if(currentPlayer.getSchool().getTable(student.color().toString()).getHasProfessor()){
-                validStudents++;
-            }
-        }
-
-        return validStudents;
+        return studentsInfluence(currentPlayer.getSchool().getProfessors());
     }
 
     /**
@@ -287,7 +291,7 @@ public class Island implements Serializable {
      * account a given color.
      *
      * @param currentPlayer the {@link Player} whose influence needs to be calculated.
-     * @param color the {@link Color} to exclude from the calculation.
+     * @param color the {@link Color} to exclude from the calculation ({@code null} to exclude none).
      * @return an {@code int} representing the given player's total amount of students eligible for influence points
      * on the island.
      * @throws NonExistentColorException if a table of a non-existent color is somehow accessed (it should never
@@ -295,23 +299,28 @@ public class Island implements Serializable {
      */
 
     public int influenceCalcStudents(Player currentPlayer, Color color) throws NonExistentColorException {
+        int professors = currentPlayer.getSchool().getProfessors();
+        // skips the desired color
+        if(color != null)
+            professors &= ~(1 << color.ordinal());
+        return studentsInfluence(professors);
+    }
 
-        int validStudents = 0;
-
-        for(Student student : students){
-
-            // skips the desired color
-            if(student.color().equals(color)) continue;
-
-            // check if the professor (with the same color of the student) is present in the player's school
-            if(currentPlayer.getSchool().getTable(student.color().toString()).getHasProfessor()){
-                validStudents++;
-            }
+    /**
+     * Returns the number of students on the island whose professor is in the given set.
+     *
+     * @param professors a bit mask with a bit set for the ordinal of the {@link Color} of each professor.
+     * @return the number of students that give influence points to the owner of the given professors.
+     */
 
+    private int studentsInfluence(int professors) {
+        int validStudents = 0;
+        for(Color color : Color.values()){
+            // check if the professor (with the same color of the students) is present in the player's school
+            if((professors & 1 << color.ordinal()) != 0)
+                validStudents += students.count(color);
         }
-
         return validStudents;
-
     }
 
     /**
@@ -322,6 +331,18 @@ public class Island implements Serializable {
      */
 
     public int getNumOfStudentsOfColor(String color){
-        return (int) students.stream().filter(x -> x.color().toString().equals(color)).count();
+        Color studentColor = Color.fromString(color);
+        return studentColor == null ? 0 : getNumOfStudentsOfColor(studentColor);
+    }
+
+    /**
+     * Returns the number of students of a specific color on the island.
+     *
+     * @param color the given {@link Color}.
+     * @return an {@code int} representing the number of students of the given color.
+     */
+
+    public int getNumOfStudentsOfColor(Color color){
+        return students.count(color);
     }
 }
@@ -9,7 +9,6 @@ import it.polimi.ingsw.utils.Constants;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * This class is the representation of a playing client in the game model. It holds all the data unique to each player
@@ -21,9 +20,11 @@ import java.util.Optional;
 
 public class Player implements Serializable {
 
+    private static final int FULL_DECK = (1 << AssistantType.values().length) - 1;
+
     private final Wizard wizardID;
     private final String nickname;
-    private List<AssistantCard> deck;
+    private int deck; // one bit per Assistant Card still in the deck, by AssistantType ordinal
     private final School school;
     private int coinsWallet;
     private AssistantCard latestAssistantCardPlayed;
@@ -43,31 +44,41 @@ public class Player implements Serializable {
         this.coinsWallet = 1;
 
         // building the Assistant Card deck
-        this.deck = new ArrayList<>(10);
-        this.deck.add(new AssistantCard(AssistantType.CHEETAH));
-        this.deck.add(new AssistantCard(AssistantType.OSTRICH));
-        this.deck.add(new AssistantCard(AssistantType.CAT));
-        this.deck.add(new AssistantCard(AssistantType.EAGLE));
-        this.deck.add(new AssistantCard(AssistantType.FOX));
-        this.deck.add(new AssistantCard(AssistantType.SNAKE));
-        this.deck.add(new AssistantCard(AssistantType.OCTOPUS));
-        this.deck.add(new AssistantCard(AssistantType.DOG));
-        this.deck.add(new AssistantCard(AssistantType.ELEPHANT));
-        this.deck.add(new AssistantCard(AssistantType.TURTLE));
+        this.deck = FULL_DECK;
 
         this.school = new School(constants);
         this.latestAssistantCardPlayed = null;
         this.characterCardAlreadyPlayed = false;
     }
 
+    /**
+     * Copy constructor. The school of the copy is not registered with any {@link ProfessorIndex}.
+     *
+     * @param other the {@link Player} to copy.
+     */
+
+    Player(Player other) {
+        this.wizardID = other.wizardID;
+        this.nickname = other.nickname;
+        this.coinsWallet = other.coinsWallet;
+        this.deck = other.deck;
+        this.school = new School(other.school);
+        this.latestAssistantCardPlayed = other.latestAssistantCardPlayed;
+        this.characterCardAlreadyPlayed = other.characterCardAlreadyPlayed;
+    }
+
     /**
      * Returns a list of the Assistant Cards currently present in the player's deck.
      *
-     * @return a list of the Assistant Cards currently present in the player's deck.
+     * @return a new list of the Assistant Cards currently present in the player's deck, sorted by weight.
      */
 
     public List<AssistantCard> getDeck() {
-        return deck;
+        List<AssistantCard> cards = new ArrayList<>(Integer.bitCount(deck));
+        for (AssistantType assistantType : AssistantType.values())
+            if ((deck & assistantType.mask()) != 0)
+                cards.add(AssistantCard.of(assistantType));
+        return cards;
     }
 
     /**
@@ -77,9 +88,41 @@ public class Player implements Serializable {
      */
 
     public void setDeck(List<AssistantCard> deck) {
+        this.deck = 0;
+        for (AssistantCard card : deck)
+            this.deck |= card.getType().mask();
+    }
+
+    /**
+     * Returns the Assistant Cards currently present in the player's deck.
+     *
+     * @return a bit mask with a bit set for the ordinal of the {@link AssistantType} of each card in the deck.
+     */
+
+    public int getDeckMask() {
+        return deck;
+    }
+
+    /**
+     * Updates the Assistant Cards currently present in the player's deck.
+     *
+     * @param deck a bit mask with a bit set for the ordinal of the {@link AssistantType} of each card in the deck.
+     */
+
+    public void setDeckMask(int deck) {
         this.deck = deck;
     }
 
+    /**
+     * Returns the bit of the Assistant Card played by the player in the current round.
+     *
+     * @return the {@link AssistantType#mask()} of the latest card played, or 0 if the player hasn't played one yet.
+     */
+
+    public int getLatestAssistantCardPlayedMask() {
+        return latestAssistantCardPlayed == null ? 0 : latestAssistantCardPlayed.getType().mask();
+    }
+
     /**
      * Returns the player's nickname.
      *
@@ -188,7 +231,8 @@ public class Player implements Serializable {
     public void playAssistantCard(String cardName) {
         AssistantCard chosenCard = getAssistantCardFromName(cardName);
         this.latestAssistantCardPlayed = chosenCard;
-        getDeck().remove(chosenCard);
+        if (chosenCard != null)
+            deck &= ~chosenCard.getType().mask();
     }
 
     /**
@@ -200,9 +244,10 @@ public class Player implements Serializable {
      */
 
     public AssistantCard getAssistantCardFromName(String cardName){
-        Optional <AssistantCard> assistantCard  =
-                getDeck().stream().filter(card -> card.getName().equals(cardName)).findFirst();
-        return assistantCard.orElse(null);
+        AssistantType assistantType = AssistantType.fromName(cardName);
+        if (assistantType == null || (deck & assistantType.mask()) == 0)
+            return null;
+        return AssistantCard.of(assistantType);
     }
 
     /**
@@ -232,6 +277,30 @@ public class Player implements Serializable {
         this.school.moveStudentToTable(this, color);
     }
 
+    /**
+     * Moves a student of the chosen color to the chosen island, if possible.
+     *
+     * @param island the island to move the student to.
+     * @param color the {@link Color} of the student to move.
+     * @throws StudentNotFoundException if a student of the chosen color does not exist in the player's hall.
+     */
+
+    public void moveStudent(Island island, Color color) throws StudentNotFoundException {
+        this.school.moveStudentToIsland(island, color);
+    }
+
+    /**
+     * Moves a student of the chosen color to the proper table in the player's {@link School}.
+     *
+     * @param color the {@link Color} of the student to move.
+     * @throws StudentNotFoundException if a student of the chosen color does not exist in the player's hall.
+     * @throws FullTableException if the table of the chosen color is full.
+     */
+
+    public void moveStudent(Color color) throws StudentNotFoundException, FullTableException {
+        this.school.moveStudentToTable(this, color);
+    }
+
     /**
      * Allows the CLI to properly show the player's school.
      */
@@ -242,15 +311,15 @@ public class Player implements Serializable {
 
         int yellowStudents, blueStudents, greenStudents, redStudents, pinkStudents;
         yellowStudents =
-                (int) this.getSchool().getHall().getStudents().stream().filter(x -> x.color().equals(Color.YELLOW)).count();
+                this.getSchool().getHall().getNumOfStudentsOfColor(Color.YELLOW);
         blueStudents =
-                (int) this.getSchool().getHall().getStudents().stream().filter(x -> x.color().equals(Color.BLUE)).count();
+                this.getSchool().getHall().getNumOfStudentsOfColor(Color.BLUE);
         greenStudents =
-                (int) this.getSchool().getHall().getStudents().stream().filter(x -> x.color().equals(Color.GREEN)).count();
+                this.getSchool().getHall().getNumOfStudentsOfColor(Color.GREEN);
         redStudents =
-                (int) this.getSchool().getHall().getStudents().stream().filter(x -> x.color().equals(Color.RED)).count();
+                this.getSchool().getHall().getNumOfStudentsOfColor(Color.RED);
         pinkStudents =
-                (int) this.getSchool().getHall().getStudents().stream().filter(x -> x.color().equals(Color.PINK)).count();
+                this.getSchool().getHall().getNumOfStudentsOfColor(Color.PINK);
 
         System.out.println("Hall: " +
                 ANSIConstants.ANSI_YELLOW + yellowStudents + ANSIConstants.ANSI_RESET + " " +
@@ -259,25 +328,11 @@ public class Player implements Serializable {
                 ANSIConstants.ANSI_RED + redStudents + ANSIConstants.ANSI_RESET + " " +
                 ANSIConstants.ANSI_PINK + pinkStudents + ANSIConstants.ANSI_RESET);
 
-        yellowStudents = -1;
-        blueStudents = -1;
-        greenStudents = -1;
-        redStudents = -1;
-        pinkStudents = -1;
-
-        try {
-
-            yellowStudents =
-                    (int) this.getSchool().getTable("YELLOW").getStudents().stream().filter(x -> x.color().equals(Color.YELLOW)).count();
-            blueStudents =
-                    (int) this.getSchool().getTable("BLUE").getStudents().stream().filter(x -> x.color().equals(Color.BLUE)).count();
-            greenStudents =
-                    (int) this.getSchool().getTable("GREEN").getStudents().stream().filter(x -> x.color().equals(Color.GREEN)).count();
-            redStudents =
-                    (int) this.getSchool().getTable("RED").getStudents().stream().filter(x -> x.color().equals(Color.RED)).count();
-            pinkStudents =
-                    (int) this.getSchool().getTable("PINK").getStudents().stream().filter(x -> x.color().equals(Color.PINK)).count();
-        } catch(NonExistentColorException ignored){}
+        yellowStudents = this.getSchool().getTable(Color.YELLOW).getNumOfStudents();
+        blueStudents = this.getSchool().getTable(Color.BLUE).getNumOfStudents();
+        greenStudents = this.getSchool().getTable(Color.GREEN).getNumOfStudents();
+        redStudents = this.getSchool().getTable(Color.RED).getNumOfStudents();
+        pinkStudents = this.getSchool().getTable(Color.PINK).getNumOfStudents();
 
         System.out.println("Students per table: " +
                 ANSIConstants.ANSI_YELLOW + yellowStudents + ANSIConstants.ANSI_RESET + " " +
@@ -292,24 +347,20 @@ public class Player implements Serializable {
         String greenProf = "no";
         String redProf = "no";
         String pinkProf = "no";
-        try {
-
-            if (this.getSchool().getTable("YELLOW").getHasProfessor())
-                yellowProf = "yes";
-
-            if (this.getSchool().getTable("BLUE").getHasProfessor())
-                blueProf = "yes";
+        if (this.getSchool().getTable(Color.YELLOW).getHasProfessor())
+            yellowProf = "yes";
 
-            if (this.getSchool().getTable("GREEN").getHasProfessor())
-                greenProf = "yes";
+        if (this.getSchool().getTable(Color.BLUE).getHasProfessor())
+            blueProf = "yes";
 
-            if (this.getSchool().getTable("RED").getHasProfessor())
-                redProf = "yes";
+        if (this.getSchool().getTable(Color.GREEN).getHasProfessor())
+            greenProf = "yes";
 
-            if (this.getSchool().getTable("PINK").getHasProfessor())
-                pinkProf = "yes";
+        if (this.getSchool().getTable(Color.RED).getHasProfessor())
+            redProf = "yes";
 
-        } catch(NonExistentColorException ignored){}
+        if (this.getSchool().getTable(Color.PINK).getHasProfessor())
+            pinkProf = "yes";
 
         System.out.println(
                 ANSIConstants.ANSI_YELLOW + yellowProf + ANSIConstants.ANSI_RESET + " " +
@@ -0,0 +1,106 @@
+package it.polimi.ingsw.model;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Keeps track of the professors of a game: who owns each of them, and which colors have seen their tables change
+ * since the professors were last checked. The tables of the players notify the index whenever a student is seated
+ * or removed, so that checking the professors after a move only involves the color of the moved student, instead of
+ * every color of every school.
+ */
+
+public class ProfessorIndex implements Serializable {
+
+    private static final int ALL_COLORS = (1 << Color.values().length) - 1;
+
+    private final Player[] owners;
+    private int changedColors; // one bit per color, by ordinal
+
+    /**
+     * ProfessorIndex constructor.
+     */
+
+    public ProfessorIndex() {
+        this.owners = new Player[Color.values().length];
+        this.changedColors = 0;
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link ProfessorIndex} to copy.
+     * @param players the copy of each player of the game the index refers to.
+     */
+
+    ProfessorIndex(ProfessorIndex other, Map<Player, Player> players) {
+        this.owners = new Player[other.owners.length];
+        for (int i = 0; i < owners.length; i++)
+            owners[i] = players.get(other.owners[i]);
+        this.changedColors = other.changedColors;
+    }
+
+    /**
+     * Returns the player who owns the professor of the given color.
+     *
+     * @param color the {@link Color} of the professor.
+     * @return the owner of the professor, or {@code null} if nobody has claimed it.
+     */
+
+    public Player getOwner(Color color) {
+        return owners[color.ordinal()];
+    }
+
+    /**
+     * Records the owner of the professor of the given color.
+     *
+     * @param color the {@link Color} of the professor.
+     * @param owner the new owner of the professor, or {@code null} if nobody owns it.
+     */
+
+    public void setOwner(Color color, Player owner) {
+        owners[color.ordinal()] = owner;
+    }
+
+    /**
+     * Notes that a table of the given color has changed, so that its professor has to be checked again.
+     *
+     * @param color the {@link Color} of the table.
+     */
+
+    public void tableChanged(Color color) {
+        changedColors |= 1 << color.ordinal();
+    }
+
+    /**
+     * Notes that every professor has to be checked again, for example because a new school has joined the game.
+     */
+
+    public void allTablesChanged() {
+        changedColors = ALL_COLORS;
+    }
+
+    /**
+     * Returns the colors whose tables have changed since the last call, and forgets them.
+     *
+     * @return a bit mask with a bit set for the ordinal of each changed {@link Color}.
+     */
+
+    public int takeChangedColors() {
+        int colors = changedColors;
+        changedColors = 0;
+        return colors;
+    }
+
+    /**
+     * Checks if the given color is part of a bit mask returned by {@link #takeChangedColors()}.
+     *
+     * @param colors the bit mask.
+     * @param color the {@link Color} to check.
+     * @return {@code true} if the color is in the mask, {@code false} otherwise.
+     */
+
+    public static boolean contains(int colors, Color color) {
+        return (colors & 1 << color.ordinal()) != 0;
+    }
+}
@@ -37,6 +37,20 @@ public class School implements Serializable {
         this.towerRoom = new TowerRoom(constants.MAX_TOWERS);
     }
 
+    /**
+     * Copy constructor. The tables of the copy are not registered with any {@link ProfessorIndex}.
+     *
+     * @param other the {@link School} to copy.
+     */
+
+    School(School other){
+        this.tables = new Table[other.tables.length];
+        for(int i = 0; i < tables.length; i++)
+            tables[i] = new Table(other.tables[i]);
+        this.hall = new Hall(other.hall);
+        this.towerRoom = new TowerRoom(other.towerRoom);
+    }
+
     /**
      * Returns the school's {@link Hall}.
      *
@@ -57,12 +71,46 @@ public class School implements Serializable {
      */
 
     public Table getTable(String color) throws NonExistentColorException {
-        for (Table table : tables) {
-            if (table.getColor().toString().equals(color))
-                return table;
-        }
-        throw new NonExistentColorException("No " + color + " table was found.");
+        Color tableColor = Color.fromString(color);
+        if (tableColor == null)
+            throw new NonExistentColorException("No " + color + " table was found.");
+        return getTable(tableColor);
+    }
+
+    /**
+     * Returns the table of the given color between the ones in the school.
+     *
+     * @param color the {@link Color} of the desired table.
+     * @return the table of the desired color from the school.
+     */
+
+    public Table getTable(Color color) {
+        return tables[color.ordinal()];
+    }
+
+    /**
+     * Returns the professors the school currently has.
+     *
+     * @return a bit mask with a bit set for the ordinal of the {@link Color} of each professor.
+     */
+
+    public int getProfessors() {
+        int professors = 0;
+        for (Table table : tables)
+            if (table.getHasProfessor())
+                professors |= 1 << table.getColor().ordinal();
+        return professors;
+    }
+
+    /**
+     * Lets the tables of the school notify the given index of the professors whenever their students change.
+     *
+     * @param professorIndex the {@link ProfessorIndex} of the game the school takes part in.
+     */
 
+    void setProfessorIndex(ProfessorIndex professorIndex) {
+        for (Table table : tables)
+            table.setProfessorIndex(professorIndex);
     }
 
     /**
@@ -86,7 +134,25 @@ public class School implements Serializable {
      */
 
     public void moveStudentToIsland(Island island, String color) throws StudentNotFoundException {
-        this.hall.removeStudent(color).moveToIsland(island);
+        Color studentColor = Color.fromString(color);
+        if (studentColor == null)
+            throw new StudentNotFoundException("There's no " + color + " student in the hall!");
+        moveStudentToIsland(island, studentColor);
+    }
+
+    /**
+     * Actually removes a student of the given color from the {@link Hall} and puts it onto the given {@link Island},
+     * if possible.
+     *
+     * @param island the {@link Island} to move the student to.
+     * @param color the {@link Color} of the student to move.
+     * @throws StudentNotFoundException if a student of the given color does not currently exist in the school's
+     * {@link Hall}.
+     */
+
+    public void moveStudentToIsland(Island island, Color color) throws StudentNotFoundException {
+        this.hall.removeStudent(color);
+        island.getStudents().add(Student.of(color));
     }
 
     /**
@@ -104,7 +170,28 @@ public class School implements Serializable {
 
     public void moveStudentToTable(Player player, String color) throws
             StudentNotFoundException, NonExistentColorException, FullTableException {
-        this.hall.removeStudent(color).moveToTable(player);
+        Color studentColor = Color.fromString(color);
+        if (studentColor == null)
+            throw new StudentNotFoundException("There's no " + color + " student in the hall!");
+        moveStudentToTable(player, studentColor);
+    }
+
+    /**
+     * Actually removes a student of the given color from the {@link Hall} and places it at the proper school's
+     * {@link Table}, if possible. The hall is left untouched if the table is full.
+     *
+     * @param player the player whose coins' wallet may be updated.
+     * @param color the {@link Color} of the student to move.
+     * @throws StudentNotFoundException if a student of the given color does not currently exist in the school's
+     * {@link Hall}.
+     * @throws FullTableException if the table of the given color present in the school is currently full.
+     */
+
+    public void moveStudentToTable(Player player, Color color) throws StudentNotFoundException, FullTableException {
+        if (hall.getNumOfStudentsOfColor(color) == 0)
+            throw new StudentNotFoundException("There's no " + color + " student in the hall!");
+        getTable(color).addStudent(Student.of(color), player);
+        this.hall.removeStudent(color);
     }
 
 }
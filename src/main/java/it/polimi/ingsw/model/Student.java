@@ -4,6 +4,7 @@ import it.polimi.ingsw.exceptions.FullTableException;
 import it.polimi.ingsw.exceptions.NonExistentColorException;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * The students are the "passive" protagonists of the game. Each player can decide for their lives, and place them
@@ -13,6 +14,9 @@ import java.io.Serializable;
 
 public record Student(Color color) implements Serializable {
 
+    private static final Student[] STUDENTS =
+            Arrays.stream(Color.values()).map(Student::new).toArray(Student[]::new);
+
     /**
      * Student constructor.
      */
@@ -20,6 +24,18 @@ public record Student(Color color) implements Serializable {
     public Student {
     }
 
+    /**
+     * Returns the shared student of the given color. Students of the same color are indistinguishable, so there is no
+     * need for more than one instance per color.
+     *
+     * @param color the {@link Color} of the student.
+     * @return the {@link Student} of the given color.
+     */
+
+    public static Student of(Color color) {
+        return STUDENTS[color.ordinal()];
+    }
+
     /**
      * Returns the color of the student.
      *
@@ -61,7 +77,7 @@ public record Student(Color color) implements Serializable {
      */
 
     public void moveToTable(Player player) throws NonExistentColorException, FullTableException {
-        player.getSchool().getTable(this.color.toString()).addStudent(this, player);
+        player.getSchool().getTable(this.color).addStudent(this, player);
     }
 
 }
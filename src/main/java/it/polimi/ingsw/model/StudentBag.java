@@ -0,0 +1,92 @@
+package it.polimi.ingsw.model;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The bag the students are drawn from. Like every other {@link StudentGroup}, it only keeps how many students of each
+ * {@link Color} it holds, so students put back into the bag (by the {@link it.polimi.ingsw.model.charactercards.Thief},
+ * for example) are mixed with the others straight away and the bag never needs to be shuffled. Each draw picks a
+ * color with a probability proportional to the number of its students left, in constant time.
+ * The draws come from the random generator of the game, so a game created with a given seed always draws the same
+ * students. The generator is not sent along with the bag: it stays on the server, where the draws take place.
+ */
+
+public class StudentBag extends StudentGroup {
+
+    private static final Color[] COLORS = Color.values();
+
+    private transient GameRandom random;
+
+    /**
+     * StudentBag constructor, for an empty bag.
+     *
+     * @param random the random generator the students are drawn with.
+     */
+
+    public StudentBag(GameRandom random) {
+        super();
+        this.random = random;
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link StudentBag} to copy.
+     * @param random the random generator the students of the copy are drawn with.
+     */
+
+    StudentBag(StudentBag other, GameRandom random) {
+        super(other);
+        this.random = random;
+    }
+
+    /**
+     * Sets the random generator the students are drawn with.
+     *
+     * @param random the new random generator.
+     */
+
+    public void setRandom(GameRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Removes a random student from the bag and returns it.
+     *
+     * @return the drawn {@link Student}.
+     * @throws NoSuchElementException if the bag is empty.
+     */
+
+    public Student draw() throws NoSuchElementException {
+        if (isEmpty())
+            throw new NoSuchElementException("The student bag is empty!");
+        int index = random.nextInt(size());
+        for (Color color : COLORS) {
+            int count = count(color);
+            if (index < count) {
+                remove(color);
+                return Student.of(color);
+            }
+            index -= count;
+        }
+        throw new IllegalStateException("The student bag counts are inconsistent."); // should never happen
+    }
+
+    /**
+     * Removes the given number of random students from the bag and returns them.
+     *
+     * @param n the number of students to draw.
+     * @return a {@link StudentGroup} containing the drawn students.
+     * @throws NoSuchElementException if there are less than {@code n} students in the bag (in this case, nothing is
+     * drawn).
+     */
+
+    public StudentGroup draw(int n) throws NoSuchElementException {
+        if (n > size())
+            throw new NoSuchElementException("The student bag holds only " + size() + " students!");
+        StudentGroup drawn = new StudentGroup();
+        for (int i = 0; i < n; i++)
+            drawn.add(draw().color());
+        return drawn;
+    }
+}
@@ -0,0 +1,241 @@
+package it.polimi.ingsw.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+
+/**
+ * A group of students, as held by the {@link Hall}, the {@link Table}s, the {@link Island}s and the {@link Cloud}s.
+ * Students of the same color are indistinguishable, so the group only keeps how many students of each {@link Color}
+ * it holds: adding, removing and counting the students of a color take constant time, and no {@link Student} object
+ * is kept around. The group can still be used as a list of students, which are listed grouped by color.
+ */
+
+public class StudentGroup extends AbstractList<Student> implements Serializable {
+
+    private static final Color[] COLORS = Color.values();
+
+    private final int[] counts;
+    private int size;
+
+    /**
+     * StudentGroup constructor, for an empty group.
+     */
+
+    public StudentGroup() {
+        this.counts = new int[COLORS.length];
+        this.size = 0;
+    }
+
+    /**
+     * StudentGroup constructor, for a group holding the given students.
+     *
+     * @param students the students to put in the group.
+     */
+
+    public StudentGroup(Collection<? extends Student> students) {
+        this();
+        addAll(students);
+    }
+
+    /**
+     * Returns the number of students of the given color in the group.
+     *
+     * @param color the {@link Color} of the students.
+     * @return the number of students of the given color.
+     */
+
+    public int count(Color color) {
+        return counts[color.ordinal()];
+    }
+
+    /**
+     * Returns the number of students of each color in the group.
+     *
+     * @return a copy of the counts, indexed by {@link Color} ordinal.
+     */
+
+    public int[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Replaces the content of the group with the given number of students of each color.
+     *
+     * @param counts the number of students per color, indexed by {@link Color} ordinal.
+     */
+
+    public void setCounts(int[] counts) {
+        size = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = counts[i];
+            size += counts[i];
+        }
+        modCount++;
+    }
+
+    /**
+     * Adds a student of the given color to the group.
+     *
+     * @param color the {@link Color} of the student.
+     */
+
+    public void add(Color color) {
+        counts[color.ordinal()]++;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes a student of the given color from the group, if there is one.
+     *
+     * @param color the {@link Color} of the student.
+     * @return {@code true} if a student has been removed, {@code false} if there is no student of the given color.
+     */
+
+    public boolean remove(Color color) {
+        if (counts[color.ordinal()] == 0)
+            return false;
+        counts[color.ordinal()]--;
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the student at the given position of the group, where the students are listed grouped by color.
+     *
+     * @param index the position of the student.
+     * @return the {@link Student}.
+     */
+
+    @Override
+    public Student get(int index) {
+        return Student.of(COLORS[colorIndexAt(index)]);
+    }
+
+    /**
+     * Returns the number of students in the group.
+     *
+     * @return the number of students.
+     */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a student to the group.
+     *
+     * @param student the {@link Student} to add.
+     * @return always {@code true}.
+     */
+
+    @Override
+    public boolean add(Student student) {
+        add(student.color());
+        return true;
+    }
+
+    /**
+     * Adds a student to the group. The position is ignored, since the students are always listed grouped by color.
+     *
+     * @param index ignored.
+     * @param student the {@link Student} to add.
+     */
+
+    @Override
+    public void add(int index, Student student) {
+        add(student.color());
+    }
+
+    /**
+     * Adds the given students to the group.
+     *
+     * @param students the students to add.
+     * @return {@code true} if the group has changed.
+     */
+
+    @Override
+    public boolean addAll(Collection<? extends Student> students) {
+        if (students instanceof StudentGroup group) {
+            for (int i = 0; i < counts.length; i++)
+                counts[i] += group.counts[i];
+            size += group.size;
+            modCount++;
+        }
+        else
+            for (Student student : students)
+                add(student.color());
+        return !students.isEmpty();
+    }
+
+    /**
+     * Removes the student at the given position of the group.
+     *
+     * @param index the position of the student.
+     * @return the removed {@link Student}.
+     */
+
+    @Override
+    public Student remove(int index) {
+        Color color = COLORS[colorIndexAt(index)];
+        remove(color);
+        return Student.of(color);
+    }
+
+    /**
+     * Removes a student equal to the given one (that is, of the same color) from the group, if there is one.
+     *
+     * @param o the student to remove.
+     * @return {@code true} if a student has been removed, {@code false} otherwise.
+     */
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Student student && remove(student.color());
+    }
+
+    /**
+     * Checks if the group holds a student equal to the given one (that is, of the same color).
+     *
+     * @param o the student to look for.
+     * @return {@code true} if there is such a student, {@code false} otherwise.
+     */
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Student student && counts[student.color().ordinal()] > 0;
+    }
+
+    /**
+     * Removes all the students from the group.
+     */
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the ordinal of the color of the student at the given position of the group.
+     *
+     * @param index the position of the student.
+     * @return the ordinal of its {@link Color}.
+     */
+
+    private int colorIndexAt(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        int i = 0;
+        while (index >= counts[i]) {
+            index -= counts[i];
+            i++;
+        }
+        return i;
+    }
+}
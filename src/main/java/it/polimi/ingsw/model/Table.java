@@ -6,8 +6,6 @@ import it.polimi.ingsw.utils.Constants;
 
 import java.io.Serializable;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Optional;
 
 /**
  * The table is a part of the dining room, which is a third of a {@link School}. In each school, there's a table for
@@ -20,8 +18,9 @@ public class Table implements Serializable {
 
     private final Color color;
     private boolean hasProfessor;
-    private final List<Student> students;
+    private final StudentGroup students;
     private final boolean[] coinsAvailable = new boolean[Constants.COINS_AVAILABLE_PER_TABLE];
+    private ProfessorIndex professorIndex;
 
     /**
      * Table constructor.
@@ -31,13 +30,26 @@ public class Table implements Serializable {
 
     public Table(Color color) {
         this.color = color;
-        this.students = new ArrayList<>();
+        this.students = new StudentGroup();
         this.hasProfessor = false;
         for(int i=0; i<Constants.COINS_AVAILABLE_PER_TABLE; i++){
             coinsAvailable[i]=true;
         }
     }
 
+    /**
+     * Copy constructor. The copy is not registered with any {@link ProfessorIndex}.
+     *
+     * @param other the {@link Table} to copy.
+     */
+
+    Table(Table other) {
+        this.color = other.color;
+        this.students = new StudentGroup(other.students);
+        this.hasProfessor = other.hasProfessor;
+        System.arraycopy(other.coinsAvailable, 0, coinsAvailable, 0, coinsAvailable.length);
+    }
+
     /**
      * Returns the color of the table.
      *
@@ -88,6 +100,16 @@ public class Table implements Serializable {
         this.hasProfessor = hasProfessor;
     }
 
+    /**
+     * Sets the index of the professors to notify whenever a student is seated at or removed from the table.
+     *
+     * @param professorIndex the {@link ProfessorIndex} of the game the table takes part in.
+     */
+
+    void setProfessorIndex(ProfessorIndex professorIndex) {
+        this.professorIndex = professorIndex;
+    }
+
     /**
      * Adds a student to the table, if possible.
      *
@@ -103,6 +125,8 @@ public class Table implements Serializable {
             throw new FullTableException("The " + addedStudent.color() + " table is full!");
 
         students.add(addedStudent);
+        if(professorIndex != null)
+            professorIndex.tableChanged(color);
         player.setCoinsWallet(
                 player.getCoinsWallet() +
                 coinCheck()
@@ -140,11 +164,10 @@ public class Table implements Serializable {
 
     public Student removeStudent() throws StudentNotFoundException {
 
-        Optional<Student> studentToRemove = this.students.stream().findFirst();
-
-        if(studentToRemove.isPresent()) {
-            students.remove(studentToRemove.get());
-            return studentToRemove.get();
+        if(!students.isEmpty()) {
+            if(professorIndex != null)
+                professorIndex.tableChanged(color);
+            return students.remove(0);
         }
         else
             throw new StudentNotFoundException("No such student is present in the table.");
@@ -23,6 +23,16 @@ public class TowerRoom implements Serializable {
         this.towersLeft = capacity;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link TowerRoom} to copy.
+     */
+
+    TowerRoom(TowerRoom other) {
+        this.towersLeft = other.towersLeft;
+    }
+
     /**
      * Returns the number of towers left in the tower room.
      *
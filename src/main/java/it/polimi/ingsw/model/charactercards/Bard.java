@@ -27,6 +27,28 @@ public class Bard extends CharacterCard implements ArrayListStringCard, Serializ
         super(10, 1);
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Bard} to copy.
+     */
+
+    private Bard(Bard other) {
+        super(other);
+        this.students = other.students;
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Bard}.
+     */
+
+    @Override
+    public Bard copy() {
+        return new Bard(this);
+    }
+
     /**
      * Sets the parameter of the {@link Bard}.
      *
@@ -54,7 +76,7 @@ public class Bard extends CharacterCard implements ArrayListStringCard, Serializ
             Color color1 = Color.valueOf(students.get(maxNumOfChanges-2));
             Color color2 = Color.valueOf(students.get(maxNumOfChanges-1));
 
-            if(game.getCurrentPlayer().getSchool().getTable(color1.toString()).getNumOfStudents()
+            if(game.getCurrentPlayer().getSchool().getTable(color1).getNumOfStudents()
                     >= Constants.TABLE_LENGTH)
                 throw new FullTableException("The " + color1 + " table is full!");
 
@@ -66,17 +88,17 @@ public class Bard extends CharacterCard implements ArrayListStringCard, Serializ
                 throw new StudentNotFoundException("There's no " + color1 + " student in the hall!");
 
             Optional<Student> tableStudent =
-                    game.getCurrentPlayer().getSchool().getTable(color2.toString()).getStudents().
+                    game.getCurrentPlayer().getSchool().getTable(color2).getStudents().
                             stream().filter(x -> x.color().equals(color2)).findFirst();
 
             if(tableStudent.isEmpty())
                 throw new StudentNotFoundException("The " + color2 + " table is empty!");
 
             game.getCurrentPlayer().getSchool().getHall().addStudent(tableStudent.get());
-            game.getCurrentPlayer().getSchool().getTable(color2.toString()).removeStudent();
-            game.getCurrentPlayer().getSchool().getTable(hallStudent.get().color().toString())
+            game.getCurrentPlayer().getSchool().getTable(color2).removeStudent();
+            game.getCurrentPlayer().getSchool().getTable(hallStudent.get().color())
                     .addStudent(hallStudent.get(), game.getCurrentPlayer());
-            game.getCurrentPlayer().getSchool().getHall().removeStudent(hallStudent.get().color().toString());
+            game.getCurrentPlayer().getSchool().getHall().removeStudent(hallStudent.get().color());
 
             maxNumOfChanges=maxNumOfChanges-2;
         }
@@ -17,7 +17,28 @@ public class Centaur extends CharacterCard implements Serializable {
      */
 
     public Centaur() {
-        super(6, 3);
+        super(6, 3, CharacterCardHook.ISLAND_CONQUER);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Centaur} to copy.
+     */
+
+    private Centaur(Centaur other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Centaur}.
+     */
+
+    @Override
+    public Centaur copy() {
+        return new Centaur(this);
     }
 
     /**
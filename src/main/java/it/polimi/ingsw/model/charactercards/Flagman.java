@@ -23,6 +23,28 @@ public class Flagman extends CharacterCard implements IntCard, Serializable {
         super(3, 3);
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Flagman} to copy.
+     */
+
+    private Flagman(Flagman other) {
+        super(other);
+        this.islandID = other.islandID;
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Flagman}.
+     */
+
+    @Override
+    public Flagman copy() {
+        return new Flagman(this);
+    }
+
     /**
      * Sets the parameter of the {@link Flagman}.
      *
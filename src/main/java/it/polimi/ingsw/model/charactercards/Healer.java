@@ -24,6 +24,28 @@ public class Healer extends CharacterCard implements IntCard, Serializable {
         super(5, 2);
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Healer} to copy.
+     */
+
+    private Healer(Healer other) {
+        super(other);
+        this.islandID = other.islandID;
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Healer}.
+     */
+
+    @Override
+    public Healer copy() {
+        return new Healer(this);
+    }
+
     /**
      * Sets the parameter of the {@link Healer}.
      *
@@ -2,7 +2,6 @@ package it.polimi.ingsw.model.charactercards;
 
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.model.*;
-import it.polimi.ingsw.exceptions.NonExistentColorException;
 
 import java.io.Serializable;
 import java.util.List;
@@ -19,11 +18,33 @@ public class Innkeeper extends CharacterCard implements Serializable {
      */
 
     public Innkeeper() {
-        super(2, 2);
+        super(2, 2, CharacterCardHook.PROFESSOR_CHECK);
     }
 
     /**
-     * Allows the {@link Innkeeper} to do his effect.
+     * Copy constructor.
+     *
+     * @param other the {@link Innkeeper} to copy.
+     */
+
+    private Innkeeper(Innkeeper other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Innkeeper}.
+     */
+
+    @Override
+    public Innkeeper copy() {
+        return new Innkeeper(this);
+    }
+
+    /**
+     * Allows the {@link Innkeeper} to do his effect on all the professors, including those whose tables have not
+     * changed since they were last checked: a tie may have been there since before the card was played.
      *
      * @param game the game (Expert mode) in which the {@link Innkeeper} will do his effect.
      * @throws TryAgainException if a non-existent table is somehow accessed (it should never be thrown, so it is
@@ -34,62 +55,74 @@ public class Innkeeper extends CharacterCard implements Serializable {
     public void doEffect(GameExpertMode game) throws TryAgainException {
 
         final List<Player> players = game.getPlayers();
+        final ProfessorIndex professorIndex = game.getProfessorIndex();
+
+        // every color is checked below, so the pending changes are consumed as well
+        professorIndex.takeChangedColors();
+        for (Color color : Color.values())
+            professorIndex.setOwner(color, profCheckWithTies(players, color));
+
+    }
 
-        Color[] colors = Color.values();
+    /**
+     * Reassigns the professor of the given color, letting a player claim it with as many students as its owner.
+     *
+     * @param players the list of the playing players whose tables need to be checked.
+     * @param color the {@link Color} of the professor to check.
+     * @return the player who owns the professor after the check, or {@code null} if nobody does.
+     */
 
-        for (Color color : colors) {
+    private static Player profCheckWithTies(List<Player> players, Color color) {
 
-            int dimBiggestTable = 0;   // number of students to beat in order to claim a professor
-            int playerWithProf = -1;    // index of the player who currently has this color's professor
-            int playerWhoLostProf = -1; // index of the player whose prof has been claimed
+        int dimBiggestTable = 0;   // number of students to beat in order to claim a professor
+        int playerWithProf = -1;    // index of the player who currently has this color's professor
+        int playerWhoLostProf = -1; // index of the player whose prof has been claimed
 
-            // true if this color's professor was already claimed by a player during one of the previous rounds
-            boolean professorAssigned = false;
+        // true if this color's professor was already claimed by a player during one of the previous rounds
+        boolean professorAssigned = false;
 
-            // for each color, stores how many students each player has
-            int[] numOfStudents = new int[players.size()];
+        // for each color, stores how many students each player has
+        int[] numOfStudents = new int[players.size()];
 
-            for (int i = 0; i < players.size(); i++) {
-                numOfStudents[i] =
-                        players.get(i).getSchool().getTable(color.toString()).getNumOfStudents();
-                if (players.get(i).getSchool().getTable(color.toString()).getHasProfessor()) {
-                    playerWithProf = i;
-                    professorAssigned = true;
-                }
+        for (int i = 0; i < players.size(); i++) {
+            numOfStudents[i] = players.get(i).getSchool().getTable(color).getNumOfStudents();
+            if (players.get(i).getSchool().getTable(color).getHasProfessor()) {
+                playerWithProf = i;
+                professorAssigned = true;
             }
+        }
 
-            // if this color's professor was already assigned, profCheck rules vary
-            if (professorAssigned) {
-                dimBiggestTable = numOfStudents[playerWithProf];
-                if(dimBiggestTable == 0){
-                    players.get(playerWithProf).getSchool().getTable(color.toString()).setHasProfessor(false);
-                    professorAssigned = false;
-                    playerWithProf = -1;
-                }
+        // if this color's professor was already assigned, profCheck rules vary
+        if (professorAssigned) {
+            dimBiggestTable = numOfStudents[playerWithProf];
+            if(dimBiggestTable == 0){
+                players.get(playerWithProf).getSchool().getTable(color).setHasProfessor(false);
+                professorAssigned = false;
+                playerWithProf = -1;
             }
+        }
 
-            for (int i = 0; i < players.size(); i++) {
-                if (numOfStudents[i] >=  dimBiggestTable && numOfStudents[i] > 0
-                        && i != playerWhoLostProf) {
-                    // if clause needed to store which player's table will have its "hasProfessor" flag
-                    // set to false, in case a player actually claimed that prof before
-                    if (professorAssigned)
-                        playerWhoLostProf = playerWithProf;
-                    dimBiggestTable = numOfStudents[i];
-                    playerWithProf = i;
-                }
+        for (int i = 0; i < players.size(); i++) {
+            if (numOfStudents[i] >=  dimBiggestTable && numOfStudents[i] > 0
+                    && i != playerWhoLostProf) {
+                // if clause needed to store which player's table will have its "hasProfessor" flag
+                // set to false, in case a player actually claimed that prof before
+                if (professorAssigned)
+                    playerWhoLostProf = playerWithProf;
+                dimBiggestTable = numOfStudents[i];
+                playerWithProf = i;
             }
+        }
 
-            // sets the "hasProfessor" flags accordingly
-            if(playerWithProf != -1)
-                players.get(playerWithProf).getSchool().getTable(color.toString()).setHasProfessor(true);
+        // sets the "hasProfessor" flags accordingly
+        if(playerWithProf != -1)
+            players.get(playerWithProf).getSchool().getTable(color).setHasProfessor(true);
 
-            // if the professor was already assigned and its owner did change
-            if (playerWhoLostProf != -1)
-                players.get(playerWhoLostProf).getSchool().getTable(color.toString()).setHasProfessor(false);
+        // if the professor was already assigned and its owner did change
+        if (playerWhoLostProf != -1)
+            players.get(playerWhoLostProf).getSchool().getTable(color).setHasProfessor(false);
 
-        }
+        return playerWithProf == -1 ? null : players.get(playerWithProf);
 
     }
 }
-
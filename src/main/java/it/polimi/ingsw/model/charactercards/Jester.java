@@ -6,6 +6,7 @@ import it.polimi.ingsw.model.CharacterCard;
 import it.polimi.ingsw.model.Color;
 import it.polimi.ingsw.model.GameExpertMode;
 import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.model.StudentBag;
 import it.polimi.ingsw.utils.ANSIConstants;
 
 import java.io.Serializable;
@@ -28,11 +29,47 @@ public class Jester extends CharacterCard implements ArrayListStringCard, Studen
      * @param studentsBag the bag to take students from.
      */
 
-    public Jester(List<Student> studentsBag) {
+    public Jester(StudentBag studentsBag) {
         super(7, 1);
         studentsOnTheCard = new ArrayList<>();
         for(int i = 0; i < 6; i++)
-            this.studentsOnTheCard.add(studentsBag.remove(studentsBag.size() - 1));
+            this.studentsOnTheCard.add(studentsBag.draw());
+    }
+
+    /**
+     * Character Card constructor, for a card holding students taken from the bottom of the given list.
+     *
+     * @param students the list to take students from.
+     */
+
+    public Jester(List<Student> students) {
+        super(7, 1);
+        studentsOnTheCard = new ArrayList<>();
+        for(int i = 0; i < 6; i++)
+            this.studentsOnTheCard.add(students.remove(students.size() - 1));
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Jester} to copy.
+     */
+
+    private Jester(Jester other) {
+        super(other);
+        this.studentsOnTheCard = new ArrayList<>(other.studentsOnTheCard);
+        this.studentsToMove = other.studentsToMove;
+    }
+
+    /**
+     * Returns a copy of the card, students included.
+     *
+     * @return the copy of the {@link Jester}.
+     */
+
+    @Override
+    public Jester copy() {
+        return new Jester(this);
     }
 
     /**
@@ -96,6 +133,18 @@ public class Jester extends CharacterCard implements ArrayListStringCard, Studen
 
     public List<Student> getStudentsOnTheCard() { return studentsOnTheCard; }
 
+    /**
+     * Replaces the students on the card.
+     *
+     * @param students the new students on the card.
+     */
+
+    @Override
+    public void setStudentsOnTheCard(List<Student> students) {
+        studentsOnTheCard.clear();
+        studentsOnTheCard.addAll(students);
+    }
+
     /**
      * Allows the view to properly show the students on the card.
      */
@@ -17,7 +17,28 @@ public class Knight extends CharacterCard implements Serializable {
      */
 
     public Knight() {
-        super(8, 2);
+        super(8, 2, CharacterCardHook.ISLAND_CONQUER);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Knight} to copy.
+     */
+
+    private Knight(Knight other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Knight}.
+     */
+
+    @Override
+    public Knight copy() {
+        return new Knight(this);
     }
 
     /**
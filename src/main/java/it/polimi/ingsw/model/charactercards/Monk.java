@@ -3,13 +3,17 @@ package it.polimi.ingsw.model.charactercards;
 import it.polimi.ingsw.exceptions.StudentNotFoundException;
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.model.CharacterCard;
+import it.polimi.ingsw.model.Color;
 import it.polimi.ingsw.model.GameExpertMode;
 import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.model.StudentBag;
 import it.polimi.ingsw.utils.ANSIConstants;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Allows the player to move a specified student from the card to a specified island.
@@ -18,7 +22,7 @@ import java.util.List;
 public class Monk extends CharacterCard implements StringIntCard, StudentsCard, Serializable {
 
     private final Student[] students;
-    private String chosenColor;
+    private Color chosenColor;
     private int chosenIsland;
 
     /**
@@ -27,11 +31,35 @@ public class Monk extends CharacterCard implements StringIntCard, StudentsCard,
      * @param studentsBag the bag to take students from.
      */
 
-    public Monk(List<Student> studentsBag) {
+    public Monk(StudentBag studentsBag) {
         super(1, 1);
         this.students = new Student[4];
         for(int i = 0; i < students.length; i++)
-            students[i] = studentsBag.remove(studentsBag.size() - 1);
+            students[i] = studentsBag.draw();
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Monk} to copy.
+     */
+
+    private Monk(Monk other) {
+        super(other);
+        this.students = other.students.clone();
+        this.chosenColor = other.chosenColor;
+        this.chosenIsland = other.chosenIsland;
+    }
+
+    /**
+     * Returns a copy of the card, students included.
+     *
+     * @return the copy of the {@link Monk}.
+     */
+
+    @Override
+    public Monk copy() {
+        return new Monk(this);
     }
 
     /**
@@ -43,7 +71,7 @@ public class Monk extends CharacterCard implements StringIntCard, StudentsCard,
 
     @Override
     public void doOnClick(String par1, int par2){
-        chosenColor = par1;
+        chosenColor = Color.fromString(par1);
         chosenIsland = par2;
     }
 
@@ -59,12 +87,10 @@ public class Monk extends CharacterCard implements StringIntCard, StudentsCard,
     public void doEffect(GameExpertMode game) throws TryAgainException {
         boolean done = false;
         for (int i = 0; i < 4; i++) {
-            if (students[i].color().toString().equals(chosenColor)) {
+            if (students[i].color() == chosenColor) {
                 game.getBoard().getIslands().getIslandFromID(chosenIsland).addStudent(students[i]);
-                try {
-                    students[i] = game.getBoard().getStudentsBag().remove(game.getBoard().getStudentsBag().size() - 1);
-                }
-                catch(IndexOutOfBoundsException ignored){}
+                if (!game.getBoard().getStudentsBag().isEmpty())
+                    students[i] = game.getBoard().getStudentsBag().draw();
                 done = true;
                 break;
             }
@@ -90,7 +116,19 @@ public class Monk extends CharacterCard implements StringIntCard, StudentsCard,
      */
 
     public List<Student> getStudentsOnTheCard(){
-        return new ArrayList<>(List.of(students));
+        return new ArrayList<>(Arrays.stream(students).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Replaces the students on the card; the slots left over stay empty.
+     *
+     * @param students the new students on the card.
+     */
+
+    @Override
+    public void setStudentsOnTheCard(List<Student> students) {
+        for (int i = 0; i < this.students.length; i++)
+            this.students[i] = i < students.size() ? students.get(i) : null;
     }
 
     /**
@@ -104,6 +142,8 @@ public class Monk extends CharacterCard implements StringIntCard, StudentsCard,
         int yellowStudents = 0, blueStudents = 0, greenStudents = 0, redStudents = 0, pinkStudents = 0;
 
         for (int i = 0; i < 4; i++){
+            if(students[i] == null)
+                continue; // no students left in the bag to refill the card
             if(students[i].color().toString().equals("YELLOW"))
                 yellowStudents++;
             else if(students[i].color().toString().equals("BLUE"))
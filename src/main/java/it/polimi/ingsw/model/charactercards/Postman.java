@@ -2,6 +2,7 @@ package it.polimi.ingsw.model.charactercards;
 
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.model.CharacterCard;
+import it.polimi.ingsw.model.CharacterCardHook;
 import it.polimi.ingsw.model.GameExpertMode;
 
 import java.io.Serializable;
@@ -18,7 +19,28 @@ public class Postman extends CharacterCard implements Serializable {
      */
 
     public Postman() {
-        super(4, 1);
+        super(4, 1, CharacterCardHook.MOTHER_NATURE_STEPS);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Postman} to copy.
+     */
+
+    private Postman(Postman other) {
+        super(other);
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Postman}.
+     */
+
+    @Override
+    public Postman copy() {
+        return new Postman(this);
     }
 
     /**
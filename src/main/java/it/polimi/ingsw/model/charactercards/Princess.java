@@ -2,13 +2,17 @@ package it.polimi.ingsw.model.charactercards;
 
 import it.polimi.ingsw.exceptions.*;
 import it.polimi.ingsw.model.CharacterCard;
+import it.polimi.ingsw.model.Color;
 import it.polimi.ingsw.model.GameExpertMode;
 import it.polimi.ingsw.model.Student;
+import it.polimi.ingsw.model.StudentBag;
 import it.polimi.ingsw.utils.ANSIConstants;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Allows the player to move a specified student from the card to the appropriate table.
@@ -17,7 +21,7 @@ import java.util.List;
 public class Princess extends CharacterCard implements StringCard, StudentsCard, Serializable {
 
     private final Student[] students;
-    private String chosenColor;
+    private Color chosenColor;
 
     /**
      * Character Card constructor.
@@ -25,11 +29,34 @@ public class Princess extends CharacterCard implements StringCard, StudentsCard,
      * @param studentsBag the bag to take students from.
      */
 
-    public Princess(List<Student> studentsBag) {
+    public Princess(StudentBag studentsBag) {
         super(11, 2);
         this.students = new Student[4];
         for(int i = 0; i < students.length; i++)
-            students[i] = studentsBag.remove(studentsBag.size() - 1);
+            students[i] = studentsBag.draw();
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Princess} to copy.
+     */
+
+    private Princess(Princess other) {
+        super(other);
+        this.students = other.students.clone();
+        this.chosenColor = other.chosenColor;
+    }
+
+    /**
+     * Returns a copy of the card, students included.
+     *
+     * @return the copy of the {@link Princess}.
+     */
+
+    @Override
+    public Princess copy() {
+        return new Princess(this);
     }
 
     /**
@@ -40,7 +67,7 @@ public class Princess extends CharacterCard implements StringCard, StudentsCard,
 
     @Override
     public void doOnClick(String par){
-        chosenColor = par;
+        chosenColor = Color.fromString(par);
     }
 
     /**
@@ -56,15 +83,14 @@ public class Princess extends CharacterCard implements StringCard, StudentsCard,
         boolean done = false;
         for (int i = 0; i < 4; i++) {
             try {
-                if (students[i].color().toString().equals(chosenColor)) {
-                    game.getCurrentPlayer().getSchool().getTable(students[i].color().toString()).addStudent(
+                if (students[i].color() == chosenColor) {
+                    game.getCurrentPlayer().getSchool().getTable(students[i].color()).addStudent(
                             students[i], game.getCurrentPlayer()
                     );
-                    try {
-                        students[i] = game.getBoard().getStudentsBag().remove(game.getBoard().getStudentsBag().size() - 1);
-                    } catch (IndexOutOfBoundsException e) {
+                    if (!game.getBoard().getStudentsBag().isEmpty())
+                        students[i] = game.getBoard().getStudentsBag().draw();
+                    else
                         students[i] = null;
-                    }
                     done = true;
                     break;
                 }
@@ -93,7 +119,19 @@ public class Princess extends CharacterCard implements StringCard, StudentsCard,
 
     @Override
     public List<Student> getStudentsOnTheCard() {
-        return new ArrayList<>(List.of(students));
+        return new ArrayList<>(Arrays.stream(students).filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Replaces the students on the card; the slots left over stay empty.
+     *
+     * @param students the new students on the card.
+     */
+
+    @Override
+    public void setStudentsOnTheCard(List<Student> students) {
+        for (int i = 0; i < this.students.length; i++)
+            this.students[i] = i < students.size() ? students.get(i) : null;
     }
 
     /**
@@ -107,6 +145,8 @@ public class Princess extends CharacterCard implements StringCard, StudentsCard,
         int yellowStudents = 0, blueStudents = 0, greenStudents = 0, redStudents = 0, pinkStudents = 0;
 
         for (int i = 0; i < 4; i++){
+            if(students[i] == null)
+                continue; // no students left in the bag to refill the card
             if(students[i].color().toString().equals("YELLOW"))
                 yellowStudents++;
             else if(students[i].color().toString().equals("BLUE"))
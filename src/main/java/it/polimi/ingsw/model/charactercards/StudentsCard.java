@@ -18,6 +18,14 @@ public interface StudentsCard {
 
     List<Student> getStudentsOnTheCard();
 
+    /**
+     * Replaces the students on the card (used by the clients to keep their copy of the model up to date).
+     *
+     * @param students the new students on the card.
+     */
+
+    void setStudentsOnTheCard(List<Student> students);
+
     /**
      * Allows the view to properly show the students on the card.
      */
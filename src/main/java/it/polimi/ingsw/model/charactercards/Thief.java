@@ -1,8 +1,10 @@
 package it.polimi.ingsw.model.charactercards;
 
+import it.polimi.ingsw.exceptions.NonExistentColorException;
 import it.polimi.ingsw.exceptions.StudentNotFoundException;
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.model.CharacterCard;
+import it.polimi.ingsw.model.Color;
 import it.polimi.ingsw.model.GameExpertMode;
 import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.model.Student;
@@ -18,7 +20,7 @@ import java.util.Locale;
 
 public class Thief extends CharacterCard implements StringCard, Serializable {
 
-    private String chosenColor;
+    private Color chosenColor;
 
     /**
      * Character Card constructor.
@@ -28,6 +30,28 @@ public class Thief extends CharacterCard implements StringCard, Serializable {
         super(12, 3);
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Thief} to copy.
+     */
+
+    private Thief(Thief other) {
+        super(other);
+        this.chosenColor = other.chosenColor;
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Thief}.
+     */
+
+    @Override
+    public Thief copy() {
+        return new Thief(this);
+    }
+
     /**
      * Sets the parameter of the {@link Thief}.
      *
@@ -36,7 +60,7 @@ public class Thief extends CharacterCard implements StringCard, Serializable {
 
     @Override
     public void doOnClick(String par) {
-        chosenColor = par.toUpperCase(Locale.ROOT);
+        chosenColor = Color.fromString(par.toUpperCase(Locale.ROOT));
     }
 
     /**
@@ -48,6 +72,8 @@ public class Thief extends CharacterCard implements StringCard, Serializable {
 
     @Override
     public void doEffect(GameExpertMode game) throws TryAgainException {
+        if (chosenColor == null)
+            throw new NonExistentColorException("No such table was found.");
         for (Player player : game.getPlayers()) {
             int count = 3;
             while (player.getSchool().getTable(this.chosenColor).getStudents().size() > 0 && count > 0) {
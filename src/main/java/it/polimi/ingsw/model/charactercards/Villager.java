@@ -19,7 +19,29 @@ public class Villager extends CharacterCard implements StringCard, Serializable
      */
 
     public Villager() {
-        super(9, 3);
+        super(9, 3, CharacterCardHook.ISLAND_CONQUER);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the {@link Villager} to copy.
+     */
+
+    private Villager(Villager other) {
+        super(other);
+        this.colorToExclude = other.colorToExclude;
+    }
+
+    /**
+     * Returns a copy of the card.
+     *
+     * @return the copy of the {@link Villager}.
+     */
+
+    @Override
+    public Villager copy() {
+        return new Villager(this);
     }
 
     /**
@@ -0,0 +1,321 @@
+package it.polimi.ingsw.model.rules;
+
+import it.polimi.ingsw.model.AssistantType;
+import it.polimi.ingsw.model.Color;
+import it.polimi.ingsw.utils.Constants;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An action a player can undertake during a match: the same choices the clients send to the server, as a single
+ * immutable value. Actions carrying no parameter but a small number (an island, a number of steps, a cloud) are
+ * shared, like the {@link it.polimi.ingsw.model.Student}s, so the generation of the legal actions of a match does not
+ * allocate them over and over.
+ */
+
+public final class Action {
+
+    /**
+     * This enumeration specifies the types of action, one for each choice a player is asked for during a round.
+     */
+
+    public enum Type {
+        ASSISTANT_CARD, MOVE_TO_TABLE, MOVE_TO_ISLAND, MOTHER_NATURE_STEPS, CLOUD_CHOICE, CHARACTER_CARD
+    }
+
+    private static final int MAX_STEPS = 7; // the steps of the heaviest Assistant Card and of the Postman
+    private static final int MAX_CLOUDS = 4;
+
+    private static final Action[] ASSISTANT_CARDS = new Action[AssistantType.values().length];
+    private static final Action[] TO_TABLE = new Action[Constants.NUM_COLORS];
+    private static final Action[][] TO_ISLAND = new Action[Constants.NUM_COLORS][Constants.MAX_NUM_OF_ISLANDS + 1];
+    private static final Action[] STEPS = new Action[MAX_STEPS + 1];
+    private static final Action[] CLOUDS = new Action[MAX_CLOUDS];
+
+    static {
+        for (AssistantType assistantType : AssistantType.values())
+            ASSISTANT_CARDS[assistantType.ordinal()] =
+                    new Action(Type.ASSISTANT_CARD, assistantType, null, 0, 0, null, null);
+        for (Color color : Color.values()) {
+            TO_TABLE[color.ordinal()] = new Action(Type.MOVE_TO_TABLE, null, color, 0, 0, null, null);
+            for (int i = 1; i <= Constants.MAX_NUM_OF_ISLANDS; i++)
+                TO_ISLAND[color.ordinal()][i] = new Action(Type.MOVE_TO_ISLAND, null, color, i, 0, null, null);
+        }
+        for (int i = 1; i <= MAX_STEPS; i++)
+            STEPS[i] = new Action(Type.MOTHER_NATURE_STEPS, null, null, i, 0, null, null);
+        for (int i = 0; i < MAX_CLOUDS; i++)
+            CLOUDS[i] = new Action(Type.CLOUD_CHOICE, null, null, i, 0, null, null);
+    }
+
+    private final Type type;
+    private final AssistantType assistantType;
+    private final Color color;
+    private final int value;
+    private final int intPar;
+    private final String stringPar;
+    private final List<String> listPar;
+
+    /**
+     * Action constructor.
+     *
+     * @param type the type of the action.
+     * @param assistantType the Assistant Card to play, if any.
+     * @param color the color of the student to move, if any.
+     * @param value the island ID, the number of steps, the cloud ID or the Character Card ID of the action.
+     * @param intPar the {@code int} parameter of the Character Card to play.
+     * @param stringPar the {@link String} parameter of the Character Card to play, if any.
+     * @param listPar the list parameter of the Character Card to play, if any.
+     */
+
+    private Action(Type type, AssistantType assistantType, Color color, int value, int intPar, String stringPar,
+                   List<String> listPar) {
+        this.type = type;
+        this.assistantType = assistantType;
+        this.color = color;
+        this.value = value;
+        this.intPar = intPar;
+        this.stringPar = stringPar;
+        this.listPar = listPar;
+    }
+
+    /**
+     * Returns the action of playing the given Assistant Card.
+     *
+     * @param assistantType the type of the Assistant Card to play.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action assistantCard(AssistantType assistantType) {
+        return ASSISTANT_CARDS[assistantType.ordinal()];
+    }
+
+    /**
+     * Returns the action of moving a student of the given color from the hall to its table.
+     *
+     * @param color the color of the student to move.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action moveToTable(Color color) {
+        return TO_TABLE[color.ordinal()];
+    }
+
+    /**
+     * Returns the action of moving a student of the given color from the hall to the given island.
+     *
+     * @param color the color of the student to move.
+     * @param islandID the ID of the island to move the student to.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action moveToIsland(Color color, int islandID) {
+        if (islandID >= 1 && islandID <= Constants.MAX_NUM_OF_ISLANDS)
+            return TO_ISLAND[color.ordinal()][islandID];
+        return new Action(Type.MOVE_TO_ISLAND, null, color, islandID, 0, null, null);
+    }
+
+    /**
+     * Returns the action of moving Mother Nature of the given steps.
+     *
+     * @param steps the number of steps.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action motherNatureSteps(int steps) {
+        if (steps >= 1 && steps <= MAX_STEPS)
+            return STEPS[steps];
+        return new Action(Type.MOTHER_NATURE_STEPS, null, null, steps, 0, null, null);
+    }
+
+    /**
+     * Returns the action of taking the students of the given cloud.
+     *
+     * @param cloudID the ID of the cloud, starting from 0.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action cloudChoice(int cloudID) {
+        if (cloudID >= 0 && cloudID < MAX_CLOUDS)
+            return CLOUDS[cloudID];
+        return new Action(Type.CLOUD_CHOICE, null, null, cloudID, 0, null, null);
+    }
+
+    /**
+     * Returns the action of playing a Character Card with no parameter.
+     *
+     * @param cardID the ID of the card.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action characterCard(int cardID) {
+        return new Action(Type.CHARACTER_CARD, null, null, cardID, 0, null, null);
+    }
+
+    /**
+     * Returns the action of playing a Character Card with an {@code int} parameter.
+     *
+     * @param cardID the ID of the card.
+     * @param par the parameter of the card.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action characterCard(int cardID, int par) {
+        return new Action(Type.CHARACTER_CARD, null, null, cardID, par, null, null);
+    }
+
+    /**
+     * Returns the action of playing a Character Card with a {@link String} parameter.
+     *
+     * @param cardID the ID of the card.
+     * @param par the parameter of the card.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action characterCard(int cardID, String par) {
+        return new Action(Type.CHARACTER_CARD, null, null, cardID, 0, par, null);
+    }
+
+    /**
+     * Returns the action of playing a Character Card with a {@link String} and an {@code int} parameter.
+     *
+     * @param cardID the ID of the card.
+     * @param par1 the first parameter of the card.
+     * @param par2 the second parameter of the card.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action characterCard(int cardID, String par1, int par2) {
+        return new Action(Type.CHARACTER_CARD, null, null, cardID, par2, par1, null);
+    }
+
+    /**
+     * Returns the action of playing a Character Card with a list parameter.
+     *
+     * @param cardID the ID of the card.
+     * @param par the parameter of the card.
+     * @return the desired {@link Action}.
+     */
+
+    public static Action characterCard(int cardID, List<String> par) {
+        return new Action(Type.CHARACTER_CARD, null, null, cardID, 0, null, List.copyOf(par));
+    }
+
+    /**
+     * Returns the type of the action.
+     *
+     * @return the {@link Type} of the action.
+     */
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the Assistant Card to play.
+     *
+     * @return the {@link AssistantType} of the card, or {@code null} if the action is not of type
+     * {@code ASSISTANT_CARD}.
+     */
+
+    public AssistantType getAssistantType() {
+        return assistantType;
+    }
+
+    /**
+     * Returns the color of the student to move.
+     *
+     * @return the {@link Color} of the student, or {@code null} if the action does not move a student.
+     */
+
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Returns the island ID, the number of steps, the cloud ID or the Character Card ID of the action, according to
+     * its type.
+     *
+     * @return the value of the action.
+     */
+
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the {@code int} parameter of the Character Card to play.
+     *
+     * @return the {@code int} parameter of the card.
+     */
+
+    public int getIntPar() {
+        return intPar;
+    }
+
+    /**
+     * Returns the {@link String} parameter of the Character Card to play.
+     *
+     * @return the {@link String} parameter of the card, or {@code null} if it has none.
+     */
+
+    public String getStringPar() {
+        return stringPar;
+    }
+
+    /**
+     * Returns the list parameter of the Character Card to play.
+     *
+     * @return the unmodifiable list parameter of the card, or {@code null} if it has none.
+     */
+
+    public List<String> getListPar() {
+        return listPar;
+    }
+
+    /**
+     * Compares two actions.
+     *
+     * @param o the object to compare.
+     * @return {@code true} if the two actions are of the same type and have the same parameters, {@code false}
+     * otherwise.
+     */
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Action action)) return false;
+        return type == action.type && assistantType == action.assistantType && color == action.color &&
+                value == action.value && intPar == action.intPar && Objects.equals(stringPar, action.stringPar) &&
+                Objects.equals(listPar, action.listPar);
+    }
+
+    /**
+     * Returns the hash code of the action.
+     *
+     * @return the hash code, consistent with {@link #equals(Object)}.
+     */
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, assistantType, color, value, intPar, stringPar, listPar);
+    }
+
+    /**
+     * Returns a readable representation of the action.
+     *
+     * @return the {@link String} representing the action.
+     */
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case ASSISTANT_CARD -> type + " " + assistantType;
+            case MOVE_TO_TABLE -> type + " " + color;
+            case MOVE_TO_ISLAND -> type + " " + color + " " + value;
+            case MOTHER_NATURE_STEPS, CLOUD_CHOICE -> type + " " + value;
+            case CHARACTER_CARD -> type + " " + value + (listPar != null ? " " + listPar :
+                    (stringPar != null ? " " + stringPar : "") + " " + intPar);
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package it.polimi.ingsw.model.rules;
+
+import it.polimi.ingsw.model.Game;
+
+/**
+ * A match the {@link Rules} can be applied to: the {@link Game} itself, together with the position of the current
+ * player in the round, which the model does not keep (it is tracked by the
+ * {@link it.polimi.ingsw.controller.GameController} during a real match).
+ */
+
+public class MatchState {
+
+    /**
+     * This enumeration specifies the phases a match goes through: the phases of each round and the end of the match.
+     */
+
+    public enum Phase {
+        PLANNING, ACTION, GAME_OVER
+    }
+
+    private final Game game;
+    private Phase phase;
+    private int playerIndex;
+    private int movesLeft;
+    private boolean motherNatureMoved;
+
+    /**
+     * MatchState constructor, for a match which is about to start its Planning Phase.
+     *
+     * @param game the game, already started.
+     */
+
+    public MatchState(Game game) {
+        this(game, Phase.PLANNING, 0, game.getConstants().PLAYER_MOVES, false);
+    }
+
+    /**
+     * MatchState constructor.
+     *
+     * @param game the game.
+     * @param phase the phase of the match.
+     * @param playerIndex the position of the current player in the players' order.
+     * @param movesLeft the number of students the current player has still to move in their Action Phase.
+     * @param motherNatureMoved {@code true} if the current player has already moved Mother Nature in their Action Phase.
+     */
+
+    public MatchState(Game game, Phase phase, int playerIndex, int movesLeft, boolean motherNatureMoved) {
+        this.game = game;
+        this.phase = phase;
+        this.playerIndex = playerIndex;
+        this.movesLeft = movesLeft;
+        this.motherNatureMoved = motherNatureMoved;
+    }
+
+    /**
+     * Returns a copy of the match, game included, which can be played without changing this one.
+     *
+     * @return the copy of the {@link MatchState}.
+     */
+
+    public MatchState copy() {
+        return new MatchState(game.copy(), phase, playerIndex, movesLeft, motherNatureMoved);
+    }
+
+    /**
+     * Returns the game.
+     *
+     * @return the {@link Game} of the match.
+     */
+
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Returns the phase of the match.
+     *
+     * @return the current {@link Phase}.
+     */
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Sets the phase of the match.
+     *
+     * @param phase the new phase.
+     */
+
+    void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    /**
+     * Returns the position of the current player in the players' order.
+     *
+     * @return the index of the current player.
+     */
+
+    public int getPlayerIndex() {
+        return playerIndex;
+    }
+
+    /**
+     * Sets the position of the current player in the players' order.
+     *
+     * @param playerIndex the new index of the current player.
+     */
+
+    void setPlayerIndex(int playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    /**
+     * Returns the number of students the current player has still to move.
+     *
+     * @return the number of moves left.
+     */
+
+    public int getMovesLeft() {
+        return movesLeft;
+    }
+
+    /**
+     * Sets the number of students the current player has still to move.
+     *
+     * @param movesLeft the new number of moves left.
+     */
+
+    void setMovesLeft(int movesLeft) {
+        this.movesLeft = movesLeft;
+    }
+
+    /**
+     * Returns whether the current player has already moved Mother Nature.
+     *
+     * @return {@code true} if Mother Nature has been moved during the current Action Phase, {@code false} otherwise.
+     */
+
+    public boolean hasMotherNatureMoved() {
+        return motherNatureMoved;
+    }
+
+    /**
+     * Sets whether the current player has already moved Mother Nature.
+     *
+     * @param motherNatureMoved the new value.
+     */
+
+    void setMotherNatureMoved(boolean motherNatureMoved) {
+        this.motherNatureMoved = motherNatureMoved;
+    }
+
+    /**
+     * Returns whether the match has ended.
+     *
+     * @return {@code true} if the match is over, {@code false} otherwise.
+     */
+
+    public boolean isOver() {
+        return phase == Phase.GAME_OVER;
+    }
+}
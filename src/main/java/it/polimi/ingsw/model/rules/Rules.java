@@ -0,0 +1,544 @@
+package it.polimi.ingsw.model.rules;
+
+import it.polimi.ingsw.exceptions.*;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.charactercards.*;
+import it.polimi.ingsw.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * The rules of the game, independent of any connection: given a {@link MatchState}, they enumerate every action the
+ * current player is allowed to undertake and apply an action to get the next state of the match. The round flow is
+ * the same the {@link it.polimi.ingsw.controller.GameController} follows, and the actions are applied through the
+ * same model methods, so a bot playing through the rules and a client playing through the server play the same game.
+ * Actions are applied in place by {@link #play(MatchState, Action)}, which is what simulations should use, or on a
+ * copy of the match by {@link #apply(MatchState, Action)}.
+ */
+
+public final class Rules {
+
+    private static final Color[] COLORS = Color.values();
+    private static final AssistantType[] ASSISTANT_TYPES = AssistantType.values();
+    private static final int LAST_ROUND = 10;
+    private static final int MIN_ISLANDS = 3;
+    private static final int JESTER_SWAPS = 3;
+    private static final int BARD_SWAPS = 2;
+
+    /**
+     * Rules constructor, private since the class only has static methods.
+     */
+
+    private Rules() {
+    }
+
+    /**
+     * Returns every action the current player is allowed to undertake.
+     *
+     * @param state the match.
+     * @return the list of the legal actions, empty if the match is over.
+     */
+
+    public static List<Action> legalActions(MatchState state) {
+        List<Action> actions = new ArrayList<>();
+        legalActions(state, actions);
+        return actions;
+    }
+
+    /**
+     * Adds every action the current player is allowed to undertake to the given list, so that a simulation can reuse
+     * the same list at every step.
+     *
+     * @param state the match.
+     * @param actions the list to add the legal actions to.
+     */
+
+    public static void legalActions(MatchState state, List<Action> actions) {
+        Game game = state.getGame();
+        switch (state.getPhase()) {
+            case PLANNING -> {
+                for (AssistantType assistantType : ASSISTANT_TYPES)
+                    if (isAssistantCardPlayable(game, assistantType))
+                        actions.add(Action.assistantCard(assistantType));
+            }
+            case ACTION -> {
+                if (state.getMovesLeft() > 0) {
+                    School school = game.getCurrentPlayer().getSchool();
+                    Island head = game.getBoard().getIslands().getHead();
+                    int islandsNum = game.getBoard().getIslands().getSize();
+                    for (Color color : COLORS) {
+                        if (school.getHall().getNumOfStudentsOfColor(color) == 0)
+                            continue;
+                        if (school.getTable(color).getNumOfStudents() < Constants.TABLE_LENGTH)
+                            actions.add(Action.moveToTable(color));
+                        Island island = head;
+                        for (int i = 0; i < islandsNum; i++, island = island.getNext())
+                            actions.add(Action.moveToIsland(color, island.getId()));
+                    }
+                }
+                else if (!state.hasMotherNatureMoved()) {
+                    int maxSteps = game.getMotherNatureStepsAllowed();
+                    for (int steps = Constants.MIN_NUM_OF_STEPS; steps <= maxSteps; steps++)
+                        actions.add(Action.motherNatureSteps(steps));
+                }
+                else {
+                    boolean emptyClouds = allCloudsEmpty(game); // the bag could not refill any cloud
+                    for (int i = 0; i < game.getConstants().NUM_CLOUDS; i++)
+                        if (emptyClouds || !game.getBoard().getCloud(i).getStudents().isEmpty())
+                            actions.add(Action.cloudChoice(i));
+                }
+                if (!state.hasMotherNatureMoved() && game instanceof GameExpertMode expertGame)
+                    addCharacterCardActions(expertGame, actions);
+            }
+            case GAME_OVER -> {
+            }
+        }
+    }
+
+    /**
+     * Checks whether the current player is allowed to undertake the given action.
+     *
+     * @param state the match.
+     * @param action the action to check.
+     * @return {@code true} if the action is among the legal ones, {@code false} otherwise.
+     */
+
+    public static boolean isLegal(MatchState state, Action action) {
+        return legalActions(state).contains(action);
+    }
+
+    /**
+     * Applies the given action to a copy of the match, leaving the given one as it is.
+     *
+     * @param state the match.
+     * @param action the action to apply.
+     * @return the next state of the match.
+     * @throws TryAgainException if the action cannot be applied to the match.
+     */
+
+    public static MatchState apply(MatchState state, Action action) throws TryAgainException {
+        MatchState next = state.copy();
+        play(next, action);
+        return next;
+    }
+
+    /**
+     * Applies the given action to the match. The action is expected to be among the legal ones: it is checked as
+     * much as the model checks the choices of the players, so an illegal action may leave the match changed.
+     *
+     * @param state the match.
+     * @param action the action to apply.
+     * @throws TryAgainException if the action cannot be applied to the match.
+     */
+
+    public static void play(MatchState state, Action action) throws TryAgainException {
+        Game game = state.getGame();
+        if (state.isOver())
+            throw new IllegalActionException("The match is over!");
+        if ((state.getPhase() == MatchState.Phase.PLANNING) != (action.getType() == Action.Type.ASSISTANT_CARD))
+            throw new IllegalActionException("No " + action.getType() + " action is allowed in the " +
+                    state.getPhase() + " phase!");
+
+        switch (action.getType()) {
+            case ASSISTANT_CARD -> {
+                if (!isAssistantCardPlayable(game, action.getAssistantType()))
+                    throw new IllegalActionException("The " + action.getAssistantType() + " card can't be played!");
+                game.getCurrentPlayer().playAssistantCard(action.getAssistantType().toString());
+                endPlanningTurn(state);
+            }
+            case MOVE_TO_TABLE, MOVE_TO_ISLAND -> {
+                if (state.getMovesLeft() == 0)
+                    throw new IllegalActionException("No moves left!");
+                if (action.getType() == Action.Type.MOVE_TO_TABLE)
+                    game.playerMovesStudent(action.getColor());
+                else
+                    game.playerMovesStudent(action.getColor(), action.getValue());
+                state.setMovesLeft(state.getMovesLeft() - 1);
+            }
+            case MOTHER_NATURE_STEPS -> {
+                if (state.getMovesLeft() > 0 || state.hasMotherNatureMoved())
+                    throw new IllegalActionException("Mother Nature can't be moved now!");
+                game.moveMotherNature(action.getValue());
+                state.setMotherNatureMoved(true);
+                game.islandConquerCheck(game.getBoard().getMotherNaturePos());
+                if (noTowersLeft(game) || game.getBoard().getIslands().getSize() <= MIN_ISLANDS ||
+                        (game.getRoundNumber() == LAST_ROUND && state.getPlayerIndex() == game.getPlayersNumber() - 1))
+                    state.setPhase(MatchState.Phase.GAME_OVER);
+            }
+            case CLOUD_CHOICE -> {
+                if (!state.hasMotherNatureMoved())
+                    throw new IllegalActionException("You need to move mother nature first!");
+                if (!game.getBoard().getCloud(action.getValue()).getStudents().isEmpty() || !allCloudsEmpty(game))
+                    game.takeStudentsFromCloud(action.getValue());
+                endActionTurn(state);
+            }
+            case CHARACTER_CARD -> {
+                if (state.hasMotherNatureMoved() || !(game instanceof GameExpertMode expertGame))
+                    throw new IllegalActionException("No Character Card can be played now!");
+                playCharacterCard(expertGame, action);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the current player is allowed to play the given Assistant Card: it must be in their deck and,
+     * unless they have no other choice, it must not have been played by the players before them in the round.
+     *
+     * @param game the game.
+     * @param assistantType the type of the Assistant Card to check.
+     * @return {@code true} if the card is playable, {@code false} otherwise.
+     */
+
+    public static boolean isAssistantCardPlayable(Game game, AssistantType assistantType) {
+        int deck = game.getCurrentPlayer().getDeckMask();
+        if ((deck & assistantType.mask()) == 0)
+            return false;
+        if (game.getCurrentPlayer().equals(game.getPlayers().get(0)))
+            return true;
+        int cardsPlayed = game.getAssistantCardsPlayed();
+        return (cardsPlayed & assistantType.mask()) == 0 || (deck & ~cardsPlayed) == 0;
+    }
+
+    /**
+     * Sorts the players according to the Assistant Cards they have played, from the lightest to the heaviest: this is
+     * the order of the Action Phase.
+     *
+     * @param players the players to sort.
+     */
+
+    public static void sortByAssistantCards(List<Player> players) {
+        for (int i = 0; i < players.size(); i++)
+            for (int j = i + 1; j < players.size(); j++)
+                if (players.get(i).getLatestAssistantCardPlayed().getWeight() >
+                        players.get(j).getLatestAssistantCardPlayed().getWeight())
+                    Collections.swap(players, i, j);
+    }
+
+    /**
+     * Returns the player who has won the match: the one with the fewest towers left in their tower room or, in case of
+     * a tie, the one with the most professors.
+     *
+     * @param players the players of the match.
+     * @return the winning {@link Player}.
+     * @throws TieException if two players have the same number of towers left and of professors.
+     */
+
+    public static Player winner(List<Player> players) throws TieException {
+        Player winningPlayer = players.get(0);
+        int minTowers = winningPlayer.getSchool().getTowerRoom().getTowersLeft();
+        for (int i = 1; i < players.size(); i++) {
+            int towers = players.get(i).getSchool().getTowerRoom().getTowersLeft();
+            if (towers < minTowers) {
+                winningPlayer = players.get(i);
+                minTowers = towers;
+            }
+            else if (towers == minTowers) {
+                int profCurrentlyWinningPlayer = Integer.bitCount(winningPlayer.getSchool().getProfessors());
+                int profChallengingPlayer = Integer.bitCount(players.get(i).getSchool().getProfessors());
+                if (profCurrentlyWinningPlayer < profChallengingPlayer)
+                    winningPlayer = players.get(i);
+                if (profCurrentlyWinningPlayer == profChallengingPlayer)
+                    throw new TieException("There's no winning player!");
+            }
+        }
+        return winningPlayer;
+    }
+
+    /**
+     * Passes the Planning Phase to the next player or, if every player has played their Assistant Card, starts the
+     * Action Phase in the order given by the cards.
+     *
+     * @param state the match.
+     */
+
+    private static void endPlanningTurn(MatchState state) {
+        Game game = state.getGame();
+        int next = state.getPlayerIndex() + 1;
+        if (next < game.getPlayersNumber()) {
+            state.setPlayerIndex(next);
+            game.setCurrentPlayer(game.getPlayers().get(next));
+            return;
+        }
+        List<Player> players = game.getPlayers();
+        sortByAssistantCards(players);
+        game.setPlayers(players);
+        state.setPhase(MatchState.Phase.ACTION);
+        startActionTurn(state, 0);
+    }
+
+    /**
+     * Passes the Action Phase to the next player or, if every player has played, starts the next round. The match
+     * ends instead if the bag is empty at the end of the round.
+     *
+     * @param state the match.
+     */
+
+    private static void endActionTurn(MatchState state) {
+        Game game = state.getGame();
+        game.getCurrentPlayer().setCharacterCardAlreadyPlayed(false);
+        int next = state.getPlayerIndex() + 1;
+        if (next < game.getPlayersNumber()) {
+            startActionTurn(state, next);
+            return;
+        }
+        if (game.getBoard().getStudentsBag().isEmpty()) {
+            state.setPhase(MatchState.Phase.GAME_OVER);
+            return;
+        }
+        try {
+            game.refillClouds();
+        }
+        catch (EmptyBagException ignored) {} // the clouds are filled with the students left
+        state.setPhase(MatchState.Phase.PLANNING);
+        state.setPlayerIndex(0);
+        state.setMovesLeft(game.getConstants().PLAYER_MOVES);
+        state.setMotherNatureMoved(false);
+        game.setCurrentPlayer(game.getPlayers().get(0));
+        game.setRoundNumber(game.getRoundNumber() + 1);
+        for (Player player : game.getPlayers())
+            player.resetLatestAssistantCardPlayed();
+    }
+
+    /**
+     * Gives the Action Phase to the player in the given position.
+     *
+     * @param state the match.
+     * @param playerIndex the position of the player in the players' order.
+     */
+
+    private static void startActionTurn(MatchState state, int playerIndex) {
+        Game game = state.getGame();
+        state.setPlayerIndex(playerIndex);
+        state.setMovesLeft(game.getConstants().PLAYER_MOVES);
+        state.setMotherNatureMoved(false);
+        game.setCurrentPlayer(game.getPlayers().get(playerIndex));
+    }
+
+    /**
+     * Checks whether a player has no towers left in their tower room.
+     *
+     * @param game the game.
+     * @return {@code true} if a player has placed all their towers, {@code false} otherwise.
+     */
+
+    private static boolean noTowersLeft(Game game) {
+        for (Player player : game.getPlayers())
+            if (player.getSchool().getTowerRoom().getTowersLeft() <= 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks whether every cloud is empty, which happens once the bag could not refill them.
+     *
+     * @param game the game.
+     * @return {@code true} if no cloud holds any student, {@code false} otherwise.
+     */
+
+    private static boolean allCloudsEmpty(Game game) {
+        for (int i = 0; i < game.getConstants().NUM_CLOUDS; i++)
+            if (!game.getBoard().getCloud(i).getStudents().isEmpty())
+                return false;
+        return true;
+    }
+
+    /**
+     * Sets the parameters of the Character Card of the given action and plays it, as the
+     * {@link it.polimi.ingsw.controller.GameControllerExpertMode} does with the cards chosen by the players.
+     *
+     * @param game the game.
+     * @param action the action of type {@code CHARACTER_CARD}.
+     * @throws TryAgainException if the card can't be played.
+     */
+
+    private static void playCharacterCard(GameExpertMode game, Action action) throws TryAgainException {
+        CharacterCard card;
+        try {
+            card = game.getCharacterCardByID(action.getValue());
+        }
+        catch (NoSuchElementException e) {
+            throw new CharacterCardNotFoundException("There's no Character Card with id " + action.getValue() +
+                    " in this match...");
+        }
+        if (card instanceof IntCard intCard)
+            intCard.doOnClick(action.getIntPar());
+        else if (card instanceof StringIntCard stringIntCard)
+            stringIntCard.doOnClick(action.getStringPar(), action.getIntPar());
+        else if (card instanceof StringCard stringCard)
+            stringCard.doOnClick(action.getStringPar());
+        else if (card instanceof ArrayListStringCard listCard)
+            listCard.doOnClick(action.getListPar());
+        game.playerPlaysCharacterCard(action.getValue());
+        game.profCheck();
+    }
+
+    /**
+     * Adds the actions of playing each Character Card the current player can afford, with every combination of
+     * parameters the card accepts.
+     *
+     * @param game the game.
+     * @param actions the list to add the actions to.
+     */
+
+    private static void addCharacterCardActions(GameExpertMode game, List<Action> actions) {
+        Player player = game.getCurrentPlayer();
+        if (player.getCharacterCardAlreadyPlayed())
+            return;
+        for (CharacterCard card : game.getCharacters()) {
+            if (card == null || card.getCost() > player.getCoinsWallet())
+                continue;
+            int id = card.getId();
+            if (card instanceof Monk monk) {
+                for (Color color : colorsOf(monk.getStudentsOnTheCard()))
+                    forEachIsland(game, islandID -> actions.add(Action.characterCard(id, color.toString(), islandID)));
+            }
+            else if (card instanceof Princess princess) {
+                for (Color color : colorsOf(princess.getStudentsOnTheCard()))
+                    if (player.getSchool().getTable(color).getNumOfStudents() < Constants.TABLE_LENGTH)
+                        actions.add(Action.characterCard(id, color.toString()));
+            }
+            else if (card instanceof Healer) {
+                if (game.getBoard().getNumOfVetos() > 0)
+                    forEachIsland(game, islandID -> actions.add(Action.characterCard(id, islandID)));
+            }
+            else if (card instanceof IntCard) {
+                forEachIsland(game, islandID -> actions.add(Action.characterCard(id, islandID)));
+            }
+            else if (card instanceof StringCard) {
+                for (Color color : COLORS)
+                    actions.add(Action.characterCard(id, color.toString()));
+            }
+            else if (card instanceof Jester jester) {
+                int[] hall = hallCounts(player);
+                int[] onCard = new int[Constants.NUM_COLORS];
+                for (Student student : jester.getStudentsOnTheCard())
+                    onCard[student.color().ordinal()]++;
+                addSwaps(id, hall, onCard, JESTER_SWAPS, false, new int[JESTER_SWAPS], 0, new HashSet<>(), actions);
+            }
+            else if (card instanceof Bard) {
+                int[] tables = new int[Constants.NUM_COLORS];
+                for (Color color : COLORS)
+                    tables[color.ordinal()] = player.getSchool().getTable(color).getNumOfStudents();
+                addSwaps(id, hallCounts(player), tables, BARD_SWAPS, true, new int[BARD_SWAPS], 0, null, actions);
+            }
+            else
+                actions.add(Action.characterCard(id));
+        }
+    }
+
+    /**
+     * Adds the actions of playing a card which swaps students between the hall and another group of students, for
+     * every sequence of up to the given number of swaps which can be done one after the other. Each swap takes a
+     * student of a color from the hall and gives back one of another color. For the {@link Jester} the order of the
+     * swaps does not change their outcome, so only one sequence for each combination of swaps is added; for the
+     * {@link Bard}, which moves the students to the tables, the order may decide which coins are gained, so every
+     * sequence is added.
+     *
+     * @param id the ID of the card.
+     * @param hall the number of students of each color in the hall.
+     * @param other the number of students of each color in the other group (the card or the tables).
+     * @param maxSwaps the maximum number of swaps.
+     * @param toTables {@code true} if the students taken from the hall go to the tables, which are limited in length.
+     * @param swaps the swaps done so far, as {@code hallColor * NUM_COLORS + otherColor}, in the order they are done.
+     * @param done the number of swaps done so far.
+     * @param seen the combinations of swaps already added, or {@code null} if every sequence is to be added.
+     * @param actions the list to add the actions to.
+     */
+
+    private static void addSwaps(int id, int[] hall, int[] other, int maxSwaps, boolean toTables, int[] swaps,
+                                 int done, Set<Integer> seen, List<Action> actions) {
+        if (done > 0 && (seen == null || seen.add(combinationKey(swaps, done)))) {
+            // the card does the last swap of the list first
+            List<String> par = new ArrayList<>(2 * done);
+            for (int i = done - 1; i >= 0; i--) {
+                par.add(COLORS[swaps[i] / Constants.NUM_COLORS].toString());
+                par.add(COLORS[swaps[i] % Constants.NUM_COLORS].toString());
+            }
+            actions.add(Action.characterCard(id, par));
+        }
+        if (done == maxSwaps)
+            return;
+        for (int from = 0; from < Constants.NUM_COLORS; from++) {
+            if (hall[from] == 0 || (toTables && other[from] >= Constants.TABLE_LENGTH))
+                continue;
+            for (int to = 0; to < Constants.NUM_COLORS; to++) {
+                if (to == from || other[to] == 0)
+                    continue;
+                hall[from]--; other[to]--; hall[to]++; other[from]++;
+                swaps[done] = from * Constants.NUM_COLORS + to;
+                addSwaps(id, hall, other, maxSwaps, toTables, swaps, done + 1, seen, actions);
+                hall[from]++; other[to]++; hall[to]--; other[from]--;
+            }
+        }
+    }
+
+    /**
+     * Returns a key identifying the given swaps regardless of their order.
+     *
+     * @param swaps the swaps.
+     * @param done the number of swaps.
+     * @return the key of the combination of swaps.
+     */
+
+    private static int combinationKey(int[] swaps, int done) {
+        int[] sorted = new int[done];
+        System.arraycopy(swaps, 0, sorted, 0, done);
+        Arrays.sort(sorted);
+        int key = 0;
+        for (int swap : sorted)
+            key = key * (Constants.NUM_COLORS * Constants.NUM_COLORS + 1) + swap + 1;
+        return key;
+    }
+
+    /**
+     * Returns the number of students of each color in the hall of the given player.
+     *
+     * @param player the player.
+     * @return the counts, by color ordinal.
+     */
+
+    private static int[] hallCounts(Player player) {
+        int[] counts = new int[Constants.NUM_COLORS];
+        for (Color color : COLORS)
+            counts[color.ordinal()] = player.getSchool().getHall().getNumOfStudentsOfColor(color);
+        return counts;
+    }
+
+    /**
+     * Returns the colors of the given students, each once.
+     *
+     * @param students the students.
+     * @return the list of the distinct colors, in the order of {@link Color}.
+     */
+
+    private static List<Color> colorsOf(List<Student> students) {
+        boolean[] present = new boolean[Constants.NUM_COLORS];
+        for (Student student : students)
+            present[student.color().ordinal()] = true;
+        List<Color> colors = new ArrayList<>(Constants.NUM_COLORS);
+        for (Color color : COLORS)
+            if (present[color.ordinal()])
+                colors.add(color);
+        return colors;
+    }
+
+    /**
+     * Calls the given consumer with the ID of each island of the game.
+     *
+     * @param game the game.
+     * @param consumer the consumer of the island IDs.
+     */
+
+    private static void forEachIsland(Game game, IntConsumer consumer) {
+        Island island = game.getBoard().getIslands().getHead();
+        for (int i = 0; i < game.getBoard().getIslands().getSize(); i++, island = island.getNext())
+            consumer.accept(island.getId());
+    }
+}
@@ -29,4 +29,12 @@ public abstract class Client extends Observable {
 
     public abstract void disconnect();
 
+    /**
+     * Returns the last time anything was received from the server.
+     *
+     * @return the time, in milliseconds, of the latest message received.
+     */
+
+    public abstract long getLastSeen();
+
 }
@@ -1,18 +1,17 @@
 package it.polimi.ingsw.network.client;
 
-import it.polimi.ingsw.network.message.ErrorMessage;
-import it.polimi.ingsw.network.message.Message;
+import it.polimi.ingsw.network.message.*;
 import it.polimi.ingsw.network.server.Server;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.concurrent.ExecutorService;
 
 /**
- * The implementation of the Client abstract class. It can send and receive messages from and to a {@link Server}
+ * The implementation of the Client abstract class. It can send and receive messages from and to a {@link Server}.
+ * The connection starts with Java object streams; if the server confirms the binary protocol requested at login, both
+ * directions switch to {@link MessageCodec} frames.
  */
 
 public class SocketClient extends Client{
@@ -20,6 +19,11 @@ public class SocketClient extends Client{
     private final Socket socket;
     private final ObjectOutputStream out;
     private final ObjectInputStream in;
+    private volatile boolean binaryProtocol;
+    private volatile boolean binaryProtocolRequested;
+    private volatile long lastSeen;
+    private DataOutputStream binaryOut;
+    private DataInputStream binaryIn;
     private ExecutorService readExecutionQueue;
     private static final int SOCKET_TIMEOUT = 10000;
 
@@ -36,21 +40,31 @@ public class SocketClient extends Client{
         this.socket.connect(new InetSocketAddress(address, port), SOCKET_TIMEOUT);
         this.out = new ObjectOutputStream(socket.getOutputStream());
         this.in = new ObjectInputStream(socket.getInputStream());
+        this.binaryProtocol = false;
+        this.binaryProtocolRequested = false;
+        this.lastSeen = System.currentTimeMillis();
     }
 
     /**
      * The method sends the message passed as parameter (from the view) to the server.
-     * (Messages are serializable Objects so we use out.WriteObject).
+     * (Messages are serializable Objects so we use out.WriteObject, unless the binary protocol is in use).
+     * Both the view and the reader (answering pings) send messages, so the method is synchronized.
      *
      * @param message the message to send.
      */
 
     @Override
-    public void sendMessage(Message message) {
+    public synchronized void sendMessage(Message message) {
         try {
-            out.writeObject(message);
-            out.flush();
-            out.reset();
+            if (message.getMessageType() == MessageType.LOGIN_REQUEST && ((LoginRequest) message).isBinaryProtocol())
+                binaryProtocolRequested = true;
+            if (binaryProtocol)
+                MessageCodec.writeFrame(message, binaryOut);
+            else {
+                out.writeObject(message);
+                out.flush();
+                out.reset();
+            }
         } catch (IOException e) {
             notifyObservers(new ErrorMessage());
             disconnect();
@@ -66,8 +80,17 @@ public class SocketClient extends Client{
         readExecutionQueue.execute(() -> {
             while (!readExecutionQueue.isShutdown()) {
                 try {
-                    Message message = (Message) in.readObject();
-                    notifyObservers(message);
+                    Message message = binaryProtocol ? MessageCodec.readFrame(binaryIn) : (Message) in.readObject();
+                    lastSeen = System.currentTimeMillis();
+                    if (message.getMessageType() == MessageType.BINARY_PROTOCOL)
+                        switchToBinaryProtocol();
+                    else if (message.getMessageType() == MessageType.PING) {
+                        // while the protocol switch is pending, the server does not read objects any more
+                        if (binaryProtocol || !binaryProtocolRequested)
+                            sendMessage(new PongMessage());
+                    }
+                    else
+                        notifyObservers(message);
                 } catch (IOException | ClassNotFoundException e) {
                     notifyObservers(new ErrorMessage());
                     disconnect();
@@ -76,6 +99,22 @@ public class SocketClient extends Client{
         });
     }
 
+    /**
+     * Switches both directions of the connection to the binary protocol, as confirmed by the {@link Server}.
+     *
+     * @throws IOException if the raw streams of the socket cannot be used.
+     */
+
+    private void switchToBinaryProtocol() throws IOException {
+        InputStream rawIn = socket.getInputStream();
+        MessageCodec.skipObjectStreamReset(rawIn);
+        binaryIn = new DataInputStream(new BufferedInputStream(rawIn));
+        synchronized (this) {
+            binaryOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            binaryProtocol = true;
+        }
+    }
+
     /**
      * Disconnects the Client from the {@link Server}
      */
@@ -95,6 +134,17 @@ public class SocketClient extends Client{
         }
     }
 
+    /**
+     * Returns the last time a message was received from the {@link Server}.
+     *
+     * @return the time, in milliseconds, of the latest message received.
+     */
+
+    @Override
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
     /**
      * Returns the actual Socket.
      *
@@ -0,0 +1,18 @@
+package it.polimi.ingsw.network.message;
+
+/**
+ * This {@link Message} is used by the server to confirm that, right after it, both sides of the connection will
+ * stop using Java serialization and will exchange {@link MessageCodec} binary frames instead.
+ */
+
+public class BinaryProtocolMessage extends Message {
+
+    /**
+     * BinaryProtocolMessage constructor.
+     */
+
+    public BinaryProtocolMessage() {
+        super(null, MessageType.BINARY_PROTOCOL);
+    }
+
+}
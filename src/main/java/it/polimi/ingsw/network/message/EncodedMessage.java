@@ -0,0 +1,120 @@
+package it.polimi.ingsw.network.message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A {@link Message} together with the bytes it is sent as, so that a message addressed to many clients is encoded
+ * only once and the very same bytes are written on every connection. Each wire format is encoded the first time a
+ * connection using it asks for it: the {@link MessageCodec} frame for the clients that switched to the binary
+ * protocol, the Java serialization for the other ones.
+ * The messages that never change, like the {@link AskMessage}s, are encoded once for all and cached.
+ */
+
+public final class EncodedMessage {
+
+    private static final int STREAM_HEADER_LENGTH = 4; // magic number and version of the object stream
+    private static final Map<AskType, EncodedMessage> ASK_MESSAGES = new EnumMap<>(AskType.class);
+
+    static {
+        for (AskType askType : AskType.values())
+            ASK_MESSAGES.put(askType, new EncodedMessage(new AskMessage(askType)));
+    }
+
+    private final Message message;
+    private volatile byte[] frame;
+    private volatile byte[] serialized;
+
+    /**
+     * EncodedMessage constructor. The message must not be modified afterwards.
+     *
+     * @param message the {@link Message} to send.
+     */
+
+    public EncodedMessage(Message message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns the cached, already encoded {@link AskMessage} of the given type.
+     *
+     * @param askType what the server is asking for.
+     * @return the shared {@link EncodedMessage}.
+     */
+
+    public static EncodedMessage ask(AskType askType) {
+        return ASK_MESSAGES.get(askType);
+    }
+
+    /**
+     * Returns the message.
+     *
+     * @return the {@link Message} carried.
+     */
+
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the message as a binary protocol frame, length prefix included.
+     *
+     * @return a read-only buffer over the shared bytes of the frame.
+     */
+
+    public ByteBuffer getFrame() {
+        byte[] bytes = frame;
+        if (bytes == null) {
+            try {
+                bytes = MessageCodec.encode(message);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            frame = bytes;
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the message as it is written by an object stream that is reset after every message: the serialized
+     * object followed by the reset marker, without the stream header.
+     *
+     * @return a read-only buffer over the shared bytes of the serialized message.
+     */
+
+    public ByteBuffer getSerialized() {
+        byte[] bytes = serialized;
+        if (bytes == null) {
+            try {
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                ObjectOutputStream out = new ObjectOutputStream(stream);
+                out.writeObject(message);
+                out.reset();
+                out.flush();
+                byte[] withHeader = stream.toByteArray();
+                bytes = Arrays.copyOfRange(withHeader, STREAM_HEADER_LENGTH, withHeader.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            serialized = bytes;
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the message in the format used by a connection.
+     *
+     * @param binaryProtocol {@code true} if the connection uses the binary protocol, {@code false} otherwise.
+     * @return a read-only buffer over the shared bytes of the message.
+     */
+
+    public ByteBuffer getBytes(boolean binaryProtocol) {
+        return binaryProtocol ? getFrame() : getSerialized();
+    }
+}
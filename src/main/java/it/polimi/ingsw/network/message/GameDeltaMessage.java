@@ -0,0 +1,75 @@
+package it.polimi.ingsw.network.message;
+
+import it.polimi.ingsw.model.GameDelta;
+
+/**
+ * This {@link Message} is used to communicate to the players what has changed in the game since the version of the
+ * game state they already have. It also tells the client which view of the game has to be refreshed, if any.
+ */
+
+public class GameDeltaMessage extends Message {
+
+    private final long baseVersion;
+    private final long version;
+    private final GameDelta delta;
+    private final MessageType display;
+
+    /**
+     * Default constructor.
+     *
+     * @param baseVersion the version of the game state the changes apply to.
+     * @param version the version of the game state after the changes.
+     * @param delta the changes.
+     * @param display the type of message whose view has to be shown after applying the changes
+     *                ({@code GAME_STATUS}, {@code GAME_STATUS_FIRST_ACTION_PHASE}, {@code SHOW_DECK_MESSAGE}), or
+     *                {@code null} if nothing has to be shown.
+     */
+
+    public GameDeltaMessage(long baseVersion, long version, GameDelta delta, MessageType display) {
+        super(null, MessageType.GAME_DELTA);
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.delta = delta;
+        this.display = display;
+    }
+
+    /**
+     * Returns the version of the game state the changes apply to.
+     *
+     * @return the base version.
+     */
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Returns the version of the game state after the changes.
+     *
+     * @return the new version.
+     */
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the changes.
+     *
+     * @return the {@link GameDelta}.
+     */
+
+    public GameDelta getDelta() {
+        return delta;
+    }
+
+    /**
+     * Returns the type of message whose view has to be shown after applying the changes.
+     *
+     * @return the {@link MessageType} to show, or {@code null} if nothing has to be shown.
+     */
+
+    public MessageType getDisplay() {
+        return display;
+    }
+}
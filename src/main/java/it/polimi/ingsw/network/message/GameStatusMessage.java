@@ -3,12 +3,14 @@ package it.polimi.ingsw.network.message;
 import it.polimi.ingsw.model.Game;
 
 /**
- * This {@link Message} is used to communicate the current game status to the players.
+ * This {@link Message} is used to communicate the current game status to the players. It carries the whole model,
+ * so it is only sent when a client has no up-to-date copy of it: from then on, {@link GameDeltaMessage}s are used.
  */
 
 public class GameStatusMessage extends Message{
 
     private final Game game;
+    private final long version;
 
     /**
      * Default constructor.
@@ -17,8 +19,20 @@ public class GameStatusMessage extends Message{
      */
 
     public GameStatusMessage(Game game) {
+        this(game, 0);
+    }
+
+    /**
+     * Constructor of a versioned snapshot, that the following {@link GameDeltaMessage}s will be based on.
+     *
+     * @param game the serialized game model.
+     * @param version the version of the game state.
+     */
+
+    public GameStatusMessage(Game game, long version) {
         super(null, MessageType.GAME_STATUS);
         this.game = game;
+        this.version = version;
     }
 
     /**
@@ -30,4 +44,14 @@ public class GameStatusMessage extends Message{
     public Game getGame() {
         return game;
     }
+
+    /**
+     * Returns the version of the game state.
+     *
+     * @return the version of the game state.
+     */
+
+    public long getVersion() {
+        return version;
+    }
 }
@@ -1,12 +1,18 @@
 package it.polimi.ingsw.network.message;
 
+import java.io.Serial;
+
 /**
  * This {@link Message} is used to communicate to the server the nickname chosen by the client, in order to enter the
- * lobby.
+ * lobby. It also tells the server whether the client is able to switch to the {@link MessageCodec} binary protocol.
  */
 
 public class LoginRequest extends Message{
 
+    @Serial
+    private static final long serialVersionUID = 4910665394209290198L;
+    private final boolean binaryProtocol;
+
     /**
      * Default constructor.
      *
@@ -14,6 +20,28 @@ public class LoginRequest extends Message{
      */
 
     public LoginRequest(String nickname) {
+        this(nickname, false);
+    }
+
+    /**
+     * Constructor that also states whether the client supports the binary protocol.
+     *
+     * @param nickname client's nickname.
+     * @param binaryProtocol {@code true} if the client is able to switch to the binary protocol.
+     */
+
+    public LoginRequest(String nickname, boolean binaryProtocol) {
         super(nickname, MessageType.LOGIN_REQUEST);
+        this.binaryProtocol = binaryProtocol;
+    }
+
+    /**
+     * Returns a flag that indicates whether the client is able to switch to the binary protocol.
+     *
+     * @return {@code true} if the client supports the binary protocol, {@code false} otherwise.
+     */
+
+    public boolean isBinaryProtocol() {
+        return binaryProtocol;
     }
 }
@@ -0,0 +1,580 @@
+package it.polimi.ingsw.network.message;
+
+import it.polimi.ingsw.controller.GameState;
+import it.polimi.ingsw.controller.GameSummary;
+import it.polimi.ingsw.model.Game;
+import it.polimi.ingsw.model.GameDelta;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class converts {@link Message}s to and from the compact binary protocol. Every frame is made of:
+ * <ul>
+ *     <li>an {@code int} with the length of the rest of the frame;</li>
+ *     <li>a {@code byte} with the ordinal of the {@link MessageType};</li>
+ *     <li>the fields of the message, each one written by an explicit encoder.</li>
+ * </ul>
+ * Unlike Java serialization, no class descriptor is ever sent. The only exceptions are the model snapshots carried by
+ * {@link GameStatusMessage}, {@link GameStatusFirstActionPhaseMessage} and {@link ShowDeckMessage}, which are still
+ * serialized, but as a single opaque field of the frame: during a
+ * match, the model travels as {@link GameDeltaMessage}s instead. Since they are only ever sent by the server, the
+ * server decodes the frames of its clients with {@link #decodeFromClient(byte[])}, which refuses them before anything
+ * is deserialized.
+ */
+
+public final class MessageCodec {
+
+    /**
+     * The largest frame, length prefix excluded, that is accepted from the other end of a connection: anything
+     * bigger is taken as a corrupted (or hostile) stream, before any memory is allocated for it.
+     */
+
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final Set<MessageType> SERVER_ONLY = EnumSet.of(MessageType.GAME_STATUS_FIRST_ACTION_PHASE,
+            MessageType.GAME_STATUS, MessageType.SHOW_DECK_MESSAGE);
+    private static final AskType[] ASK_TYPES = AskType.values();
+    private static final GameDelta.ChangeType[] CHANGE_TYPES = GameDelta.ChangeType.values();
+    private static final GameState[] GAME_STATES = GameState.values();
+
+    private static final byte CHARACTER_CARD = 0;
+    private static final byte CHARACTER_CARD_INT = 1;
+    private static final byte CHARACTER_CARD_STRING = 2;
+    private static final byte CHARACTER_CARD_STRING_INT = 3;
+    private static final byte CHARACTER_CARD_ARRAY_LIST_STRING = 4;
+
+    /**
+     * This class only has static methods.
+     */
+
+    private MessageCodec() {}
+
+    /**
+     * Encodes a message into a complete frame, length prefix included.
+     *
+     * @param message the {@link Message} to encode.
+     * @return the bytes of the frame.
+     * @throws IOException if the message cannot be encoded.
+     */
+
+    public static byte[] encode(Message message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // placeholder for the length
+        out.writeByte(message.getMessageType().ordinal());
+        writeFields(message, out);
+        out.flush();
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - Integer.BYTES;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    /**
+     * Writes a message to the given stream, as a single frame.
+     *
+     * @param message the {@link Message} to write.
+     * @param out the stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+
+    public static void writeFrame(Message message, OutputStream out) throws IOException {
+        out.write(encode(message));
+        out.flush();
+    }
+
+    /**
+     * Reads a whole frame from the given stream and decodes it.
+     *
+     * @param in the stream to read from.
+     * @return the decoded {@link Message}.
+     * @throws IOException if the stream cannot be read or the frame is malformed.
+     */
+
+    public static Message readFrame(DataInputStream in) throws IOException {
+        return decode(readPayload(in));
+    }
+
+    /**
+     * Reads a whole frame sent by a client from the given stream and decodes it, like
+     * {@link #decodeFromClient(byte[])}.
+     *
+     * @param in the stream to read from.
+     * @return the decoded {@link Message}.
+     * @throws IOException if the stream cannot be read, the frame is malformed or its type is only sent by the server.
+     */
+
+    public static Message readClientFrame(DataInputStream in) throws IOException {
+        return decodeFromClient(readPayload(in));
+    }
+
+    /**
+     * Reads the content of a whole frame, i.e. everything that follows the length prefix.
+     *
+     * @param in the stream to read from.
+     * @return the bytes of the frame, without the length prefix.
+     * @throws IOException if the stream cannot be read or the length of the frame is invalid.
+     */
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkFrameLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * Checks the length prefix of a frame before the frame is read.
+     *
+     * @param length the length of the frame, length prefix excluded.
+     * @throws StreamCorruptedException if the length is not positive or exceeds {@link #MAX_FRAME_BYTES}.
+     */
+
+    public static void checkFrameLength(int length) throws StreamCorruptedException {
+        if (length <= 0 || length > MAX_FRAME_BYTES)
+            throw new StreamCorruptedException("Invalid frame length: " + length);
+    }
+
+    /**
+     * Decodes the content of a frame, i.e. everything that follows the length prefix.
+     *
+     * @param payload the bytes of the frame, without the length prefix.
+     * @return the decoded {@link Message}.
+     * @throws IOException if the frame is malformed.
+     */
+
+    public static Message decode(byte[] payload) throws IOException {
+        return decode(payload, false);
+    }
+
+    /**
+     * Decodes the content of a frame sent by a client: the types of message only the server sends, which carry
+     * serialized model objects, are refused before any of their fields is read.
+     *
+     * @param payload the bytes of the frame, without the length prefix.
+     * @return the decoded {@link Message}.
+     * @throws IOException if the frame is malformed or its type is only sent by the server.
+     */
+
+    public static Message decodeFromClient(byte[] payload) throws IOException {
+        return decode(payload, true);
+    }
+
+    /**
+     * Decodes the content of a frame, which must be made of a single message and nothing else.
+     *
+     * @param payload the bytes of the frame, without the length prefix.
+     * @param fromClient whether the frame has been sent by a client.
+     * @return the decoded {@link Message}.
+     * @throws IOException if the frame is malformed, or sent by a client with a type only the server sends.
+     */
+
+    private static Message decode(byte[] payload, boolean fromClient) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int tag = in.readUnsignedByte();
+        if (tag >= MESSAGE_TYPES.length)
+            throw new StreamCorruptedException("Unknown message type: " + tag);
+        if (fromClient)
+            checkFromClient(MESSAGE_TYPES[tag]);
+        Message message = readFields(MESSAGE_TYPES[tag], in);
+        if (in.available() > 0)
+            throw new StreamCorruptedException(in.available() + " bytes left after a " + MESSAGE_TYPES[tag] +
+                    " message");
+        return message;
+    }
+
+    /**
+     * Checks that a message received by the server has a type a client may send.
+     *
+     * @param messageType the type of the received message.
+     * @throws StreamCorruptedException if the type is only sent by the server.
+     */
+
+    public static void checkFromClient(MessageType messageType) throws StreamCorruptedException {
+        if (SERVER_ONLY.contains(messageType))
+            throw new StreamCorruptedException("Message type only sent by the server: " + messageType);
+    }
+
+    /**
+     * Consumes the reset marker that an {@link ObjectOutputStream} writes after every message sent by this project.
+     * It must be called once on the raw stream, right after switching from Java serialization to the binary protocol.
+     *
+     * @param in the raw stream of the connection.
+     * @throws IOException if the marker is missing.
+     */
+
+    public static void skipObjectStreamReset(InputStream in) throws IOException {
+        if (in.read() != ObjectStreamConstants.TC_RESET)
+            throw new StreamCorruptedException("Object stream reset expected before the protocol switch");
+    }
+
+    /**
+     * Writes the fields of a message.
+     *
+     * @param message the {@link Message} to encode.
+     * @param out the stream to write to.
+     * @throws IOException if the message cannot be encoded.
+     */
+
+    private static void writeFields(Message message, DataOutputStream out) throws IOException {
+        switch (message.getMessageType()) {
+            case LOGIN_REQUEST -> {
+                writeString(message.getNickname(), out);
+                out.writeBoolean(((LoginRequest) message).isBinaryProtocol());
+            }
+            case JOIN_GAME -> {
+                writeString(message.getNickname(), out);
+                out.writeInt(((JoinGameMessage) message).getGameID());
+            }
+            case CREATE_GAME -> {
+                CreateGameMessage createGameMessage = (CreateGameMessage) message;
+                writeString(message.getNickname(), out);
+                out.writeInt(createGameMessage.getGameNumber());
+                out.writeInt(createGameMessage.getPlayerNum());
+                out.writeBoolean(createGameMessage.isExpertMode());
+            }
+            case PLAYER_NUMBER_REPLY -> {
+                writeString(message.getNickname(), out);
+                out.writeInt(((PlayerNumberMessage) message).getPlayerNumber());
+            }
+            case ASSISTANT_CARD_REPLY -> {
+                writeString(message.getNickname(), out);
+                writeString(((AssistantCardMessage) message).getCardName(), out);
+            }
+            case MOTHER_NATURE_STEPS_REPLY -> {
+                writeString(message.getNickname(), out);
+                out.writeInt(((MotherNatureStepsMessage) message).getSteps());
+            }
+            case CLOUD_CHOICE_REPLY -> {
+                writeString(message.getNickname(), out);
+                out.writeInt(((CloudChoiceMessage) message).getCloudID());
+            }
+            case MOVE_TO_TABLE_REPLY -> {
+                writeString(message.getNickname(), out);
+                writeString(((MoveToTableMessage) message).getColor(), out);
+            }
+            case MOVE_TO_ISLAND_REPLY -> {
+                MoveToIslandMessage moveToIslandMessage = (MoveToIslandMessage) message;
+                writeString(message.getNickname(), out);
+                writeString(moveToIslandMessage.getColor(), out);
+                out.writeInt(moveToIslandMessage.getIslandID());
+            }
+            case CHARACTER_CARD_REPLY -> writeCharacterCardFields((CharacterCardMessage) message, out);
+            case WIZARD_ID -> {
+                writeString(message.getNickname(), out);
+                writeString(((WizardIDMessage) message).getWizardID(), out);
+            }
+            case ACTION_CHOICE -> {
+                writeString(message.getNickname(), out);
+                writeString(((ActionChoiceMessage) message).getChoice(), out);
+            }
+            case ASK_TYPE -> out.writeByte(((AskMessage) message).getAskType().ordinal());
+            case GENERIC, UPDATE -> writeString(message.toString(), out);
+            case DISCONNECTION -> writeString(((DisconnectionMessage) message).getMessageStr(), out);
+            case GAME_PHASE -> out.writeBoolean(((GamePhaseMessage) message).isActionPhase());
+            case GAME_STATUS_FIRST_ACTION_PHASE ->
+                    writeSerialized(((GameStatusFirstActionPhaseMessage) message).getGame(), out);
+            case GAME_STATUS -> {
+                writeSerialized(((GameStatusMessage) message).getGame(), out);
+                out.writeLong(((GameStatusMessage) message).getVersion());
+            }
+            case GAME_DELTA -> writeGameDeltaFields((GameDeltaMessage) message, out);
+            case RESYNC_REQUEST -> writeString(message.getNickname(), out);
+            case SHOW_DECK_MESSAGE -> writeSerialized(((ShowDeckMessage) message).getGame(), out);
+            case EXISTING_GAMES -> {
+                List<GameSummary> existingGames = ((ShowExistingGamesMessage) message).getExistingGames();
+                out.writeShort(existingGames.size());
+                for (GameSummary summary : existingGames) {
+                    out.writeInt(summary.gameID());
+                    out.writeBoolean(summary.expertMode());
+                    out.writeByte(summary.seatsTaken());
+                    out.writeByte(summary.capacity());
+                    out.writeByte(summary.gameState().ordinal());
+                }
+            }
+            case ERROR_MESSAGE, END_GAME, BINARY_PROTOCOL, PING, PONG -> {
+                // the type is all there is to know
+            }
+        }
+    }
+
+    /**
+     * Reads the fields of a message and builds it.
+     *
+     * @param messageType the type of the message, already read from the frame.
+     * @param in the stream to read from.
+     * @return the decoded {@link Message}.
+     * @throws IOException if the frame is malformed.
+     */
+
+    private static Message readFields(MessageType messageType, DataInputStream in) throws IOException {
+        return switch (messageType) {
+            case LOGIN_REQUEST -> new LoginRequest(readString(in), in.readBoolean());
+            case JOIN_GAME -> new JoinGameMessage(readString(in), in.readInt());
+            case CREATE_GAME -> new CreateGameMessage(readString(in), in.readInt(), in.readInt(), in.readBoolean());
+            case PLAYER_NUMBER_REPLY -> new PlayerNumberMessage(readString(in), in.readInt());
+            case ASSISTANT_CARD_REPLY -> new AssistantCardMessage(readString(in), readString(in));
+            case MOTHER_NATURE_STEPS_REPLY -> new MotherNatureStepsMessage(readString(in), in.readInt());
+            case CLOUD_CHOICE_REPLY -> new CloudChoiceMessage(readString(in), in.readInt());
+            case MOVE_TO_TABLE_REPLY -> new MoveToTableMessage(readString(in), readString(in));
+            case MOVE_TO_ISLAND_REPLY -> new MoveToIslandMessage(readString(in), readString(in), in.readInt());
+            case CHARACTER_CARD_REPLY -> readCharacterCardFields(in);
+            case WIZARD_ID -> new WizardIDMessage(readString(in), readString(in));
+            case ACTION_CHOICE -> new ActionChoiceMessage(readString(in), readString(in));
+            case ASK_TYPE -> {
+                int askType = in.readUnsignedByte();
+                if (askType >= ASK_TYPES.length)
+                    throw new StreamCorruptedException("Unknown ask type: " + askType);
+                yield new AskMessage(ASK_TYPES[askType]);
+            }
+            case GENERIC -> new GenericMessage(readString(in));
+            case UPDATE -> new UpdateMessage(readString(in));
+            case DISCONNECTION -> new DisconnectionMessage(readString(in));
+            case GAME_PHASE -> new GamePhaseMessage(in.readBoolean());
+            case GAME_STATUS_FIRST_ACTION_PHASE -> new GameStatusFirstActionPhaseMessage(readSerialized(in, Game.class));
+            case GAME_STATUS -> new GameStatusMessage(readSerialized(in, Game.class), in.readLong());
+            case GAME_DELTA -> readGameDeltaFields(in);
+            case RESYNC_REQUEST -> new ResyncRequest(readString(in));
+            case SHOW_DECK_MESSAGE -> new ShowDeckMessage(readSerialized(in, Game.class));
+            case EXISTING_GAMES -> {
+                int size = readCount(in.readUnsignedShort(), 8, in);
+                List<GameSummary> existingGames = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    int gameID = in.readInt();
+                    boolean expertMode = in.readBoolean();
+                    int seatsTaken = in.readUnsignedByte();
+                    int capacity = in.readUnsignedByte();
+                    int gameState = in.readUnsignedByte();
+                    if (gameState >= GAME_STATES.length)
+                        throw new StreamCorruptedException("Unknown game state: " + gameState);
+                    existingGames.add(new GameSummary(gameID, expertMode, seatsTaken, capacity, GAME_STATES[gameState]));
+                }
+                yield new ShowExistingGamesMessage(existingGames);
+            }
+            case ERROR_MESSAGE -> new ErrorMessage();
+            case END_GAME -> new EndGameMessage();
+            case BINARY_PROTOCOL -> new BinaryProtocolMessage();
+            case PING -> new PingMessage();
+            case PONG -> new PongMessage();
+        };
+    }
+
+    /**
+     * Writes the fields of a character card message, preceded by a byte telling which kind of parameters follow.
+     *
+     * @param message the {@link CharacterCardMessage} to encode.
+     * @param out the stream to write to.
+     * @throws IOException if the message cannot be encoded.
+     */
+
+    private static void writeCharacterCardFields(CharacterCardMessage message, DataOutputStream out)
+            throws IOException {
+        if (message instanceof CharacterCardMessageInt intMessage) {
+            out.writeByte(CHARACTER_CARD_INT);
+            writeString(message.getNickname(), out);
+            out.writeInt(message.getCardID());
+            out.writeInt(intMessage.getPar());
+        } else if (message instanceof CharacterCardMessageString stringMessage) {
+            out.writeByte(CHARACTER_CARD_STRING);
+            writeString(message.getNickname(), out);
+            out.writeInt(message.getCardID());
+            writeString(stringMessage.getPar(), out);
+        } else if (message instanceof CharacterCardMessageStringInt stringIntMessage) {
+            out.writeByte(CHARACTER_CARD_STRING_INT);
+            writeString(message.getNickname(), out);
+            out.writeInt(message.getCardID());
+            writeString(stringIntMessage.getPar1(), out);
+            out.writeInt(stringIntMessage.getPar2());
+        } else if (message instanceof CharacterCardMessageArrayListString listMessage) {
+            out.writeByte(CHARACTER_CARD_ARRAY_LIST_STRING);
+            writeString(message.getNickname(), out);
+            out.writeInt(message.getCardID());
+            out.writeInt(listMessage.getPar().size());
+            for (String par : listMessage.getPar())
+                writeString(par, out);
+        } else {
+            out.writeByte(CHARACTER_CARD);
+            writeString(message.getNickname(), out);
+            out.writeInt(message.getCardID());
+        }
+    }
+
+    /**
+     * Reads the fields of a character card message and builds the right kind of message.
+     *
+     * @param in the stream to read from.
+     * @return the decoded {@link CharacterCardMessage}.
+     * @throws IOException if the frame is malformed.
+     */
+
+    private static CharacterCardMessage readCharacterCardFields(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        String nickname = readString(in);
+        int cardID = in.readInt();
+        switch (kind) {
+            case CHARACTER_CARD:
+                return new CharacterCardMessage(nickname, cardID);
+            case CHARACTER_CARD_INT:
+                return new CharacterCardMessageInt(nickname, cardID, in.readInt());
+            case CHARACTER_CARD_STRING:
+                return new CharacterCardMessageString(nickname, cardID, readString(in));
+            case CHARACTER_CARD_STRING_INT:
+                return new CharacterCardMessageStringInt(nickname, cardID, readString(in), in.readInt());
+            case CHARACTER_CARD_ARRAY_LIST_STRING:
+                int size = readCount(in.readInt(), 1, in);
+                List<String> par = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    par.add(readString(in));
+                return new CharacterCardMessageArrayListString(nickname, cardID, par);
+            default:
+                throw new StreamCorruptedException("Unknown character card message: " + kind);
+        }
+    }
+
+    /**
+     * Writes the fields of a game delta message. Every change takes a byte for its type, a short for the index, a
+     * byte for the number of values and a short for each value: all the quantities of the game fit in a short.
+     *
+     * @param message the {@link GameDeltaMessage} to encode.
+     * @param out the stream to write to.
+     * @throws IOException if the message cannot be encoded.
+     */
+
+    private static void writeGameDeltaFields(GameDeltaMessage message, DataOutputStream out) throws IOException {
+        out.writeLong(message.getBaseVersion());
+        out.writeLong(message.getVersion());
+        out.writeByte(message.getDisplay() == null ? -1 : message.getDisplay().ordinal());
+        List<GameDelta.Change> changes = message.getDelta().getChanges();
+        out.writeShort(changes.size());
+        for (GameDelta.Change change : changes) {
+            out.writeByte(change.type().ordinal());
+            out.writeShort(change.index());
+            out.writeByte(change.values().length);
+            for (int value : change.values())
+                out.writeShort(value);
+        }
+    }
+
+    /**
+     * Reads the fields of a game delta message and builds it.
+     *
+     * @param in the stream to read from.
+     * @return the decoded {@link GameDeltaMessage}.
+     * @throws IOException if the frame is malformed.
+     */
+
+    private static GameDeltaMessage readGameDeltaFields(DataInputStream in) throws IOException {
+        long baseVersion = in.readLong();
+        long version = in.readLong();
+        byte display = in.readByte();
+        if (display >= MESSAGE_TYPES.length)
+            throw new StreamCorruptedException("Unknown message type: " + display);
+        int size = readCount(in.readUnsignedShort(), 4, in);
+        List<GameDelta.Change> changes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int type = in.readUnsignedByte();
+            if (type >= CHANGE_TYPES.length)
+                throw new StreamCorruptedException("Unknown change type: " + type);
+            int index = in.readShort();
+            int[] values = new int[in.readUnsignedByte()];
+            for (int j = 0; j < values.length; j++)
+                values[j] = in.readShort();
+            changes.add(new GameDelta.Change(CHANGE_TYPES[type], index, values));
+        }
+        return new GameDeltaMessage(baseVersion, version, new GameDelta(changes),
+                display < 0 ? null : MESSAGE_TYPES[display]);
+    }
+
+    /**
+     * Checks a count (of elements or bytes) read from a frame before anything is allocated for it: since every
+     * element takes at least the given number of bytes, a count the rest of the frame cannot hold is malformed.
+     *
+     * @param count the count read from the frame.
+     * @param minBytes the smallest number of bytes an element can take.
+     * @param in the stream of the frame, positioned right after the count.
+     * @return the count.
+     * @throws IOException if the count is negative or larger than the rest of the frame can hold.
+     */
+
+    private static int readCount(int count, int minBytes, DataInputStream in) throws IOException {
+        if (count < 0 || (long) count * minBytes > in.available())
+            throw new StreamCorruptedException("Invalid count: " + count);
+        return count;
+    }
+
+    /**
+     * Writes a string that can also be {@code null}.
+     *
+     * @param string the string to write.
+     * @param out the stream to write to.
+     * @throws IOException if the string cannot be written.
+     */
+
+    private static void writeString(String string, DataOutputStream out) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null)
+            out.writeUTF(string);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(String, DataOutputStream)}.
+     *
+     * @param in the stream to read from.
+     * @return the string read, possibly {@code null}.
+     * @throws IOException if the string cannot be read.
+     */
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes an object graph as a single length-prefixed field, using Java serialization.
+     *
+     * @param object the object to write.
+     * @param out the stream to write to.
+     * @throws IOException if the object cannot be serialized.
+     */
+
+    private static void writeSerialized(Object object, DataOutputStream out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(object);
+        }
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    /**
+     * Reads an object graph written by {@link #writeSerialized(Object, DataOutputStream)}.
+     *
+     * @param in the stream to read from.
+     * @param type the class the object is expected to be an instance of.
+     * @param <T> the type of the object.
+     * @return the object read.
+     * @throws IOException if the object cannot be deserialized, or is not an instance of the given class.
+     */
+
+    private static <T> T readSerialized(DataInputStream in, Class<T> type) throws IOException {
+        byte[] bytes = new byte[readCount(in.readInt(), 1, in)];
+        in.readFully(bytes);
+        Object object;
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            object = objectIn.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new InvalidClassException(ex.getMessage());
+        }
+        if (!type.isInstance(object))
+            throw new StreamCorruptedException("Expected a serialized " + type.getSimpleName());
+        return type.cast(object);
+    }
+}
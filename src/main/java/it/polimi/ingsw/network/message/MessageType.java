@@ -26,5 +26,10 @@ public enum MessageType {
     DISCONNECTION,
     UPDATE,
     GAME_PHASE,
-    END_GAME
+    END_GAME,
+    BINARY_PROTOCOL,
+    GAME_DELTA,
+    RESYNC_REQUEST,
+    PING,
+    PONG
 }
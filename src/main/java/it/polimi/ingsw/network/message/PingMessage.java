@@ -0,0 +1,18 @@
+package it.polimi.ingsw.network.message;
+
+/**
+ * This {@link Message} is periodically sent by the server to every connection, which has to answer with a
+ * {@link PongMessage}: a connection that stays silent for too long is considered dead.
+ */
+
+public class PingMessage extends Message {
+
+    /**
+     * PingMessage constructor.
+     */
+
+    public PingMessage() {
+        super(null, MessageType.PING);
+    }
+
+}
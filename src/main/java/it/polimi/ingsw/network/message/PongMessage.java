@@ -0,0 +1,18 @@
+package it.polimi.ingsw.network.message;
+
+/**
+ * This {@link Message} is sent by a client as soon as it receives a {@link PingMessage}, to let the server know that
+ * it is still alive even when its player has nothing to do.
+ */
+
+public class PongMessage extends Message {
+
+    /**
+     * PongMessage constructor.
+     */
+
+    public PongMessage() {
+        super(null, MessageType.PONG);
+    }
+
+}
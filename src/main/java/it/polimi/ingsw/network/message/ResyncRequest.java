@@ -0,0 +1,19 @@
+package it.polimi.ingsw.network.message;
+
+/**
+ * This {@link Message} is used by a client whose copy of the game cannot be updated any more (e.g. it has missed a
+ * {@link GameDeltaMessage}) to ask the server for a full {@link GameStatusMessage}.
+ */
+
+public class ResyncRequest extends Message {
+
+    /**
+     * Default constructor.
+     *
+     * @param nickname client's nickname.
+     */
+
+    public ResyncRequest(String nickname) {
+        super(nickname, MessageType.RESYNC_REQUEST);
+    }
+}
@@ -1,8 +1,8 @@
 package it.polimi.ingsw.network.message;
 
-import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameSummary;
 
-import java.util.Map;
+import java.util.List;
 
 /**
  * This {@link Message} is used to communicate to the clients the games currently present on the server.
@@ -10,26 +10,26 @@ import java.util.Map;
 
 public class ShowExistingGamesMessage extends Message{
 
-    private final Map<Integer, GameController> existingGames;
+    private final List<GameSummary> existingGames;
 
     /**
      * Default constructor.
      *
-     * @param existingGames a Map containing the game IDs and the associated game controllers.
+     * @param existingGames a list containing the summaries of the existing games.
      */
 
-    public ShowExistingGamesMessage(Map<Integer, GameController> existingGames) {
+    public ShowExistingGamesMessage(List<GameSummary> existingGames) {
         super(null, MessageType.EXISTING_GAMES);
         this.existingGames = existingGames;
     }
 
     /**
-     * Returns a map containing the game IDs as keys and the game controllers as values.
+     * Returns a list containing the summaries of the existing games.
      *
-     * @return a map containing the game IDs as keys and the game controllers as values.
+     * @return a list containing the summaries of the existing games.
      */
 
-    public Map<Integer, GameController> getExistingGames() {
+    public List<GameSummary> getExistingGames() {
         return existingGames;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package it.polimi.ingsw.network.server;
 
+import it.polimi.ingsw.network.message.EncodedMessage;
 import it.polimi.ingsw.network.message.Message;
 import it.polimi.ingsw.view.VirtualView;
 
@@ -33,6 +34,15 @@ public interface ClientHandler {
 
     void sendMessage(Message message);
 
+    /**
+     * Sends an already encoded message to the client. The same {@link EncodedMessage} can be sent to many clients:
+     * it is only encoded once for each wire format.
+     *
+     * @param message the message to be sent.
+     */
+
+    void sendMessage(EncodedMessage message);
+
     /**
      * Sends a message to the client and removes the clients and the game controller from the Server.
      *
@@ -41,6 +51,30 @@ public interface ClientHandler {
 
     void sendMessageAndQuit(Message message);
 
+    /**
+     * Returns the number of messages waiting to be written to the client.
+     *
+     * @return the depth of the outbound queue.
+     */
+
+    int getOutboundQueueDepth();
+
+    /**
+     * Returns the last time anything was received from the client.
+     *
+     * @return the time, in milliseconds, of the latest message (or bytes) received.
+     */
+
+    long getLastSeen();
+
+    /**
+     * Returns the traffic of the connection.
+     *
+     * @return the {@link ConnectionStats} of the connection.
+     */
+
+    ConnectionStats getConnectionStats();
+
     /**
      * Sets the {@code VirtualView}.
      *
@@ -0,0 +1,90 @@
+package it.polimi.ingsw.network.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The traffic of a single connection: the bytes and the messages (frames) received from and sent to the client.
+ * The counters are only incremented, so they can be updated by the connection's reader and by the game lanes sending
+ * messages at the same time, without allocating anything.
+ */
+
+public class ConnectionStats {
+
+    private final AtomicLong bytesReceived;
+    private final AtomicLong framesReceived;
+    private final AtomicLong bytesSent;
+    private final AtomicLong framesSent;
+
+    /**
+     * ConnectionStats constructor.
+     */
+
+    public ConnectionStats() {
+        this.bytesReceived = new AtomicLong();
+        this.framesReceived = new AtomicLong();
+        this.bytesSent = new AtomicLong();
+        this.framesSent = new AtomicLong();
+    }
+
+    /**
+     * Counts a message received from the client.
+     *
+     * @param bytes the size of the message on the wire.
+     */
+
+    public void received(long bytes) {
+        bytesReceived.addAndGet(bytes);
+        framesReceived.incrementAndGet();
+    }
+
+    /**
+     * Counts a message queued for the client.
+     *
+     * @param bytes the size of the message on the wire.
+     */
+
+    public void sent(long bytes) {
+        bytesSent.addAndGet(bytes);
+        framesSent.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of bytes received from the client.
+     *
+     * @return the bytes received.
+     */
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * Returns the number of messages received from the client.
+     *
+     * @return the frames received.
+     */
+
+    public long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    /**
+     * Returns the number of bytes sent to the client.
+     *
+     * @return the bytes sent.
+     */
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Returns the number of messages sent to the client.
+     *
+     * @return the frames sent.
+     */
+
+    public long getFramesSent() {
+        return framesSent.get();
+    }
+}
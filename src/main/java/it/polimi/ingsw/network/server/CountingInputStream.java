@@ -0,0 +1,94 @@
+package it.polimi.ingsw.network.server;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that counts the bytes read through it, so that a blocking connection can tell how many bytes each
+ * message has taken on the wire. It is only read by the connection's reader thread.
+ */
+
+public class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    /**
+     * CountingInputStream constructor.
+     *
+     * @param in the stream to read from.
+     */
+
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Returns the number of bytes read (or skipped) so far.
+     *
+     * @return the byte count.
+     */
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Reads a byte, counting it.
+     *
+     * @return the byte read, or {@code -1} at the end of the stream.
+     * @throws IOException if the stream cannot be read.
+     */
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0)
+            count++;
+        return b;
+    }
+
+    /**
+     * Reads some bytes, counting them.
+     *
+     * @param b the buffer to read into.
+     * @param off the offset to start from.
+     * @param len the maximum number of bytes to read.
+     * @return the number of bytes read, or {@code -1} at the end of the stream.
+     * @throws IOException if the stream cannot be read.
+     */
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0)
+            count += n;
+        return n;
+    }
+
+    /**
+     * Skips some bytes, counting them.
+     *
+     * @param n the number of bytes to skip.
+     * @return the number of bytes skipped.
+     * @throws IOException if the stream cannot be read.
+     */
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    /**
+     * Marks are not supported, since reading again the same bytes would count them twice.
+     *
+     * @return {@code false}.
+     */
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
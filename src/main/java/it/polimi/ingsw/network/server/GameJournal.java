@@ -0,0 +1,408 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.network.message.CreateGameMessage;
+import it.polimi.ingsw.network.message.Message;
+import it.polimi.ingsw.network.message.MessageCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static it.polimi.ingsw.network.server.Server.LOGGER;
+
+/**
+ * The append-only journal of a game: the seed the game has been created with, followed by every message the server
+ * has accepted for the game, in the order they have been handled. Since a game created with a given seed always
+ * reacts in the same way to the same messages, replaying the journal rebuilds the game as it was.
+ * Each entry is made of:
+ * <ul>
+ *     <li>an {@code int} with the length of its content;</li>
+ *     <li>an {@code int} with the CRC-32 of its content;</li>
+ *     <li>the content: a {@code byte} with the ordinal of the {@link EntryType}, a {@code long} with the sequence
+ *     number of the entry, then the seed and a {@link MessageCodec} frame, a frame, or the nickname of a player
+ *     leaving the game.</li>
+ * </ul>
+ * An entry cut short by a crash fails its check, and the journal is truncated right before it when it is recovered.
+ * The entries are written by the {@link JournalWriter}, never by the thread appending them.
+ * Every few rounds a {@link GameSnapshot} of the game is written next to the journal, which is then emptied: the
+ * journal only keeps the entries that came after the latest snapshot, and the sequence numbers tell them apart from
+ * older entries a crash may have left behind.
+ */
+
+public class GameJournal {
+
+    /**
+     * This enumeration specifies the types of journal entries.
+     */
+
+    public enum EntryType {
+        CREATE, MESSAGE, LEAVE
+    }
+
+    /**
+     * An entry read back from a journal.
+     *
+     * @param type the type of the entry.
+     * @param seed the seed of the game, for a {@code CREATE} entry.
+     * @param message the accepted message ({@link CreateGameMessage} for a {@code CREATE} entry), or {@code null}.
+     * @param nickname the nickname of the player leaving the game, for a {@code LEAVE} entry.
+     */
+
+    public record Entry(EntryType type, long seed, Message message, String nickname) {}
+
+    private static final String PREFIX = "game-";
+    private static final String EXTENSION = ".journal";
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final EntryType[] ENTRY_TYPES = EntryType.values();
+
+    private final int gameID;
+    private final Path file;
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private final JournalWriter writer;
+    private final GameSnapshot snapshot;
+    private long sequence; // of the latest entry appended, only touched by the game's lane
+    private int snapshotRound; // of the latest snapshot taken, only touched by the game's lane
+
+    /**
+     * GameJournal constructor.
+     *
+     * @param gameID the ID of the game.
+     * @param file the file of the journal.
+     * @param channel the channel the journal is appended through, positioned at its end.
+     * @param writer the writer the entries are handed to.
+     * @param snapshot the snapshot the journal has been recovered with, or {@code null}.
+     * @param sequence the sequence number of the latest entry appended.
+     */
+
+    private GameJournal(int gameID, Path file, FileChannel channel, JournalWriter writer, GameSnapshot snapshot,
+                        long sequence) {
+        this.gameID = gameID;
+        this.file = file;
+        this.snapshotFile = snapshotFile(file);
+        this.channel = channel;
+        this.writer = writer;
+        this.snapshot = snapshot;
+        this.sequence = sequence;
+        this.snapshotRound = snapshot == null ? 1 : snapshot.gameController().getGame().getRoundNumber();
+    }
+
+    /**
+     * Returns the file of the snapshots that go with a journal.
+     *
+     * @param file the file of the journal.
+     * @return the file of the snapshots.
+     */
+
+    private static Path snapshotFile(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - EXTENSION.length()) + SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Creates the journal of a new game in the given directory, replacing any journal (and snapshot) left there by a
+     * game with the same ID.
+     *
+     * @param directory the directory of the journals.
+     * @param gameID the ID of the game.
+     * @param writer the writer the entries will be handed to.
+     * @return the new, empty, {@link GameJournal}.
+     * @throws IOException if the journal cannot be created.
+     */
+
+    public static GameJournal create(Path directory, int gameID, JournalWriter writer) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(PREFIX + gameID + EXTENSION);
+        Files.deleteIfExists(snapshotFile(file));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new GameJournal(gameID, file, channel, writer, null, 0);
+    }
+
+    /**
+     * Returns the journals found in the given directory, ordered by name.
+     *
+     * @param directory the directory of the journals.
+     * @return the list of the journal files, empty if the directory does not exist.
+     * @throws IOException if the directory cannot be read.
+     */
+
+    public static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory))
+            return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(EXTENSION);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Reads back a journal left by a previous run of the server and opens it again, so that the rebuilt game can go
+     * on appending to it. Whatever follows the last complete entry is cut off. If the game has a snapshot, only the
+     * entries that came after it are returned, and the snapshot is available through {@link #getSnapshot()}.
+     *
+     * @param file the file of the journal.
+     * @param writer the writer the new entries will be handed to.
+     * @param entries the list to add the entries read to.
+     * @return the reopened {@link GameJournal}.
+     * @throws IOException if the journal or its snapshot cannot be read.
+     */
+
+    public static GameJournal recover(Path file, JournalWriter writer, List<Entry> entries) throws IOException {
+        String name = file.getFileName().toString();
+        int gameID;
+        try {
+            gameID = Integer.parseInt(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid journal name: " + name);
+        }
+        Path snapshotFile = snapshotFile(file);
+        GameSnapshot snapshot = Files.exists(snapshotFile) ? GameSnapshot.read(snapshotFile) : null;
+        long sequence = snapshot == null ? 0 : snapshot.sequence();
+        ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 crc = new CRC32();
+        int valid = 0;
+        while (journal.remaining() >= HEADER_BYTES) {
+            int length = journal.getInt();
+            int checksum = journal.getInt();
+            if (length <= 0 || length > journal.remaining())
+                break;
+            crc.reset();
+            crc.update(journal.array(), journal.position(), length);
+            if ((int) crc.getValue() != checksum)
+                break;
+            try {
+                DataInputStream in = new DataInputStream(
+                        new ByteArrayInputStream(journal.array(), journal.position(), length));
+                EntryType type = ENTRY_TYPES[in.readUnsignedByte()];
+                long entrySequence = in.readLong();
+                if (entrySequence > sequence) { // older entries are already in the snapshot
+                    entries.add(decode(type, in));
+                    sequence = entrySequence;
+                }
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+            journal.position(journal.position() + length);
+            valid = journal.position();
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        if (valid < channel.size()) {
+            LOGGER.warning("The journal of game " + gameID + " is truncated after " + entries.size() + " entries.");
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        return new GameJournal(gameID, file, channel, writer, snapshot, sequence);
+    }
+
+    /**
+     * Returns the ID of the game.
+     *
+     * @return the game ID.
+     */
+
+    public int getGameID() {
+        return gameID;
+    }
+
+    /**
+     * Returns the snapshot the journal has been recovered with.
+     *
+     * @return the {@link GameSnapshot} the entries returned by the recovery follow, or {@code null} if the game had
+     * none.
+     */
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the round of the game the latest snapshot has been taken at (1 if none has been taken).
+     *
+     * @return the round of the latest snapshot.
+     */
+
+    public int getSnapshotRound() {
+        return snapshotRound;
+    }
+
+    /**
+     * Takes a snapshot of the game, which includes all the entries appended so far. The controller is copied right
+     * away, on the game's lane; the copy is then serialized and written by the {@link JournalWriter}, which empties
+     * the journal once the snapshot is on the disk.
+     *
+     * @param gameController the controller of the game.
+     */
+
+    public void snapshot(GameController gameController) {
+        snapshotRound = gameController.getGame().getRoundNumber();
+        writer.snapshot(this, new GameSnapshot(gameController.copy(), sequence));
+    }
+
+    /**
+     * Writes a snapshot and drops the entries it includes from the journal. Called by the {@link JournalWriter}.
+     *
+     * @param snapshot the snapshot to write.
+     */
+
+    void compact(GameSnapshot snapshot) {
+        try {
+            snapshot.write(snapshotFile);
+            channel.truncate(0);
+            LOGGER.info("Game " + gameID + " saved at round " +
+                    snapshot.gameController().getGame().getRoundNumber() + ".");
+        } catch (IOException e) {
+            LOGGER.severe("Cannot save game " + gameID + ", its journal is kept whole.\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the channel the journal is appended through; only the {@link JournalWriter} writes to it.
+     *
+     * @return the {@link FileChannel} of the journal.
+     */
+
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Appends the creation of the game: the seed of the game and the message it has been created with.
+     *
+     * @param seed the seed of the game.
+     * @param message the {@link CreateGameMessage} the game has been created with.
+     */
+
+    public void appendCreate(long seed, CreateGameMessage message) {
+        append(EntryType.CREATE, out -> {
+            out.writeLong(seed);
+            out.write(MessageCodec.encode(message));
+        });
+    }
+
+    /**
+     * Appends a message accepted by the game.
+     *
+     * @param message the accepted {@link Message}.
+     */
+
+    public void append(Message message) {
+        append(EntryType.MESSAGE, out -> out.write(MessageCodec.encode(message)));
+    }
+
+    /**
+     * Appends the departure of a player from a game that has not started yet.
+     *
+     * @param nickname the nickname of the player.
+     */
+
+    public void appendLeave(String nickname) {
+        append(EntryType.LEAVE, out -> out.writeUTF(nickname));
+    }
+
+    /**
+     * Deletes the journal, once the entries already appended have been written: the game is over, so there is nothing
+     * to recover anymore.
+     */
+
+    public void delete() {
+        writer.delete(this);
+    }
+
+    /**
+     * Closes the channel of the journal and deletes its file, along with the snapshot. Called by the
+     * {@link JournalWriter}.
+     */
+
+    void closeAndDelete() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(snapshotFile);
+        } catch (IOException e) {
+            LOGGER.severe("Cannot delete the journal of game " + gameID + ".\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Something able to write the content of an entry.
+     */
+
+    @FunctionalInterface
+    private interface ContentWriter {
+
+        /**
+         * Writes the content of an entry, after its type.
+         *
+         * @param out the stream to write to.
+         * @throws IOException if the content cannot be encoded.
+         */
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Encodes an entry and hands it to the writer.
+     *
+     * @param type the type of the entry.
+     * @param content the writer of the content of the entry.
+     */
+
+    private void append(EntryType type, ContentWriter content) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // placeholder for the length
+            out.writeInt(0); // placeholder for the checksum
+            out.writeByte(type.ordinal());
+            out.writeLong(++sequence);
+            content.write(out);
+            out.flush();
+            ByteBuffer entry = ByteBuffer.wrap(bytes.toByteArray());
+            CRC32 crc = new CRC32();
+            crc.update(entry.array(), HEADER_BYTES, entry.capacity() - HEADER_BYTES);
+            entry.putInt(0, entry.capacity() - HEADER_BYTES);
+            entry.putInt(Integer.BYTES, (int) crc.getValue());
+            writer.write(this, entry);
+        } catch (IOException e) {
+            LOGGER.severe("Cannot journal a " + type + " entry of game " + gameID + ".\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes the content of an entry, after its type and its sequence number.
+     *
+     * @param type the type of the entry.
+     * @param in the stream holding the content.
+     * @return the decoded {@link Entry}.
+     * @throws IOException if the content is malformed.
+     */
+
+    private static Entry decode(EntryType type, DataInputStream in) throws IOException {
+        return switch (type) {
+            case CREATE -> {
+                long seed = in.readLong();
+                yield new Entry(type, seed, MessageCodec.readFrame(in), null);
+            }
+            case MESSAGE -> new Entry(type, 0, MessageCodec.readFrame(in), null);
+            case LEAVE -> new Entry(type, 0, null, in.readUTF());
+        };
+    }
+}
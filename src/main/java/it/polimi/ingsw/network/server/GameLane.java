@@ -0,0 +1,124 @@
+package it.polimi.ingsw.network.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static it.polimi.ingsw.network.server.Server.LOGGER;
+
+/**
+ * The mailbox of a single game: the tasks handed to a lane run one at a time, in the order they were submitted, but
+ * on whichever thread of the shared worker pool is free. Everything that touches a game (its messages, the
+ * disconnections of its players, its timers) goes through its lane, so the game is never accessed by two threads at
+ * once, while different games still run in parallel. Whenever the lane runs out of tasks, it tells its owner, which
+ * can retire it.
+ */
+
+public class GameLane implements Executor {
+
+    private static final int TASKS_PER_TURN = 64;
+
+    private final Executor workers;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean scheduled;
+    private final Consumer<GameLane> onDrained;
+    private volatile long lastActive;
+
+    /**
+     * GameLane constructor.
+     *
+     * @param workers the pool the lane borrows its threads from.
+     * @param onDrained the action to run on the lane whenever its queued tasks have all run. It runs before any task
+     *                  submitted later, so it can retire the lane safely.
+     */
+
+    public GameLane(Executor workers, Consumer<GameLane> onDrained) {
+        this.workers = workers;
+        this.onDrained = onDrained;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+        this.lastActive = System.currentTimeMillis();
+    }
+
+    /**
+     * Queues a task on the lane; it will run after all the tasks submitted before it have completed.
+     *
+     * @param task the task to run.
+     */
+
+    @Override
+    public void execute(Runnable task) {
+        lastActive = System.currentTimeMillis();
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Queues a housekeeping task on the lane, like {@link #execute(Runnable)}, but without counting it as activity of
+     * the game: the server uses it to check on idle games without keeping them alive.
+     *
+     * @param task the task to run.
+     */
+
+    public void executeHousekeeping(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Returns the last time a task has been submitted to the lane.
+     *
+     * @return the time, in milliseconds, of the latest task submitted.
+     */
+
+    public long getLastActive() {
+        return lastActive;
+    }
+
+    /**
+     * Returns the number of tasks waiting to run on the lane.
+     *
+     * @return the length of the mailbox.
+     */
+
+    public int getPendingTasks() {
+        return tasks.size();
+    }
+
+    /**
+     * Hands the lane to a worker, unless one is already running it.
+     */
+
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true))
+            workers.execute(this::runTasks);
+    }
+
+    /**
+     * Runs the queued tasks. After a bounded number of them the worker is given back to the pool, so that a busy game
+     * cannot starve the others.
+     */
+
+    private void runTasks() {
+        try {
+            Runnable task;
+            for (int i = 0; i < TASKS_PER_TURN && (task = tasks.poll()) != null; i++) {
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    // a failing task must not stop the game's lane
+                    LOGGER.severe("Error while running a game task. \n" +
+                            ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                }
+            }
+        } finally {
+            // still scheduled: no other worker can start running the lane in the meantime
+            if (tasks.isEmpty())
+                onDrained.accept(this);
+            scheduled.set(false);
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameState;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of how long the games may stay idle before being closed, according to the stage they are in, and of
+ * how many of them have been closed. Each game is kept in a {@link TimingWheel} with the time it would expire at if
+ * nothing happened to it; when the time comes, the {@link Server} checks whether the game has been idle for its whole
+ * lifetime, and either closes it or puts it back in the wheel for the time left.
+ */
+
+public class GameReaper {
+
+    /**
+     * This enumeration specifies the stages a game can be in, each one with its own lifetime.
+     */
+
+    public enum Stage {
+        EMPTY_LOBBY, LOBBY, IN_GAME, RECOVERED
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final int WHEEL_SIZE = 512;
+
+    private final long[] lifetimes;
+    private final AtomicLongArray evictions;
+    private final LongSupplier clock;
+    private final TimingWheel<Integer> wheel;
+
+    /**
+     * GameReaper constructor.
+     *
+     * @param tick the precision, in milliseconds, of the lifetimes.
+     * @param emptyLobby the lifetime of a game that has not started yet and has no players left.
+     * @param lobby the lifetime of a game that has not started yet.
+     * @param inGame the lifetime of a game that has started.
+     * @param recovered the lifetime of a game rebuilt after a restart, while it waits for its players.
+     */
+
+    public GameReaper(long tick, long emptyLobby, long lobby, long inGame, long recovered) {
+        this(tick, emptyLobby, lobby, inGame, recovered, System::currentTimeMillis);
+    }
+
+    /**
+     * GameReaper constructor, with the clock the lifetimes are measured by.
+     *
+     * @param tick the precision, in milliseconds, of the lifetimes.
+     * @param emptyLobby the lifetime of a game that has not started yet and has no players left.
+     * @param lobby the lifetime of a game that has not started yet.
+     * @param inGame the lifetime of a game that has started.
+     * @param recovered the lifetime of a game rebuilt after a restart, while it waits for its players.
+     * @param clock the clock giving the current time, in milliseconds.
+     */
+
+    public GameReaper(long tick, long emptyLobby, long lobby, long inGame, long recovered, LongSupplier clock) {
+        this.lifetimes = new long[STAGES.length];
+        lifetimes[Stage.EMPTY_LOBBY.ordinal()] = emptyLobby;
+        lifetimes[Stage.LOBBY.ordinal()] = lobby;
+        lifetimes[Stage.IN_GAME.ordinal()] = inGame;
+        lifetimes[Stage.RECOVERED.ordinal()] = recovered;
+        this.evictions = new AtomicLongArray(STAGES.length);
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tick, WHEEL_SIZE, clock.getAsLong());
+    }
+
+    /**
+     * Returns the stage a game is in. It only looks at the controller, so a hibernated game does not need to be woken
+     * up.
+     *
+     * @param gameController the controller of the game.
+     * @return the {@link Stage} of the game.
+     */
+
+    public static Stage stageOf(GameController gameController) {
+        if (gameController.isWaitingForPlayers())
+            return Stage.RECOVERED;
+        if (gameController.getGameState() == GameState.IN_GAME)
+            return Stage.IN_GAME;
+        return gameController.getGameQueue().isEmpty() ? Stage.EMPTY_LOBBY : Stage.LOBBY;
+    }
+
+    /**
+     * Returns how long a game in the given stage may stay idle.
+     *
+     * @param stage the stage of the game.
+     * @return the lifetime, in milliseconds.
+     */
+
+    public long getLifetime(Stage stage) {
+        return lifetimes[stage.ordinal()];
+    }
+
+    /**
+     * Returns the shortest of the lifetimes: a game is checked at least this often, so that a change of stage never
+     * delays its expiration by more than that.
+     *
+     * @return the shortest lifetime, in milliseconds.
+     */
+
+    public long getShortestLifetime() {
+        long shortest = Long.MAX_VALUE;
+        for (long lifetime : lifetimes)
+            shortest = Math.min(shortest, lifetime);
+        return shortest;
+    }
+
+    /**
+     * Returns the time, in milliseconds, between two checks of the expired games.
+     *
+     * @return the tick of the wheel.
+     */
+
+    public long getTick() {
+        return wheel.getTick();
+    }
+
+    /**
+     * Returns the current time, as given by the clock of the reaper.
+     *
+     * @return the current time, in milliseconds.
+     */
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Starts (or goes on) watching a game, which will be checked again at the given time.
+     *
+     * @param gameID the ID of the game.
+     * @param deadline the time, in milliseconds, the game has to be checked at.
+     */
+
+    public void watch(int gameID, long deadline) {
+        wheel.schedule(gameID, deadline);
+    }
+
+    /**
+     * Hands the games whose check is due to the given action. It is always called by the server's timer.
+     *
+     * @param now the current time, in milliseconds.
+     * @param expired the action to run on the ID of each game to check.
+     */
+
+    void advance(long now, Consumer<Integer> expired) {
+        wheel.advance(now, expired);
+    }
+
+    /**
+     * Checks a game whose time in the wheel has come: if it has been idle for the whole lifetime of its stage, it is
+     * counted as closed, otherwise it is put back in the wheel for the time left (at most the shortest lifetime, in
+     * case the game changes stage).
+     *
+     * @param gameID the ID of the game.
+     * @param stage the stage the game is in now.
+     * @param lastActive the time, in milliseconds, of the latest activity of the game.
+     * @return {@code true} if the game has to be closed, {@code false} if it is still watched.
+     */
+
+    public boolean expire(int gameID, Stage stage, long lastActive) {
+        long now = now();
+        long deadline = lastActive + getLifetime(stage);
+        if (deadline > now) {
+            watch(gameID, Math.min(deadline, now + getShortestLifetime()));
+            return false;
+        }
+        recordEviction(stage);
+        return true;
+    }
+
+    /**
+     * Counts a game closed in the given stage.
+     *
+     * @param stage the stage the game was in.
+     */
+
+    public void recordEviction(Stage stage) {
+        evictions.incrementAndGet(stage.ordinal());
+    }
+
+    /**
+     * Returns how many games have been closed in each stage.
+     *
+     * @return a map with the stages as keys and the number of games closed as values.
+     */
+
+    public Map<Stage, Long> getEvictions() {
+        Map<Stage, Long> counts = new EnumMap<>(Stage.class);
+        for (Stage stage : STAGES)
+            counts.put(stage, evictions.get(stage.ordinal()));
+        return counts;
+    }
+}
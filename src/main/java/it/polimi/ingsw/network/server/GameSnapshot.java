@@ -0,0 +1,106 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot of a game, taken every few rounds so that a rebuilt game only has to replay the tail of its
+ * {@link GameJournal}. The file is made of:
+ * <ul>
+ *     <li>an {@code int} magic number;</li>
+ *     <li>a {@code long} with the sequence number of the last journal entry the snapshot includes;</li>
+ *     <li>a {@code long} with the state of the random generator of the game, which is not serialized with it;</li>
+ *     <li>an {@code int} with the length and an {@code int} with the CRC-32 of the serialized controller;</li>
+ *     <li>the serialized {@link GameController}.</li>
+ * </ul>
+ * A snapshot is written to a temporary file through a memory mapping, forced to the device, and then moved over the
+ * previous one, so there is always a whole snapshot on the disk.
+ *
+ * @param gameController the saved controller.
+ * @param sequence the sequence number of the last journal entry included in the snapshot.
+ */
+
+public record GameSnapshot(GameController gameController, long sequence) {
+
+    private static final int MAGIC = 0x45524953; // "ERIS"
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+
+    /**
+     * Writes the snapshot to the given file, replacing the previous one.
+     *
+     * @param file the file of the snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+
+    public void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(gameController);
+        }
+        byte[] controller = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(controller);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + controller.length);
+            map.putInt(MAGIC);
+            map.putLong(sequence);
+            map.putLong(gameController.getGame().getRandomState());
+            map.putInt(controller.length);
+            map.putInt((int) crc.getValue());
+            map.put(controller);
+            map.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot back.
+     *
+     * @param file the file of the snapshot.
+     * @return the {@link GameSnapshot}, with the random generator of the game restored.
+     * @throws IOException if the snapshot cannot be read or is damaged.
+     */
+
+    public static GameSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES)
+                throw new IOException("Truncated snapshot: " + file);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.getInt() != MAGIC)
+                throw new IOException("Not a snapshot: " + file);
+            long sequence = map.getLong();
+            long randomState = map.getLong();
+            int length = map.getInt();
+            int checksum = map.getInt();
+            if (length < 0 || length > map.remaining())
+                throw new IOException("Truncated snapshot: " + file);
+            byte[] controller = new byte[length];
+            map.get(controller);
+            CRC32 crc = new CRC32();
+            crc.update(controller);
+            if ((int) crc.getValue() != checksum)
+                throw new IOException("Damaged snapshot: " + file);
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(controller))) {
+                GameController gameController = (GameController) in.readObject();
+                gameController.getGame().restoreRandom(randomState);
+                return new GameSnapshot(gameController, sequence);
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IOException("Invalid snapshot: " + file, e);
+            }
+        }
+    }
+}
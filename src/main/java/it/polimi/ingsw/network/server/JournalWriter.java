@@ -0,0 +1,220 @@
+package it.polimi.ingsw.network.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static it.polimi.ingsw.network.server.Server.LOGGER;
+
+/**
+ * The thread that writes the {@link GameJournal}s of all the games to disk. The game lanes only queue the encoded
+ * entries, so a turn never waits for the disk: the writer takes every entry queued in the meantime at once, writes the
+ * entries of each journal with a single gathering write, and forces the written journals to the device at most once
+ * per interval (group commit). An entry is therefore durable at most one interval after it has been queued.
+ * The {@link GameSnapshot}s are written by the same thread, in order with the entries they include.
+ */
+
+public class JournalWriter implements Runnable {
+
+    /**
+     * Something the writer has to do: either write some bytes to a journal, or run an action (deleting or compacting
+     * a journal, letting a waiting thread know that everything queued before has reached the disk) once everything
+     * queued before has been written.
+     *
+     * @param journal the journal to write to, or {@code null} for an action.
+     * @param data the bytes to write, or {@code null} for an action.
+     * @param action the action to run, or {@code null} for a write.
+     */
+
+    private record Task(GameJournal journal, ByteBuffer data, Runnable action) {}
+
+    private final BlockingQueue<Task> tasks;
+    private final long forceInterval;
+    private final Set<GameJournal> dirty; // only touched by the writer thread
+    private long nextForce;
+    private volatile long forces;
+
+    /**
+     * JournalWriter constructor.
+     *
+     * @param forceInterval the maximum time, in milliseconds, between a write and the force that makes it durable.
+     */
+
+    public JournalWriter(long forceInterval) {
+        this.tasks = new LinkedBlockingQueue<>();
+        this.forceInterval = forceInterval;
+        this.dirty = new HashSet<>();
+    }
+
+    /**
+     * Starts the writer on its own daemon thread.
+     */
+
+    public void start() {
+        Thread thread = new Thread(this, "journal_writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues some bytes to be appended to a journal.
+     *
+     * @param journal the journal to append to.
+     * @param data the bytes to append.
+     */
+
+    void write(GameJournal journal, ByteBuffer data) {
+        tasks.add(new Task(journal, data, null));
+    }
+
+    /**
+     * Queues the deletion of a journal, which happens after all the writes queued before.
+     *
+     * @param journal the journal to delete.
+     */
+
+    void delete(GameJournal journal) {
+        tasks.add(new Task(null, null, () -> {
+            dirty.remove(journal);
+            journal.closeAndDelete();
+        }));
+    }
+
+    /**
+     * Queues a snapshot of a game, which is written after all the entries queued before (the ones it includes).
+     *
+     * @param journal the journal of the game.
+     * @param snapshot the snapshot to write.
+     */
+
+    void snapshot(GameJournal journal, GameSnapshot snapshot) {
+        tasks.add(new Task(null, null, () -> journal.compact(snapshot)));
+    }
+
+    /**
+     * Waits until everything queued so far has been written and forced to the device.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+
+    public void sync() throws InterruptedException {
+        CountDownLatch synced = new CountDownLatch(1);
+        tasks.add(new Task(null, null, () -> {
+            force();
+            synced.countDown();
+        }));
+        synced.await();
+    }
+
+    /**
+     * Returns the number of times the written journals have been forced to the device.
+     *
+     * @return the forces done so far.
+     */
+
+    long getForces() {
+        return forces;
+    }
+
+    /**
+     * Writes the queued entries as they come, forcing the written journals once per interval.
+     */
+
+    @Override
+    public void run() {
+        List<Task> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Task first = dirty.isEmpty() ? tasks.take() :
+                        tasks.poll(Math.max(0, nextForce - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    tasks.drainTo(batch);
+                    process(batch);
+                    batch.clear();
+                }
+                if (!dirty.isEmpty() && System.currentTimeMillis() >= nextForce)
+                    force();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                force();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handles a batch of tasks, in order. Consecutive writes to the same journal are done with a single call.
+     *
+     * @param batch the tasks to handle.
+     */
+
+    private void process(List<Task> batch) {
+        int i = 0;
+        while (i < batch.size()) {
+            Task task = batch.get(i);
+            if (task.action() != null) {
+                task.action().run();
+                i++;
+            }
+            else {
+                int end = i + 1;
+                while (end < batch.size() && batch.get(end).journal() == task.journal())
+                    end++;
+                ByteBuffer[] buffers = new ByteBuffer[end - i];
+                for (int j = i; j < end; j++)
+                    buffers[j - i] = batch.get(j).data();
+                write(task.journal(), buffers);
+                i = end;
+            }
+        }
+    }
+
+    /**
+     * Appends the given buffers to a journal.
+     *
+     * @param journal the journal to append to.
+     * @param buffers the bytes to append.
+     */
+
+    private void write(GameJournal journal, ByteBuffer[] buffers) {
+        try {
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers)
+                remaining += buffer.remaining();
+            while (remaining > 0)
+                remaining -= journal.getChannel().write(buffers);
+            if (dirty.isEmpty())
+                nextForce = System.currentTimeMillis() + forceInterval;
+            dirty.add(journal);
+        } catch (IOException e) {
+            LOGGER.severe("Cannot write the journal of game " + journal.getGameID() + ".\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces the journals written since the last force to the device.
+     */
+
+    private void force() {
+        if (!dirty.isEmpty())
+            forces++;
+        for (GameJournal journal : dirty) {
+            try {
+                journal.getChannel().force(false);
+            } catch (IOException e) {
+                LOGGER.severe("Cannot force the journal of game " + journal.getGameID() + ".\n" +
+                        e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        dirty.clear();
+    }
+}
@@ -0,0 +1,403 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.exceptions.TryAgainException;
+import it.polimi.ingsw.network.client.SocketClient;
+import it.polimi.ingsw.network.message.*;
+import it.polimi.ingsw.view.VirtualView;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ClientHandler implementation that serves a client through a non-blocking {@link SocketChannel}. It does not own a
+ * thread: its {@link NioReactor} calls it back whenever the channel can be read or written.
+ * The bytes on the wire are the same produced by the {@link SocketClient}'s object streams, so clients do not need to
+ * know which kind of server they are talking to.
+ */
+
+public class NioClientHandler implements ClientHandler {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final byte[] STREAM_HEADER = ObjectStreamDecoder.getStreamHeader();
+
+    private final SocketChannel channel;
+    private final NioReactor reactor;
+    private final NioSocketServer socketServer;
+    private final AtomicBoolean connected;
+    private volatile long lastSeen;
+    private final Object outputLock;
+    private final OutboundQueue<ByteBuffer> outbound;
+    private final ConnectionStats connectionStats;
+    private final ServerMetrics metrics;
+    private ByteBuffer inbound;
+    private final ObjectStreamDecoder objectStreamDecoder;
+    private volatile boolean binaryProtocol;
+    private boolean binaryOutput;
+    private boolean streamResetPending;
+    private SelectionKey selectionKey;
+    private VirtualView virtualView;
+
+    /**
+     * NioClientHandler constructor.
+     *
+     * @param socketServer the {@link NioSocketServer} that accepted the connection.
+     * @param reactor the {@link NioReactor} the connection is registered to.
+     * @param channel the channel of the {@link SocketClient}.
+     */
+
+    public NioClientHandler(NioSocketServer socketServer, NioReactor reactor, SocketChannel channel) {
+        this.socketServer = socketServer;
+        this.reactor = reactor;
+        this.channel = channel;
+        this.connected = new AtomicBoolean(true);
+        this.lastSeen = System.currentTimeMillis();
+        this.outputLock = new Object();
+        this.outbound = socketServer.getServer().newOutboundQueue(this::onSlowConsumer);
+        this.connectionStats = new ConnectionStats();
+        this.metrics = socketServer.getServer().getMetrics();
+        this.inbound = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        this.objectStreamDecoder = new ObjectStreamDecoder();
+        this.binaryProtocol = false;
+        this.binaryOutput = false;
+        this.streamResetPending = false;
+        // messages are queued as pre-encoded bytes: the object stream is only needed for its header
+        this.outbound.add(ByteBuffer.wrap(STREAM_HEADER).asReadOnlyBuffer());
+        Server.LOGGER.info("Client connected from " + channel.socket().getInetAddress());
+    }
+
+    /**
+     * Returns the channel associated to the client.
+     *
+     * @return the client's {@link SocketChannel}.
+     */
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Sets the key that binds the channel to its reactor's selector.
+     *
+     * @param selectionKey the {@link SelectionKey} of the channel.
+     */
+
+    public void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+        // the object stream header (and anything sent before registration) is still waiting to be written
+        handleWrite();
+    }
+
+    /**
+     * Sets the {@link VirtualView}.
+     *
+     * @param virtualView the {@link VirtualView} that has to be set.
+     */
+
+    @Override
+    public void setVirtualView(VirtualView virtualView) {
+        this.virtualView = virtualView;
+    }
+
+    /**
+     * Returns the {@link VirtualView}.
+     *
+     * @return the actual {@link VirtualView}.
+     */
+
+    @Override
+    public VirtualView getVirtualView() {
+        return virtualView;
+    }
+
+    /**
+     * Returns the socket adapter of the client's channel.
+     *
+     * @return the {@link Socket} associated to the channel.
+     */
+
+    @Override
+    public Socket getSocketClient() {
+        return channel.socket();
+    }
+
+    /**
+     * Reads whatever the channel has to offer and handles every complete message received so far. Called by the
+     * reactor's thread only.
+     */
+
+    public void handleRead() {
+        try {
+            if (!inbound.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(inbound.capacity() * 2);
+                inbound.flip();
+                bigger.put(inbound);
+                inbound = bigger;
+            }
+            int read = channel.read(inbound);
+            if (read == -1) {
+                disconnect();
+                return;
+            }
+            if (read > 0)
+                lastSeen = System.currentTimeMillis();
+            inbound.flip();
+            Message message;
+            int start = inbound.position();
+            while (connected.get() && (message = nextMessage()) != null) {
+                metrics.received(connectionStats, message.getMessageType(), inbound.position() - start);
+                start = inbound.position();
+                handleMessage(message);
+            }
+            inbound.compact();
+        } catch (IOException | ClassNotFoundException ex) {
+            Server.LOGGER.severe("Invalid stream from client. \n" +
+                    ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            disconnect();
+        }
+    }
+
+    /**
+     * Writes the queued messages until the queue is empty or the socket buffer is full; in the latter case, the
+     * reactor will call this method again as soon as the channel is writable. Called by the reactor's thread only.
+     */
+
+    public void handleWrite() {
+        if (selectionKey == null || !selectionKey.isValid())
+            return;
+        try {
+            ByteBuffer buffer;
+            while ((buffer = outbound.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                outbound.poll();
+            }
+            selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException ex) {
+            Server.LOGGER.severe(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            disconnect();
+        }
+    }
+
+    /**
+     * Extracts the next complete message from the input buffer, if any: a {@link MessageCodec} frame or, before the
+     * switch to the binary protocol, an object handed over by the {@link ObjectStreamDecoder}.
+     *
+     * @return the decoded {@link Message}, or {@code null} if it has not been fully received yet.
+     * @throws IOException if the stream is corrupted.
+     * @throws ClassNotFoundException if the received object is unknown.
+     */
+
+    private Message nextMessage() throws IOException, ClassNotFoundException {
+        return binaryProtocol ? nextFrame() : objectStreamDecoder.next(inbound);
+    }
+
+    /**
+     * Extracts the next complete {@link MessageCodec} frame from the input buffer, if any.
+     *
+     * @return the decoded {@link Message}, or {@code null} if it has not been fully received yet.
+     * @throws IOException if the frame is malformed or its type is only sent by the server.
+     */
+
+    private Message nextFrame() throws IOException {
+        if (streamResetPending) {
+            if (!inbound.hasRemaining())
+                return null;
+            if (inbound.get() != ObjectStreamConstants.TC_RESET)
+                throw new StreamCorruptedException("Object stream reset expected before the protocol switch");
+            streamResetPending = false;
+        }
+        if (inbound.remaining() < Integer.BYTES)
+            return null;
+        int length = inbound.getInt(inbound.position());
+        MessageCodec.checkFrameLength(length);
+        if (inbound.remaining() < Integer.BYTES + length) {
+            if (inbound.capacity() < Integer.BYTES + length)
+                inbound = ByteBuffer.allocate(Integer.BYTES + length).put(inbound).flip();
+            return null;
+        }
+        byte[] payload = new byte[length];
+        inbound.position(inbound.position() + Integer.BYTES);
+        inbound.get(payload);
+        return MessageCodec.decodeFromClient(payload);
+    }
+
+    /**
+     * Confirms to the client that the binary protocol will be used, then switches both directions of the connection
+     * to {@link MessageCodec} frames. Called by the reactor's thread only.
+     */
+
+    private void switchToBinaryProtocol() {
+        sendMessage(new BinaryProtocolMessage());
+        binaryProtocol = true;
+        // the client resets its object stream after the login request too
+        streamResetPending = true;
+        Server.LOGGER.info("Client " + channel.socket().getInetAddress() + " switched to the binary protocol.");
+    }
+
+    /**
+     * Handles a message received from the associated client: if it is a login request, it adds the client to the
+     * client list, otherwise it just sends the message to the {@link NioSocketServer} -> {@link Server}.
+     *
+     * @param message the received message.
+     */
+
+    private void handleMessage(Message message) {
+        if (message.getMessageType() == MessageType.PONG)
+            return;
+        Server.LOGGER.info("Message: " + message.getClass().getSimpleName());
+        try {
+            if (message.getMessageType() == MessageType.LOGIN_REQUEST) {
+                if (((LoginRequest) message).isBinaryProtocol() && !binaryProtocol)
+                    switchToBinaryProtocol();
+                try {
+                    socketServer.addClient(message.getNickname(), this);
+                    if(!socketServer.getServer().resumeGame(message.getNickname()))
+                        virtualView.showExistingGames(socketServer.getServer().getLobby());
+                } catch (TryAgainException e) {
+                    Server.LOGGER.warning("Nickname has already been chosen.");
+                    virtualView.showGenericMessage("Nickname has already been chosen.");
+                    virtualView.askNickname();
+                }
+            } else {
+                Server.LOGGER.info("Received: " + message.getClass().getSimpleName());
+                socketServer.getMessage(message);
+            }
+        } catch (RuntimeException ex) {
+            // the reactor serves many clients: a failure must only drop the client that caused it
+            Server.LOGGER.severe("Error while handling a message. \n" +
+                    ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            disconnect();
+        }
+    }
+
+    /**
+     * Returns a flag that indicates if the {@link SocketClient} is still connected.
+     *
+     * @return {@code true} if the client is still connected, {@code false} otherwise.
+     */
+
+    @Override
+    public boolean isConnected() {
+        return connected.get();
+    }
+
+    /**
+     * {@link NioClientHandler} disconnection method. The channel is only closed by the reactor's thread, so that it is
+     * never closed in the middle of a read or a write: any other thread hands the disconnection over to the reactor.
+     */
+
+    @Override
+    public void disconnect() {
+        if (!reactor.inReactorThread()) {
+            reactor.execute(this::disconnect);
+            return;
+        }
+        // several threads may have queued a disconnection: only the first one goes on
+        if (connected.compareAndSet(true, false)) {
+            outbound.close();
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                Server.LOGGER.severe(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            }
+            socketServer.onDisconnect(this);
+        }
+    }
+
+    /**
+     * Queues a message for the associated {@link SocketClient}; the reactor will write it as soon as possible, so
+     * the calling thread never blocks on the network.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessage(Message message) {
+        sendMessage(new EncodedMessage(message));
+    }
+
+    /**
+     * Queues an already encoded message for the associated {@link SocketClient}. The bytes are taken, in the format
+     * the connection is using, on the calling thread, so a message referring to the model captures its current state.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessage(EncodedMessage message) {
+        if (!connected.get())
+            return;
+        synchronized (outputLock) {
+            ByteBuffer bytes = message.getBytes(binaryOutput);
+            // counted before queueing, since the writer starts consuming the buffer right away
+            metrics.sent(connectionStats, message.getMessage().getMessageType(), bytes.remaining());
+            outbound.add(bytes);
+            if (message.getMessage().getMessageType() == MessageType.BINARY_PROTOCOL)
+                binaryOutput = true;
+        }
+        reactor.execute(this::handleWrite);
+        Server.LOGGER.info("Sent: " + message.getMessage().getClass().getSimpleName());
+    }
+
+    /**
+     * Queues a message for the associated {@link SocketClient}, and quits the ended match.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessageAndQuit(Message message) {
+        sendMessage(message);
+        socketServer.onQuit(this);
+    }
+
+    /**
+     * Returns the number of messages waiting to be written to the associated {@link SocketClient}.
+     *
+     * @return the depth of the outbound queue.
+     */
+
+    @Override
+    public int getOutboundQueueDepth() {
+        return outbound.size();
+    }
+
+    /**
+     * Returns the last time some bytes were received from the associated {@link SocketClient}.
+     *
+     * @return the time, in milliseconds, of the latest read.
+     */
+
+    @Override
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * Returns the traffic of the connection with the associated {@link SocketClient}.
+     *
+     * @return the {@link ConnectionStats} of the connection.
+     */
+
+    @Override
+    public ConnectionStats getConnectionStats() {
+        return connectionStats;
+    }
+
+    /**
+     * Disconnects the client when it does not read the messages sent to it fast enough.
+     */
+
+    private void onSlowConsumer() {
+        Server.LOGGER.severe("Client " + channel.socket().getInetAddress() + " disconnected: " + outbound.size() +
+                " messages still waiting to be sent.");
+        disconnect();
+    }
+}
@@ -0,0 +1,116 @@
+package it.polimi.ingsw.network.server;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static it.polimi.ingsw.network.server.Server.LOGGER;
+
+/**
+ * A reactor owns a {@link Selector} and serves every {@link NioClientHandler} registered to it, on a single thread.
+ * Other threads never touch the selector directly: they hand tasks to the reactor, which runs them between two
+ * selection rounds.
+ */
+
+public class NioReactor implements Runnable {
+
+    private final Selector selector;
+    private final Queue<Runnable> pendingTasks;
+    private volatile Thread thread;
+
+    /**
+     * NioReactor constructor.
+     *
+     * @throws IOException if the selector cannot be opened.
+     */
+
+    public NioReactor() throws IOException {
+        this.selector = Selector.open();
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Registers a new connection to the reactor, so that it starts to be polled for incoming data.
+     *
+     * @param clientHandler the {@link NioClientHandler} of the new connection.
+     */
+
+    public void register(NioClientHandler clientHandler) {
+        execute(() -> {
+            try {
+                SelectionKey key = clientHandler.getChannel().register(selector, SelectionKey.OP_READ, clientHandler);
+                clientHandler.setSelectionKey(key);
+            } catch (ClosedChannelException ex) {
+                clientHandler.disconnect();
+            }
+        });
+    }
+
+    /**
+     * Checks if the calling thread is the reactor's one.
+     *
+     * @return {@code true} if the caller is the reactor's thread, {@code false} otherwise.
+     */
+
+    public boolean inReactorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Schedules a task on the reactor's thread and wakes the selector up.
+     *
+     * @param task the task to run.
+     */
+
+    public void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Selects the ready connections and lets their handlers read or write, until the thread is interrupted. A handler
+     * that fails unexpectedly is disconnected, while the other connections go on being served.
+     */
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                selector.select();
+            } catch (IOException ex) {
+                LOGGER.severe("Reactor selection failed.\n" + ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                return;
+            }
+            Runnable task;
+            while ((task = pendingTasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    LOGGER.severe("Reactor task failed.\n" + ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                }
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                NioClientHandler clientHandler = (NioClientHandler) key.attachment();
+                // a failure of one connection must not stop the thread, and with it every other connection
+                try {
+                    if (key.isValid() && key.isReadable())
+                        clientHandler.handleRead();
+                    if (key.isValid() && key.isWritable())
+                        clientHandler.handleWrite();
+                } catch (RuntimeException ex) {
+                    LOGGER.severe("Connection dropped after an unexpected failure.\n" +
+                            ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                    clientHandler.disconnect();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.exceptions.TryAgainException;
+import it.polimi.ingsw.network.client.Client;
+import it.polimi.ingsw.network.message.Message;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import static it.polimi.ingsw.network.server.Server.LOGGER;
+
+/**
+ * This class implements a non-blocking socket on the computer's local address and on a specified port. Instead of
+ * starting a thread for every client, it spreads the connections over a small, fixed set of {@link NioReactor}s.
+ */
+
+public class NioSocketServer implements Runnable {
+
+    private final Server server;
+    private final int port;
+    private final NioReactor[] reactors;
+    private int nextReactor;
+
+    /**
+     * NioSocketServer constructor.
+     *
+     * @param server the {@link Server} related to the socket.
+     * @param port an {@code int} representing the chosen socket's port.
+     * @param reactorsNumber the number of reactor threads serving the connections.
+     */
+
+    public NioSocketServer(Server server, int port, int reactorsNumber) {
+        this.server = server;
+        this.port = port;
+        this.reactors = new NioReactor[Math.max(1, reactorsNumber)];
+        this.nextReactor = 0;
+    }
+
+    /**
+     * Opens a {@link ServerSocketChannel} associated to the chosen port and starts the reactors. Every accepted client
+     * gets a {@link NioClientHandler}, registered to the reactors in a round-robin fashion.
+     */
+
+    @Override
+    public void run() {
+        ServerSocketChannel serverChannel;
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLocalHost(), port), 100);
+            for (int i = 0; i < reactors.length; i++) {
+                reactors[i] = new NioReactor();
+                new Thread(reactors[i], "nio_reactor: " + i).start();
+            }
+            LOGGER.info("Server running on port: " + port + " (" + reactors.length + " reactors)" +
+                    "\nServer address: " + serverChannel.socket().getInetAddress());
+        } catch (IOException ex) {
+            LOGGER.severe("Error initializing serverSocketChannel.\n" + ex.getClass().getSimpleName() +
+                    ": " + ex.getMessage());
+            return;
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                SocketChannel client = serverChannel.accept();
+                client.configureBlocking(false);
+                client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                NioReactor reactor = reactors[nextReactor];
+                nextReactor = (nextReactor + 1) % reactors.length;
+                NioClientHandler clientHandler = new NioClientHandler(this, reactor, client);
+                server.addConnection(clientHandler);
+                reactor.register(clientHandler);
+            } catch (IOException ex) {
+                LOGGER.severe("Connection ended.\n" + ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            }
+        }
+        LOGGER.severe("Server is offline.\n");
+    }
+
+    /**
+     * Returns the Server associated to the socket.
+     *
+     * @return the {@link Server} associated to the socket.
+     */
+
+    public Server getServer() {
+        return server;
+    }
+
+    /**
+     * Tells the Server to add a given client.
+     *
+     * @param nickname the nickname of the client to connect.
+     * @param clientHandler the {@link ClientHandler} to Associate.
+     * @throws TryAgainException when the {@link Client}'s nickname has already been chosen.
+     */
+
+    public void addClient(String nickname, ClientHandler clientHandler) throws TryAgainException {
+        server.addClient(nickname, clientHandler);
+    }
+
+    /**
+     * Returns the message received from the client.
+     *
+     * @param message received from {@link NioClientHandler} to send to the {@link Server}.
+     */
+
+    public void getMessage(Message message) {
+        server.getMessage(message);
+    }
+
+    /**
+     * Notifies the Server of a client's disconnection.
+     *
+     * @param clientHandler the {@link ClientHandler} to pass to the server.
+     */
+
+    public void onDisconnect(ClientHandler clientHandler) {
+        server.onDisconnect(clientHandler);
+    }
+
+    /**
+     * Notifies the Server that the client has ended a game.
+     *
+     * @param clientHandler the {@link ClientHandler} to pass to the server.
+     */
+
+    public void onQuit(ClientHandler clientHandler) {
+        server.onQuit(clientHandler);
+    }
+}
@@ -0,0 +1,219 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.network.message.Message;
+import it.polimi.ingsw.network.message.MessageCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Extracts the messages of a Java object stream from the bytes received by a non-blocking connection. An object
+ * stream has no length prefix, so a message can only be told complete by decoding it; but the clients of this project
+ * reset their stream after every message, so a message can only end right before a {@code TC_RESET} marker. A decode
+ * is attempted only when such a marker has arrived since the last attempt, and it reads the input buffer in place:
+ * a message arriving in many small chunks is not decoded again at every chunk.
+ */
+
+class ObjectStreamDecoder {
+
+    /**
+     * The filter of the object streams of the clients: a client only sends messages made of strings, numbers, enums
+     * and lists, so any other class (model objects included) is refused before it is instantiated.
+     */
+
+    static final ObjectInputFilter CLIENT_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=8;maxrefs=1024;it.polimi.ingsw.network.message.*;java.lang.Enum;java.lang.String;" +
+                    "java.lang.Number;java.lang.Integer;java.lang.Object;java.util.ArrayList;!*");
+
+    private static final byte[] STREAM_HEADER = streamHeader();
+
+    private boolean streamHeaderRead;
+    private int scanned; // the unread bytes already known not to complete a message
+    private int attempts;
+
+    /**
+     * ObjectStreamDecoder constructor.
+     */
+
+    ObjectStreamDecoder() {
+        this.streamHeaderRead = false;
+        this.scanned = 0;
+        this.attempts = 0;
+    }
+
+    /**
+     * Returns the header that every object stream starts with.
+     *
+     * @return the bytes of the stream header.
+     */
+
+    static byte[] getStreamHeader() {
+        return STREAM_HEADER.clone();
+    }
+
+    /**
+     * Extracts the next complete message from the input buffer, if any, moving the position of the buffer past it.
+     * The unread bytes must stay in the buffer, in order, between two calls.
+     *
+     * @param inbound the input buffer, ready to be read.
+     * @return the decoded {@link Message}, or {@code null} if it has not been fully received yet.
+     * @throws IOException if the stream is corrupted, holds an object that is not a message, or a message is longer
+     * than {@link MessageCodec#MAX_FRAME_BYTES}.
+     * @throws ClassNotFoundException if the received object is unknown.
+     */
+
+    Message next(ByteBuffer inbound) throws IOException, ClassNotFoundException {
+        if (!streamHeaderRead) {
+            if (inbound.remaining() < STREAM_HEADER.length)
+                return null;
+            for (byte b : STREAM_HEADER)
+                if (inbound.get() != b)
+                    throw new StreamCorruptedException("Invalid object stream header");
+            streamHeaderRead = true;
+        }
+        if (!hasMessageEnd(inbound))
+            return checkPending(inbound);
+        attempts++;
+        ByteBuffer view = inbound.duplicate();
+        InputStream stream = new SequenceInputStream(new ByteArrayInputStream(STREAM_HEADER),
+                new BufferInputStream(view));
+        Object object;
+        try (ObjectInputStream in = new ObjectInputStream(stream)) {
+            in.setObjectInputFilter(CLIENT_FILTER);
+            object = in.readObject();
+        } catch (EOFException | StreamCorruptedException | OptionalDataException ex) {
+            // the object goes on past the bytes received so far: none of them can end it
+            scanned = inbound.remaining();
+            return checkPending(inbound);
+        }
+        inbound.position(view.position());
+        scanned = 0;
+        if (!(object instanceof Message message))
+            throw new StreamCorruptedException("Not a message: " +
+                    (object == null ? "null" : object.getClass().getName()));
+        MessageCodec.checkFromClient(message.getMessageType());
+        return message;
+    }
+
+    /**
+     * Returns the number of times a message has been decoded, or tried to be.
+     *
+     * @return the decode attempts.
+     */
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Looks, among the bytes not scanned yet, for a reset marker that may follow the end of a message: either as the
+     * last byte received or right before the start of the next object.
+     *
+     * @param inbound the input buffer.
+     * @return {@code true} if a message may be complete, {@code false} otherwise.
+     */
+
+    private boolean hasMessageEnd(ByteBuffer inbound) {
+        int start = inbound.position();
+        int limit = inbound.limit();
+        for (int i = Math.max(start + scanned, start + 1); i < limit; i++) {
+            if (inbound.get(i) == ObjectStreamConstants.TC_RESET &&
+                    (i == limit - 1 || inbound.get(i + 1) == ObjectStreamConstants.TC_OBJECT))
+                return true;
+        }
+        scanned = inbound.remaining();
+        return false;
+    }
+
+    /**
+     * Checks that the bytes waiting for the end of a message do not exceed the largest message accepted.
+     *
+     * @param inbound the input buffer.
+     * @return {@code null}, since no message is complete.
+     * @throws StreamCorruptedException if too many bytes are waiting.
+     */
+
+    private static Message checkPending(ByteBuffer inbound) throws StreamCorruptedException {
+        if (inbound.remaining() > MessageCodec.MAX_FRAME_BYTES)
+            throw new StreamCorruptedException("Object stream message longer than " + MessageCodec.MAX_FRAME_BYTES +
+                    " bytes");
+        return null;
+    }
+
+    /**
+     * Returns the header that every object stream starts with.
+     *
+     * @return the bytes of the stream header.
+     */
+
+    private static byte[] streamHeader() {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try {
+            new ObjectOutputStream(header).flush();
+        } catch (IOException ignored) {
+            // writing to memory never fails
+        }
+        return header.toByteArray();
+    }
+
+    /**
+     * An input stream reading a {@link ByteBuffer} in place.
+     */
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        /**
+         * BufferInputStream constructor.
+         *
+         * @param buffer the buffer to read, from its position to its limit.
+         */
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Reads a byte.
+         *
+         * @return the byte read, or {@code -1} at the end of the buffer.
+         */
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        /**
+         * Reads some bytes.
+         *
+         * @param b the array to read into.
+         * @param off the first index of the array to write.
+         * @param len the maximum number of bytes to read.
+         * @return the number of bytes read, or {@code -1} at the end of the buffer.
+         */
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            int read = Math.min(len, buffer.remaining());
+            buffer.get(b, off, read);
+            return read;
+        }
+
+        /**
+         * Returns the number of bytes left in the buffer.
+         *
+         * @return the bytes left.
+         */
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
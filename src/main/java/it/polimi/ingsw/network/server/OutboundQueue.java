@@ -0,0 +1,219 @@
+package it.polimi.ingsw.network.server;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The queue of the data waiting to be written to a client. Producers (usually game controllers broadcasting to every
+ * player) only append to it and never block, while a single consumer drains it at the pace the client allows.
+ * When the queue grows over its high watermark the client is considered slow: if it has not drained the queue below
+ * the low watermark once the timeout has expired, the slow consumer callback is run, so that the client can be
+ * dropped before it holds back its game or fills the server's memory. A queue that reaches its hard limit does not
+ * wait for the timeout: it stops taking elements on the spot, and the callback is run right away.
+ *
+ * @param <T> the type of the queued elements.
+ */
+
+public class OutboundQueue<T> {
+
+    private final Deque<T> elements;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final int hardLimit;
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final long slowConsumerTimeout;
+    private final ScheduledExecutorService timer;
+    private final Runnable onSlowConsumer;
+    private ScheduledFuture<?> slowConsumerCheck;
+    private boolean closed;
+
+    /**
+     * OutboundQueue constructor.
+     *
+     * @param hardLimit the size at which the consumer is dropped without waiting for the timeout.
+     * @param highWatermark the size over which the consumer is considered slow.
+     * @param lowWatermark the size the consumer has to get back to in time.
+     * @param slowConsumerTimeout the time, in milliseconds, the consumer has to get back under the low watermark.
+     * @param timer the executor that runs the slow consumer checks.
+     * @param onSlowConsumer the action to run when the consumer does not catch up in time.
+     */
+
+    public OutboundQueue(int hardLimit, int highWatermark, int lowWatermark, long slowConsumerTimeout,
+                         ScheduledExecutorService timer, Runnable onSlowConsumer) {
+        if (lowWatermark < 0 || lowWatermark > highWatermark || highWatermark >= hardLimit)
+            throw new IllegalArgumentException("Invalid limits: " + lowWatermark + "/" + highWatermark + "/" +
+                    hardLimit);
+        this.elements = new ArrayDeque<>();
+        // explicit lock rather than a monitor: a virtual thread waiting for data must not pin its carrier thread
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.hardLimit = hardLimit;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.slowConsumerTimeout = slowConsumerTimeout;
+        this.timer = timer;
+        this.onSlowConsumer = onSlowConsumer;
+        this.closed = false;
+    }
+
+    /**
+     * Appends an element to the queue. The element is discarded if the queue has already been closed; if the queue
+     * is full, it is discarded too, the queue stops taking elements and the slow consumer callback is run. The
+     * elements already queued are left to {@link #close()}.
+     *
+     * @param element the element to append.
+     */
+
+    public void add(T element) {
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            if (elements.size() < hardLimit) {
+                elements.addLast(element);
+                notEmpty.signal();
+                if (elements.size() > highWatermark && slowConsumerCheck == null)
+                    slowConsumerCheck = timer.schedule(this::checkSlowConsumer, slowConsumerTimeout,
+                            TimeUnit.MILLISECONDS);
+                return;
+            }
+            closed = true;
+            cancelSlowConsumerCheck();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // outside the lock, like the timed check: the callback disconnects the client
+        onSlowConsumer.run();
+    }
+
+    /**
+     * Returns the first element of the queue without removing it.
+     *
+     * @return the first element, or {@code null} if the queue is empty.
+     */
+
+    public T peek() {
+        lock.lock();
+        try {
+            return elements.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first element of the queue.
+     *
+     * @return the removed element, or {@code null} if the queue is empty.
+     */
+
+    public T poll() {
+        lock.lock();
+        try {
+            T element = elements.pollFirst();
+            if (element != null)
+                onRemoval();
+            return element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first element of the queue, waiting for one to be added if the queue is empty.
+     *
+     * @return the removed element, or {@code null} if the queue has been closed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+
+    public T take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (elements.isEmpty() && !closed)
+                notEmpty.await();
+            if (closed)
+                return null;
+            T element = elements.pollFirst();
+            onRemoval();
+            return element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of elements waiting in the queue.
+     *
+     * @return the depth of the queue.
+     */
+
+    public int size() {
+        lock.lock();
+        try {
+            return elements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the queue: the pending elements are discarded, and the consumer waiting for new ones is woken up.
+     */
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            elements.clear();
+            cancelSlowConsumerCheck();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels the pending slow consumer check once the consumer is back under the low watermark. The lock must be
+     * held by the caller.
+     */
+
+    private void onRemoval() {
+        if (elements.size() <= lowWatermark)
+            cancelSlowConsumerCheck();
+    }
+
+    /**
+     * Cancels the pending slow consumer check, if any. The lock must be held by the caller.
+     */
+
+    private void cancelSlowConsumerCheck() {
+        if (slowConsumerCheck != null) {
+            slowConsumerCheck.cancel(false);
+            slowConsumerCheck = null;
+        }
+    }
+
+    /**
+     * Runs the slow consumer callback if the queue is still over the low watermark when the timeout expires.
+     */
+
+    private void checkSlowConsumer() {
+        boolean slow;
+        lock.lock();
+        try {
+            slow = !closed && slowConsumerCheck != null && elements.size() > lowWatermark;
+            slowConsumerCheck = null;
+        } finally {
+            lock.unlock();
+        }
+        if (slow)
+            onSlowConsumer.run();
+    }
+}
@@ -0,0 +1,137 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.network.message.EncodedMessage;
+import it.polimi.ingsw.network.message.Message;
+import it.polimi.ingsw.view.VirtualView;
+
+import java.net.Socket;
+
+/**
+ * The {@link ClientHandler} standing for a player while their game is rebuilt from its {@link GameJournal}: the
+ * messages the game sends during the replay have already been sent before the restart, so they are dropped.
+ */
+
+class ReplayClientHandler implements ClientHandler {
+
+    private final ConnectionStats connectionStats = new ConnectionStats();
+    private VirtualView virtualView;
+
+    /**
+     * Returns the connection status: there is no connection behind a replay.
+     *
+     * @return {@code false}.
+     */
+
+    @Override
+    public boolean isConnected() {
+        return false;
+    }
+
+    /**
+     * Does nothing, since there is no connection to close.
+     */
+
+    @Override
+    public void disconnect() {
+        // nothing to close
+    }
+
+    /**
+     * Drops the message.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessage(Message message) {
+        // already sent before the restart
+    }
+
+    /**
+     * Drops the message.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessage(EncodedMessage message) {
+        // already sent before the restart
+    }
+
+    /**
+     * Drops the message.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessageAndQuit(Message message) {
+        // already sent before the restart
+    }
+
+    /**
+     * Returns the number of messages waiting to be written: nothing is ever queued.
+     *
+     * @return {@code 0}.
+     */
+
+    @Override
+    public int getOutboundQueueDepth() {
+        return 0;
+    }
+
+    /**
+     * Returns the last time anything was received: nothing is ever received.
+     *
+     * @return {@code 0}.
+     */
+
+    @Override
+    public long getLastSeen() {
+        return 0;
+    }
+
+    /**
+     * Returns the traffic of the connection, which stays empty since the messages of a replay are dropped.
+     *
+     * @return the {@link ConnectionStats} of the replay.
+     */
+
+    @Override
+    public ConnectionStats getConnectionStats() {
+        return connectionStats;
+    }
+
+    /**
+     * Sets the {@code VirtualView}.
+     *
+     * @param virtualView the VirtualView that ha to be set.
+     */
+
+    @Override
+    public void setVirtualView(VirtualView virtualView) {
+        this.virtualView = virtualView;
+    }
+
+    /**
+     * Returns the {@code VirtualView}.
+     *
+     * @return {@link VirtualView}
+     */
+
+    @Override
+    public VirtualView getVirtualView() {
+        return virtualView;
+    }
+
+    /**
+     * Returns the {@code socketClient}: there is no socket behind a replay.
+     *
+     * @return {@code null}.
+     */
+
+    @Override
+    public Socket getSocketClient() {
+        return null;
+    }
+}
@@ -3,18 +3,34 @@ package it.polimi.ingsw.network.server;
 import it.polimi.ingsw.controller.GameController;
 import it.polimi.ingsw.controller.GameControllerFactory;
 import it.polimi.ingsw.controller.GameState;
+import it.polimi.ingsw.controller.GameSummary;
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.exceptions.WrongMessageSentException;
 import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.network.message.CreateGameMessage;
+import it.polimi.ingsw.network.message.EncodedMessage;
 import it.polimi.ingsw.network.message.JoinGameMessage;
 import it.polimi.ingsw.network.message.Message;
 import it.polimi.ingsw.network.message.MessageType;
+import it.polimi.ingsw.network.message.PingMessage;
+import it.polimi.ingsw.utils.Constants;
 import it.polimi.ingsw.view.View;
 import it.polimi.ingsw.view.VirtualView;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -24,20 +40,640 @@ import java.util.logging.Logger;
 
 public class Server{
 
-    private final Map<Integer,GameController> gameControllerMap;
+    private final SessionRegistry registry;
     public static final Logger LOGGER = Logger.getLogger(Server.class.getName());
-    private final Object lock; //LOCK for synchronization
-    private final Map<String, ClientHandler> clientHandlerMap;
+    private static final String METRICS_NAME = "it.polimi.ingsw:type=ServerMetrics";
+    private final Map<Integer, GameLane> lanes;
+    private final GameLane lobbyLane;
+    private final ExecutorService workers;
+    private final Map<Integer, GameSummary> lobby;
+    private final Set<ClientHandler> connections;
+    private final ScheduledExecutorService timer;
+    private final int outboundHardLimit;
+    private final int outboundHighWatermark;
+    private final int outboundLowWatermark;
+    private final long slowConsumerTimeout;
+    private final Map<Integer, GameJournal> journals;
+    private JournalWriter journalWriter;
+    private Path journalDirectory;
+    private int snapshotRounds;
+    private final Set<Integer> hibernatedGames;
+    private GameReaper reaper;
+    private final ServerMetrics metrics;
+    private final List<ScheduledFuture<?>> metricsTasks;
+    private ObjectName metricsName; // the name the metrics are published under, null if they are not
+    private Path metricsFile;
+
+    /**
+     * Server constructor, with the default outbound queue limits.
+     */
 
     public Server() {
-        this.lock = new Object();
-        this.clientHandlerMap = Collections.synchronizedMap(new HashMap<>());
-        this.gameControllerMap = new HashMap<>();
+        this(Constants.OUTBOUND_HARD_LIMIT, Constants.OUTBOUND_HIGH_WATERMARK, Constants.OUTBOUND_LOW_WATERMARK,
+                Constants.SLOW_CONSUMER_TIMEOUT);
+    }
+
+    /**
+     * Server constructor.
+     *
+     * @param outboundHardLimit the number of pending messages at which a client is disconnected at once.
+     * @param outboundHighWatermark the number of pending messages over which a client is considered slow.
+     * @param outboundLowWatermark the number of pending messages a slow client has to get back to.
+     * @param slowConsumerTimeout the time, in milliseconds, a slow client has to catch up before being disconnected.
+     */
+
+    public Server(int outboundHardLimit, int outboundHighWatermark, int outboundLowWatermark,
+                  long slowConsumerTimeout) {
+        this.registry = new SessionRegistry();
+        this.lanes = new ConcurrentHashMap<>();
+        this.workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                runnable -> new Thread(runnable, "game_worker"));
+        this.lobbyLane = new GameLane(workers, drained -> {});
+        this.lobby = new ConcurrentSkipListMap<>();
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "server_timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.outboundHardLimit = outboundHardLimit;
+        this.outboundHighWatermark = outboundHighWatermark;
+        this.outboundLowWatermark = outboundLowWatermark;
+        this.slowConsumerTimeout = slowConsumerTimeout;
+        this.journals = new ConcurrentHashMap<>();
+        this.hibernatedGames = ConcurrentHashMap.newKeySet();
+        this.metrics = new ServerMetrics(this);
+        this.metricsTasks = new ArrayList<>();
+    }
+
+    /**
+     * Enables the journal of the games: the games left in the directory by a previous run of the server are rebuilt,
+     * and from now on every game writes there the messages it accepts. It has to be called before the server starts
+     * accepting connections. Every few rounds, a snapshot of each game replaces the entries of its journal.
+     *
+     * @param directory the directory of the journals.
+     * @param forceInterval the maximum time, in milliseconds, an accepted message can take to become durable.
+     * @param snapshotRounds the number of rounds between two snapshots of a game.
+     * @throws IOException if the directory cannot be read.
+     */
+
+    public void enableJournal(Path directory, long forceInterval, int snapshotRounds) throws IOException {
+        this.journalDirectory = directory;
+        this.snapshotRounds = snapshotRounds;
+        this.journalWriter = new JournalWriter(forceInterval);
+        journalWriter.start();
+        recoverGames();
+    }
+
+    /**
+     * Waits until every journal entry queued so far has been written and forced to the device.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+
+    void syncJournal() throws InterruptedException {
+        if (journalWriter != null)
+            journalWriter.sync();
+    }
+
+    /**
+     * Rebuilds the games whose journals have been left by a previous run of the server. The messages of each journal
+     * are handed again to a new game controller, created with the same seed (or to the controller saved by the latest
+     * snapshot of the game), while the messages the controller sends are dropped. A rebuilt game then waits for all
+     * its players to log in again with the same nicknames.
+     *
+     * @throws IOException if the directory of the journals cannot be read.
+     */
+
+    private void recoverGames() throws IOException {
+        for (Path file : GameJournal.list(journalDirectory)) {
+            List<GameJournal.Entry> entries = new ArrayList<>();
+            GameJournal journal;
+            try {
+                journal = GameJournal.recover(file, journalWriter, entries);
+            } catch (IOException e) {
+                LOGGER.severe("Cannot recover the journal " + file + ".\n" +
+                        e.getClass().getSimpleName() + ": " + e.getMessage());
+                continue;
+            }
+            int gameID = journal.getGameID();
+            try {
+                replay(gameID, journal.getSnapshot(), entries);
+            } catch (TryAgainException | RuntimeException e) {
+                LOGGER.severe("Cannot rebuild game " + gameID + " from its journal.\n" +
+                        e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            GameController gameController = registry.getGameController(gameID);
+            if (gameController == null || gameController.getGameQueue().isEmpty()) {
+                if (gameController != null)
+                    registry.removeGame(gameID, gameController.getGameQueue());
+                journal.delete();
+                continue;
+            }
+            gameController.getVirtualViewMap().clear(); // nobody is connected yet
+            journals.put(gameID, journal);
+            watchGame(gameID);
+            updateLobby(gameID);
+            LOGGER.info("Game " + gameID + " rebuilt from " + entries.size() + " journal entries.");
+        }
+    }
+
+    /**
+     * Hands the entries of a journal to a new game controller, or to the controller of the snapshot they follow, as
+     * if their messages were received again.
+     *
+     * @param gameID the ID of the game.
+     * @param snapshot the latest snapshot of the game, or {@code null} if there is none.
+     * @param entries the entries of the journal of the game.
+     * @throws TryAgainException if the controller refuses a message it had accepted before the restart.
+     */
+
+    private void replay(int gameID, GameSnapshot snapshot, List<GameJournal.Entry> entries) throws TryAgainException {
+        GameController gameController = null;
+        if (snapshot != null) {
+            gameController = snapshot.gameController();
+            gameController.setMetrics(metrics);
+            registry.addGame(gameID, gameController);
+            for (String nickname : gameController.getGameQueue())
+                replayJoin(gameController, gameID, nickname);
+        }
+        for (GameJournal.Entry entry : entries) {
+            if (entry.type() == GameJournal.EntryType.CREATE) {
+                CreateGameMessage message = (CreateGameMessage) entry.message();
+                gameController = initController(message);
+                registry.addGame(gameID, gameController);
+                gameController.setGameControllerID(gameID);
+                gameController.prepareGame(message.getPlayerNum(), entry.seed());
+                replayJoin(gameController, gameID, message.getNickname());
+            }
+            else if (gameController == null)
+                throw new WrongMessageSentException("The journal does not start with the creation of the game.");
+            else if (entry.type() == GameJournal.EntryType.LEAVE)
+                leaveGame(gameController, gameID, entry.nickname());
+            else if (entry.message().getMessageType() == MessageType.JOIN_GAME)
+                replayJoin(gameController, gameID, entry.message().getNickname());
+            else
+                gameController.getMessage(entry.message());
+        }
+    }
+
+    /**
+     * Adds a player to a game being rebuilt, with a view that drops everything the game sends.
+     *
+     * @param gameController the controller of the game.
+     * @param gameID the ID of the game.
+     * @param nickname the nickname of the player.
+     */
+
+    private void replayJoin(GameController gameController, int gameID, String nickname) {
+        ClientHandler clientHandler = new ReplayClientHandler();
+        clientHandler.setVirtualView(new VirtualView(clientHandler));
+        if (gameController.getGameQueue().contains(nickname)) // restored by a snapshot
+            gameController.getVirtualViewMap().put(nickname, clientHandler.getVirtualView());
+        else
+            gameController.addPlayerToQueue(nickname, clientHandler.getVirtualView());
+        registry.joinGame(nickname, gameID);
+    }
+
+    /**
+     * Returns the journal of a game, if the journal is enabled and the game has one.
+     *
+     * @param gameID the ID of the game.
+     * @return the {@link GameJournal} of the game, or {@code null}.
+     */
+
+    private GameJournal getJournal(int gameID) {
+        return journals.get(gameID);
+    }
+
+    /**
+     * Takes a snapshot of a game if enough rounds have been played since the latest one. The game is still, since the
+     * check runs on its lane right after a message has been handled.
+     *
+     * @param gameController the controller of the game.
+     * @param journal the journal of the game.
+     */
+
+    private void takeSnapshotIfDue(GameController gameController, GameJournal journal) {
+        if (gameController.getGameState() == GameState.IN_GAME &&
+                gameController.getGame().getRoundNumber() - journal.getSnapshotRound() >= snapshotRounds)
+            journal.snapshot(gameController);
+    }
+
+    /**
+     * Deletes the journal of a game that has been removed, if there is one.
+     *
+     * @param gameID the ID of the removed game.
+     */
+
+    private void deleteJournal(int gameID) {
+        GameJournal journal = journals.remove(gameID);
+        if (journal != null)
+            journal.delete();
+    }
+
+    /**
+     * Gives back their game to a player who has just logged in, if the game has been rebuilt after a restart of the
+     * server and is waiting for them.
+     *
+     * @param nickname the nickname the player has logged in with.
+     * @return {@code true} if the player has a game to go back to, {@code false} otherwise.
+     */
+
+    public boolean resumeGame(String nickname) {
+        int gameID = getGameIDFromNickname(nickname);
+        if (gameID == -1)
+            return false;
+        VirtualView virtualView = registry.getClientHandler(nickname).getVirtualView();
+        runOnLane(gameID, () -> {
+            GameController gameController = registry.getGameController(gameID);
+            if (gameController != null)
+                gameController.resumePlayer(nickname, virtualView);
+            else
+                virtualView.showExistingGames(getLobby());
+        });
+        return true;
+    }
+
+    /**
+     * Returns the timer shared by the whole server for its periodic and delayed tasks.
+     *
+     * @return the server's {@link ScheduledExecutorService}.
+     */
+
+    public ScheduledExecutorService getTimer() {
+        return timer;
+    }
+
+    /**
+     * Runs a task on the lane of the given game, after all the tasks already submitted to it. If the game has been
+     * hibernated, it is woken up before the task runs. A task for a game that does not exist (or for no game at all)
+     * runs on the lobby lane instead, so no lane is ever created for an ID a client has made up.
+     *
+     * @param gameID the ID of the game the task belongs to.
+     * @param task the task to run.
+     */
+
+    public void runOnLane(int gameID, Runnable task) {
+        Runnable wakingTask = () -> {
+            if (hibernatedGames.contains(gameID))
+                wakeUp(gameID);
+            task.run();
+        };
+        if (!submitToLane(gameID, wakingTask, false, false))
+            lobbyLane.execute(task);
+    }
+
+    /**
+     * Queues a task on the lane of a game. The lane is created if the game exists, or if the task is the one creating
+     * the game; the queueing is atomic with respect to the retirement of the lane, so a task never ends up on a lane
+     * that has just been retired while a new one runs the same game.
+     *
+     * @param gameID the ID of the game.
+     * @param task the task to run.
+     * @param housekeeping {@code true} if the task must not count as activity of the game.
+     * @param creation {@code true} if the task creates the game.
+     * @return {@code true} if the task has been queued, {@code false} if the game has no lane and does not exist.
+     */
+
+    private boolean submitToLane(int gameID, Runnable task, boolean housekeeping, boolean creation) {
+        GameLane gameLane = lanes.compute(gameID, (id, lane) -> {
+            if (lane == null && (creation || registry.getGameController(id) != null))
+                lane = new GameLane(workers, drained -> retireLane(id, drained));
+            if (lane != null) {
+                if (housekeeping)
+                    lane.executeHousekeeping(task);
+                else
+                    lane.execute(task);
+            }
+            return lane;
+        });
+        return gameLane != null;
+    }
+
+    /**
+     * Retires the lane of a game that does not exist anymore, once the lane has run all its tasks. It runs on the
+     * lane, whenever it is drained; a game created again with the same ID keeps the lane instead.
+     *
+     * @param gameID the ID of the game.
+     * @param drained the lane that has run all its tasks.
+     */
+
+    private void retireLane(int gameID, GameLane drained) {
+        if (registry.getGameController(gameID) == null)
+            lanes.computeIfPresent(gameID, (id, lane) -> lane == drained && lane.getPendingTasks() == 0 &&
+                    registry.getGameController(id) == null ? null : lane);
+    }
+
+    /**
+     * Starts the hibernation of idle games: at every half of the idle time, the timer looks for the games nothing has
+     * happened to for longer than the idle time (lobbies waiting for their players, games stalled on a slow player)
+     * and moves them out of the heap. A hibernated game is woken up by the next task of its lane, so this is
+     * transparent to the players.
+     *
+     * @param idleTime the time, in milliseconds, after which an idle game is hibernated.
+     */
+
+    public void startHibernation(long idleTime) {
+        long period = Math.max(idleTime / 2, 1);
+        timer.scheduleAtFixedRate(() -> hibernateIdleGames(idleTime), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the hibernation of the games that have been idle for longer than the idle time on their lanes.
+     *
+     * @param idleTime the time, in milliseconds, after which an idle game is hibernated.
+     */
+
+    private void hibernateIdleGames(long idleTime) {
+        long now = System.currentTimeMillis();
+        for (int gameID : registry.getGameControllers().keySet()) {
+            if (hibernatedGames.contains(gameID))
+                continue;
+            GameLane lane = lanes.get(gameID);
+            if (lane == null || (now - lane.getLastActive() > idleTime && lane.getPendingTasks() == 0))
+                submitToLane(gameID, () -> hibernate(gameID), true, false);
+        }
+    }
+
+    /**
+     * Hibernates a game. It runs on the lane of the game.
+     *
+     * @param gameID the ID of the game.
+     */
+
+    private void hibernate(int gameID) {
+        GameController gameController = registry.getGameController(gameID);
+        if (gameController == null || gameController.isHibernated())
+            return;
+        try {
+            gameController.hibernate();
+            hibernatedGames.add(gameID);
+            LOGGER.info(() -> "Game " + gameID + " hibernated in " + gameController.getHibernatedSize() + " bytes.");
+        } catch (IOException e) {
+            LOGGER.severe("Cannot hibernate game " + gameID + ".\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wakes up a hibernated game. It runs on the lane of the game.
+     *
+     * @param gameID the ID of the game.
+     */
+
+    private void wakeUp(int gameID) {
+        hibernatedGames.remove(gameID);
+        GameController gameController = registry.getGameController(gameID);
+        if (gameController != null) {
+            gameController.wakeUp();
+            LOGGER.info(() -> "Game " + gameID + " woken up.");
+        }
+    }
+
+    /**
+     * Starts closing the games that stay idle for longer than the lifetime of their stage: lobbies their creators
+     * have walked away from, games stalled forever, games rebuilt after a restart whose players never came back. The
+     * games are kept in the reaper's timing wheel, which the server's timer advances at every tick; the players still
+     * waiting in a closed game are sent back to the lobby.
+     *
+     * @param reaper the {@link GameReaper} with the lifetimes of the games.
+     */
+
+    public void startReaper(GameReaper reaper) {
+        this.reaper = reaper;
+        for (int gameID : registry.getGameControllers().keySet())
+            watchGame(gameID);
+        timer.scheduleAtFixedRate(() -> reaper.advance(reaper.now(), this::checkExpiredGame),
+                reaper.getTick(), reaper.getTick(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the reaper of the idle games.
+     *
+     * @return the {@link GameReaper}, or {@code null} if it has not been started.
+     */
+
+    public GameReaper getReaper() {
+        return reaper;
+    }
+
+    /**
+     * Puts a new game in the reaper's wheel, if the reaper has been started.
+     *
+     * @param gameID the ID of the game.
+     */
+
+    private void watchGame(int gameID) {
+        if (reaper != null)
+            reaper.watch(gameID, reaper.now() + reaper.getShortestLifetime());
+    }
+
+    /**
+     * Queues the check of a game whose time in the reaper's wheel has come on the lane of the game, without counting
+     * it as activity.
+     *
+     * @param gameID the ID of the game.
+     */
+
+    private void checkExpiredGame(int gameID) {
+        submitToLane(gameID, () -> expireGame(gameID), true, false);
+    }
+
+    /**
+     * Closes a game if it has been idle for the whole lifetime of its stage, or lets the reaper put it back in its
+     * wheel for the time left. It runs on the lane of the game, and does not wake it up.
+     *
+     * @param gameID the ID of the game.
+     */
+
+    private void expireGame(int gameID) {
+        GameController gameController = registry.getGameController(gameID);
+        GameLane lane = lanes.get(gameID);
+        if (gameController == null || lane == null)
+            return;
+        GameReaper.Stage stage = GameReaper.stageOf(gameController);
+        if (!reaper.expire(gameID, stage, lane.getLastActive()))
+            return;
+        long lifetime = reaper.getLifetime(stage);
+        LOGGER.info(() -> "Game " + gameID + " closed after " + lifetime / 1000 + " idle seconds (" + stage + ").");
+        closeGame(gameID, gameController, "The game number " + gameID + " has been closed because it has been idle" +
+                " for too long.");
+    }
+
+    /**
+     * Starts publishing the metrics of the server: they are registered as an MXBean on the platform's MBean server,
+     * so any JMX console can read them, and dumped to a text file at every interval, until {@link #stopMetrics()} is
+     * called. The timer also computes the number of games finished per minute.
+     *
+     * @param dumpFile the file the metrics are written to, or {@code null} to skip the dump.
+     * @param dumpInterval the time, in milliseconds, between two dumps.
+     */
+
+    public synchronized void startMetrics(Path dumpFile, long dumpInterval) {
+        if (!metricsTasks.isEmpty())
+            return;
+        try {
+            ObjectName name = new ObjectName(METRICS_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            metricsName = name;
+        } catch (JMException e) {
+            LOGGER.warning("Cannot publish the metrics through JMX.\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        metricsFile = dumpFile;
+        metricsTasks.add(timer.scheduleAtFixedRate(metrics::rollMinute, 1, 1, TimeUnit.MINUTES));
+        if (dumpFile != null)
+            metricsTasks.add(timer.scheduleAtFixedRate(this::dumpMetrics, dumpInterval, dumpInterval,
+                    TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Stops publishing the metrics of the server: they are removed from the platform's MBean server, so that another
+     * server can publish its own, and dumped one last time.
+     */
+
+    public synchronized void stopMetrics() {
+        if (metricsTasks.isEmpty())
+            return;
+        metricsTasks.forEach(task -> task.cancel(false));
+        metricsTasks.clear();
+        if (metricsName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            } catch (JMException e) {
+                LOGGER.warning("Cannot withdraw the metrics from JMX.\n" +
+                        e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            metricsName = null;
+        }
+        if (metricsFile != null)
+            dumpMetrics();
+    }
+
+    /**
+     * Writes the metrics of the server to their file.
+     */
+
+    private void dumpMetrics() {
+        try {
+            metrics.dump(metricsFile);
+        } catch (IOException e) {
+            LOGGER.warning("Cannot write the metrics to " + metricsFile + ".\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the metrics of the server, which its connections and game controllers update.
+     *
+     * @return the {@link ServerMetrics} of the server.
+     */
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of games that are hibernated at the moment.
+     *
+     * @return the number of hibernated games.
+     */
+
+    public int getHibernatedGames() {
+        return hibernatedGames.size();
+    }
+
+    /**
+     * Runs a task on the lane of the given game once the delay has expired. The server's timer only measures the
+     * delay: the task itself is queued on the lane, like the messages of the game.
+     *
+     * @param gameID the ID of the game the task belongs to.
+     * @param task the task to run.
+     * @param delay the delay, in milliseconds.
+     * @return the {@link ScheduledFuture} that can be used to cancel the task before it is queued.
+     */
+
+    public ScheduledFuture<?> scheduleOnLane(int gameID, Runnable task, long delay) {
+        return timer.schedule(() -> runOnLane(gameID, task), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts the heartbeat of the server: at every interval, the timer pings all the open connections and drops the
+     * ones nothing has been received from for longer than the idle timeout. Since the clients answer every ping, a
+     * connection only stays silent that long if the client or the network is gone.
+     *
+     * @param pingInterval the time, in milliseconds, between two pings.
+     * @param idleTimeout the time, in milliseconds, after which a silent connection is dropped.
+     */
+
+    public void startHeartbeat(long pingInterval, long idleTimeout) {
+        timer.scheduleAtFixedRate(() -> checkConnections(idleTimeout), pingInterval, pingInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops the connections that have been silent for longer than the idle timeout, and pings the other ones. It runs
+     * on the server's timer: every handler closes its connection on its own threads.
+     *
+     * @param idleTimeout the time, in milliseconds, after which a silent connection is dropped.
+     */
+
+    private void checkConnections(long idleTimeout) {
+        long now = System.currentTimeMillis();
+        EncodedMessage ping = new EncodedMessage(new PingMessage()); // encoded once for all the connections
+        for (ClientHandler clientHandler : connections) {
+            if (!clientHandler.isConnected())
+                connections.remove(clientHandler);
+            else if (now - clientHandler.getLastSeen() > idleTimeout) {
+                LOGGER.severe("Client " + clientHandler.getSocketClient().getInetAddress() +
+                        " disconnected: connection timed out");
+                clientHandler.disconnect();
+            }
+            else
+                clientHandler.sendMessage(ping);
+        }
+    }
+
+    /**
+     * Adds a newly accepted connection to the ones checked by the heartbeat.
+     *
+     * @param clientHandler the {@link ClientHandler} of the connection.
+     */
+
+    public void addConnection(ClientHandler clientHandler) {
+        connections.add(clientHandler);
+    }
+
+    /**
+     * Creates the outbound queue of a client, with the limits the server has been configured with.
+     *
+     * @param onSlowConsumer the action to run when the client does not keep up with its queue.
+     * @param <T> the type of the queued elements.
+     * @return a new {@link OutboundQueue}.
+     */
+
+    public <T> OutboundQueue<T> newOutboundQueue(Runnable onSlowConsumer) {
+        return new OutboundQueue<>(outboundHardLimit, outboundHighWatermark, outboundLowWatermark, slowConsumerTimeout,
+                timer, onSlowConsumer);
+    }
+
+    /**
+     * Returns the number of messages waiting to be sent to each connected client.
+     *
+     * @return a map with the clients' nicknames as keys and the depths of their outbound queues as values.
+     */
+
+    public Map<String, Integer> getOutboundQueueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        registry.getClientHandlers().forEach((nickname, clientHandler) ->
+                depths.put(nickname, clientHandler.getOutboundQueueDepth()));
+        return depths;
     }
 
     /**
      * Method used to implement the correct {@code GameController}.
-     * It's a factory method, returns a {@code GameController}.
+     * It's a factory method, returns a {@code GameController} which reports to the metrics of this server.
      *
      * @param receivedMessage message passed to the factory.
      * @return {@code GameController}.
@@ -45,7 +681,9 @@ public class Server{
 
     public GameController initController(Message receivedMessage){
         GameControllerFactory gameControllerFactory = new GameControllerFactory();
-        return gameControllerFactory.getGameController(receivedMessage);
+        GameController gameController = gameControllerFactory.getGameController(receivedMessage);
+        gameController.setMetrics(metrics);
+        return gameController;
     }
 
     /**
@@ -58,9 +696,8 @@ public class Server{
 
     public void addClient(String nickname, ClientHandler clientHandler) throws TryAgainException{
         clientHandler.setVirtualView(new VirtualView(clientHandler));
-        if(!clientHandlerMap.containsKey(nickname)) {
-            clientHandlerMap.put(nickname, clientHandler);
-            Server.LOGGER.info("Added " + nickname + " to clientHandlerMap");
+        if(registry.addClient(nickname, clientHandler)) {
+            Server.LOGGER.info("Added " + nickname + " to the client list.");
             return;
         }
         throw new TryAgainException("Error: nickname already exists");
@@ -73,7 +710,7 @@ public class Server{
      */
 
     public void removeClient(String nickname){
-        clientHandlerMap.remove(nickname);
+        registry.removeClient(nickname);
         LOGGER.info("Removed " + nickname + " from the client list.");
     }
 
@@ -91,17 +728,86 @@ public class Server{
         int gameNumber = ((CreateGameMessage) message).getGameNumber();
         int playerNum = ((CreateGameMessage) message).getPlayerNum();
         String nickname = message.getNickname();
-        if(!gameControllerMap.containsKey(gameNumber)) {
-            gameControllerMap.put(gameNumber, initController(message));
-            gameControllerMap.get(gameNumber).setGameControllerID(gameNumber);
-            gameControllerMap.get(gameNumber).prepareGame(playerNum);
-            gameControllerMap.get(gameNumber).addPlayerToQueue(nickname, clientHandlerMap.get(nickname).getVirtualView());
-            clientHandlerMap.get(nickname).getVirtualView().askWizardID();
+        GameController gameController = initController(message);
+        if(registry.addGame(gameNumber, gameController)) {
+            gameController.setGameControllerID(gameNumber);
+            watchGame(gameNumber);
+            gameController.prepareGame(playerNum);
+            gameController.addPlayerToQueue(nickname, registry.getClientHandler(nickname).getVirtualView());
+            registry.joinGame(nickname, gameNumber);
+            openJournal(gameNumber, (CreateGameMessage) message);
+            updateLobby(gameNumber);
+            registry.getClientHandler(nickname).getVirtualView().askWizardID();
+            return;
+        }
+        rejectGameNumber(nickname);
+    }
+
+    /**
+     * Creates the journal of a new game, if the journal is enabled, and writes the creation of the game in it.
+     *
+     * @param gameID the ID of the game.
+     * @param message the {@link CreateGameMessage} the game has been created with.
+     */
+
+    private void openJournal(int gameID, CreateGameMessage message) {
+        if (journalWriter == null)
+            return;
+        try {
+            GameJournal journal = GameJournal.create(journalDirectory, gameID, journalWriter);
+            journal.appendCreate(registry.getGameController(gameID).getGame().getSeed(), message);
+            journals.put(gameID, journal);
+        } catch (IOException e) {
+            LOGGER.severe("Cannot create the journal of game " + gameID + ": the game will not be recovered.\n" +
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the game a message belongs to and queues the message on the game's lane, so that the calling thread
+     * (a connection's reader or a reactor) never runs the game logic itself.
+     *
+     * @param message the received message.
+     */
+
+    public void getMessage(Message message){
+        int gameID;
+        if(message.getMessageType() == MessageType.CREATE_GAME) {
+            lobbyLane.execute(() -> createGame((CreateGameMessage) message));
             return;
         }
+        if(message.getMessageType() == MessageType.JOIN_GAME)
+            gameID = ((JoinGameMessage) message).getGameID();
+        else
+            gameID = getGameIDFromNickname(message.getNickname());
+        runOnLane(gameID, () -> handleMessage(message));
+    }
+
+    /**
+     * Handles the creation of a game on the lobby lane: if the game number is free, the lane of the new game is
+     * created with the creation as its first task, so every later message of the game queues up behind it.
+     *
+     * @param message the {@link CreateGameMessage}.
+     */
+
+    private void createGame(CreateGameMessage message) {
+        int gameID = message.getGameNumber();
+        if (registry.getGameController(gameID) == null)
+            submitToLane(gameID, () -> handleMessage(message), false, true);
+        else
+            rejectGameNumber(message.getNickname());
+    }
+
+    /**
+     * Tells a player that the game number they have chosen is taken, and asks for another one.
+     *
+     * @param nickname the nickname of the player.
+     */
+
+    private void rejectGameNumber(String nickname) {
         LOGGER.info(() -> "Game Number has already been chosen.");
-        clientHandlerMap.get(nickname).getVirtualView().showGenericMessage("The game ID has already been chosen...");
-        clientHandlerMap.get(nickname).getVirtualView().askGameInfo();
+        registry.getClientHandler(nickname).getVirtualView().showGenericMessage("The game ID has already been chosen...");
+        registry.getClientHandler(nickname).getVirtualView().askGameInfo();
     }
 
     /**
@@ -111,39 +817,64 @@ public class Server{
      *  2)  If the server receives a JoinGameMessage then the client is added to the chosen
      *      existing game.
      *  3) Else the message is passed to the correct gameController.
+     * It runs on the lane of the game the message belongs to.
      *
      * @param message message that will be controlled as said before.
      */
 
-    public void getMessage(Message message){
+    private void handleMessage(Message message){
         try {
             if(message.getMessageType() == MessageType.CREATE_GAME) {
                 createNewGameController(message);
             }
             else if(message.getMessageType() == MessageType.JOIN_GAME) {
                 try {
-                    if(gameControllerMap.get(((JoinGameMessage) message).getGameID()).getGameQueue().size() ==
-                            gameControllerMap.get(((JoinGameMessage) message).getGameID()).getGame().getPlayersNumber()){
-                        clientHandlerMap.get(message.getNickname()).getVirtualView().
+                    if(registry.getGameController(((JoinGameMessage) message).getGameID()).getGameQueue().size() ==
+                            registry.getGameController(((JoinGameMessage) message).getGameID()).getGame().getPlayersNumber()){
+                        registry.getClientHandler(message.getNickname()).getVirtualView().
                                 showGenericMessage("The game number " + ((JoinGameMessage) message).getGameID() + " is full." +
                                         "\nPlease create a new game or choose another one.");
-                        clientHandlerMap.get(message.getNickname()).getVirtualView().askCreateOrJoin();
+                        registry.getClientHandler(message.getNickname()).getVirtualView().askCreateOrJoin();
+                    }
+                    else if(registry.getGameController(((JoinGameMessage) message).getGameID()).isWaitingForPlayers()){
+                        registry.getClientHandler(message.getNickname()).getVirtualView().
+                                showGenericMessage("The game number " + ((JoinGameMessage) message).getGameID() +
+                                        " is waiting for its players to reconnect.\nPlease create a new game or choose another one.");
+                        registry.getClientHandler(message.getNickname()).getVirtualView().askCreateOrJoin();
                     }
                     else{
-                        gameControllerMap.get(((JoinGameMessage) message).getGameID()).
-                                addPlayerToQueue(message.getNickname(), clientHandlerMap.get(message.getNickname()).getVirtualView());
-                        clientHandlerMap.get(message.getNickname()).getVirtualView().askWizardID();
+                        registry.getGameController(((JoinGameMessage) message).getGameID()).
+                                addPlayerToQueue(message.getNickname(), registry.getClientHandler(message.getNickname()).getVirtualView());
+                        registry.joinGame(message.getNickname(), ((JoinGameMessage) message).getGameID());
+                        GameJournal journal = getJournal(((JoinGameMessage) message).getGameID());
+                        if(journal != null)
+                            journal.append(message);
+                        updateLobby(((JoinGameMessage) message).getGameID());
+                        registry.getClientHandler(message.getNickname()).getVirtualView().askWizardID();
                     }
                 }catch (NullPointerException e){
-                    clientHandlerMap.get(message.getNickname()).getVirtualView().showGenericMessage("This game ID does not exists...");
-                    clientHandlerMap.get(message.getNickname()).getVirtualView().askGameNumber();
+                    registry.getClientHandler(message.getNickname()).getVirtualView().showGenericMessage("This game ID does not exists...");
+                    registry.getClientHandler(message.getNickname()).getVirtualView().askGameNumber();
                 }
             }
             else{
                 int gameID  = getGameIDFromNickname(message.getNickname());
-                if(gameID != -1) {
+                if(registry.getGameController(gameID) != null) {
+                    if(registry.getGameController(gameID).isWaitingForPlayers()) {
+                        registry.getClientHandler(message.getNickname()).getVirtualView().
+                                showGenericMessage("Please wait for the other players to reconnect.");
+                        return;
+                    }
                     LOGGER.info(() -> "Message sent to game number: "+gameID);
-                    gameControllerMap.get(gameID).getMessage(message);
+                    long start = System.nanoTime();
+                    registry.getGameController(gameID).getMessage(message);
+                    metrics.recordMessage(message.getMessageType(), System.nanoTime() - start);
+                    GameJournal journal = getJournal(gameID);
+                    if(journal != null && message.getMessageType() != MessageType.RESYNC_REQUEST) {
+                        journal.append(message);
+                        takeSnapshotIfDue(registry.getGameController(gameID), journal);
+                    }
+                    updateLobby(gameID);
                 }
                 else throw new WrongMessageSentException("Error");
             }
@@ -160,7 +891,33 @@ public class Server{
      */
 
     public Map<Integer, GameController> getGameControllerMap() {
-        return gameControllerMap;
+        return registry.getGameControllers();
+    }
+
+    /**
+     * Returns the summaries of the existing games, ordered by game ID. The list is built from the lobby, which is kept
+     * up to date as games are created, joined, started and removed, so no game controller is touched.
+     *
+     * @return a list of {@link GameSummary}s.
+     */
+
+    public List<GameSummary> getLobby() {
+        return new ArrayList<>(lobby.values());
+    }
+
+    /**
+     * Refreshes the lobby entry of the given game: the entry is replaced with a new summary of the game, or dropped
+     * if the game does not exist anymore.
+     *
+     * @param gameID the ID of the game whose entry has to be refreshed.
+     */
+
+    private void updateLobby(int gameID) {
+        GameController gameController = registry.getGameController(gameID);
+        if(gameController == null)
+            lobby.remove(gameID);
+        else
+            lobby.put(gameID, gameController.getSummary());
     }
 
     /**
@@ -169,7 +926,7 @@ public class Server{
      * @return the actual {@code clientHandlerMap}.
      */
 
-    public Map<String, ClientHandler> getClientHandlerMap() { return clientHandlerMap; }
+    public Map<String, ClientHandler> getClientHandlerMap() { return registry.getClientHandlers(); }
 
     /**
      *  Returns the gameID associated to a nickname; if it doesn't exist, returns -1.
@@ -179,12 +936,31 @@ public class Server{
      */
 
     private int getGameIDFromNickname(String nickname){
-        return gameControllerMap.entrySet()
-                .stream()
-                .filter(element -> element.getValue().getGameQueue().contains(nickname))
-                .mapToInt(Map.Entry::getKey)
-                .findFirst()
-                .orElse(-1);
+        return registry.getGameID(nickname);
+    }
+
+    /**
+     * Returns the open connections.
+     *
+     * @return the {@link ClientHandler}s of the connected clients.
+     */
+
+    Set<ClientHandler> getConnections() {
+        return Collections.unmodifiableSet(connections);
+    }
+
+    /**
+     * Returns the name a connection is known by: the nickname of its player or, before the login, its remote address.
+     *
+     * @param clientHandler the {@link ClientHandler} of the connection.
+     * @return the name of the connection.
+     */
+
+    String getConnectionName(ClientHandler clientHandler) {
+        String nick = getNicknameFromClientHandler(clientHandler);
+        if (nick != null)
+            return nick;
+        return String.valueOf(clientHandler.getSocketClient().getRemoteSocketAddress());
     }
 
     /**
@@ -195,77 +971,131 @@ public class Server{
      */
 
     private String getNicknameFromClientHandler(ClientHandler clientHandler) {
-        return clientHandlerMap.entrySet()
-                .stream()
-                .filter(entry -> clientHandler.equals(entry.getValue()))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+        return registry.getNickname(clientHandler);
     }
 
     /**
      * This method handles what happens when a client disconnect from the server.
-     * The method must eliminate the {@link GameController} from the {@code gameControllerMap}.
-     * then removes the {@code nickname} and the {@code clientHandler}.
+     * If the client was playing, the method must eliminate the {@link GameController} from the
+     * {@code gameControllerMap}; this is done on the game's lane, like everything that touches the game.
+     * Then it removes the {@code nickname} and the {@code clientHandler}.
      *
      * @param clientHandler the {@link ClientHandler} that has disconnected.
      */
 
     public void onDisconnect(ClientHandler clientHandler){
-        synchronized (lock){
-            String nick = getNicknameFromClientHandler(clientHandler);
-            if(nick != null){
-                int gameID = getGameIDFromNickname(nick);
-                if(gameID != -1 && gameControllerMap.get(gameID).getGameState().equals(GameState.IN_GAME)) {
-                    gameControllerMap.get(gameID).getVirtualViewMap().remove(nick);
-                    gameControllerMap.get(gameID).broadcastDisconnectionMessage("Player " + nick +
-                            " disconnected from the game.\nThe game is interrupted.");
-                    List<View> viewsToNotify = new ArrayList<>();
-                    for (Player player : gameControllerMap.get(gameID).getGame().getPlayers()){
-                        if(!player.getNickname().equals(nick)){
-                            String name = player.getNickname();
-                            View virtualView = gameControllerMap.get(gameID).getVirtualViewMap().get(name);
-                            viewsToNotify.add(virtualView);
-                            gameControllerMap.get(gameID).getVirtualViewMap().remove(name);
-                        }
-                    }
-                    gameControllerMap.remove(gameID);
-                    for(View view : viewsToNotify)
-                        view.showExistingGames(gameControllerMap);
-                    Server.LOGGER.severe("GameController " + gameID + " removed from gameControllerMap." +
-                            "\n--- Game finished ---");
-                } else if (gameID != -1 && gameControllerMap.get(gameID).getGameState().equals(GameState.SETUP)) {
-                    Game game = gameControllerMap.get(gameID).getGame();
-                    gameControllerMap.get(gameID).removePlayerFromQueue(nick);
-                    Player playerToRemove = game.getPlayerFromNickname(nick);
-                    if(playerToRemove != null)
-                        gameControllerMap.get(gameID).getGame().getPlayers().remove(playerToRemove);
-                }
+        connections.remove(clientHandler);
+        String nick = getNicknameFromClientHandler(clientHandler);
+        if(nick != null){
+            int gameID = getGameIDFromNickname(nick);
+            if(gameID == -1)
                 removeClient(nick);
-            }
+            else
+                runOnLane(gameID, () -> {
+                    boolean seatKept = removeDisconnectedPlayer(gameID, nick);
+                    removeClient(nick);
+                    if(seatKept)
+                        registry.joinGame(nick, gameID);
+                });
         }
     }
 
+    /**
+     * Removes a disconnected player from its game: a game that has already started is interrupted and removed, while
+     * a game that is still waiting for its players just frees the seat. A game rebuilt after a restart, instead, keeps
+     * the seat until the player logs in again. It runs on the lane of the game.
+     *
+     * @param gameID the ID of the game the player was in.
+     * @param nick the nickname of the disconnected player.
+     * @return {@code true} if the player keeps their seat in the game, {@code false} otherwise.
+     */
+
+    private boolean removeDisconnectedPlayer(int gameID, String nick){
+        GameController gameController = registry.getGameController(gameID);
+        if(gameController != null && gameController.isWaitingForPlayers()) {
+            gameController.getVirtualViewMap().remove(nick);
+            return true;
+        }
+        if(gameController != null && gameController.getGameState().equals(GameState.IN_GAME)) {
+            gameController.getVirtualViewMap().remove(nick);
+            closeGame(gameID, gameController, "Player " + nick +
+                    " disconnected from the game.\nThe game is interrupted.");
+        } else if (gameController != null && gameController.getGameState().equals(GameState.SETUP)) {
+            leaveGame(gameController, gameID, nick);
+            GameJournal journal = getJournal(gameID);
+            if(journal != null)
+                journal.appendLeave(nick);
+        }
+        return false;
+    }
+
+    /**
+     * Interrupts and removes a game: the players still connected to it are told why, and sent back to the lobby. It
+     * runs on the lane of the game.
+     *
+     * @param gameID the ID of the game.
+     * @param gameController the controller of the game.
+     * @param message the message explaining why the game is interrupted.
+     */
+
+    private void closeGame(int gameID, GameController gameController, String message){
+        gameController.broadcastDisconnectionMessage(message);
+        List<View> viewsToNotify = new ArrayList<>(gameController.getVirtualViewMap().values());
+        gameController.getVirtualViewMap().clear();
+        registry.removeGame(gameID, gameController.getGameQueue());
+        updateLobby(gameID);
+        deleteJournal(gameID);
+        hibernatedGames.remove(gameID);
+        metrics.gameInterrupted();
+        List<GameSummary> existingGames = getLobby();
+        for(View view : viewsToNotify)
+            view.showExistingGames(existingGames);
+        Server.LOGGER.severe("GameController " + gameID + " removed from gameControllerMap." +
+                "\n--- Game finished ---");
+    }
+
+    /**
+     * Frees the seat of a player in a game that has not started yet.
+     *
+     * @param gameController the controller of the game.
+     * @param gameID the ID of the game.
+     * @param nick the nickname of the player leaving the game.
+     */
+
+    private void leaveGame(GameController gameController, int gameID, String nick){
+        Game game = gameController.getGame();
+        gameController.removePlayerFromQueue(nick);
+        gameController.getVirtualViewMap().remove(nick);
+        registry.leaveGame(nick);
+        Player playerToRemove = game.getPlayerFromNickname(nick);
+        if(playerToRemove != null)
+            game.getPlayers().remove(playerToRemove);
+        updateLobby(gameID);
+    }
+
     /**
      * Handles the end of a game at server-side. This means that the client of the player must be removed from the
      * server, and that the game controller associated to the terminated game must be removed if all the players
-     * have eventually been safely removed.
+     * have eventually been safely removed (the check runs on the game's lane).
      *
      * @param clientHandler the {@link ClientHandler} that has ended a game.
      */
 
     public void onQuit(ClientHandler clientHandler){
-        synchronized (lock){
-            String nick = getNicknameFromClientHandler(clientHandler);
-            if(nick != null){
-                int gameID = getGameIDFromNickname(nick);
-                try {
-                    if (gameControllerMap.get(gameID).getGameQueue().size() == 0)
-                        gameControllerMap.remove(gameID);
-                }
-                catch(NullPointerException ignored){}
-                removeClient(nick);
-            }
+        String nick = getNicknameFromClientHandler(clientHandler);
+        if(nick != null){
+            int gameID = getGameIDFromNickname(nick);
+            if(gameID != -1)
+                runOnLane(gameID, () -> {
+                    GameController gameController = registry.getGameController(gameID);
+                    if (gameController != null && gameController.getGameQueue().size() == 0) {
+                        registry.removeGame(gameID, gameController.getGameQueue());
+                        updateLobby(gameID);
+                        deleteJournal(gameID);
+                        metrics.gameFinished();
+                    }
+                });
+            removeClient(nick);
         }
     }
 
@@ -0,0 +1,517 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.network.message.MessageType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * The metrics of the server: how long the game controllers take to handle each type of message, how much traffic
+ * each type of message and each connection makes, how long a broadcast takes to reach all the players of a game, and
+ * how many games exist, end and get interrupted. The counters are updated on the hot path without allocating or
+ * locking anything; the maps and the percentiles are only built when somebody reads them, through JMX or in the
+ * periodic dump written by the {@link Server}.
+ */
+
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    private static final MessageType[] TYPES = MessageType.values();
+    private static final int BYTES_RECEIVED = 0;
+    private static final int FRAMES_RECEIVED = 1;
+    private static final int BYTES_SENT = 2;
+    private static final int FRAMES_SENT = 3;
+    private static final int COUNTERS = 4;
+
+    private final LatencyHistogram[] messageLatencies;
+    private final AtomicLongArray traffic; // COUNTERS counters for each message type
+    private final LatencyHistogram broadcastFanOut;
+    private final AtomicLong gamesFinished;
+    private final AtomicLong gamesInterrupted;
+    private volatile long gamesFinishedLastMinute;
+    private long gamesFinishedAtMinuteStart;
+    private final Server server;
+
+    /**
+     * ServerMetrics constructor.
+     *
+     * @param server the {@link Server} whose connections and games the metrics describe.
+     */
+
+    ServerMetrics(Server server) {
+        this.server = server;
+        this.messageLatencies = new LatencyHistogram[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++)
+            messageLatencies[i] = new LatencyHistogram();
+        this.traffic = new AtomicLongArray(TYPES.length * COUNTERS);
+        this.broadcastFanOut = new LatencyHistogram();
+        this.gamesFinished = new AtomicLong();
+        this.gamesInterrupted = new AtomicLong();
+    }
+
+    /**
+     * Records the time a game controller has taken to handle a message.
+     *
+     * @param type the type of the message.
+     * @param nanos the time, in nanoseconds.
+     */
+
+    public void recordMessage(MessageType type, long nanos) {
+        messageLatencies[type.ordinal()].record(nanos);
+    }
+
+    /**
+     * Counts a message received from a client.
+     *
+     * @param connection the traffic of the connection the message came from.
+     * @param type the type of the message.
+     * @param bytes the size of the message on the wire.
+     */
+
+    public void received(ConnectionStats connection, MessageType type, long bytes) {
+        connection.received(bytes);
+        traffic.addAndGet(type.ordinal() * COUNTERS + BYTES_RECEIVED, bytes);
+        traffic.incrementAndGet(type.ordinal() * COUNTERS + FRAMES_RECEIVED);
+    }
+
+    /**
+     * Counts a message queued for a client.
+     *
+     * @param connection the traffic of the connection the message goes to.
+     * @param type the type of the message.
+     * @param bytes the size of the message on the wire.
+     */
+
+    public void sent(ConnectionStats connection, MessageType type, long bytes) {
+        connection.sent(bytes);
+        traffic.addAndGet(type.ordinal() * COUNTERS + BYTES_SENT, bytes);
+        traffic.incrementAndGet(type.ordinal() * COUNTERS + FRAMES_SENT);
+    }
+
+    /**
+     * Records the time a broadcast has taken to hand a message to all the players of a game.
+     *
+     * @param nanos the time, in nanoseconds.
+     */
+
+    public void recordBroadcast(long nanos) {
+        broadcastFanOut.record(nanos);
+    }
+
+    /**
+     * Counts a game that has ended and has been removed.
+     */
+
+    void gameFinished() {
+        gamesFinished.incrementAndGet();
+    }
+
+    /**
+     * Counts a game that has been interrupted and removed.
+     */
+
+    void gameInterrupted() {
+        gamesInterrupted.incrementAndGet();
+    }
+
+    /**
+     * Closes the current minute of the games finished per minute. It is called by the server's timer once a minute.
+     */
+
+    void rollMinute() {
+        long finished = gamesFinished.get();
+        gamesFinishedLastMinute = finished - gamesFinishedAtMinuteStart;
+        gamesFinishedAtMinuteStart = finished;
+    }
+
+    /**
+     * Returns the number of open connections.
+     *
+     * @return the active connections.
+     */
+
+    @Override
+    public int getActiveConnections() {
+        return server.getConnections().size();
+    }
+
+    /**
+     * Returns the number of existing games in each state.
+     *
+     * @return a map with the game states as keys and the number of games as values.
+     */
+
+    @Override
+    public Map<String, Integer> getGamesByState() {
+        Map<String, Integer> games = new TreeMap<>();
+        server.getGameControllerMap().values().forEach(gameController ->
+                games.merge(gameController.getGameState().name(), 1, Integer::sum));
+        return games;
+    }
+
+    /**
+     * Returns the number of games whose state is off the heap at the moment.
+     *
+     * @return the hibernated games.
+     */
+
+    @Override
+    public int getHibernatedGames() {
+        return server.getHibernatedGames();
+    }
+
+    /**
+     * Returns the number of games that have ended with a winner (or a tie).
+     *
+     * @return the finished games.
+     */
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.get();
+    }
+
+    /**
+     * Returns the number of games that have ended during the last whole minute.
+     *
+     * @return the games finished per minute.
+     */
+
+    @Override
+    public long getGamesFinishedPerMinute() {
+        return gamesFinishedLastMinute;
+    }
+
+    /**
+     * Returns the number of games that have been interrupted, because a player has disconnected or because they have
+     * been idle for too long.
+     *
+     * @return the interrupted games.
+     */
+
+    @Override
+    public long getGamesInterrupted() {
+        return gamesInterrupted.get();
+    }
+
+    /**
+     * Returns the number of idle games closed in each stage.
+     *
+     * @return a map with the stages as keys and the number of games closed as values.
+     */
+
+    @Override
+    public Map<String, Long> getEvictions() {
+        if (server.getReaper() == null)
+            return Collections.emptyMap();
+        Map<String, Long> evictions = new TreeMap<>();
+        server.getReaper().getEvictions().forEach((stage, count) -> evictions.put(stage.name(), count));
+        return evictions;
+    }
+
+    /**
+     * Returns the number of messages handled by the game controllers, by type.
+     *
+     * @return a map with the message types as keys and the counts as values.
+     */
+
+    @Override
+    public Map<String, Long> getMessageCounts() {
+        return byLatency(LatencyHistogram::getCount, false);
+    }
+
+    /**
+     * Returns the mean time the game controllers take to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the mean latencies as values.
+     */
+
+    @Override
+    public Map<String, Long> getMessageLatencyMean() {
+        return byLatency(LatencyHistogram::getMean, true);
+    }
+
+    /**
+     * Returns the median time the game controllers take to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the median latencies as values.
+     */
+
+    @Override
+    public Map<String, Long> getMessageLatencyP50() {
+        return byLatency(histogram -> histogram.getPercentile(50), true);
+    }
+
+    /**
+     * Returns the 99th percentile of the time the game controllers take to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the 99th percentiles as values.
+     */
+
+    @Override
+    public Map<String, Long> getMessageLatencyP99() {
+        return byLatency(histogram -> histogram.getPercentile(99), true);
+    }
+
+    /**
+     * Returns the longest time a game controller has taken to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the maximum latencies as values.
+     */
+
+    @Override
+    public Map<String, Long> getMessageLatencyMax() {
+        return byLatency(LatencyHistogram::getMax, true);
+    }
+
+    /**
+     * Returns the number of bytes received, by message type.
+     *
+     * @return a map with the message types as keys and the bytes as values.
+     */
+
+    @Override
+    public Map<String, Long> getBytesReceivedByType() {
+        return byType(BYTES_RECEIVED);
+    }
+
+    /**
+     * Returns the number of messages received, by type.
+     *
+     * @return a map with the message types as keys and the frames as values.
+     */
+
+    @Override
+    public Map<String, Long> getFramesReceivedByType() {
+        return byType(FRAMES_RECEIVED);
+    }
+
+    /**
+     * Returns the number of bytes sent, by message type.
+     *
+     * @return a map with the message types as keys and the bytes as values.
+     */
+
+    @Override
+    public Map<String, Long> getBytesSentByType() {
+        return byType(BYTES_SENT);
+    }
+
+    /**
+     * Returns the number of messages sent, by type.
+     *
+     * @return a map with the message types as keys and the frames as values.
+     */
+
+    @Override
+    public Map<String, Long> getFramesSentByType() {
+        return byType(FRAMES_SENT);
+    }
+
+    /**
+     * Returns the number of bytes received from each open connection.
+     *
+     * @return a map with the connections as keys and the bytes as values.
+     */
+
+    @Override
+    public Map<String, Long> getBytesReceivedByConnection() {
+        return byConnection(ConnectionStats::getBytesReceived);
+    }
+
+    /**
+     * Returns the number of bytes sent to each open connection.
+     *
+     * @return a map with the connections as keys and the bytes as values.
+     */
+
+    @Override
+    public Map<String, Long> getBytesSentByConnection() {
+        return byConnection(ConnectionStats::getBytesSent);
+    }
+
+    /**
+     * Returns the number of messages received from each open connection.
+     *
+     * @return a map with the connections as keys and the frames as values.
+     */
+
+    @Override
+    public Map<String, Long> getFramesReceivedByConnection() {
+        return byConnection(ConnectionStats::getFramesReceived);
+    }
+
+    /**
+     * Returns the number of messages sent to each open connection.
+     *
+     * @return a map with the connections as keys and the frames as values.
+     */
+
+    @Override
+    public Map<String, Long> getFramesSentByConnection() {
+        return byConnection(ConnectionStats::getFramesSent);
+    }
+
+    /**
+     * Returns the number of broadcasts made by the game controllers.
+     *
+     * @return the broadcasts.
+     */
+
+    @Override
+    public long getBroadcastCount() {
+        return broadcastFanOut.getCount();
+    }
+
+    /**
+     * Returns the mean time a broadcast takes to hand a message to all the players of a game.
+     *
+     * @return the mean fan-out time.
+     */
+
+    @Override
+    public long getBroadcastFanOutMean() {
+        return TimeUnit.NANOSECONDS.toMicros(broadcastFanOut.getMean());
+    }
+
+    /**
+     * Returns the 99th percentile of the time a broadcast takes to hand a message to all the players of a game.
+     *
+     * @return the 99th percentile of the fan-out time.
+     */
+
+    @Override
+    public long getBroadcastFanOutP99() {
+        return TimeUnit.NANOSECONDS.toMicros(broadcastFanOut.getPercentile(99));
+    }
+
+    /**
+     * Returns the longest time a broadcast has taken to hand a message to all the players of a game.
+     *
+     * @return the maximum fan-out time.
+     */
+
+    @Override
+    public long getBroadcastFanOutMax() {
+        return TimeUnit.NANOSECONDS.toMicros(broadcastFanOut.getMax());
+    }
+
+    /**
+     * Builds a map with a value of each message type that has been handled at least once.
+     *
+     * @param value the function extracting the value from the histogram of a type.
+     * @param micros {@code true} if the value is a duration to convert from nanoseconds to microseconds.
+     * @return a map with the message types as keys.
+     */
+
+    private Map<String, Long> byLatency(ToLongFunction<LatencyHistogram> value, boolean micros) {
+        Map<String, Long> values = new TreeMap<>();
+        for (MessageType type : TYPES) {
+            LatencyHistogram histogram = messageLatencies[type.ordinal()];
+            if (histogram.getCount() > 0) {
+                long result = value.applyAsLong(histogram);
+                values.put(type.name(), micros ? TimeUnit.NANOSECONDS.toMicros(result) : result);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Builds a map with one of the traffic counters of each message type that has been received or sent at least
+     * once.
+     *
+     * @param counter the index of the counter.
+     * @return a map with the message types as keys.
+     */
+
+    private Map<String, Long> byType(int counter) {
+        Map<String, Long> values = new TreeMap<>();
+        for (MessageType type : TYPES) {
+            long value = traffic.get(type.ordinal() * COUNTERS + counter);
+            if (value > 0)
+                values.put(type.name(), value);
+        }
+        return values;
+    }
+
+    /**
+     * Builds a map with one of the traffic counters of each open connection, named after the nickname of its player
+     * or, before the login, after its remote address.
+     *
+     * @param counter the function extracting the counter from the traffic of a connection.
+     * @return a map with the connections as keys.
+     */
+
+    private Map<String, Long> byConnection(ToLongFunction<ConnectionStats> counter) {
+        Map<String, Long> values = new TreeMap<>();
+        for (ClientHandler clientHandler : server.getConnections())
+            values.put(server.getConnectionName(clientHandler),
+                    counter.applyAsLong(clientHandler.getConnectionStats()));
+        return values;
+    }
+
+    /**
+     * Writes all the metrics to a text file, one per line. The file is written next to the target and then moved
+     * over it, so a reader never sees half a dump.
+     *
+     * @param file the path of the dump.
+     * @throws IOException if the file cannot be written.
+     */
+
+    void dump(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# Eriantys server metrics, " + Instant.now() + " (durations in microseconds)\n");
+            writer.write("connections.active " + getActiveConnections() + "\n");
+            dump(writer, "games.state", getGamesByState());
+            writer.write("games.hibernated " + getHibernatedGames() + "\n");
+            writer.write("games.finished " + getGamesFinished() + "\n");
+            writer.write("games.finished_per_minute " + getGamesFinishedPerMinute() + "\n");
+            writer.write("games.interrupted " + getGamesInterrupted() + "\n");
+            dump(writer, "games.evicted", getEvictions());
+            dump(writer, "messages.count", getMessageCounts());
+            dump(writer, "messages.latency.mean", getMessageLatencyMean());
+            dump(writer, "messages.latency.p50", getMessageLatencyP50());
+            dump(writer, "messages.latency.p99", getMessageLatencyP99());
+            dump(writer, "messages.latency.max", getMessageLatencyMax());
+            dump(writer, "traffic.bytes_received", getBytesReceivedByType());
+            dump(writer, "traffic.frames_received", getFramesReceivedByType());
+            dump(writer, "traffic.bytes_sent", getBytesSentByType());
+            dump(writer, "traffic.frames_sent", getFramesSentByType());
+            dump(writer, "connection.bytes_received", getBytesReceivedByConnection());
+            dump(writer, "connection.frames_received", getFramesReceivedByConnection());
+            dump(writer, "connection.bytes_sent", getBytesSentByConnection());
+            dump(writer, "connection.frames_sent", getFramesSentByConnection());
+            writer.write("broadcast.count " + getBroadcastCount() + "\n");
+            writer.write("broadcast.fan_out.mean " + getBroadcastFanOutMean() + "\n");
+            writer.write("broadcast.fan_out.p99 " + getBroadcastFanOutP99() + "\n");
+            writer.write("broadcast.fan_out.max " + getBroadcastFanOutMax() + "\n");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the entries of a map to a dump, one per line, prefixed with the given name.
+     *
+     * @param writer the writer of the dump.
+     * @param name the name of the metric.
+     * @param values the values of the metric.
+     * @throws IOException if the dump cannot be written.
+     */
+
+    private static void dump(Writer writer, String name, Map<String, ? extends Number> values) throws IOException {
+        for (Map.Entry<String, ? extends Number> entry : values.entrySet())
+            writer.write(name + "." + entry.getKey() + " " + entry.getValue() + "\n");
+    }
+}
@@ -0,0 +1,204 @@
+package it.polimi.ingsw.network.server;
+
+import java.util.Map;
+
+/**
+ * The management interface of the server's metrics, as published through JMX (see {@link ServerMetrics}). The maps
+ * are keyed by message type, by connection or by stage, and the durations are in microseconds.
+ */
+
+public interface ServerMetricsMXBean {
+
+    /**
+     * Returns the number of open connections.
+     *
+     * @return the active connections.
+     */
+
+    int getActiveConnections();
+
+    /**
+     * Returns the number of existing games in each state.
+     *
+     * @return a map with the game states as keys and the number of games as values.
+     */
+
+    Map<String, Integer> getGamesByState();
+
+    /**
+     * Returns the number of games whose state is off the heap at the moment.
+     *
+     * @return the hibernated games.
+     */
+
+    int getHibernatedGames();
+
+    /**
+     * Returns the number of games that have ended with a winner (or a tie).
+     *
+     * @return the finished games.
+     */
+
+    long getGamesFinished();
+
+    /**
+     * Returns the number of games that have ended during the last whole minute.
+     *
+     * @return the games finished per minute.
+     */
+
+    long getGamesFinishedPerMinute();
+
+    /**
+     * Returns the number of games that have been interrupted, because a player has disconnected or because they have
+     * been idle for too long.
+     *
+     * @return the interrupted games.
+     */
+
+    long getGamesInterrupted();
+
+    /**
+     * Returns the number of idle games closed in each stage.
+     *
+     * @return a map with the stages as keys and the number of games closed as values.
+     */
+
+    Map<String, Long> getEvictions();
+
+    /**
+     * Returns the number of messages handled by the game controllers, by type.
+     *
+     * @return a map with the message types as keys and the counts as values.
+     */
+
+    Map<String, Long> getMessageCounts();
+
+    /**
+     * Returns the mean time the game controllers take to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the mean latencies as values.
+     */
+
+    Map<String, Long> getMessageLatencyMean();
+
+    /**
+     * Returns the median time the game controllers take to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the median latencies as values.
+     */
+
+    Map<String, Long> getMessageLatencyP50();
+
+    /**
+     * Returns the 99th percentile of the time the game controllers take to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the 99th percentiles as values.
+     */
+
+    Map<String, Long> getMessageLatencyP99();
+
+    /**
+     * Returns the longest time a game controller has taken to handle a message, by type.
+     *
+     * @return a map with the message types as keys and the maximum latencies as values.
+     */
+
+    Map<String, Long> getMessageLatencyMax();
+
+    /**
+     * Returns the number of bytes received, by message type.
+     *
+     * @return a map with the message types as keys and the bytes as values.
+     */
+
+    Map<String, Long> getBytesReceivedByType();
+
+    /**
+     * Returns the number of messages received, by type.
+     *
+     * @return a map with the message types as keys and the frames as values.
+     */
+
+    Map<String, Long> getFramesReceivedByType();
+
+    /**
+     * Returns the number of bytes sent, by message type.
+     *
+     * @return a map with the message types as keys and the bytes as values.
+     */
+
+    Map<String, Long> getBytesSentByType();
+
+    /**
+     * Returns the number of messages sent, by type.
+     *
+     * @return a map with the message types as keys and the frames as values.
+     */
+
+    Map<String, Long> getFramesSentByType();
+
+    /**
+     * Returns the number of bytes received from each open connection.
+     *
+     * @return a map with the connections as keys and the bytes as values.
+     */
+
+    Map<String, Long> getBytesReceivedByConnection();
+
+    /**
+     * Returns the number of bytes sent to each open connection.
+     *
+     * @return a map with the connections as keys and the bytes as values.
+     */
+
+    Map<String, Long> getBytesSentByConnection();
+
+    /**
+     * Returns the number of messages received from each open connection.
+     *
+     * @return a map with the connections as keys and the frames as values.
+     */
+
+    Map<String, Long> getFramesReceivedByConnection();
+
+    /**
+     * Returns the number of messages sent to each open connection.
+     *
+     * @return a map with the connections as keys and the frames as values.
+     */
+
+    Map<String, Long> getFramesSentByConnection();
+
+    /**
+     * Returns the number of broadcasts made by the game controllers.
+     *
+     * @return the broadcasts.
+     */
+
+    long getBroadcastCount();
+
+    /**
+     * Returns the mean time a broadcast takes to hand a message to all the players of a game.
+     *
+     * @return the mean fan-out time.
+     */
+
+    long getBroadcastFanOutMean();
+
+    /**
+     * Returns the 99th percentile of the time a broadcast takes to hand a message to all the players of a game.
+     *
+     * @return the 99th percentile of the fan-out time.
+     */
+
+    long getBroadcastFanOutP99();
+
+    /**
+     * Returns the longest time a broadcast has taken to hand a message to all the players of a game.
+     *
+     * @return the maximum fan-out time.
+     */
+
+    long getBroadcastFanOutMax();
+}
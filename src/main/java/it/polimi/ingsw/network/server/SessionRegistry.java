@@ -0,0 +1,172 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the logged clients and of the games they are playing. Every relation the server needs is kept in
+ * its own concurrent map, in both directions where needed, so that routing a message or handling a disconnection
+ * takes constant time no matter how many clients and games there are.
+ */
+
+public class SessionRegistry {
+
+    private final Map<String, ClientHandler> clientHandlers;
+    private final Map<ClientHandler, String> nicknames;
+    private final Map<String, Integer> gameIDs;
+    private final Map<Integer, GameController> gameControllers;
+
+    /**
+     * SessionRegistry constructor.
+     */
+
+    public SessionRegistry() {
+        this.clientHandlers = new ConcurrentHashMap<>();
+        this.nicknames = new ConcurrentHashMap<>();
+        this.gameIDs = new ConcurrentHashMap<>();
+        this.gameControllers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a client with the given nickname, unless the nickname is already taken.
+     *
+     * @param nickname the nickname chosen by the client.
+     * @param clientHandler the {@link ClientHandler} of the client.
+     * @return {@code true} if the client has been registered, {@code false} if the nickname is already taken.
+     */
+
+    public boolean addClient(String nickname, ClientHandler clientHandler) {
+        if (clientHandlers.putIfAbsent(nickname, clientHandler) != null)
+            return false;
+        nicknames.put(clientHandler, nickname);
+        return true;
+    }
+
+    /**
+     * Unregisters a client, together with the game it was associated to.
+     *
+     * @param nickname the nickname of the client.
+     */
+
+    public void removeClient(String nickname) {
+        ClientHandler clientHandler = clientHandlers.remove(nickname);
+        if (clientHandler != null)
+            nicknames.remove(clientHandler, nickname);
+        gameIDs.remove(nickname);
+    }
+
+    /**
+     * Returns the handler of the client with the given nickname.
+     *
+     * @param nickname the nickname of the client.
+     * @return the {@link ClientHandler}, or {@code null} if there is no such client.
+     */
+
+    public ClientHandler getClientHandler(String nickname) {
+        return clientHandlers.get(nickname);
+    }
+
+    /**
+     * Returns the nickname a client has logged in with.
+     *
+     * @param clientHandler the {@link ClientHandler} of the client.
+     * @return the nickname, or {@code null} if the client has not logged in (yet).
+     */
+
+    public String getNickname(ClientHandler clientHandler) {
+        return nicknames.get(clientHandler);
+    }
+
+    /**
+     * Returns the map of the logged clients.
+     *
+     * @return a live view of the clients, by nickname.
+     */
+
+    public Map<String, ClientHandler> getClientHandlers() {
+        return clientHandlers;
+    }
+
+    /**
+     * Registers a new game.
+     *
+     * @param gameID the ID of the game.
+     * @param gameController the {@link GameController} of the game.
+     * @return {@code true} if the game has been registered, {@code false} if the ID is already taken.
+     */
+
+    public boolean addGame(int gameID, GameController gameController) {
+        return gameControllers.putIfAbsent(gameID, gameController) == null;
+    }
+
+    /**
+     * Unregisters a game, dropping the association of its players to it.
+     *
+     * @param gameID the ID of the game.
+     * @param players the nicknames of the players of the game.
+     */
+
+    public void removeGame(int gameID, Collection<String> players) {
+        gameControllers.remove(gameID);
+        for (String player : players)
+            gameIDs.remove(player, gameID);
+    }
+
+    /**
+     * Returns the controller of the game with the given ID.
+     *
+     * @param gameID the ID of the game.
+     * @return the {@link GameController}, or {@code null} if there is no such game.
+     */
+
+    public GameController getGameController(int gameID) {
+        return gameControllers.get(gameID);
+    }
+
+    /**
+     * Returns the map of the existing games.
+     *
+     * @return a live view of the game controllers, by game ID.
+     */
+
+    public Map<Integer, GameController> getGameControllers() {
+        return gameControllers;
+    }
+
+    /**
+     * Associates a player to the game it has joined.
+     *
+     * @param nickname the nickname of the player.
+     * @param gameID the ID of the game.
+     */
+
+    public void joinGame(String nickname, int gameID) {
+        gameIDs.put(nickname, gameID);
+    }
+
+    /**
+     * Drops the association of a player to the game it has left.
+     *
+     * @param nickname the nickname of the player.
+     */
+
+    public void leaveGame(String nickname) {
+        gameIDs.remove(nickname);
+    }
+
+    /**
+     * Returns the ID of the game a player has joined.
+     *
+     * @param nickname the nickname of the player.
+     * @return the game ID, or -1 if the player is not in any game.
+     */
+
+    public int getGameID(String nickname) {
+        if (nickname == null)
+            return -1;
+        return gameIDs.getOrDefault(nickname, -1);
+    }
+}
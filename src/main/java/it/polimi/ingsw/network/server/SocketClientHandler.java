@@ -3,16 +3,17 @@ package it.polimi.ingsw.network.server;
 import it.polimi.ingsw.controller.GameController;
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.network.client.SocketClient;
-import it.polimi.ingsw.network.message.Message;
-import it.polimi.ingsw.network.message.MessageType;
+import it.polimi.ingsw.network.message.*;
 import it.polimi.ingsw.view.VirtualView;
 import it.polimi.ingsw.network.client.Client;
 
-import java.io.EOFException;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.*;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ClientHandler implementation that handles the communication between a Client and the Server.
@@ -22,11 +23,20 @@ public class SocketClientHandler implements ClientHandler, Runnable{
 
     private final Socket client;
     private final SocketServer socketServer;
-    private boolean connected;
-    private final Object inputLock;
-    private final Object outputLock;
-    private ObjectOutputStream out;
+    private final AtomicBoolean connected;
+    private volatile long lastSeen;
+    private final ReentrantLock inputLock;
+    private final ReentrantLock outputLock;
+    private final OutboundQueue<ByteBuffer> outbound;
+    private final ConnectionStats connectionStats;
+    private final ServerMetrics metrics;
+    private OutputStream out;
     private ObjectInputStream in;
+    private CountingInputStream countingIn;
+    private volatile boolean binaryProtocol;
+    private boolean binaryOutput;
+    private DataInputStream binaryIn;
+    private CountingInputStream countingBinaryIn;
     private VirtualView virtualView;
 
     /**
@@ -39,12 +49,21 @@ public class SocketClientHandler implements ClientHandler, Runnable{
     public SocketClientHandler(SocketServer socketServer, Socket client) {
         this.socketServer = socketServer;
         this.client = client;
-        this.connected = true;
-        this.inputLock = new Object();
-        this.outputLock = new Object();
+        this.connected = new AtomicBoolean(true);
+        this.lastSeen = System.currentTimeMillis();
+        this.binaryProtocol = false;
+        this.binaryOutput = false;
+        // explicit locks rather than monitors: a virtual thread blocked on I/O while holding a monitor would pin its
+        // carrier thread, while with a ReentrantLock it simply unmounts
+        this.inputLock = new ReentrantLock();
+        this.outputLock = new ReentrantLock();
+        this.outbound = socketServer.getServer().newOutboundQueue(this::onSlowConsumer);
+        this.connectionStats = new ConnectionStats();
+        this.metrics = socketServer.getServer().getMetrics();
         try {
-            this.out = new ObjectOutputStream(client.getOutputStream());
-            this.in = new ObjectInputStream(client.getInputStream());
+            this.out = new BufferedOutputStream(client.getOutputStream());
+            // from now on, messages are written as pre-encoded bytes: the object stream is only needed for its header
+            new ObjectOutputStream(out).flush();
         } catch (IOException ex) {
             Server.LOGGER.severe("Error from socketClientHandler"+ ex.getClass().getSimpleName()
                     + ": " + ex.getMessage());
@@ -106,16 +125,32 @@ public class SocketClientHandler implements ClientHandler, Runnable{
     public void handleClientConnection() throws IOException {
         Server.LOGGER.info("Client connected from " + client.getInetAddress());
         try{
-            while(!Thread.currentThread().isInterrupted() && client.getInetAddress().isReachable(10000)) {
-                synchronized (inputLock) {
-                    if (in != null && connected) {
+            // reading the stream header blocks until the client sends it, so it is done here rather than on the
+            // accepting thread
+            countingIn = new CountingInputStream(client.getInputStream());
+            in = new ObjectInputStream(countingIn);
+            in.setObjectInputFilter(ObjectStreamDecoder.CLIENT_FILTER);
+            while(!Thread.currentThread().isInterrupted() && connected.get()) {
+                inputLock.lock();
+                try {
+                    if (in != null && connected.get()) {
                         Message message;
-                        message = (Message) in.readObject();
+                        long before = binaryProtocol ? countingBinaryIn.getCount() : countingIn.getCount();
+                        message = binaryProtocol ? MessageCodec.readClientFrame(binaryIn) : readObjectMessage();
+                        lastSeen = System.currentTimeMillis();
+                        // the object stream reads ahead, so its sizes are only exact on average
+                        long size = (binaryProtocol ? countingBinaryIn.getCount() : countingIn.getCount()) - before;
+                        metrics.received(connectionStats, message.getMessageType(), size);
+                        if (message.getMessageType() == MessageType.PONG)
+                            continue;
                         Server.LOGGER.info("Message: " + message.getClass().getSimpleName());
                         if (message.getMessageType() == MessageType.LOGIN_REQUEST) {
+                            if (((LoginRequest) message).isBinaryProtocol() && !binaryProtocol)
+                                switchToBinaryProtocol();
                             try {
                                 socketServer.addClient(message.getNickname(), this);
-                                virtualView.showExistingGames(socketServer.getServer().getGameControllerMap());
+                                if(!socketServer.getServer().resumeGame(message.getNickname()))
+                                    virtualView.showExistingGames(socketServer.getServer().getLobby());
                             } catch (TryAgainException e) {
                                 Server.LOGGER.warning("Nickname has already been chosen.");
                                 virtualView.showGenericMessage("Nickname has already been chosen.");
@@ -126,18 +161,90 @@ public class SocketClientHandler implements ClientHandler, Runnable{
                             socketServer.getMessage(message);
                         }
                     }
+                } finally {
+                    inputLock.unlock();
                 }
             }
         }
         catch(EOFException ignored){}
         catch(IOException | ClassNotFoundException ex){
-            Server.LOGGER.severe("Invalid stream from client. \n" +
-                    ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            if(connected.get())
+                Server.LOGGER.severe("Invalid stream from client. \n" +
+                        ex.getClass().getSimpleName() + ": " + ex.getMessage());
         } finally {
             disconnect();
         }
     }
 
+    /**
+     * Writes the queued messages to the client, one at a time, until the connection is closed. This is the only
+     * method that writes on the socket, so a client that reads slowly only holds back its own writer.
+     */
+
+    public void writeQueuedMessages() {
+        try {
+            WritableByteChannel channel = Channels.newChannel(out);
+            ByteBuffer bytes;
+            while ((bytes = outbound.take()) != null) {
+                while (bytes.hasRemaining())
+                    channel.write(bytes);
+                if (outbound.size() == 0)
+                    out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            if (connected.get())
+                Server.LOGGER.severe(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+        }
+        disconnect();
+    }
+
+    /**
+     * Reads the next message of the object stream, which must be a message a client may send.
+     *
+     * @return the received {@link Message}.
+     * @throws IOException if the stream cannot be read, or holds anything but a message a client may send.
+     * @throws ClassNotFoundException if the class of the received object cannot be found.
+     */
+
+    private Message readObjectMessage() throws IOException, ClassNotFoundException {
+        Object object = in.readObject();
+        if (!(object instanceof Message message))
+            throw new StreamCorruptedException("Not a message: " +
+                    (object == null ? "null" : object.getClass().getName()));
+        MessageCodec.checkFromClient(message.getMessageType());
+        return message;
+    }
+
+    /**
+     * Confirms to the client that the binary protocol will be used, then switches the incoming direction of the
+     * connection from the object stream to {@link MessageCodec} frames. The outgoing direction switches right after
+     * the confirmation, so the messages queued before it are still sent as objects.
+     *
+     * @throws IOException if the confirmation cannot be received by the client.
+     */
+
+    private void switchToBinaryProtocol() throws IOException {
+        sendMessage(new BinaryProtocolMessage());
+        binaryProtocol = true;
+        InputStream rawIn = client.getInputStream();
+        MessageCodec.skipObjectStreamReset(rawIn);
+        countingBinaryIn = new CountingInputStream(new BufferedInputStream(rawIn));
+        binaryIn = new DataInputStream(countingBinaryIn);
+        Server.LOGGER.info("Client " + client.getInetAddress() + " switched to the binary protocol.");
+    }
+
+    /**
+     * Disconnects the client when it does not read the messages sent to it fast enough.
+     */
+
+    private void onSlowConsumer() {
+        Server.LOGGER.severe("Client " + client.getInetAddress() + " disconnected: " + outbound.size() +
+                " messages still waiting to be sent.");
+        disconnect();
+    }
+
     /**
      * Returns a flag that indicates if the {@link SocketClient} is still connected.
      *
@@ -146,16 +253,19 @@ public class SocketClientHandler implements ClientHandler, Runnable{
 
     @Override
     public boolean isConnected() {
-        return this.connected;
+        return connected.get();
     }
 
     /**
-     * {@link SocketClientHandler} disconnection method.
+     * {@link SocketClientHandler} disconnection method. Closing the socket makes the reader's blocking read fail, and
+     * closing the outbound queue wakes the writer up, so both threads of the connection stop on their own: the calling
+     * thread, which can be the server's timer or a game lane, is never interrupted.
      */
 
     @Override
     public void disconnect() {
-        if (connected) {
+        // the reader, the writer, the timers and the lanes may all get here: only the first one goes on
+        if (connected.compareAndSet(true, false)) {
             try {
                 if (!client.isClosed()) {
                     client.close();
@@ -163,50 +273,88 @@ public class SocketClientHandler implements ClientHandler, Runnable{
             } catch (IOException ex) {
                 Server.LOGGER.severe(ex.getClass().getSimpleName() + ": " + ex.getMessage());
             }
-            connected = false;
-            Thread.currentThread().interrupt();
+            outbound.close();
             socketServer.onDisconnect(this);
         }
     }
 
     /**
-     * Sends a message to the associated {@link SocketClient}.
+     * Queues a message for the associated {@link SocketClient}; the writer will send it as soon as the client can
+     * receive it, so the calling thread never blocks on the network.
      *
      * @param message the message to be sent.
      */
 
     @Override
     public void sendMessage(Message message) {
+        sendMessage(new EncodedMessage(message));
+    }
+
+    /**
+     * Queues an already encoded message for the associated {@link SocketClient}. The bytes are taken, in the format
+     * the connection is using, on the calling thread, so a message referring to the model captures its current state.
+     *
+     * @param message the message to be sent.
+     */
+
+    @Override
+    public void sendMessage(EncodedMessage message) {
+        outputLock.lock();
         try {
-            synchronized (outputLock) {
-                out.writeObject(message);
-                out.reset();
-                Server.LOGGER.info("Sent: "+message.getClass().getSimpleName());
-            }
-        } catch (IOException ex) {
-            Server.LOGGER.severe(ex.getClass().getSimpleName() + ": " + ex.getMessage());
-            disconnect();
+            ByteBuffer bytes = message.getBytes(binaryOutput);
+            // counted before queueing, since the writer starts consuming the buffer right away
+            metrics.sent(connectionStats, message.getMessage().getMessageType(), bytes.remaining());
+            outbound.add(bytes);
+            if (message.getMessage().getMessageType() == MessageType.BINARY_PROTOCOL)
+                binaryOutput = true;
+        } finally {
+            outputLock.unlock();
         }
+        Server.LOGGER.info("Sent: " + message.getMessage().getClass().getSimpleName());
     }
 
     /**
-     * Sends a message to the associated {@link SocketClient}, and quits the ended match.
+     * Queues a message for the associated {@link SocketClient}, and quits the ended match.
      *
      * @param message the message to be sent.
      */
 
     @Override
     public void sendMessageAndQuit(Message message) {
-        try {
-            synchronized (outputLock) {
-                out.writeObject(message);
-                out.reset();
-                Server.LOGGER.info("Sent: "+message.getClass().getSimpleName());
-                socketServer.onQuit(this);
-            }
-        } catch (IOException ex) {
-            Server.LOGGER.severe(ex.getClass().getSimpleName() + ": " + ex.getMessage());
-            disconnect();
-        }
+        sendMessage(message);
+        socketServer.onQuit(this);
+    }
+
+    /**
+     * Returns the number of messages waiting to be written to the associated {@link SocketClient}.
+     *
+     * @return the depth of the outbound queue.
+     */
+
+    @Override
+    public int getOutboundQueueDepth() {
+        return outbound.size();
+    }
+
+    /**
+     * Returns the last time a message was received from the associated {@link SocketClient}.
+     *
+     * @return the time, in milliseconds, of the latest message received.
+     */
+
+    @Override
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * Returns the traffic of the connection with the associated {@link SocketClient}.
+     *
+     * @return the {@link ConnectionStats} of the connection.
+     */
+
+    @Override
+    public ConnectionStats getConnectionStats() {
+        return connectionStats;
     }
 }
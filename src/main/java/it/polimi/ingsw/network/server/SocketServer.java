@@ -3,15 +3,13 @@ package it.polimi.ingsw.network.server;
 import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.network.client.Client;
 import it.polimi.ingsw.network.message.Message;
-import it.polimi.ingsw.utils.Constants;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import static it.polimi.ingsw.network.server.Server.LOGGER;
 
@@ -24,25 +22,55 @@ public class SocketServer implements Runnable{
     private final Server server;
     private final int port;
     private ServerSocket serverSocket;
-    private final ScheduledExecutorService pinger;
+    private final ExecutorService handlerExecutor;
 
     /**
-     * SocketServer constructor.
+     * SocketServer constructor. Every client will be handled by a dedicated platform thread.
      *
      * @param server the {@link Server} related to the socket.
      * @param port an {@code int} representing the chosen socket's port.
      */
 
     public SocketServer(Server server, int port) {
+        this(server, port, null);
+    }
+
+    /**
+     * SocketServer constructor. Every client will be handled by a task submitted to the given executor.
+     *
+     * @param server the {@link Server} related to the socket.
+     * @param port an {@code int} representing the chosen socket's port.
+     * @param handlerExecutor the executor running the {@link SocketClientHandler}s ({@code null} to start a
+     *                        platform thread for each of them).
+     */
+
+    public SocketServer(Server server, int port, ExecutorService handlerExecutor) {
         this.server = server;
         this.port = port;
-        this.pinger = Executors.newSingleThreadScheduledExecutor();
+        this.handlerExecutor = handlerExecutor;
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread for each task. Virtual threads are available from Java 21
+     * on, so they are looked up at runtime: on older runtimes, a cached pool of platform threads is returned instead.
+     *
+     * @return the {@link ExecutorService} to run the connections with.
+     */
+
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warning("Virtual threads are not supported by this Java runtime: using platform threads.");
+            return Executors.newCachedThreadPool();
+        }
     }
 
     /**
      * Create a new {@link ServerSocket} associated to the chosen port. The threads will accept different clients
-     * (each one has its own socket). A new thread is created with the associated {@link ClientHandler}, and
-     * eventually starts to run.
+     * (each one has its own socket). Two new threads are created (or two tasks are submitted to the handler executor,
+     * if there is one) for the associated {@link ClientHandler}: one reads the incoming messages, the other writes the
+     * outgoing ones.
      */
 
     @Override
@@ -58,9 +86,9 @@ public class SocketServer implements Runnable{
             try {
                 Socket client = serverSocket.accept();
                 SocketClientHandler clientHandler = new SocketClientHandler(this, client);
-                Thread thread = new Thread(clientHandler, "ss_handler: " + client.getInetAddress());
-                thread.start();
-                pinger.scheduleAtFixedRate(this::isReachable, 0, 1000, TimeUnit.MILLISECONDS);
+                server.addConnection(clientHandler);
+                start(clientHandler, "ss_handler: " + client.getInetAddress());
+                start(clientHandler::writeQueuedMessages, "ss_writer: " + client.getInetAddress());
             } catch (IOException ex) {
                 LOGGER.severe("Connection ended.\n" + ex.getClass().getSimpleName() + ": " + ex.getMessage());
             }
@@ -68,6 +96,20 @@ public class SocketServer implements Runnable{
         LOGGER.severe("Server is offline.\n");
     }
 
+    /**
+     * Runs a task of a connection: on the handler executor if there is one, on a new platform thread otherwise.
+     *
+     * @param task the task to run.
+     * @param threadName the name of the thread, if a new one is started.
+     */
+
+    private void start(Runnable task, String threadName) {
+        if(handlerExecutor != null)
+            handlerExecutor.execute(task);
+        else
+            new Thread(task, threadName).start();
+    }
+
     /**
      * Returns the Server associated to the socket.
      *
@@ -119,24 +161,4 @@ public class SocketServer implements Runnable{
     public void onQuit(ClientHandler clientHandler){
         server.onQuit(clientHandler);
     }
-
-    /**
-     * Checks if all the clients are reachable.
-     */
-
-    public void isReachable(){
-        server.getClientHandlerMap().forEach( (name, clientHandler) -> {
-            try {
-                boolean reachable;
-                reachable = clientHandler.getSocketClient().getInetAddress().isReachable(Constants.CONNECTION_TIMEOUT_SERVER);
-                if(!reachable){
-                    LOGGER.severe(name + " disconnected: connection timed out");
-                    onDisconnect(clientHandler);
-                }
-            } catch (IOException e) {
-                LOGGER.severe("Something went wrong.\n" + e.getClass().getSimpleName() + ": " + e.getMessage());
-                throw new RuntimeException(e);
-            }
-        });
-    }
 }
@@ -0,0 +1,120 @@
+package it.polimi.ingsw.network.server;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel: a ring of slots, each one covering a tick of time, where every scheduled item is put in the
+ * slot of its deadline. Advancing the wheel only looks at the slots of the ticks that have passed, so the cost of
+ * keeping thousands of deadlines does not depend on how many of them there are, but only on how many expire. An item
+ * whose deadline is more than a whole turn of the wheel away just stays in its slot for the turns in between.
+ * Items can be scheduled from any thread, while the wheel is advanced by a single one.
+ *
+ * @param <T> the type of the scheduled items.
+ */
+
+public class TimingWheel<T> {
+
+    /**
+     * An item waiting in the wheel.
+     *
+     * @param item the scheduled item.
+     * @param deadline the time, in milliseconds, the item expires at.
+     */
+
+    private record Timeout<T>(T item, long deadline) {}
+
+    private final long tick;
+    private final List<List<Timeout<T>>> slots;
+    private final Queue<Timeout<T>> scheduled; // the items not in a slot yet
+    private long currentTick;
+
+    /**
+     * TimingWheel constructor.
+     *
+     * @param tick the time, in milliseconds, covered by each slot: deadlines are rounded up to a whole tick.
+     * @param size the number of slots of the wheel.
+     * @param now the current time, in milliseconds.
+     */
+
+    public TimingWheel(long tick, int size, long now) {
+        if (tick <= 0 || size <= 0)
+            throw new IllegalArgumentException("The tick and the size of the wheel must be positive.");
+        this.tick = tick;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            slots.add(new ArrayList<>());
+        this.scheduled = new ConcurrentLinkedQueue<>();
+        this.currentTick = now / tick;
+    }
+
+    /**
+     * Returns the time covered by each slot.
+     *
+     * @return the tick of the wheel, in milliseconds.
+     */
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Schedules an item to expire at the given time. It can be called from any thread.
+     *
+     * @param item the item to schedule.
+     * @param deadline the time, in milliseconds, the item expires at.
+     */
+
+    public void schedule(T item, long deadline) {
+        scheduled.add(new Timeout<>(item, deadline));
+    }
+
+    /**
+     * Moves the wheel forward to the given time, handing the items whose deadline has passed to the given action.
+     * It must always be called by the same thread.
+     *
+     * @param now the current time, in milliseconds.
+     * @param expired the action to run on each expired item.
+     */
+
+    public void advance(long now, Consumer<T> expired) {
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            // a deadline in a tick that has already been handled goes to the next one
+            long deadlineTick = Math.max((timeout.deadline() + tick - 1) / tick, currentTick + 1);
+            slots.get((int) (deadlineTick % slots.size())).add(timeout);
+        }
+        long nowTick = now / tick;
+        // after a long pause, a single turn of the wheel visits every slot
+        long lastTick = Math.min(nowTick, currentTick + slots.size());
+        while (currentTick < lastTick) {
+            currentTick++;
+            Iterator<Timeout<T>> iterator = slots.get((int) (currentTick % slots.size())).iterator();
+            while (iterator.hasNext()) {
+                timeout = iterator.next();
+                if (timeout.deadline() <= now) {
+                    iterator.remove();
+                    expired.accept(timeout.item());
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    /**
+     * Returns the number of items waiting in the wheel. It must be called by the thread advancing the wheel.
+     *
+     * @return the number of scheduled items.
+     */
+
+    public int size() {
+        int size = scheduled.size();
+        for (List<Timeout<T>> slot : slots)
+            size += slot.size();
+        return size;
+    }
+}
@@ -10,6 +10,20 @@ public class Constants implements Serializable {
 
     public static final int CONNECTION_TIMEOUT_SERVER = 10000;
     public static final int CONNECTION_TIMEOUT_CLIENT = 12000;
+    public static final int HEARTBEAT_INTERVAL = 2000;
+    public static final int OUTBOUND_HARD_LIMIT = 1024;
+    public static final int OUTBOUND_HIGH_WATERMARK = 256;
+    public static final int OUTBOUND_LOW_WATERMARK = 64;
+    public static final int SLOW_CONSUMER_TIMEOUT = 10000;
+    public static final int JOURNAL_FORCE_INTERVAL = 100;
+    public static final int SNAPSHOT_ROUNDS = 2;
+    public static final int HIBERNATION_IDLE_TIME = 300000;
+    public static final int REAPER_TICK = 1000;
+    public static final int EMPTY_LOBBY_LIFETIME = 60000;
+    public static final int LOBBY_LIFETIME = 900000;
+    public static final int GAME_LIFETIME = 3600000;
+    public static final int RECOVERED_GAME_LIFETIME = 900000;
+    public static final int METRICS_DUMP_INTERVAL = 60000;
 
     public static final int CHARACTERS_NUM = 3;
     public static final int NUM_COLORS = 5;
@@ -1,10 +1,10 @@
 package it.polimi.ingsw.view;
 
-import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameSummary;
 import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.GameBoard;
 
-import java.util.Map;
+import java.util.List;
 
 /**
  * This interface defines a generic view to be implemented by each view type (e.g. CLI, GUI in JavaFX, ...).
@@ -99,7 +99,7 @@ public interface View {
      * Shows to the client the existing games they may join.
      */
 
-    void showExistingGames(Map<Integer, GameController> existingGames);
+    void showExistingGames(List<GameSummary> existingGames);
 
     /**
      * Shows to the client the latest Assistant Cards played, the Game Board and the players' order.
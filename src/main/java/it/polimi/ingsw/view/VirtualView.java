@@ -1,13 +1,14 @@
 package it.polimi.ingsw.view;
 
-import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameSummary;
 import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.GameBoard;
+import it.polimi.ingsw.model.GameDelta;
 import it.polimi.ingsw.network.message.*;
 import it.polimi.ingsw.network.server.ClientHandler;
 import it.polimi.ingsw.observers.Observer;
 
-import java.util.Map;
+import java.util.List;
 
 /**
  * This class hides the network implementation from the controller.
@@ -43,7 +44,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askNickname() {
-        clientHandler.sendMessage(new AskMessage(AskType.NICKNAME_NOT_UNIQUE));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.NICKNAME_NOT_UNIQUE));
     }
 
     /**
@@ -52,7 +53,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askCreateOrJoin() {
-        clientHandler.sendMessage(new AskMessage(AskType.GAME_ID));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.GAME_ID));
     }
 
     /**
@@ -61,7 +62,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askGameInfo() {
-        clientHandler.sendMessage(new AskMessage(AskType.GAME_ID));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.GAME_ID));
     }
 
     /**
@@ -71,7 +72,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askGameNumber() {
-        clientHandler.sendMessage(new AskMessage(AskType.GAME_ID));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.GAME_ID));
     }
 
     /**
@@ -81,7 +82,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askWizardID() {
-        clientHandler.sendMessage(new AskMessage(AskType.WIZARD_ID));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.WIZARD_ID));
     }
 
     /**
@@ -90,7 +91,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askAssistantCard() {
-        clientHandler.sendMessage(new AskMessage(AskType.ASSISTANT_CARD));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.ASSISTANT_CARD));
     }
 
     /**
@@ -99,7 +100,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askMoveStudent() {
-        clientHandler.sendMessage(new AskMessage(AskType.MOVE_STUDENT));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.MOVE_STUDENT));
     }
 
     /**
@@ -108,7 +109,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askMotherNatureSteps() {
-        clientHandler.sendMessage(new AskMessage(AskType.MOVE_MOTHER_NATURE));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.MOVE_MOTHER_NATURE));
     }
 
     /**
@@ -117,7 +118,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askCloud() {
-        clientHandler.sendMessage(new AskMessage(AskType.CLOUD_CHOICE));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.CLOUD_CHOICE));
     }
 
     /**
@@ -126,7 +127,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askCharacterCard() {
-        clientHandler.sendMessage(new AskMessage(AskType.CHARACTER_CARD));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.CHARACTER_CARD));
     }
 
     /**
@@ -135,7 +136,7 @@ public class VirtualView implements View, Observer {
 
     @Override
     public void askAction() {
-        clientHandler.sendMessage(new AskMessage(AskType.ACTION_CHOICE));
+        clientHandler.sendMessage(EncodedMessage.ask(AskType.ACTION_CHOICE));
     }
 
     /**
@@ -154,7 +155,7 @@ public class VirtualView implements View, Observer {
      */
 
     @Override
-    public void showExistingGames(Map<Integer, GameController> existingGames) {
+    public void showExistingGames(List<GameSummary> existingGames) {
         clientHandler.sendMessage(new ShowExistingGamesMessage(existingGames));
     }
 
@@ -188,6 +189,30 @@ public class VirtualView implements View, Observer {
     @Override
     public void showDeck(Game game) { clientHandler.sendMessage(new ShowDeckMessage(game)); }
 
+    /**
+     * Sends to the client a full, versioned copy of the game, which the following deltas will be based on.
+     *
+     * @param game the game whose status needs to be shown.
+     * @param version the version of the game state.
+     */
+
+    public void showGameStatus(Game game, long version) {
+        clientHandler.sendMessage(new GameStatusMessage(game, version));
+    }
+
+    /**
+     * Sends to the client the changes to apply to its copy of the game.
+     *
+     * @param baseVersion the version of the game state the changes apply to.
+     * @param version the version of the game state after the changes.
+     * @param delta the changes.
+     * @param display the type of message whose view has to be shown after applying the changes, or {@code null}.
+     */
+
+    public void showGameDelta(long baseVersion, long version, GameDelta delta, MessageType display) {
+        clientHandler.sendMessage(new GameDeltaMessage(baseVersion, version, delta, display));
+    }
+
     /**
      * Shows a disconnection message to the client.
      *
@@ -219,6 +244,16 @@ public class VirtualView implements View, Observer {
         clientHandler.sendMessage(new UpdateMessage(s));
     }
 
+    /**
+     * Sends an already encoded message to the client; used to broadcast a message encoded once for all the players.
+     *
+     * @param message the {@link EncodedMessage} to send.
+     */
+
+    public void sendEncoded(EncodedMessage message) {
+        clientHandler.sendMessage(message);
+    }
+
     /**
      * Closes the client's app.
      */
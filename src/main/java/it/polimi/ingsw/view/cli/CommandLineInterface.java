@@ -1,7 +1,8 @@
 package it.polimi.ingsw.view.cli;
 
 import it.polimi.ingsw.controller.ClientController;
-import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameState;
+import it.polimi.ingsw.controller.GameSummary;
 import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.GameBoard;
 import it.polimi.ingsw.observers.ViewObservable;
@@ -567,25 +568,20 @@ public class CommandLineInterface extends ViewObservable implements View {
      */
 
     @Override
-    public void showExistingGames(Map<Integer, GameController> existingGames) {
+    public void showExistingGames(List<GameSummary> existingGames) {
         if(existingGames.isEmpty())
             out.println("No games have been created yet.");
         else {
             out.println("Existing games list: ");
-            for(Map.Entry<Integer, GameController> entry : existingGames.entrySet()) {
-                Integer key = entry.getKey();
-                GameController value = entry.getValue();
-                out.print("- "+key+": ");
-                List<String> players = value.getGameQueue();
-                for(int i = 0; i < players.size() - 1; i++){
-                    out.print(players.get(i) + ", ");
-                }
-                try {
-                    if (players.size() == value.getGame().getPlayersNumber())
-                        out.println(players.get(players.size() - 1) + " (FULL)");
-                    else
-                        out.println(players.get(players.size() - 1) + " (WAITING FOR PLAYERS TO JOIN)");
-                }catch (IndexOutOfBoundsException e){out.println("WAITING FOR PLAYERS TO JOIN");}
+            for(GameSummary summary : existingGames) {
+                out.print("- " + summary.gameID() + ": " + summary.seatsTaken() + "/" + summary.capacity() +
+                        " players, " + (summary.expertMode() ? "Expert" : "Normal") + " mode");
+                if(summary.gameState() == GameState.IN_GAME)
+                    out.println(" (IN GAME)");
+                else if(summary.isFull())
+                    out.println(" (FULL)");
+                else
+                    out.println(" (WAITING FOR PLAYERS TO JOIN)");
             }
         }
         askCreateOrJoin();
@@ -1,16 +1,15 @@
 package it.polimi.ingsw.view.gui;
 
-import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameState;
+import it.polimi.ingsw.controller.GameSummary;
 import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.GameBoard;
-import it.polimi.ingsw.model.Player;
 import it.polimi.ingsw.observers.ViewObservable;
 import it.polimi.ingsw.view.View;
 import it.polimi.ingsw.view.gui.scenecontrollers.GameBoardSceneController;
 import javafx.application.Platform;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * This class offers a User Interface via GUI. It is an implementation of the {@link View}.
@@ -211,7 +210,7 @@ public class GraphicalUserInterface extends ViewObservable implements View {
      */
 
     @Override
-    public void showExistingGames(Map<Integer, GameController> existingGames) {
+    public void showExistingGames(List<GameSummary> existingGames) {
         askCreateOrJoin();
         Platform.runLater(()-> sceneController.showAlert(printExistingGames(existingGames)));
     }
@@ -286,30 +285,25 @@ public class GraphicalUserInterface extends ViewObservable implements View {
      * Prints onto an alert the list of existing games, along with the clients associated to them and the information
      * about its setup status (accepting players / full).
      *
-     * @param existingGames a map containing the existing game IDs as keys and the associated game controller as values.
+     * @param existingGames a list containing the summaries of the existing games.
      * @return the text to print.
      */
 
-    public String printExistingGames(Map<Integer, GameController> existingGames){
+    public String printExistingGames(List<GameSummary> existingGames){
         String str = "";
         if(existingGames.isEmpty())
             str = "No games have been created yet.";
         else {
             str = str.concat("Existing games list: \n");
-            for(Map.Entry<Integer, GameController> entry : existingGames.entrySet()) {
-                Integer key = entry.getKey();
-                GameController value = entry.getValue();
-                str = str.concat("- "+key+": ");
-                List<Player> players = value.getGame().getPlayers();
-                for(int i = 0; i < players.size() - 1; i++){
-                   str = str.concat(players.get(i).getNickname() + ", ");
-                }
-                try {
-                    if (players.size() == value.getGame().getPlayersNumber())
-                        str = str.concat(players.get(players.size() - 1).getNickname() + " (FULL)\n");
-                    else
-                        str = str.concat(players.get(players.size() - 1).getNickname() + " (WAITING FOR PLAYERS TO JOIN)\n");
-                }catch(IndexOutOfBoundsException e){str = str.concat("NO PLAYERS IN GAME YET\n");}
+            for(GameSummary summary : existingGames) {
+                str = str.concat("- " + summary.gameID() + ": " + summary.seatsTaken() + "/" + summary.capacity() +
+                        " players, " + (summary.expertMode() ? "Expert" : "Normal") + " mode");
+                if(summary.gameState() == GameState.IN_GAME)
+                    str = str.concat(" (IN GAME)\n");
+                else if(summary.isFull())
+                    str = str.concat(" (FULL)\n");
+                else
+                    str = str.concat(" (WAITING FOR PLAYERS TO JOIN)\n");
             }
         }
         return str;
@@ -6,6 +6,11 @@ import it.polimi.ingsw.network.message.*;
 import it.polimi.ingsw.utils.Constants;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -573,4 +578,85 @@ class GameControllerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testPrepareGameWithSeed(){
+        GameController first = new GameController();
+        GameController second = new GameController();
+        first.prepareGame(2, 42);
+        second.prepareGame(2, 42);
+
+        // the same seed draws the same students
+        assertEquals(42, first.getGame().getSeed());
+        for(int i = 0; i < 20; i++)
+            assertEquals(first.getGame().getBoard().getStudentsBag().draw().color(),
+                    second.getGame().getBoard().getStudentsBag().draw().color());
+    }
+
+    @Test
+    public void testIsWaitingForPlayers(){
+        GameController gc = new GameController();
+        gc.prepareGame(2, 7);
+        gc.addPlayerToQueue("Ludo", null);
+        gc.addPlayerToQueue("Samu", null);
+        assertFalse(gc.isWaitingForPlayers());
+
+        // a rebuilt game waits until every player of the queue is back
+        gc.getVirtualViewMap().clear();
+        assertTrue(gc.isWaitingForPlayers());
+        gc.getVirtualViewMap().put("Ludo", null);
+        assertTrue(gc.isWaitingForPlayers());
+        gc.getVirtualViewMap().put("Samu", null);
+        assertFalse(gc.isWaitingForPlayers());
+    }
+
+    @Test
+    public void testCopyAndSerialize() throws IOException, ClassNotFoundException {
+        GameController gc = new GameControllerExpertMode();
+        gc.prepareGame(2, 5);
+        gc.getGame().addPlayer(new Player(Wizard.PINK_WIZARD, "Ludo", gc.getGame().getConstants()));
+        gc.getGame().addPlayer(new Player(Wizard.BLUE_WIZARD, "Samu", gc.getGame().getConstants()));
+        gc.getGame().startGame();
+
+        // the copy is serialized without its random generator, which is restored explicitly
+        GameController copy = gc.copy();
+        assertInstanceOf(GameControllerExpertMode.class, copy);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(copy);
+        }
+        GameController read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (GameController) in.readObject();
+        }
+        read.getGame().restoreRandom(copy.getGame().getRandomState());
+        assertTrue(read.getVirtualViewMap().isEmpty());
+        assertEquals(gc.getGame().getCurrentPlayer().getNickname(), read.getGame().getCurrentPlayer().getNickname());
+        for(int i = 0; i < 20; i++)
+            assertEquals(gc.getGame().getBoard().getStudentsBag().draw().color(),
+                    read.getGame().getBoard().getStudentsBag().draw().color());
+    }
+
+    @Test
+    public void testHibernate() throws IOException {
+        GameController gc = new GameController();
+        gc.prepareGame(3, 9);
+        gc.getGame().addPlayer(new Player(Wizard.PINK_WIZARD, "Ludo", gc.getGame().getConstants()));
+        GameController twin = new GameController();
+        twin.prepareGame(3, 9);
+
+        gc.hibernate();
+        assertTrue(gc.isHibernated());
+        assertNull(gc.getGame());
+        assertTrue(gc.getHibernatedSize() > 0);
+
+        // the game comes back as it was, and draws the same students
+        gc.wakeUp();
+        assertFalse(gc.isHibernated());
+        assertEquals("Ludo", gc.getGame().getPlayers().get(0).getNickname());
+        assertEquals(9, gc.getGame().getSeed());
+        for(int i = 0; i < 20; i++)
+            assertEquals(twin.getGame().getBoard().getStudentsBag().draw().color(),
+                    gc.getGame().getBoard().getStudentsBag().draw().color());
+    }
+
+}
@@ -1,6 +1,7 @@
 package it.polimi.ingsw.model;
 
-import it.polimi.ingsw.model.charactercards.Bard;
+import it.polimi.ingsw.model.charactercards.*;
+import it.polimi.ingsw.utils.Constants;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,4 +28,42 @@ public class CharacterCardTest{
         CharacterCard characterCard = new Bard();
         assertEquals(10, characterCard.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCopy() {
+        GameExpertMode game = new GameExpertMode(2, new Constants(2));
+        StudentBag bag = game.getBoard().getStudentsBag();
+        CharacterCard[] cards = {new Monk(bag), new Innkeeper(), new Flagman(), new Postman(), new Healer(),
+                new Centaur(), new Jester(bag), new Knight(), new Villager(), new Bard(), new Princess(bag), new Thief()};
+
+        for (CharacterCard card : cards) {
+            card.setCost(card.getCost() + 1);
+            card.setIsActive(true);
+
+            CharacterCard copy = card.copy();
+
+            // every card copies itself as a card of its own kind
+            assertNotSame(card, copy);
+            assertSame(card.getClass(), copy.getClass());
+            assertEquals(card.getId(), copy.getId());
+            assertEquals(card.getHook(), copy.getHook());
+            assertEquals(card.getCost(), copy.getCost());
+            assertTrue(copy.getIsActive());
+
+            copy.setCost(10);
+            copy.setIsActive(false);
+            assertNotEquals(10, card.getCost());
+            assertTrue(card.getIsActive());
+        }
+
+        // the students on the cards are copied too
+        Monk monk = (Monk) cards[0];
+        Monk monkCopy = monk.copy();
+        assertNotSame(monk.getStudents(), monkCopy.getStudents());
+        assertArrayEquals(monk.getStudents(), monkCopy.getStudents());
+        Jester jester = (Jester) cards[6];
+        Jester jesterCopy = jester.copy();
+        jesterCopy.getStudentsOnTheCard().clear();
+        assertEquals(6, jester.getStudentsOnTheCard().size());
+    }
+}
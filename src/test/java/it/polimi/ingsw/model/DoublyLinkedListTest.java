@@ -42,4 +42,36 @@ class DoublyLinkedListTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void mergedIslandsLookupTest(){
+
+        DoublyLinkedList islands = new DoublyLinkedList();
+        Player p1 = new Player(Wizard.PINK_WIZARD, "Ludo", new Constants(2));
+
+        try{
+
+            Island island = islands.getIslandFromID(12);
+            island.setOwner(p1);
+            island.getPrev().setOwner(p1);
+            island.getNext().setOwner(p1);
+            islands.mergeIslands(island);
+
+            // island 11 and island 1 (the head) have been merged into island 12
+            assertEquals(10, islands.getSize());
+            assertEquals(10, island.getId());
+            assertSame(island, islands.getIslandFromID(10));
+            assertSame(island, islands.getIslandFromBaseID(1));
+            assertSame(island, islands.getIslandFromBaseID(11));
+            assertEquals(1, islands.getHead().getId());
+            assertEquals(2, islands.getIslandFromBaseID(3).getId());
+            for(int i = 1; i <= islands.getSize(); i++)
+                assertEquals(i, islands.getIslandFromID(i).getId());
+
+        }
+        catch(IslandNotFoundException e){
+            throw new RuntimeException(e);
+        }
+
+    }
+
+}
@@ -122,4 +122,25 @@ public class GameBoardTest{
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMoveMotherNature(){
+
+        GameBoard gameboard = new GameBoard(2, new Constants(2));
+        gameboard.setMotherNaturePos(11);
+        gameboard.moveMotherNature(1);
+        assertEquals(12, gameboard.getMotherNaturePos());
+        gameboard.moveMotherNature(3);
+        assertEquals(3, gameboard.getMotherNaturePos());
+
+        // with fewer islands than steps, Mother Nature goes around the ring more than once
+        while(gameboard.getIslands().getSize() > 4)
+            gameboard.getIslands().removeIsland(gameboard.getIslands().getHead().getPrev());
+        gameboard.setMotherNaturePos(4);
+        gameboard.moveMotherNature(4);
+        assertEquals(4, gameboard.getMotherNaturePos());
+        gameboard.moveMotherNature(7);
+        assertEquals(3, gameboard.getMotherNaturePos());
+
+    }
+
+}
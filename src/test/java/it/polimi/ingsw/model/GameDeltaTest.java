@@ -0,0 +1,136 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.*;
+import it.polimi.ingsw.utils.Constants;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GameDeltaTest {
+
+    private static Game copyOf(Game game) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Game) in.readObject();
+        }
+    }
+
+    private static GameExpertMode startedGame() {
+        GameExpertMode game = new GameExpertMode(2, new Constants(2));
+        game.addPlayer(new Player(Wizard.PINK_WIZARD, "Ludo", game.getConstants()));
+        game.addPlayer(new Player(Wizard.BLUE_WIZARD, "Matteo", game.getConstants()));
+        game.startGame();
+        return game;
+    }
+
+    @Test
+    public void noChangesGiveAnEmptyDelta() {
+        Game game = startedGame();
+        GameImage image = new GameImage(game);
+
+        assertTrue(new GameImage(game).changesSince(image).isEmpty());
+    }
+
+    @Test
+    public void studentMovesAreApplied() throws Exception {
+        Game game = startedGame();
+        Game clientGame = copyOf(game);
+        GameImage before = new GameImage(game);
+
+        Player player = game.getCurrentPlayer();
+        String color = player.getSchool().getHall().getStudents().get(0).color().toString();
+        game.playerMovesStudent(color);
+        color = player.getSchool().getHall().getStudents().get(0).color().toString();
+        game.playerMovesStudent(color, 3);
+        game.refillClouds();
+
+        GameDelta delta = new GameDelta(new GameImage(game).changesSince(before));
+        delta.applyTo(clientGame);
+
+        assertTrue(new GameImage(clientGame).changesSince(new GameImage(game)).isEmpty());
+        assertEquals(player.getSchool().getHall().getStudents().size(),
+                clientGame.getCurrentPlayer().getSchool().getHall().getStudents().size());
+    }
+
+    @Test
+    public void mergesAndOwnershipAreApplied() throws Exception {
+        Game game = startedGame();
+        Game clientGame = copyOf(game);
+        GameImage before = new GameImage(game);
+
+        Player owner = game.getPlayers().get(1);
+        Island island = game.getBoard().getIslands().getIslandFromID(5);
+        island.getPrev().setOwner(owner);
+        island.getPrev().setNumOfTowers(1);
+        island.setOwner(owner);
+        island.setNumOfTowers(1);
+        island.setHasVetoTile(true);
+        game.getBoard().setNumOfVetos(3);
+        game.getBoard().getIslands().mergeIslands(island);
+        game.getBoard().setMotherNaturePos(4);
+
+        GameDelta delta = new GameDelta(new GameImage(game).changesSince(before));
+        delta.applyTo(clientGame);
+
+        assertEquals(Constants.MAX_NUM_OF_ISLANDS - 1, clientGame.getBoard().getIslands().getSize());
+        assertEquals(owner.getNickname(), clientGame.getBoard().getIslands().getIslandFromID(4).getOwner().getNickname());
+        assertEquals(2, clientGame.getBoard().getIslands().getIslandFromID(4).getNumOfTowers());
+        assertTrue(new GameImage(clientGame).changesSince(new GameImage(game)).isEmpty());
+    }
+
+    @Test
+    public void playersOrderAndCardsAreApplied() throws Exception {
+        GameExpertMode game = startedGame();
+        Game clientGame = copyOf(game);
+        GameImage before = new GameImage(game);
+
+        game.getPlayers().get(0).playAssistantCard("TURTLE");
+        game.getPlayers().get(1).playAssistantCard("CHEETAH");
+        game.getPlayers().get(1).setCoinsWallet(4);
+        game.getPlayers().get(1).setCharacterCardAlreadyPlayed(true);
+        List<Player> newOrder = new ArrayList<>(game.getPlayers());
+        Collections.reverse(newOrder);
+        game.getPlayers().clear();
+        game.getPlayers().addAll(newOrder);
+        game.setCurrentPlayer(game.getPlayers().get(0));
+        game.setRoundNumber(2);
+        game.getCharacters()[0].setCost(game.getCharacters()[0].getCost() + 1);
+        game.getCharacters()[1].setIsActive(true);
+
+        GameDelta delta = new GameDelta(new GameImage(game).changesSince(before));
+        delta.applyTo(clientGame);
+
+        assertEquals(game.getCurrentPlayer().getNickname(), clientGame.getCurrentPlayer().getNickname());
+        assertEquals("CHEETAH", clientGame.getCurrentPlayer().getLatestAssistantCardPlayed().getName());
+        assertEquals(9, clientGame.getCurrentPlayer().getDeck().size());
+        assertEquals(4, clientGame.getCurrentPlayer().getCoinsWallet());
+        assertTrue(new GameImage(clientGame).changesSince(new GameImage(game)).isEmpty());
+    }
+
+    @Test
+    public void professorsAndTowersAreApplied() throws Exception {
+        Game game = startedGame();
+        Game clientGame = copyOf(game);
+        GameImage before = new GameImage(game);
+
+        Player player = game.getPlayers().get(0);
+        player.getSchool().getTable("RED").addStudent(new Student(Color.RED), player);
+        game.profCheck();
+        player.getSchool().getTowerRoom().setTowersLeft(player.getSchool().getTowerRoom().getTowersLeft() - 1);
+
+        GameDelta delta = new GameDelta(new GameImage(game).changesSince(before));
+        delta.applyTo(clientGame);
+
+        Player clientPlayer = clientGame.getPlayers().get(0);
+        assertTrue(clientPlayer.getSchool().getTable("RED").getHasProfessor());
+        assertEquals(1, clientPlayer.getSchool().getTable("RED").getNumOfStudents());
+        assertTrue(new GameImage(clientGame).changesSince(new GameImage(game)).isEmpty());
+    }
+}
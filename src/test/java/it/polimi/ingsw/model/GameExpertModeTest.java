@@ -3,10 +3,12 @@ package it.polimi.ingsw.model;
 import it.polimi.ingsw.model.charactercards.Bard;
 import it.polimi.ingsw.model.charactercards.Centaur;
 import it.polimi.ingsw.model.charactercards.Flagman;
+import it.polimi.ingsw.model.charactercards.Innkeeper;
 import it.polimi.ingsw.exceptions.FullTableException;
 import it.polimi.ingsw.exceptions.InvalidNumberOfStepsException;
 import it.polimi.ingsw.exceptions.IslandNotFoundException;
 import it.polimi.ingsw.exceptions.NonExistentColorException;
+import it.polimi.ingsw.exceptions.TryAgainException;
 import it.polimi.ingsw.utils.Constants;
 import org.junit.jupiter.api.Test;
 
@@ -106,6 +108,50 @@ class GameExpertModeTest {
 
     }
 
+    @Test
+    public void testProfCheckInnkeeperExistingTie() throws TryAgainException {
+
+        /*
+            This test verifies that the Innkeeper lets the current player claim a professor tied before the card is
+            played, even if no student of that color has been moved since the tie was last checked
+         */
+
+        GameExpertMode g1 = new GameExpertMode(2, new Constants(2));
+        Player p1 = new Player(Wizard.PINK_WIZARD, "Ludo", g1.getConstants());
+        Player p2 = new Player(Wizard.BLUE_WIZARD, "Matteo", g1.getConstants());
+
+        CharacterCard[] cards = new CharacterCard[Constants.CHARACTERS_NUM];
+        cards[0] = new Bard();
+        cards[1] = new Innkeeper();
+        cards[2] = new Flagman();
+        g1.addCharacterCards(cards);
+
+        g1.addPlayer(p1);
+        g1.addPlayer(p2);
+        g1.setCurrentPlayer(p1);
+
+        new Student(Color.GREEN).moveToTable(p2);
+        new Student(Color.GREEN).moveToTable(p2);
+        g1.profCheck();
+
+        new Student(Color.GREEN).moveToTable(p1);
+        new Student(Color.GREEN).moveToTable(p1);
+        g1.profCheck();
+
+        // p1 and p2 both have 2 green students, p2 keeps the green professor
+        assertFalse(p1.getSchool().getTable("GREEN").getHasProfessor());
+        assertTrue(p2.getSchool().getTable("GREEN").getHasProfessor());
+
+        p1.setCoinsWallet(2);
+        g1.playerPlaysCharacterCard(2);
+        g1.profCheck();
+
+        // the tie was already there, but the Innkeeper gives the green professor to p1
+        assertTrue(p1.getSchool().getTable("GREEN").getHasProfessor());
+        assertFalse(p2.getSchool().getTable("GREEN").getHasProfessor());
+
+    }
+
     @Test
     public void testMoveMotherNature() {
 
@@ -324,4 +370,38 @@ class GameExpertModeTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCopy() throws TryAgainException {
+
+        GameExpertMode g1 = new GameExpertMode(2, new Constants(2), 1234);
+        g1.addPlayer(new Player(Wizard.PINK_WIZARD, "Ludo", g1.getConstants()));
+        g1.addPlayer(new Player(Wizard.BLUE_WIZARD, "Matteo", g1.getConstants()));
+        g1.startGame();
+        g1.getCurrentPlayer().playAssistantCard("FOX");
+        g1.getBoard().getIslands().getIslandFromID(3).setHasVetoTile(true);
+
+        GameExpertMode g2 = g1.copy();
+
+        // the copy holds the same state, its own players included
+        assertTrue(new GameImage(g2).changesSince(new GameImage(g1)).isEmpty());
+        assertNotSame(g1.getCurrentPlayer(), g2.getCurrentPlayer());
+        assertEquals(g1.getPlayers().indexOf(g1.getCurrentPlayer()), g2.getPlayers().indexOf(g2.getCurrentPlayer()));
+        assertTrue(g2.getBoard().getIslands().getIslandFromID(3).hasVetoTile());
+        for (int i = 0; i < Constants.CHARACTERS_NUM; i++)
+            assertEquals(g1.getCharacters()[i].getId(), g2.getCharacters()[i].getId());
+
+        // changing the copy does not change the original
+        g2.playerMovesStudent(g2.getCurrentPlayer().getSchool().getHall().getStudents().get(0).color(), 1);
+        g2.getCharacters()[0].setCost(10);
+        assertEquals(7, g1.getCurrentPlayer().getSchool().getHall().getStudents().size());
+        assertNotEquals(10, g1.getCharacters()[0].getCost());
+
+        // and both draw the same students
+        g1.takeStudentsFromCloud(0);
+        g2.takeStudentsFromCloud(0);
+        g1.refillClouds();
+        g2.refillClouds();
+        assertEquals(g1.getBoard().getCloud(0).getStudents(), g2.getBoard().getCloud(0).getStudents());
+
+    }
+}
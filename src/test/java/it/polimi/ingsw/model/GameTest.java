@@ -156,6 +156,46 @@ public class GameTest{
 
     }
 
+    @Test
+    public void testProfessorIndex() throws NonExistentColorException {
+
+        Game g1 = new Game(2, new Constants(2));
+        Player p1 = new Player(Wizard.PINK_WIZARD, "Ludo", g1.getConstants());
+        Player p2 = new Player(Wizard.BLUE_WIZARD, "Matteo", g1.getConstants());
+        g1.addPlayer(p1);
+        g1.addPlayer(p2);
+        g1.profCheck();
+
+        try {
+            new Student(Color.RED).moveToTable(p1);
+            new Student(Color.RED).moveToTable(p2);
+            new Student(Color.RED).moveToTable(p2);
+        }
+        catch(NonExistentColorException | FullTableException ignored){}
+
+        // only the red tables have changed since the last check
+        assertEquals(1 << Color.RED.ordinal(), g1.getProfessorIndex().takeChangedColors());
+        g1.getProfessorIndex().tableChanged(Color.RED);
+        g1.profCheck();
+
+        assertEquals(p2, g1.getProfessorIndex().getOwner(Color.RED));
+        assertNull(g1.getProfessorIndex().getOwner(Color.BLUE));
+        assertEquals(0, g1.getProfessorIndex().takeChangedColors());
+
+        try {
+            p2.getSchool().getTable(Color.RED).removeStudent();
+            p2.getSchool().getTable(Color.RED).removeStudent();
+        }
+        catch(StudentNotFoundException ignored){}
+
+        g1.profCheck();
+
+        assertEquals(p1, g1.getProfessorIndex().getOwner(Color.RED));
+        assertTrue(p1.getSchool().getTable(Color.RED).getHasProfessor());
+        assertFalse(p2.getSchool().getTable(Color.RED).getHasProfessor());
+
+    }
+
     @Test
     public void testMoveMotherNature() {
 
@@ -0,0 +1,37 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.utils.Constants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IslandTest {
+
+    @Test
+    public void testInfluenceCalc() {
+
+        Player p1 = new Player(Wizard.PINK_WIZARD, "Ludo", new Constants(2));
+        Island island = new Island(1);
+        island.addStudent(new Student(Color.RED));
+        island.addStudent(new Student(Color.RED));
+        island.addStudent(new Student(Color.BLUE));
+
+        assertEquals(0, island.influenceCalc(p1));
+
+        // the influence changes as soon as a professor does
+        p1.getSchool().getTable(Color.RED).setHasProfessor(true);
+        assertEquals(2, island.influenceCalc(p1));
+        assertEquals(0, island.influenceCalc(p1, Color.RED));
+
+        // and as soon as the students do
+        island.getStudents().clear();
+        island.addStudent(new Student(Color.RED));
+        assertEquals(1, island.influenceCalc(p1));
+
+        island.setOwner(p1);
+        island.setNumOfTowers(2);
+        assertEquals(3, island.influenceCalc(p1));
+        assertEquals(1, island.influenceCalcWithoutTowers(p1));
+
+    }
+}
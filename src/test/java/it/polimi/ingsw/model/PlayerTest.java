@@ -115,4 +115,28 @@ public class PlayerTest{
         assertDoesNotThrow(p1::showSchool);
         assertDoesNotThrow(p2::showSchool);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDeckMask(){
+        Game game = new Game(2, new Constants(2));
+        Player p1 = new Player(Wizard.YELLOW_WIZARD, "Samuele", game.getConstants());
+        Player p2 = new Player(Wizard.BLUE_WIZARD, "Matteo", game.getConstants());
+        game.addPlayer(p1);
+        game.addPlayer(p2);
+
+        assertEquals(10, p1.getDeck().size());
+        p1.playAssistantCard("CAT");
+        p2.playAssistantCard("TURTLE");
+        p2.playAssistantCard("NOT_A_CARD");
+
+        assertEquals(9, p1.getDeck().size());
+        assertEquals(0, p1.getDeckMask() & AssistantType.CAT.mask());
+        assertNull(p2.getLatestAssistantCardPlayed());
+        assertEquals(AssistantType.CAT.mask(), game.getAssistantCardsPlayed());
+
+        p2.playAssistantCard("FOX");
+        assertEquals(AssistantType.CAT.mask() | AssistantType.FOX.mask(), game.getAssistantCardsPlayed());
+        p1.resetLatestAssistantCardPlayed();
+        assertEquals(AssistantType.FOX.mask(), game.getAssistantCardsPlayed());
+    }
+}
@@ -65,4 +65,27 @@ public class SchoolTest{
         assertTrue(p1.getSchool().getTable("YELLOW").getStudents().contains(s1));
         assertTrue(p1.getSchool().getTable("BLUE").getStudents().contains(s2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMoveStudentByColor() throws StudentNotFoundException, FullTableException {
+
+        Player p1 = new Player(Wizard.PINK_WIZARD, "Ludo", new Constants(2));
+        Island island = new Island(1);
+        for(int i = 0; i < Constants.TABLE_LENGTH + 1; i++)
+            new Student(Color.GREEN).moveToHall(p1);
+
+        p1.getSchool().moveStudentToIsland(island, Color.GREEN);
+        assertEquals(1, island.getNumOfStudentsOfColor(Color.GREEN));
+
+        for(int i = 0; i < Constants.TABLE_LENGTH; i++)
+            p1.getSchool().moveStudentToTable(p1, Color.GREEN);
+        assertEquals(Constants.TABLE_LENGTH, p1.getSchool().getTable(Color.GREEN).getNumOfStudents());
+
+        // the hall is left as it is if the table is full
+        new Student(Color.GREEN).moveToHall(p1);
+        assertThrows(FullTableException.class, () -> p1.getSchool().moveStudentToTable(p1, Color.GREEN));
+        assertEquals(1, p1.getSchool().getHall().getNumOfStudentsOfColor(Color.GREEN));
+        assertThrows(StudentNotFoundException.class, () -> p1.getSchool().moveStudentToTable(p1, Color.RED));
+        assertNull(Color.fromString("PURPLE"));
+    }
+}
@@ -0,0 +1,71 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.IslandNotFoundException;
+import it.polimi.ingsw.utils.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StudentBagTest {
+
+    @Test
+    public void testDraw() {
+
+        StudentBag bag = new StudentBag(new GameRandom(42));
+        bag.add(Color.RED);
+        bag.add(Color.RED);
+        bag.add(Color.BLUE);
+
+        StudentGroup drawn = bag.draw(2);
+        assertEquals(2, drawn.size());
+        assertEquals(1, bag.size());
+        assertEquals(2, drawn.count(Color.RED) + bag.count(Color.RED));
+
+        bag.draw();
+        assertTrue(bag.isEmpty());
+        assertThrows(NoSuchElementException.class, bag::draw);
+
+        // a bulk draw bigger than the bag leaves it as it is
+        bag.add(Color.PINK);
+        assertThrows(NoSuchElementException.class, () -> bag.draw(2));
+        assertEquals(1, bag.size());
+
+    }
+
+    @Test
+    public void testSeededGames() throws IslandNotFoundException {
+
+        Game g1 = new Game(2, new Constants(2), 7);
+        Game g2 = new Game(2, new Constants(2), 7);
+
+        assertEquals(g1.getBoard().getMotherNaturePos(), g2.getBoard().getMotherNaturePos());
+        for (int i = 1; i <= Constants.MAX_NUM_OF_ISLANDS; i++)
+            assertEquals(g1.getBoard().getIslands().getIslandFromID(i).getStudents(),
+                    g2.getBoard().getIslands().getIslandFromID(i).getStudents());
+        assertEquals(g1.getBoard().getCloud(0).getStudents(), g2.getBoard().getCloud(0).getStudents());
+        assertArrayEquals(g1.getBoard().getStudentsBag().getCounts(), g2.getBoard().getStudentsBag().getCounts());
+
+        // 2 students per color on the islands, 3 per cloud
+        assertEquals(Constants.STUDENTS_PER_COLOR * Constants.NUM_COLORS - 10 - 6,
+                g1.getBoard().getStudentsBag().size());
+
+    }
+
+    @Test
+    public void testGameRandom() {
+
+        // the same sequence as a SplittableRandom with the same seed
+        GameRandom random = new GameRandom(99);
+        SplittableRandom reference = new SplittableRandom(99);
+        for (int bound = 1; bound < 200; bound++)
+            assertEquals(reference.nextInt(bound), random.nextInt(bound));
+        assertEquals(reference.nextLong(), random.nextLong());
+
+        GameRandom copy = random.copy();
+        assertEquals(random.nextLong(), copy.nextLong());
+
+    }
+}
@@ -0,0 +1,51 @@
+package it.polimi.ingsw.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StudentGroupTest {
+
+    @Test
+    public void testAddAndRemove() {
+
+        StudentGroup group = new StudentGroup();
+        group.add(new Student(Color.PINK));
+        group.add(Color.GREEN);
+        group.add(Color.PINK);
+
+        assertEquals(3, group.size());
+        assertEquals(2, group.count(Color.PINK));
+        assertTrue(group.contains(new Student(Color.GREEN)));
+
+        assertTrue(group.remove(Color.PINK));
+        assertTrue(group.remove(new Student(Color.GREEN)));
+        assertFalse(group.remove(Color.GREEN));
+        assertEquals(1, group.size());
+        assertEquals(new Student(Color.PINK), group.get(0));
+
+    }
+
+    @Test
+    public void testListView() {
+
+        StudentGroup group = new StudentGroup(List.of(
+                new Student(Color.BLUE), new Student(Color.GREEN), new Student(Color.BLUE)));
+
+        // the students are listed grouped by color
+        assertEquals(List.of(Student.of(Color.GREEN), Student.of(Color.BLUE), Student.of(Color.BLUE)), group);
+        assertEquals(Student.of(Color.BLUE), group.remove(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> group.get(2));
+
+        StudentGroup other = new StudentGroup(group);
+        other.addAll(group);
+        assertArrayEquals(new int[]{2, 0, 0, 0, 2}, other.getCounts());
+
+        other.clear();
+        assertTrue(other.isEmpty());
+        assertEquals(0, other.count(Color.BLUE));
+
+    }
+}
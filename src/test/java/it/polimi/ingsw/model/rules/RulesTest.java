@@ -0,0 +1,132 @@
+package it.polimi.ingsw.model.rules;
+
+import it.polimi.ingsw.exceptions.IllegalActionException;
+import it.polimi.ingsw.exceptions.TryAgainException;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.model.charactercards.Bard;
+import it.polimi.ingsw.model.charactercards.Innkeeper;
+import it.polimi.ingsw.model.charactercards.Jester;
+import it.polimi.ingsw.utils.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RulesTest {
+
+    private static final String[] NICKNAMES = {"Ludo", "Matteo", "Samu"};
+    private static final Wizard[] WIZARDS = {Wizard.PINK_WIZARD, Wizard.BLUE_WIZARD, Wizard.GREEN_WIZARD};
+
+    private static Game newGame(int playersNumber, boolean expert, long seed) {
+        Game game = expert ? new GameExpertMode(playersNumber, new Constants(playersNumber), seed) :
+                new Game(playersNumber, new Constants(playersNumber), seed);
+        for (int i = 0; i < playersNumber; i++)
+            game.addPlayer(new Player(WIZARDS[i], NICKNAMES[i], game.getConstants()));
+        game.startGame();
+        return game;
+    }
+
+    @Test
+    public void testRandomMatches() throws TryAgainException {
+
+        // every legal action can be played, until every match ends
+        List<Action> actions = new ArrayList<>();
+        for (long seed = 0; seed < 60; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            MatchState state = new MatchState(newGame(2 + (int) (seed % 2), seed % 3 != 0, seed));
+            if (seed % 5 == 0)
+                for (Player player : state.getGame().getPlayers())
+                    player.setCoinsWallet(20);
+            int steps = 0;
+            while (!state.isOver()) {
+                actions.clear();
+                Rules.legalActions(state, actions);
+                assertFalse(actions.isEmpty());
+                Rules.play(state, actions.get(random.nextInt(actions.size())));
+                assertTrue(++steps < 10_000);
+            }
+            assertTrue(Rules.legalActions(state).isEmpty());
+            assertThrows(IllegalActionException.class, () -> Rules.play(state, Action.cloudChoice(0)));
+        }
+
+    }
+
+    @Test
+    public void testRoundFlow() throws TryAgainException {
+
+        MatchState state = new MatchState(newGame(2, false, 3));
+        Game game = state.getGame();
+        Player first = game.getPlayers().get(0);
+        Player second = game.getPlayers().get(1);
+
+        assertEquals(AssistantType.values().length, Rules.legalActions(state).size());
+        assertThrows(IllegalActionException.class, () -> Rules.play(state, Action.motherNatureSteps(1)));
+
+        // the second player can't play the card the first has played
+        Rules.play(state, Action.assistantCard(AssistantType.TURTLE));
+        assertSame(second, game.getCurrentPlayer());
+        assertFalse(Rules.isLegal(state, Action.assistantCard(AssistantType.TURTLE)));
+        assertTrue(Rules.isLegal(state, Action.assistantCard(AssistantType.CHEETAH)));
+
+        // apply leaves the match as it is
+        MatchState next = Rules.apply(state, Action.assistantCard(AssistantType.CHEETAH));
+        assertEquals(MatchState.Phase.PLANNING, state.getPhase());
+        assertSame(second, game.getCurrentPlayer());
+
+        // the lightest card plays first
+        assertEquals(MatchState.Phase.ACTION, next.getPhase());
+        assertEquals(second.getNickname(), next.getGame().getCurrentPlayer().getNickname());
+        assertEquals(first.getNickname(), next.getGame().getPlayers().get(1).getNickname());
+
+        // three students, then Mother Nature (one step with the cheetah), then a cloud
+        for (int i = 0; i < next.getGame().getConstants().PLAYER_MOVES; i++) {
+            Color color = next.getGame().getCurrentPlayer().getSchool().getHall().getStudents().get(0).color();
+            assertTrue(Rules.isLegal(next, Action.moveToTable(color)));
+            Rules.play(next, Action.moveToTable(color));
+        }
+        assertEquals(List.of(Action.motherNatureSteps(1)), Rules.legalActions(next));
+        Rules.play(next, Action.motherNatureSteps(1));
+        assertEquals(List.of(Action.cloudChoice(0), Action.cloudChoice(1)), Rules.legalActions(next));
+        Rules.play(next, Action.cloudChoice(1));
+        assertEquals(first.getNickname(), next.getGame().getCurrentPlayer().getNickname());
+
+    }
+
+    @Test
+    public void testCharacterCardActions() throws TryAgainException {
+
+        GameExpertMode game = (GameExpertMode) newGame(2, true, 11);
+        game.addCharacterCards(new CharacterCard[]{
+                new Jester(game.getBoard().getStudentsBag()), new Bard(), new Innkeeper()});
+        MatchState state = new MatchState(game);
+        Rules.play(state, Action.assistantCard(AssistantType.CHEETAH));
+        Rules.play(state, Action.assistantCard(AssistantType.CAT));
+        Player player = game.getCurrentPlayer();
+
+        // no coins, no cards
+        player.setCoinsWallet(0);
+        assertTrue(Rules.legalActions(state).stream().noneMatch(x -> x.getType() == Action.Type.CHARACTER_CARD));
+
+        // the bard needs students on the tables, the innkeeper has no parameters
+        player.setCoinsWallet(3);
+        List<Action> cards = Rules.legalActions(state).stream()
+                .filter(x -> x.getType() == Action.Type.CHARACTER_CARD).toList();
+        assertTrue(cards.stream().noneMatch(x -> x.getValue() == 10));
+        assertEquals(1, cards.stream().filter(x -> x.getValue() == 2).count());
+
+        // each combination of jester swaps once
+        List<Action> jester = cards.stream().filter(x -> x.getValue() == 7).toList();
+        assertFalse(jester.isEmpty());
+        assertEquals(jester.size(), jester.stream().distinct().count());
+        Action swap = jester.get(jester.size() - 1);
+        MatchState next = Rules.apply(state, swap);
+        assertEquals(player.getSchool().getHall().getStudents().size(),
+                next.getGame().getCurrentPlayer().getSchool().getHall().getStudents().size());
+        assertTrue(next.getGame().getCurrentPlayer().getCharacterCardAlreadyPlayed());
+        assertTrue(Rules.legalActions(next).stream().noneMatch(x -> x.getType() == Action.Type.CHARACTER_CARD));
+
+    }
+}
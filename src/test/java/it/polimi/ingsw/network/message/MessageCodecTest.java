@@ -0,0 +1,121 @@
+package it.polimi.ingsw.network.message;
+
+import it.polimi.ingsw.controller.GameController;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+public class MessageCodecTest {
+
+    private static DataInputStream streamOf(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte[] characterCardPayload(int listSize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MessageType.CHARACTER_CARD_REPLY.ordinal());
+        out.writeByte(4); // a list of strings follows
+        out.writeBoolean(true);
+        out.writeUTF("Ludo");
+        out.writeInt(7);
+        out.writeInt(listSize);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void framesAreDecodedBack() throws IOException {
+        byte[] frame = MessageCodec.encode(new MoveToIslandMessage("Ludo", "RED", 3));
+
+        Message message = MessageCodec.readFrame(streamOf(frame));
+
+        assertEquals(MessageType.MOVE_TO_ISLAND_REPLY, message.getMessageType());
+        assertEquals("Ludo", message.getNickname());
+        assertEquals(3, ((MoveToIslandMessage) message).getIslandID());
+    }
+
+    @Test
+    public void oversizedFramesAreRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(Integer.MAX_VALUE);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.readFrame(streamOf(bytes.toByteArray())));
+    }
+
+    @Test
+    public void negativeFrameLengthsAreRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(-8);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.readFrame(streamOf(bytes.toByteArray())));
+    }
+
+    @Test
+    public void negativeCountsAreRejected() throws IOException {
+        byte[] payload = characterCardPayload(-1);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(payload));
+    }
+
+    @Test
+    public void countsLargerThanTheFrameAreRejected() throws IOException {
+        byte[] payload = characterCardPayload(Integer.MAX_VALUE);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(payload));
+    }
+
+    @Test
+    public void oversizedSerializedFieldsAreRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MessageType.SHOW_DECK_MESSAGE.ordinal());
+        out.writeInt(Integer.MAX_VALUE);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(bytes.toByteArray()));
+    }
+
+    @Test
+    public void serializedFieldsOfTheWrongClassAreRejected() throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+            objectOut.writeObject("not a game");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MessageType.GAME_STATUS.ordinal());
+        out.writeInt(serialized.size());
+        serialized.writeTo(out);
+        out.writeLong(1);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(bytes.toByteArray()));
+    }
+
+    @Test
+    public void bytesLeftAfterTheMessageAreRejected() throws IOException {
+        byte[] frame = MessageCodec.encode(new MoveToIslandMessage("Ludo", "RED", 3));
+        byte[] payload = new byte[frame.length - Integer.BYTES + 1];
+        System.arraycopy(frame, Integer.BYTES, payload, 0, frame.length - Integer.BYTES);
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(payload));
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decodeFromClient(payload));
+    }
+
+    @Test
+    public void serverOnlyMessagesAreRefusedFromClients() throws IOException {
+        GameController gameController = new GameController();
+        gameController.prepareGame(2, 42);
+        Message[] serverOnly = {new ShowDeckMessage(gameController.getGame()),
+                new GameStatusMessage(gameController.getGame(), 1),
+                new GameStatusFirstActionPhaseMessage(gameController.getGame())};
+
+        for (Message message : serverOnly) {
+            byte[] frame = MessageCodec.encode(message);
+            // the client still decodes them, the server does not
+            assertEquals(message.getMessageType(), MessageCodec.readFrame(streamOf(frame)).getMessageType());
+            assertThrows(StreamCorruptedException.class, () -> MessageCodec.readClientFrame(streamOf(frame)));
+        }
+        byte[] frame = MessageCodec.encode(new MoveToIslandMessage("Ludo", "RED", 3));
+        assertEquals(MessageType.MOVE_TO_ISLAND_REPLY, MessageCodec.readClientFrame(streamOf(frame)).getMessageType());
+    }
+}
@@ -0,0 +1,218 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.network.message.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalWriter writer;
+
+    @BeforeEach
+    public void startWriter() {
+        writer = new JournalWriter(10);
+        writer.start();
+    }
+
+    // writes a game made of a creation, two messages and a departure, and waits for it to reach the disk
+    private Path writeJournal() throws Exception {
+        GameJournal journal = GameJournal.create(directory, 7, writer);
+        journal.appendCreate(42, new CreateGameMessage("Ludo", 7, 2, false));
+        journal.append(new JoinGameMessage("Matteo", 7));
+        journal.append(new WizardIDMessage("Ludo", "PINK_WIZARD"));
+        journal.appendLeave("Matteo");
+        writer.sync();
+        return GameJournal.list(directory).get(0);
+    }
+
+    // reads the sequence numbers of the entries straight from the file
+    private static List<Long> sequences(Path file) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (journal.remaining() > 0) {
+            int length = journal.getInt();
+            journal.getInt(); // checksum
+            sequences.add(journal.getLong(journal.position() + 1));
+            journal.position(journal.position() + length);
+        }
+        return sequences;
+    }
+
+    // returns the offsets at which each entry of the file starts
+    private static List<Integer> offsets(Path file) throws IOException {
+        List<Integer> offsets = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            int offset = 0;
+            while (in.available() > 0) {
+                offsets.add(offset);
+                int length = in.readInt();
+                in.skipNBytes(Integer.BYTES + length);
+                offset += 2 * Integer.BYTES + length;
+            }
+        }
+        return offsets;
+    }
+
+    // a game to take snapshots of, its content does not matter here
+    private static GameController gameController() {
+        GameController gameController = new GameController();
+        gameController.prepareGame(2, 42);
+        return gameController;
+    }
+
+    private List<GameJournal.Entry> recover(Path file) throws IOException {
+        List<GameJournal.Entry> entries = new ArrayList<>();
+        GameJournal.recover(file, writer, entries);
+        return entries;
+    }
+
+    @Test
+    public void entriesAreRecoveredInOrder() throws Exception {
+        Path file = writeJournal();
+
+        List<GameJournal.Entry> entries = recover(file);
+
+        assertEquals(4, entries.size());
+        assertEquals(GameJournal.EntryType.CREATE, entries.get(0).type());
+        assertEquals(42, entries.get(0).seed());
+        assertEquals(7, ((CreateGameMessage) entries.get(0).message()).getGameNumber());
+        assertEquals(MessageType.JOIN_GAME, entries.get(1).message().getMessageType());
+        assertEquals("Ludo", entries.get(2).message().getNickname());
+        assertEquals(GameJournal.EntryType.LEAVE, entries.get(3).type());
+        assertEquals("Matteo", entries.get(3).nickname());
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences(file));
+    }
+
+    @Test
+    public void appendsAfterRecoveryGoOnWithTheSequence() throws Exception {
+        Path file = writeJournal();
+
+        GameJournal journal = GameJournal.recover(file, writer, new ArrayList<>());
+        journal.append(new WizardIDMessage("Matteo", "BLUE_WIZARD"));
+        writer.sync();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(file));
+        assertEquals(5, recover(file).size());
+    }
+
+    @Test
+    public void tornTailIsTruncated() throws Exception {
+        Path file = writeJournal();
+        List<Integer> offsets = offsets(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3); // the crash cut the last entry short
+        }
+
+        GameJournal journal = GameJournal.recover(file, writer, new ArrayList<>());
+
+        assertEquals(offsets.get(3).longValue(), Files.size(file));
+        // the entry lost is written again with the same sequence number
+        journal.appendLeave("Matteo");
+        writer.sync();
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences(file));
+        assertEquals(GameJournal.EntryType.LEAVE, recover(file).get(3).type());
+    }
+
+    @Test
+    public void entriesFailingTheirChecksumAreDropped() throws Exception {
+        Path file = writeJournal();
+        List<Integer> offsets = offsets(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // flips the last byte of the content of the second entry
+            long position = offsets.get(2) - 1;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0xFF);
+        }
+
+        List<GameJournal.Entry> entries = recover(file);
+
+        // nothing after a damaged entry can be trusted
+        assertEquals(1, entries.size());
+        assertEquals(GameJournal.EntryType.CREATE, entries.get(0).type());
+        assertEquals(offsets.get(1).longValue(), Files.size(file));
+    }
+
+    @Test
+    public void writesAreForcedOncePerInterval() throws Exception {
+        JournalWriter slowWriter = new JournalWriter(300);
+        slowWriter.start();
+        GameJournal journal = GameJournal.create(directory, 8, slowWriter);
+
+        journal.appendCreate(42, new CreateGameMessage("Ludo", 8, 2, false));
+        for (int i = 0; i < 50; i++)
+            journal.append(new PongMessage());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (slowWriter.getForces() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        // the entries are written as they come, but forced together
+        assertEquals(51, sequences(GameJournal.list(directory).get(0)).size());
+        assertTrue(slowWriter.getForces() >= 1 && slowWriter.getForces() <= 2,
+                "forces: " + slowWriter.getForces());
+    }
+
+    @Test
+    public void snapshotsCompactTheJournal() throws Exception {
+        GameJournal journal = GameJournal.create(directory, 7, writer);
+        journal.appendCreate(42, new CreateGameMessage("Ludo", 7, 2, false));
+        journal.append(new JoinGameMessage("Matteo", 7));
+
+        journal.snapshot(gameController());
+        journal.append(new WizardIDMessage("Ludo", "PINK_WIZARD"));
+        writer.sync();
+
+        Path file = GameJournal.list(directory).get(0);
+        assertEquals(List.of(3L), sequences(file));
+        List<GameJournal.Entry> entries = new ArrayList<>();
+        GameJournal recovered = GameJournal.recover(file, writer, entries);
+        assertEquals(2, recovered.getSnapshot().sequence());
+        assertEquals(1, entries.size());
+        assertEquals(MessageType.WIZARD_ID, entries.get(0).message().getMessageType());
+    }
+
+    @Test
+    public void entriesAlreadyInTheSnapshotAreNotReplayed() throws Exception {
+        Path file = writeJournal();
+        // a crash right after the snapshot was written leaves the entries it includes in the journal
+        new GameSnapshot(gameController(), 2).write(directory.resolve("game-7.snapshot"));
+
+        List<GameJournal.Entry> entries = new ArrayList<>();
+        GameJournal journal = GameJournal.recover(file, writer, entries);
+
+        assertEquals(2, journal.getSnapshot().sequence());
+        assertEquals(2, entries.size());
+        assertEquals("Ludo", entries.get(0).message().getNickname());
+        assertEquals(GameJournal.EntryType.LEAVE, entries.get(1).type());
+        journal.append(new WizardIDMessage("Matteo", "BLUE_WIZARD"));
+        writer.sync();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(file));
+    }
+
+    @Test
+    public void newJournalsDropTheOldSnapshot() throws Exception {
+        writeJournal();
+        new GameSnapshot(gameController(), 4).write(directory.resolve("game-7.snapshot"));
+
+        GameJournal.create(directory, 7, writer);
+
+        assertFalse(Files.exists(directory.resolve("game-7.snapshot")));
+        assertNull(GameJournal.recover(GameJournal.list(directory).get(0), writer, new ArrayList<>()).getSnapshot());
+    }
+}
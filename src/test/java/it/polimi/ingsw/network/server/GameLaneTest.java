@@ -0,0 +1,159 @@
+package it.polimi.ingsw.network.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameLaneTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void stopWorkers() {
+        workers.shutdownNow();
+    }
+
+    // a pool whose workers are run by the test, one turn of a lane at a time
+    private static class ManualWorkers implements Executor {
+
+        private final Queue<Runnable> turns = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable turn) {
+            turns.add(turn);
+        }
+
+        boolean runTurn() {
+            Runnable turn = turns.poll();
+            if (turn == null)
+                return false;
+            turn.run();
+            return true;
+        }
+    }
+
+    @Test
+    public void tasksOfALaneRunOneAtATimeInOrder() throws Exception {
+        GameLane lane = new GameLane(workers, drained -> {});
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            int task = i;
+            lane.execute(() -> {
+                if (running.incrementAndGet() > 1)
+                    overlaps.incrementAndGet();
+                order.add(task);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i, order.get(i));
+    }
+
+    @Test
+    public void differentLanesRunInParallel() throws Exception {
+        GameLane first = new GameLane(workers, drained -> {});
+        GameLane second = new GameLane(workers, drained -> {});
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        CountDownLatch firstDone = new CountDownLatch(1);
+
+        // the task of the first game can only end while the task of the second one is running
+        first.execute(() -> {
+            try {
+                if (secondStarted.await(5, TimeUnit.SECONDS))
+                    firstDone.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        second.execute(secondStarted::countDown);
+
+        assertTrue(firstDone.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void lanesAreDrainedOnlyOnceEmpty() {
+        ManualWorkers manual = new ManualWorkers();
+        List<Integer> pendingWhenDrained = new ArrayList<>();
+        GameLane lane = new GameLane(manual, drained -> pendingWhenDrained.add(drained.getPendingTasks()));
+        AtomicInteger runs = new AtomicInteger();
+
+        // more tasks than a single turn runs
+        for (int i = 0; i < 100; i++)
+            lane.execute(runs::incrementAndGet);
+
+        assertTrue(manual.runTurn());
+        assertTrue(runs.get() < 100);
+        assertEquals(List.of(), pendingWhenDrained);
+        assertTrue(manual.runTurn());
+        assertEquals(100, runs.get());
+        assertEquals(List.of(0), pendingWhenDrained);
+        assertFalse(manual.runTurn());
+    }
+
+    @Test
+    public void tasksQueuedWhileRunningDelayTheDrain() {
+        ManualWorkers manual = new ManualWorkers();
+        List<String> events = new ArrayList<>();
+        GameLane lane = new GameLane(manual, drained -> events.add("drained " + drained.getPendingTasks()));
+
+        lane.execute(() -> {
+            events.add("first");
+            lane.execute(() -> events.add("queued by the first"));
+        });
+        manual.runTurn();
+
+        assertEquals(List.of("first", "queued by the first", "drained 0"), events);
+        // a task submitted after the drain starts a new turn, and the lane is drained again
+        lane.execute(() -> events.add("later"));
+        manual.runTurn();
+        assertEquals(List.of("first", "queued by the first", "drained 0", "later", "drained 0"), events);
+    }
+
+    @Test
+    public void failingTasksDoNotStopTheLane() {
+        ManualWorkers manual = new ManualWorkers();
+        List<String> events = new ArrayList<>();
+        GameLane lane = new GameLane(manual, drained -> {});
+
+        lane.execute(() -> {
+            throw new IllegalStateException("broken task");
+        });
+        lane.execute(() -> events.add("next"));
+        manual.runTurn();
+
+        assertEquals(List.of("next"), events);
+    }
+
+    @Test
+    public void housekeepingIsNotActivity() throws Exception {
+        ManualWorkers manual = new ManualWorkers();
+        GameLane lane = new GameLane(manual, drained -> {});
+        long created = lane.getLastActive();
+        Thread.sleep(5);
+
+        lane.executeHousekeeping(() -> {});
+        assertEquals(created, lane.getLastActive());
+        lane.execute(() -> {});
+        assertTrue(lane.getLastActive() > created);
+    }
+}
@@ -0,0 +1,114 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameState;
+import it.polimi.ingsw.view.VirtualView;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GameReaperTest {
+
+    private final AtomicLong clock = new AtomicLong(0);
+    // a tick of 10 ms, and 100, 200, 300 and 400 ms of life for empty lobbies, lobbies, games and recovered games
+    private final GameReaper reaper = new GameReaper(10, 100, 200, 300, 400, clock::get);
+
+    // moves the clock to the given time and returns the games whose check has come
+    private List<Integer> advance(long now) {
+        clock.set(now);
+        List<Integer> due = new ArrayList<>();
+        reaper.advance(now, due::add);
+        return due;
+    }
+
+    // checks the due games like the server does, in the given stage and with the given latest activity
+    private List<Integer> expire(GameReaper.Stage stage, long lastActive, long now) {
+        List<Integer> closed = new ArrayList<>();
+        for (int gameID : advance(now))
+            if (reaper.expire(gameID, stage, lastActive))
+                closed.add(gameID);
+        return closed;
+    }
+
+    private static GameController lobby() {
+        GameController gameController = new GameController();
+        gameController.prepareGame(2, 42);
+        return gameController;
+    }
+
+    @Test
+    public void stagesFollowTheController() {
+        GameController gameController = lobby();
+        assertEquals(GameReaper.Stage.EMPTY_LOBBY, GameReaper.stageOf(gameController));
+
+        gameController.addPlayerToQueue("Ludo", new VirtualView(new ReplayClientHandler()));
+        assertEquals(GameReaper.Stage.LOBBY, GameReaper.stageOf(gameController));
+
+        gameController.setGameState(GameState.IN_GAME);
+        assertEquals(GameReaper.Stage.IN_GAME, GameReaper.stageOf(gameController));
+
+        // a rebuilt game knows its players, but none of them has come back yet
+        GameController recovered = lobby();
+        recovered.getGameQueue().add("Matteo");
+        assertEquals(GameReaper.Stage.RECOVERED, GameReaper.stageOf(recovered));
+    }
+
+    @Test
+    public void eachStageExpiresAfterItsLifetime() {
+        long[] lifetimes = {100, 200, 300, 400};
+        GameReaper.Stage[] stages = GameReaper.Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            long start = clock.get();
+            reaper.watch(i, start + reaper.getShortestLifetime());
+            for (long now = start + 10; now < start + lifetimes[i]; now += 10)
+                assertEquals(List.of(), expire(stages[i], start, now), stages[i] + " at " + (now - start));
+            assertEquals(List.of(i), expire(stages[i], start, start + lifetimes[i]), stages[i].toString());
+            assertEquals(1, reaper.getEvictions().get(stages[i]));
+        }
+        assertEquals(100, reaper.getLifetime(GameReaper.Stage.EMPTY_LOBBY));
+        assertEquals(400, reaper.getLifetime(GameReaper.Stage.RECOVERED));
+    }
+
+    @Test
+    public void activityPostponesTheExpiration() {
+        reaper.watch(1, 100);
+
+        // the game has been used at 150, so its lobby lives until 350
+        assertEquals(List.of(), expire(GameReaper.Stage.LOBBY, 150, 100));
+        assertEquals(List.of(), expire(GameReaper.Stage.LOBBY, 150, 340));
+        assertEquals(List.of(1), expire(GameReaper.Stage.LOBBY, 150, 350));
+    }
+
+    @Test
+    public void gamesChangingStageAreWatchedAgain() {
+        reaper.watch(1, 100);
+
+        // a lobby is checked after the shortest lifetime, and put back for at most as long
+        assertEquals(List.of(1), advance(100));
+        assertFalse(reaper.expire(1, GameReaper.Stage.LOBBY, 0));
+        assertEquals(List.of(), advance(190));
+        assertEquals(List.of(1), advance(200));
+        // meanwhile the game has started, so it has the lifetime of a game
+        assertFalse(reaper.expire(1, GameReaper.Stage.IN_GAME, 0));
+        assertEquals(List.of(), advance(290));
+        assertEquals(List.of(1), advance(300));
+        assertTrue(reaper.expire(1, GameReaper.Stage.IN_GAME, 0));
+
+        assertEquals(0, reaper.getEvictions().get(GameReaper.Stage.LOBBY));
+        assertEquals(1, reaper.getEvictions().get(GameReaper.Stage.IN_GAME));
+        assertEquals(0, advance(1000).size());
+    }
+
+    @Test
+    public void emptiedLobbiesExpireSooner() {
+        reaper.watch(1, 100);
+
+        // the last player has left the lobby at 50, so the game only lives until 150
+        assertEquals(List.of(), expire(GameReaper.Stage.EMPTY_LOBBY, 50, 100));
+        assertEquals(List.of(1), expire(GameReaper.Stage.EMPTY_LOBBY, 50, 150));
+        assertEquals(1, reaper.getEvictions().get(GameReaper.Stage.EMPTY_LOBBY));
+    }
+}
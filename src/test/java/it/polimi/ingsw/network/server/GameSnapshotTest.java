@@ -0,0 +1,109 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.model.GameImage;
+import it.polimi.ingsw.model.Player;
+import it.polimi.ingsw.model.Wizard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class GameSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    // builds a started game of two players, with the given seed
+    private static GameController startedGame(long seed) {
+        GameController gameController = new GameController();
+        gameController.prepareGame(2, seed);
+        List<Player> players = new ArrayList<>();
+        players.add(new Player(Wizard.YELLOW_WIZARD, "Samuele", gameController.getGame().getConstants()));
+        players.add(new Player(Wizard.BLUE_WIZARD, "Matteo", gameController.getGame().getConstants()));
+        gameController.getGame().setPlayers(players);
+        gameController.getGame().startGame();
+        return gameController;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    public void snapshotsAreReadBack() throws Exception {
+        GameController gameController = startedGame(42);
+        Path file = directory.resolve("game-1.snapshot");
+
+        new GameSnapshot(gameController, 17).write(file);
+        GameSnapshot snapshot = GameSnapshot.read(file);
+
+        assertEquals(17, snapshot.sequence());
+        assertTrue(new GameImage(snapshot.gameController().getGame())
+                .changesSince(new GameImage(gameController.getGame())).isEmpty());
+        // the random generator goes on from where it was, so a rebuilt game draws the same students
+        assertEquals(gameController.getGame().getRandomState(), snapshot.gameController().getGame().getRandomState());
+        assertEquals(List.of(file), files(directory));
+    }
+
+    @Test
+    public void writesReplaceThePreviousSnapshot() throws Exception {
+        Path file = directory.resolve("game-1.snapshot");
+        new GameSnapshot(startedGame(42), 3).write(file);
+
+        new GameSnapshot(startedGame(7), 5).write(file);
+
+        assertEquals(5, GameSnapshot.read(file).sequence());
+        assertEquals(List.of(file), files(directory));
+    }
+
+    @Test
+    public void halfWrittenTemporaryFilesAreIgnored() throws Exception {
+        Path file = directory.resolve("game-1.snapshot");
+        new GameSnapshot(startedGame(42), 3).write(file);
+        // a crash while the next snapshot was being written leaves its temporary file behind
+        Path temp = directory.resolve("game-1.snapshot.tmp");
+        Files.write(temp, new byte[]{1, 2, 3});
+
+        assertEquals(3, GameSnapshot.read(file).sequence());
+        new GameSnapshot(startedGame(42), 4).write(file);
+        assertEquals(4, GameSnapshot.read(file).sequence());
+        assertEquals(List.of(file), files(directory));
+    }
+
+    @Test
+    public void damagedSnapshotsAreRejected() throws Exception {
+        Path file = directory.resolve("game-1.snapshot");
+        new GameSnapshot(startedGame(42), 3).write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            int b = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(b ^ 0xFF);
+        }
+
+        assertThrows(IOException.class, () -> GameSnapshot.read(file));
+    }
+
+    @Test
+    public void truncatedSnapshotsAreRejected() throws Exception {
+        Path file = directory.resolve("game-1.snapshot");
+        new GameSnapshot(startedGame(42), 3).write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+
+        assertThrows(IOException.class, () -> GameSnapshot.read(file));
+        Files.write(file, new byte[]{0, 0});
+        assertThrows(IOException.class, () -> GameSnapshot.read(file));
+    }
+}
@@ -0,0 +1,129 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.network.message.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ObjectStreamDecoderTest {
+
+    // writes the messages the way a client does: one object stream, reset after every message
+    private static byte[] clientStream(Message... messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Message message : messages) {
+                out.writeObject(message);
+                out.reset();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // delivers the stream to the decoder in chunks, as the reactor would, and collects the messages
+    private static List<Message> deliver(byte[] stream, int chunkSize, ObjectStreamDecoder decoder) throws Exception {
+        List<Message> messages = new ArrayList<>();
+        ByteBuffer inbound = ByteBuffer.allocate(stream.length);
+        for (int offset = 0; offset < stream.length; offset += chunkSize) {
+            inbound.put(stream, offset, Math.min(chunkSize, stream.length - offset));
+            inbound.flip();
+            Message message;
+            while ((message = decoder.next(inbound)) != null)
+                messages.add(message);
+            inbound.compact();
+        }
+        return messages;
+    }
+
+    @Test
+    public void messagesSplitInSingleBytesAreDecoded() throws Exception {
+        byte[] stream = clientStream(new LoginRequest("Ludo"), new MoveToIslandMessage("Ludo", "RED", 3));
+
+        List<Message> messages = deliver(stream, 1, new ObjectStreamDecoder());
+
+        assertEquals(2, messages.size());
+        assertEquals(MessageType.LOGIN_REQUEST, messages.get(0).getMessageType());
+        assertEquals(3, ((MoveToIslandMessage) messages.get(1)).getIslandID());
+    }
+
+    @Test
+    public void largeMessagesAreNotDecodedAtEveryChunk() throws Exception {
+        byte[] stream = clientStream(new GenericMessage("x".repeat(100_000)), new PongMessage());
+        ObjectStreamDecoder decoder = new ObjectStreamDecoder();
+
+        List<Message> messages = deliver(stream, 64, decoder);
+
+        assertEquals(2, messages.size());
+        assertEquals(100_000, messages.get(0).toString().length());
+        // about 1600 chunks, but only the chunks ending a message are decoded
+        assertTrue(decoder.getAttempts() <= 4, "attempts: " + decoder.getAttempts());
+    }
+
+    @Test
+    public void incompleteMessagesWaitForTheirEnd() throws Exception {
+        byte[] stream = clientStream(new WizardIDMessage("Ludo", "PINK_WIZARD"));
+        // every cut of the stream, including the ones right after a 'y' (the same byte as TC_RESET)
+        for (int cut = 1; cut < stream.length - 1; cut++) {
+            ByteBuffer partial = ByteBuffer.wrap(stream, 0, cut);
+            assertNull(new ObjectStreamDecoder().next(partial));
+        }
+        assertEquals(MessageType.WIZARD_ID, new ObjectStreamDecoder().next(ByteBuffer.wrap(stream)).getMessageType());
+    }
+
+    @Test
+    public void endlessMessagesAreRejected() {
+        ObjectStreamDecoder decoder = new ObjectStreamDecoder();
+        byte[] header = ObjectStreamDecoder.getStreamHeader();
+        ByteBuffer inbound = ByteBuffer.allocate(header.length + 1 + MessageCodec.MAX_FRAME_BYTES + 1);
+        inbound.put(header).put(ObjectStreamConstants.TC_OBJECT);
+        while (inbound.hasRemaining())
+            inbound.put((byte) 0x79);
+        inbound.flip();
+
+        assertThrows(StreamCorruptedException.class, () -> decoder.next(inbound));
+    }
+
+    @Test
+    public void objectsThatAreNotMessagesAreRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject("not a message");
+            out.reset();
+        }
+
+        assertThrows(StreamCorruptedException.class,
+                () -> new ObjectStreamDecoder().next(ByteBuffer.wrap(bytes.toByteArray())));
+    }
+
+    @Test
+    public void serverOnlyMessagesAreRejected() throws Exception {
+        byte[] stream = clientStream(new ShowDeckMessage(null));
+
+        assertThrows(StreamCorruptedException.class, () -> new ObjectStreamDecoder().next(ByteBuffer.wrap(stream)));
+    }
+
+    @Test
+    public void classesOutsideTheMessagesAreFiltered() throws Exception {
+        GameController gameController = new GameController();
+        gameController.prepareGame(2, 42);
+        byte[] stream = clientStream(new GameStatusMessage(gameController.getGame(), 1));
+
+        // the game is refused before it is built
+        assertThrows(InvalidClassException.class, () -> new ObjectStreamDecoder().next(ByteBuffer.wrap(stream)));
+    }
+
+    @Test
+    public void messagesWithListsPassTheFilter() throws Exception {
+        // the clients send the parameters of the cards as array lists
+        byte[] stream = clientStream(new CharacterCardMessageArrayListString("Ludo", 7,
+                new ArrayList<>(List.of("RED", "BLUE"))));
+
+        Message message = new ObjectStreamDecoder().next(ByteBuffer.wrap(stream));
+
+        assertEquals(MessageType.CHARACTER_CARD_REPLY, message.getMessageType());
+    }
+}
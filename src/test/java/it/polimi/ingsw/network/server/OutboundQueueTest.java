@@ -0,0 +1,93 @@
+package it.polimi.ingsw.network.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OutboundQueueTest {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger slowConsumers = new AtomicInteger();
+
+    @AfterEach
+    public void stopTimer() {
+        timer.shutdownNow();
+    }
+
+    // a queue with a hard limit of 8, watermarks of 4 and 2, and the given timeout
+    private OutboundQueue<Integer> queue(long timeout) {
+        return new OutboundQueue<>(8, 4, 2, timeout, timer, slowConsumers::incrementAndGet);
+    }
+
+    // waits for the timer to run everything scheduled so far with no delay left
+    private void awaitTimer(long delay) throws Exception {
+        Thread.sleep(delay);
+        timer.submit(() -> {}).get();
+    }
+
+    @Test
+    public void fullQueuesDropTheirConsumerAtOnce() {
+        OutboundQueue<Integer> queue = queue(60000);
+        for (int i = 0; i < 8; i++)
+            queue.add(i);
+        assertEquals(0, slowConsumers.get());
+
+        queue.add(8);
+
+        // no wait for the timeout, and the pending elements are kept for the owner to close
+        assertEquals(1, slowConsumers.get());
+        assertEquals(8, queue.size());
+        queue.add(9);
+        assertEquals(1, slowConsumers.get());
+        assertEquals(8, queue.size());
+    }
+
+    @Test
+    public void fullQueuesWakeUpTheirConsumer() throws Exception {
+        OutboundQueue<Integer> queue = queue(60000);
+        for (int i = 0; i <= 8; i++)
+            queue.add(i);
+
+        assertNull(queue.take());
+        queue.close();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void slowConsumersAreDroppedAfterTheTimeout() throws Exception {
+        OutboundQueue<Integer> queue = queue(50);
+        for (int i = 0; i < 5; i++)
+            queue.add(i);
+
+        assertEquals(0, slowConsumers.get());
+        awaitTimer(100);
+        assertEquals(1, slowConsumers.get());
+    }
+
+    @Test
+    public void consumersCatchingUpInTimeAreKept() throws Exception {
+        OutboundQueue<Integer> queue = queue(50);
+        for (int i = 0; i < 5; i++)
+            queue.add(i);
+
+        // back to the low watermark before the timeout
+        for (int i = 0; i < 3; i++)
+            assertEquals(i, queue.poll());
+        awaitTimer(100);
+
+        assertEquals(0, slowConsumers.get());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void limitsMustBeOrdered() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OutboundQueue<Integer>(4, 4, 2, 50, timer, () -> {}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OutboundQueue<Integer>(8, 4, 5, 50, timer, () -> {}));
+    }
+}
@@ -0,0 +1,58 @@
+package it.polimi.ingsw.network.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ServerMetricsTest {
+
+    private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    public void testMetricsBelongToTheirServer() throws Exception {
+
+        ObjectName name = new ObjectName("it.polimi.ingsw:type=ServerMetrics");
+        Server first = new Server();
+        Server second = new Server();
+        first.addConnection(new ReplayClientHandler());
+
+        assertNotSame(first.getMetrics(), second.getMetrics());
+        assertEquals(1, first.getMetrics().getActiveConnections());
+        assertEquals(0, second.getMetrics().getActiveConnections());
+
+        // a server built later does not take over the metrics published by the first one
+        first.startMetrics(null, 60000);
+        second.startMetrics(null, 60000);
+        assertEquals(1, MBEAN_SERVER.getAttribute(name, "ActiveConnections"));
+
+        // once the first server stops publishing, the name is free for the second one
+        first.stopMetrics();
+        assertFalse(MBEAN_SERVER.isRegistered(name));
+        second.stopMetrics();
+        second.startMetrics(null, 60000);
+        assertEquals(0, MBEAN_SERVER.getAttribute(name, "ActiveConnections"));
+        second.stopMetrics();
+        assertFalse(MBEAN_SERVER.isRegistered(name));
+
+    }
+
+    @Test
+    public void testStopDumpsMetrics(@TempDir Path directory) throws Exception {
+
+        Server server = new Server();
+        Path file = directory.resolve("metrics.txt");
+
+        server.startMetrics(file, 60000);
+        assertFalse(Files.exists(file));
+        server.stopMetrics();
+
+        assertTrue(Files.readAllLines(file).contains("connections.active 0"));
+
+    }
+}
@@ -0,0 +1,152 @@
+package it.polimi.ingsw.network.server;
+
+import it.polimi.ingsw.controller.GameController;
+import it.polimi.ingsw.controller.GameState;
+import it.polimi.ingsw.model.Game;
+import it.polimi.ingsw.model.GameImage;
+import it.polimi.ingsw.network.message.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ServerRecoveryTest {
+
+    private static final int GAME_ID = 3;
+
+    @TempDir
+    Path directory;
+
+    // waits until the lane of the game has run everything queued so far
+    private static void awaitLane(Server server) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        server.scheduleOnLane(GAME_ID, done::countDown, 0);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static ClientHandler login(Server server, String nickname) throws Exception {
+        ClientHandler clientHandler = new ReplayClientHandler();
+        server.addClient(nickname, clientHandler);
+        return clientHandler;
+    }
+
+    private static Game game(Server server) {
+        return server.getGameControllerMap().get(GAME_ID).getGame();
+    }
+
+    // plays the first round up to the first student move, and returns the image of the game before that move
+    private static GameImage playUntilFirstMove(Server server) throws Exception {
+        login(server, "Ludo");
+        ClientHandler samu = login(server, "Samu");
+        login(server, "Matteo");
+        server.getMessage(new CreateGameMessage("Ludo", GAME_ID, 2, false));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getGameControllerMap().get(GAME_ID) == null && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        // Samu takes a seat and leaves it before the game starts
+        server.getMessage(new JoinGameMessage("Samu", GAME_ID));
+        awaitLane(server);
+        server.onDisconnect(samu);
+        server.getMessage(new JoinGameMessage("Matteo", GAME_ID));
+        // the messages of a player are routed to their game only once their join has been handled
+        awaitLane(server);
+        server.getMessage(new WizardIDMessage("Ludo", "PINK_WIZARD"));
+        server.getMessage(new WizardIDMessage("Matteo", "BLUE_WIZARD"));
+        awaitLane(server);
+
+        String first = game(server).getCurrentPlayer().getNickname();
+        String second = first.equals("Ludo") ? "Matteo" : "Ludo";
+        server.getMessage(new AssistantCardMessage(first, "CAT"));
+        awaitLane(server);
+        // a resync does not change the game, so it is not journaled
+        server.getMessage(new ResyncRequest(second));
+        server.getMessage(new AssistantCardMessage(second, "FOX"));
+        awaitLane(server);
+        GameImage beforeMove = new GameImage(game(server).copy());
+
+        String current = game(server).getCurrentPlayer().getNickname();
+        String color = game(server).getCurrentPlayer().getSchool().getHall().getStudents().get(0).color().toString();
+        server.getMessage(new MoveToTableMessage(current, color));
+        awaitLane(server);
+        server.syncJournal();
+        return beforeMove;
+    }
+
+    private Server restart() throws Exception {
+        Server server = new Server();
+        server.enableJournal(directory, 10, 1000);
+        return server;
+    }
+
+    private static List<GameJournal.Entry> entries(Path directory) throws Exception {
+        List<GameJournal.Entry> entries = new ArrayList<>();
+        GameJournal.recover(GameJournal.list(directory).get(0), new JournalWriter(10), entries);
+        return entries;
+    }
+
+    @Test
+    public void gamesAreRebuiltFromTheirJournal() throws Exception {
+        Server original = new Server();
+        original.enableJournal(directory, 10, 1000);
+        playUntilFirstMove(original);
+
+        Server rebuilt = restart();
+
+        GameController gameController = rebuilt.getGameControllerMap().get(GAME_ID);
+        assertNotNull(gameController);
+        assertEquals(GameState.IN_GAME, gameController.getGameState());
+        assertEquals(List.of("Ludo", "Matteo"), gameController.getGameQueue().stream().sorted().toList());
+        assertTrue(new GameImage(game(rebuilt)).changesSince(new GameImage(game(original))).isEmpty());
+        assertEquals(game(original).getCurrentPlayer().getNickname(), game(rebuilt).getCurrentPlayer().getNickname());
+    }
+
+    @Test
+    public void onlyAcceptedMessagesAreJournaled() throws Exception {
+        Server original = new Server();
+        original.enableJournal(directory, 10, 1000);
+        playUntilFirstMove(original);
+
+        List<String> types = entries(directory).stream().map(entry -> entry.type() == GameJournal.EntryType.MESSAGE ?
+                entry.message().getMessageType().name() : entry.type().name()).toList();
+        assertEquals(List.of("CREATE", "JOIN_GAME", "LEAVE", "JOIN_GAME", "WIZARD_ID", "WIZARD_ID",
+                "ASSISTANT_CARD_REPLY", "ASSISTANT_CARD_REPLY", "MOVE_TO_TABLE_REPLY"), types);
+    }
+
+    @Test
+    public void tornTailIsReplayedUpToTheLastWholeEntry() throws Exception {
+        Server original = new Server();
+        original.enableJournal(directory, 10, 1000);
+        GameImage beforeMove = playUntilFirstMove(original);
+        try (RandomAccessFile raf = new RandomAccessFile(GameJournal.list(directory).get(0).toFile(), "rw")) {
+            raf.setLength(raf.length() - 2); // the crash cut the student move short
+        }
+
+        Server rebuilt = restart();
+
+        assertTrue(new GameImage(game(rebuilt)).changesSince(beforeMove).isEmpty());
+        assertFalse(new GameImage(game(rebuilt)).changesSince(new GameImage(game(original))).isEmpty());
+    }
+
+    @Test
+    public void snapshottedGamesAreRebuiltWithoutApplyingTheirMovesTwice() throws Exception {
+        Server original = new Server();
+        original.enableJournal(directory, 10, 0); // a snapshot after every move of the game
+        playUntilFirstMove(original);
+
+        assertTrue(Files.exists(directory.resolve("game-" + GAME_ID + ".snapshot")));
+        assertTrue(entries(directory).isEmpty());
+        Server rebuilt = restart();
+
+        assertEquals(GameState.IN_GAME, rebuilt.getGameControllerMap().get(GAME_ID).getGameState());
+        assertTrue(new GameImage(game(rebuilt)).changesSince(new GameImage(game(original))).isEmpty());
+        assertEquals(game(original).getRandomState(), game(rebuilt).getRandomState());
+    }
+}
@@ -0,0 +1,91 @@
+package it.polimi.ingsw.network.server;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimingWheelTest {
+
+    // advances the wheel to the given time and returns the items expired
+    private static List<String> advance(TimingWheel<String> wheel, long now) {
+        List<String> expired = new ArrayList<>();
+        wheel.advance(now, expired::add);
+        return expired;
+    }
+
+    @Test
+    public void deadlinesAreRoundedUpToTheirTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("Ludo", 250);
+
+        assertEquals(List.of(), advance(wheel, 250));
+        assertEquals(List.of(), advance(wheel, 299));
+        assertEquals(List.of("Ludo"), advance(wheel, 300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void pastDeadlinesExpireAtTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        assertEquals(List.of(), advance(wheel, 500));
+
+        wheel.schedule("Ludo", 50);
+
+        assertEquals(List.of(), advance(wheel, 550));
+        assertEquals(List.of("Ludo"), advance(wheel, 600));
+    }
+
+    @Test
+    public void deadlinesMoreThanATurnAheadWaitForTheirTurn() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 512, 0);
+        long deadline = 2 * 512 * 10 + 50;
+        wheel.schedule("Ludo", deadline);
+        wheel.schedule("Matteo", 50); // same slot, first turn
+
+        List<String> expired = new ArrayList<>();
+        for (long now = 10; now < deadline; now += 10)
+            wheel.advance(now, expired::add);
+
+        assertEquals(List.of("Matteo"), expired);
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("Ludo"), advance(wheel, deadline));
+    }
+
+    @Test
+    public void longPausesAreCaughtUpInOneTurn() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("Ludo", 30);
+        wheel.schedule("Matteo", 2000);
+        wheel.schedule("Samu", 5000);
+        wheel.schedule("Later", 20000);
+
+        List<String> expired = advance(wheel, 10000);
+
+        assertEquals(List.of("Ludo", "Matteo", "Samu"), expired.stream().sorted().toList());
+        assertEquals(1, wheel.size());
+        // the wheel goes on from the time it has caught up with
+        wheel.schedule("Next", 10050);
+        assertEquals(List.of(), advance(wheel, 10050));
+        assertEquals(List.of("Next"), advance(wheel, 10100));
+        assertEquals(List.of("Later"), advance(wheel, 20000));
+    }
+
+    @Test
+    public void itemsAreCountedBeforeReachingTheirSlot() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("Ludo", 300);
+        wheel.schedule("Matteo", 300);
+
+        assertEquals(2, wheel.size());
+        advance(wheel, 100);
+        assertEquals(2, wheel.size());
+    }
+
+    @Test
+    public void ticksAndSizesMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(0, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(100, 0, 0));
+    }
+}